@@ -2,8 +2,13 @@ package dev.inventorymanager;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is only used by the reactive read API, which builds its own pool (ReactiveApiConfig).
+// Boot's would otherwise point at a separate embedded database and take over spring.sql.init.
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class InventoryManagerApplication {
     public static void main(String[] args) {
         SpringApplication.run(InventoryManagerApplication.class, args);
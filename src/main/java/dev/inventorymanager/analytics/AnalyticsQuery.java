@@ -0,0 +1,97 @@
+package dev.inventorymanager.analytics;
+
+import dev.inventorymanager.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An aggregate query over one user's transactions: optional filters, zero or
+ * more group-by dimensions, and count / quantity / amount sums per group.
+ */
+public class AnalyticsQuery {
+
+    /** What results can be grouped by. Time dimensions bucket by calendar in the server's time zone. */
+    public enum Dimension {
+        ITEM,
+        TYPE,
+        YEAR,
+        MONTH,
+        WEEK,
+        DAY,
+        HOUR;
+
+        boolean isTime() {
+            return this != ITEM && this != TYPE;
+        }
+    }
+
+    private final List<Dimension> groupBy;
+    private final TransactionType type;
+    private final Set<Long> itemIds;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    /**
+     * @param groupBy Dimensions to group by, at most one time dimension; empty for a single total
+     * @param type Only this transaction type, or null for both
+     * @param itemIds Only these items, or empty for all
+     * @param from Inclusive lower bound on transaction date, or null
+     * @param to Exclusive upper bound on transaction date, or null
+     * @throws IllegalArgumentException if more than one time dimension is given
+     */
+    public AnalyticsQuery(List<Dimension> groupBy, TransactionType type, Set<Long> itemIds,
+                          LocalDateTime from, LocalDateTime to) {
+        List<Dimension> dims = new ArrayList<>();
+        Dimension time = null;
+        for (Dimension dimension : groupBy) {
+            if (dims.contains(dimension)) {
+                continue;
+            }
+            if (dimension.isTime()) {
+                if (time != null) {
+                    throw new IllegalArgumentException("At most one time dimension can be grouped by");
+                }
+                time = dimension;
+            }
+            dims.add(dimension);
+        }
+        this.groupBy = Collections.unmodifiableList(dims);
+        this.type = type;
+        this.itemIds = itemIds == null ? Collections.emptySet() : itemIds;
+        this.from = from;
+        this.to = to;
+    }
+
+    public List<Dimension> getGroupBy() {
+        return groupBy;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public Set<Long> getItemIds() {
+        return itemIds;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    Dimension timeDimension() {
+        for (Dimension dimension : groupBy) {
+            if (dimension.isTime()) {
+                return dimension;
+            }
+        }
+        return null;
+    }
+}
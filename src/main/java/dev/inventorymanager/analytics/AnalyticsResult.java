@@ -0,0 +1,79 @@
+package dev.inventorymanager.analytics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Answer to an {@link AnalyticsQuery}: one row per non-empty group, plus how
+ * much data was scanned and how long it took.
+ */
+public class AnalyticsResult {
+
+    /** Aggregates of one group. Keys that were not grouped by are null. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Group {
+        private final Long itemId;
+        private final String type;
+        private final String period;
+        private final long count;
+        private final long quantity;
+        private final BigDecimal amount;
+
+        Group(Long itemId, String type, String period, long count, long quantity, BigDecimal amount) {
+            this.itemId = itemId;
+            this.type = type;
+            this.period = period;
+            this.count = count;
+            this.quantity = quantity;
+            this.amount = amount;
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getPeriod() {
+            return period;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+
+    private final List<Group> groups;
+    private final long rowsScanned;
+    private final long elapsedMicros;
+
+    AnalyticsResult(List<Group> groups, long rowsScanned, long elapsedMicros) {
+        this.groups = groups;
+        this.rowsScanned = rowsScanned;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
@@ -0,0 +1,541 @@
+package dev.inventorymanager.analytics;
+
+import dev.inventorymanager.archive.TransactionArchive;
+import dev.inventorymanager.archive.TransactionColumns;
+import dev.inventorymanager.events.ItemDeletedEvent;
+import dev.inventorymanager.events.ItemsBulkUpdatedEvent;
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.events.TransactionsImportedEvent;
+import dev.inventorymanager.events.UserDeletedEvent;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Embedded analytics engine over all transactions, live and archived.
+ *
+ * Every transaction is held once in its user's {@link ColumnPartition} as a few
+ * primitive values (item code, timestamp, amount in minor units, quantity,
+ * type), about 25 bytes per row. Aggregate queries never touch the database:
+ * a query scans the user's columns in parallel contiguous ranges with tight
+ * loops over primitive arrays, accumulating into dense per-group arrays that
+ * are summed at the end.
+ *
+ * The store is loaded from the transactions table and the archive before the
+ * application starts serving requests, then kept current from
+ * {@link TransactionRecordedEvent}s. Transaction ids are dense sequence values,
+ * so a bitmap of ids already present makes loading and event delivery
+ * idempotent: a row is counted once no matter which path sees it first.
+ *
+ * Configuration:
+ * - inventory.analytics.enabled: set to false to skip loading the store
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.analytics.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsStore.class);
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final int LOAD_BATCH = 4096;
+    private static final int MAX_DENSE_GROUPS = 1 << 20;
+    private static final int MAX_PERIODS = 1_000_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionArchive archive;
+    private final ObjectProvider<JournalTransactionWriter> journalWriter;
+
+    private final Map<Long, ColumnPartition> partitions = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BitSet presentIds = new BitSet();
+    private volatile long rowCount;
+
+    public AnalyticsStore(JdbcTemplate jdbcTemplate, TransactionArchive archive,
+                          ObjectProvider<JournalTransactionWriter> journalWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+        this.journalWriter = journalWriter;
+    }
+
+    @PostConstruct
+    void load() {
+        JournalTransactionWriter writer = journalWriter.getIfAvailable();
+        if (writer != null) {
+            // Records journaled in a previous run must reach the table before it is scanned
+            writer.awaitProjected();
+        }
+        catchUp();
+    }
+
+    /**
+     * Adds every transaction in the table and the archive that is not in the store yet.
+     */
+    public void catchUp() {
+        long started = System.nanoTime();
+        long before = rowCount;
+        List<Object[]> batch = new ArrayList<>(LOAD_BATCH);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                "SELECT id, user_id, item_id, type, quantity, total_amount, transaction_date "
+                    + "FROM transactions WHERE user_id IS NOT NULL");
+            ps.setFetchSize(LOAD_BATCH);
+            return ps;
+        }, rs -> {
+            batch.add(new Object[] {
+                rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                "BUY".equals(rs.getString(4)) ? (byte) 0 : (byte) 1,
+                rs.getInt(5), Money.toMinor(rs.getBigDecimal(6)),
+                rs.getTimestamp(7).getTime()
+            });
+            if (batch.size() == LOAD_BATCH) {
+                appendBatch(batch);
+                batch.clear();
+            }
+        });
+        appendBatch(batch);
+        batch.clear();
+
+        List<Map<String, Object>> periods = jdbcTemplate.queryForList(
+            "SELECT DISTINCT user_id, period_start FROM transaction_rollups");
+        for (Map<String, Object> period : periods) {
+            long userId = ((Number) period.get("USER_ID")).longValue();
+            YearMonth month = YearMonth.from(((Date) period.get("PERIOD_START")).toLocalDate());
+            TransactionColumns columns = archive.read(userId, month);
+            for (int i = 0; i < columns.size(); i++) {
+                batch.add(new Object[] {
+                    columns.idAt(i), userId, columns.itemIdAt(i),
+                    columns.typeAt(i) == TransactionType.BUY ? (byte) 0 : (byte) 1,
+                    columns.quantityAt(i), Money.toMinor(columns.totalAmountAt(i)),
+                    Timestamp.valueOf(columns.transactionDateAt(i)).getTime()
+                });
+                if (batch.size() == LOAD_BATCH) {
+                    appendBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        appendBatch(batch);
+        log.info("Analytics store loaded {} transactions in {} ms ({} total)", rowCount - before,
+            (System.nanoTime() - started) / 1_000_000, rowCount);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        writeLock.lock();
+        try {
+            append(event.getTransactionId(), event.getUserId(), event.getItemId(),
+                event.getType() == TransactionType.BUY ? (byte) 0 : (byte) 1, event.getQuantity(),
+                event.getTotalAmountMinor(),
+                event.getTransactionDate().atZone(ZONE).toInstant().toEpochMilli());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkUpdated(ItemsBulkUpdatedEvent event) {
+        if (event.getAdjustments().isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            for (TransactionRecordedEvent adjustment : event.getAdjustments()) {
+                onTransactionRecorded(adjustment);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        writeLock.lock();
+        try {
+            ColumnPartition partition = partitions.get(event.getUserId());
+            if (partition != null) {
+                partition.markDeleted(event.getItemId());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        writeLock.lock();
+        try {
+            ColumnPartition partition = partitions.remove(event.getUserId());
+            if (partition != null) {
+                rowCount -= partition.size();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        catchUp();
+    }
+
+    /**
+     * @return Number of transactions held in the store
+     */
+    public long size() {
+        return rowCount;
+    }
+
+    /**
+     * Runs an aggregate query over one user's transactions.
+     *
+     * @throws IllegalArgumentException if the query would produce too many periods
+     */
+    public AnalyticsResult query(long userId, AnalyticsQuery query) {
+        long started = System.nanoTime();
+        ColumnPartition partition = partitions.get(userId);
+        if (partition == null || partition.size() == 0) {
+            return new AnalyticsResult(new ArrayList<>(), 0, (System.nanoTime() - started) / 1000);
+        }
+        Scan scan = new Scan(partition, query);
+        int chunkCount = (scan.size + ColumnPartition.CHUNK_MASK) >>> ColumnPartition.CHUNK_SHIFT;
+        int tasks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), chunkCount));
+
+        Accumulator total = IntStream.range(0, tasks).parallel()
+            .mapToObj(task -> scan.run(chunkCount * task / tasks, chunkCount * (task + 1) / tasks))
+            .reduce(Accumulator::merge)
+            .orElseGet(scan::newAccumulator);
+        return new AnalyticsResult(scan.toGroups(total), scan.size, (System.nanoTime() - started) / 1000);
+    }
+
+    private void appendBatch(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            for (Object[] row : rows) {
+                append((Long) row[0], (Long) row[1], (Long) row[2], (Byte) row[3], (Integer) row[4],
+                    (Long) row[5], (Long) row[6]);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Callers hold the write lock. */
+    private void append(long id, long userId, long itemId, byte type, int quantity, long amountMinor, long epochMillis) {
+        if (id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Transaction id " + id + " exceeds the analytics id bitmap");
+        }
+        if (presentIds.get((int) id)) {
+            return;
+        }
+        presentIds.set((int) id);
+        partitions.computeIfAbsent(userId, u -> new ColumnPartition())
+            .append(itemId, type, quantity, amountMinor, epochMillis);
+        rowCount++;
+    }
+
+    /** Per-task group totals: either dense arrays indexed by group key, or a map for huge key spaces. */
+    private static final class Accumulator {
+        final long[] count;
+        final long[] quantity;
+        final long[] amount;
+        final Map<Long, long[]> sparse;
+
+        Accumulator(int groups, boolean dense) {
+            if (dense) {
+                count = new long[groups];
+                quantity = new long[groups];
+                amount = new long[groups];
+                sparse = null;
+            } else {
+                count = null;
+                quantity = null;
+                amount = null;
+                sparse = new HashMap<>();
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            if (sparse == null) {
+                for (int i = 0; i < count.length; i++) {
+                    count[i] += other.count[i];
+                    quantity[i] += other.quantity[i];
+                    amount[i] += other.amount[i];
+                }
+            } else {
+                other.sparse.forEach((key, totals) -> {
+                    long[] mine = sparse.computeIfAbsent(key, k -> new long[3]);
+                    mine[0] += totals[0];
+                    mine[1] += totals[1];
+                    mine[2] += totals[2];
+                });
+            }
+            return this;
+        }
+    }
+
+    /**
+     * A query bound to a consistent view of one partition: rows below the size read
+     * at construction, plus the filters and group key layout derived from the query.
+     */
+    private static final class Scan {
+        final int size;
+        final ColumnPartition.Chunk[] chunks;
+        final long[] itemIds;
+        final boolean[] includeItem;
+        final long fromMillis;
+        final long toMillis;
+        final int typeFilter;
+
+        final AnalyticsQuery.Dimension timeDimension;
+        final long[] periodStarts;
+        final long itemStride;
+        final long typeStride;
+        final long periodStride;
+        final long groupCount;
+        final boolean dense;
+
+        Scan(ColumnPartition partition, AnalyticsQuery query) {
+            // Order matters: size first, so every column and item code below it is visible
+            size = partition.size();
+            chunks = partition.chunks();
+            int itemCount = partition.itemCount();
+            itemIds = partition.itemIdsSnapshot();
+            BitSet deleted = partition.deletedItems();
+
+            includeItem = new boolean[itemCount];
+            for (int code = 0; code < itemCount; code++) {
+                includeItem[code] = !deleted.get(code)
+                    && (query.getItemIds().isEmpty() || query.getItemIds().contains(itemIds[code]));
+            }
+            fromMillis = query.getFrom() == null ? Long.MIN_VALUE : query.getFrom().atZone(ZONE).toInstant().toEpochMilli();
+            toMillis = query.getTo() == null ? Long.MAX_VALUE : query.getTo().atZone(ZONE).toInstant().toEpochMilli();
+            typeFilter = query.getType() == null ? -1 : (query.getType() == TransactionType.BUY ? 0 : 1);
+
+            timeDimension = query.timeDimension();
+            periodStarts = timeDimension == null ? new long[] {Long.MIN_VALUE}
+                : periodStarts(timeDimension, Math.max(fromMillis, partition.minMillis()),
+                    Math.min(toMillis - 1, partition.maxMillis()));
+
+            long stride = 1;
+            long item = 0;
+            long type = 0;
+            long period = 0;
+            for (AnalyticsQuery.Dimension dimension : reversed(query.getGroupBy())) {
+                if (dimension == AnalyticsQuery.Dimension.ITEM) {
+                    item = stride;
+                    stride *= Math.max(1, itemCount);
+                } else if (dimension == AnalyticsQuery.Dimension.TYPE) {
+                    type = stride;
+                    stride *= 2;
+                } else {
+                    period = stride;
+                    stride *= periodStarts.length;
+                }
+            }
+            itemStride = item;
+            typeStride = type;
+            periodStride = period;
+            groupCount = stride;
+            dense = groupCount <= MAX_DENSE_GROUPS;
+        }
+
+        Accumulator newAccumulator() {
+            return new Accumulator((int) Math.min(groupCount, MAX_DENSE_GROUPS), dense);
+        }
+
+        Accumulator run(int firstChunk, int endChunk) {
+            Accumulator acc = newAccumulator();
+            int lastPeriod = 0;
+            for (int c = firstChunk; c < endChunk; c++) {
+                ColumnPartition.Chunk chunk = chunks[c];
+                int rows = Math.min(ColumnPartition.CHUNK_SIZE, size - (c << ColumnPartition.CHUNK_SHIFT));
+                int[] codes = chunk.itemCodes;
+                long[] times = chunk.epochMillis;
+                long[] amounts = chunk.amountMinor;
+                int[] quantities = chunk.quantities;
+                byte[] types = chunk.types;
+                for (int i = 0; i < rows; i++) {
+                    int code = codes[i];
+                    long time = times[i];
+                    byte type = types[i];
+                    if (!includeItem[code] || time < fromMillis || time >= toMillis
+                        || (typeFilter >= 0 && type != typeFilter)) {
+                        continue;
+                    }
+                    long key = code * itemStride + type * typeStride;
+                    if (periodStride != 0) {
+                        lastPeriod = periodOf(time, lastPeriod);
+                        key += lastPeriod * periodStride;
+                    }
+                    if (dense) {
+                        int k = (int) key;
+                        acc.count[k]++;
+                        acc.quantity[k] += quantities[i];
+                        acc.amount[k] += amounts[i];
+                    } else {
+                        long[] totals = acc.sparse.computeIfAbsent(key, x -> new long[3]);
+                        totals[0]++;
+                        totals[1] += quantities[i];
+                        totals[2] += amounts[i];
+                    }
+                }
+            }
+            return acc;
+        }
+
+        /** Rows are appended roughly in time order, so the previous row's period is usually right. */
+        private int periodOf(long time, int hint) {
+            if (time >= periodStarts[hint] && (hint + 1 == periodStarts.length || time < periodStarts[hint + 1])) {
+                return hint;
+            }
+            int low = 0;
+            int high = periodStarts.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (periodStarts[mid] <= time) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        List<AnalyticsResult.Group> toGroups(Accumulator acc) {
+            Map<Long, long[]> totals = new TreeMap<>();
+            if (acc.sparse != null) {
+                totals.putAll(acc.sparse);
+            } else {
+                for (int k = 0; k < acc.count.length; k++) {
+                    if (acc.count[k] > 0) {
+                        totals.put((long) k, new long[] {acc.count[k], acc.quantity[k], acc.amount[k]});
+                    }
+                }
+            }
+            DateTimeFormatter format = periodFormat(timeDimension);
+            List<AnalyticsResult.Group> groups = new ArrayList<>(totals.size());
+            for (Map.Entry<Long, long[]> entry : totals.entrySet()) {
+                long key = entry.getKey();
+                Long itemId = itemStride == 0 ? null : itemIds[(int) ((key / itemStride) % Math.max(1, includeItem.length))];
+                String type = typeStride == 0 ? null : ((key / typeStride) % 2 == 0 ? "BUY" : "SELL");
+                String period = null;
+                if (periodStride != 0) {
+                    int index = (int) ((key / periodStride) % periodStarts.length);
+                    period = format.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(periodStarts[index]), ZONE));
+                }
+                long[] values = entry.getValue();
+                groups.add(new AnalyticsResult.Group(itemId, type, period, values[0], values[1],
+                    Money.toDecimal(values[2])));
+            }
+            return groups;
+        }
+
+        private static long[] periodStarts(AnalyticsQuery.Dimension dimension, long fromMillis, long toMillis) {
+            if (fromMillis > toMillis) {
+                return new long[] {Long.MIN_VALUE};
+            }
+            LocalDateTime cursor = truncate(dimension, LocalDateTime.ofInstant(Instant.ofEpochMilli(fromMillis), ZONE));
+            LocalDateTime end = LocalDateTime.ofInstant(Instant.ofEpochMilli(toMillis), ZONE);
+            List<Long> starts = new ArrayList<>();
+            while (!cursor.isAfter(end)) {
+                if (starts.size() == MAX_PERIODS) {
+                    throw new IllegalArgumentException("Too many periods; narrow the date range or use a coarser period");
+                }
+                starts.add(cursor.atZone(ZONE).toInstant().toEpochMilli());
+                cursor = next(dimension, cursor);
+            }
+            long[] result = new long[starts.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = starts.get(i);
+            }
+            return result;
+        }
+
+        private static LocalDateTime truncate(AnalyticsQuery.Dimension dimension, LocalDateTime time) {
+            switch (dimension) {
+                case YEAR:
+                    return time.toLocalDate().withDayOfYear(1).atStartOfDay();
+                case MONTH:
+                    return time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+                case WEEK:
+                    return time.toLocalDate().with(DayOfWeek.MONDAY).atStartOfDay();
+                case DAY:
+                    return time.toLocalDate().atStartOfDay();
+                default:
+                    return time.truncatedTo(ChronoUnit.HOURS);
+            }
+        }
+
+        private static LocalDateTime next(AnalyticsQuery.Dimension dimension, LocalDateTime time) {
+            switch (dimension) {
+                case YEAR:
+                    return time.plusYears(1);
+                case MONTH:
+                    return time.plusMonths(1);
+                case WEEK:
+                    return time.plusWeeks(1);
+                case DAY:
+                    return time.plusDays(1);
+                default:
+                    return time.plusHours(1);
+            }
+        }
+
+        private static DateTimeFormatter periodFormat(AnalyticsQuery.Dimension dimension) {
+            if (dimension == null) {
+                return null;
+            }
+            switch (dimension) {
+                case YEAR:
+                    return DateTimeFormatter.ofPattern("yyyy");
+                case MONTH:
+                    return DateTimeFormatter.ofPattern("yyyy-MM");
+                case WEEK:
+                case DAY:
+                    return DateTimeFormatter.ISO_LOCAL_DATE;
+                default:
+                    return DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00");
+            }
+        }
+
+        private static List<AnalyticsQuery.Dimension> reversed(List<AnalyticsQuery.Dimension> dims) {
+            List<AnalyticsQuery.Dimension> copy = new ArrayList<>(dims);
+            Collections.reverse(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dev.inventorymanager.analytics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One user's transactions as primitive column arrays.
+ *
+ * Rows live in fixed-size chunks so appending never copies existing data and
+ * scans can be split across threads on chunk boundaries. Item ids are
+ * dictionary-encoded to dense int codes, which also makes them usable as
+ * array indexes when grouping.
+ *
+ * Single writer (callers hold the store's write lock), many lock-free readers:
+ * a row's columns are filled before {@code size} is advanced, and readers only
+ * look at rows below the size they read.
+ */
+final class ColumnPartition {
+
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /** Columns of one chunk. */
+    static final class Chunk {
+        final int[] itemCodes = new int[CHUNK_SIZE];
+        final long[] epochMillis = new long[CHUNK_SIZE];
+        final long[] amountMinor = new long[CHUNK_SIZE];
+        final int[] quantities = new int[CHUNK_SIZE];
+        final byte[] types = new byte[CHUNK_SIZE];
+    }
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+
+    private final Map<Long, Integer> itemCodes = new HashMap<>();
+    private volatile long[] itemIds = new long[16];
+    private volatile int itemCount;
+
+    /** Codes of deleted items; replaced, never mutated, so readers can use it without locking. */
+    private volatile BitSet deletedItems = new BitSet();
+
+    private volatile long minMillis = Long.MAX_VALUE;
+    private volatile long maxMillis = Long.MIN_VALUE;
+
+    void append(long itemId, byte type, int quantity, long amountMinor, long epochMillis) {
+        int row = size;
+        int chunkIndex = row >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[chunkIndex] = new Chunk();
+            chunks = current;
+        }
+        Chunk chunk = current[chunkIndex];
+        int offset = row & CHUNK_MASK;
+        chunk.itemCodes[offset] = codeFor(itemId);
+        chunk.epochMillis[offset] = epochMillis;
+        chunk.amountMinor[offset] = amountMinor;
+        chunk.quantities[offset] = quantity;
+        chunk.types[offset] = type;
+        if (epochMillis < minMillis) {
+            minMillis = epochMillis;
+        }
+        if (epochMillis > maxMillis) {
+            maxMillis = epochMillis;
+        }
+        size = row + 1;
+    }
+
+    void markDeleted(long itemId) {
+        Integer code = itemCodes.get(itemId);
+        if (code != null) {
+            BitSet copy = (BitSet) deletedItems.clone();
+            copy.set(code);
+            deletedItems = copy;
+        }
+    }
+
+    private int codeFor(long itemId) {
+        Integer code = itemCodes.get(itemId);
+        if (code != null) {
+            return code;
+        }
+        int next = itemCount;
+        long[] ids = itemIds;
+        if (next == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[next] = itemId;
+        itemIds = ids;
+        itemCodes.put(itemId, next);
+        itemCount = next + 1;
+        return next;
+    }
+
+    /**
+     * @return The item's code, or -1 if the partition has no rows for it. Writer side only
+     *         or under the store's lock; readers use {@link #itemIdsSnapshot()}.
+     */
+    int codeOf(long itemId) {
+        Integer code = itemCodes.get(itemId);
+        return code == null ? -1 : code;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Chunk[] chunks() {
+        return chunks;
+    }
+
+    int itemCount() {
+        return itemCount;
+    }
+
+    long[] itemIdsSnapshot() {
+        return itemIds;
+    }
+
+    BitSet deletedItems() {
+        return deletedItems;
+    }
+
+    long minMillis() {
+        return minMillis;
+    }
+
+    long maxMillis() {
+        return maxMillis;
+    }
+}
@@ -0,0 +1,168 @@
+package dev.inventorymanager.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding of one archive file.
+ *
+ * The file is a GZIP stream holding a small header followed by each column in
+ * turn:
+ * <pre>
+ * int    magic ("TXA1")
+ * varint rowCount
+ * ids              zigzag varlong deltas
+ * itemIds          zigzag varlong deltas
+ * types            1 byte per row
+ * statuses         1 byte per row (-1 = null)
+ * quantities       zigzag varint
+ * priceUnscaled    zigzag varlong
+ * priceScales      1 byte per row
+ * dateMillis       zigzag varlong deltas
+ * inventoryBefore  zigzag varint
+ * inventoryAfter   zigzag varint
+ * notes            varint (byteLength + 1, 0 = null) followed by UTF-8 bytes
+ * </pre>
+ * Storing a column's values next to each other (and dates and ids as
+ * deltas) is what lets GZIP shrink a month of history to a few bytes per row.
+ */
+final class ColumnarArchiveFile {
+
+    private static final int MAGIC = 0x54584131;
+
+    private ColumnarArchiveFile() {
+    }
+
+    static void write(TransactionColumns columns, OutputStream target) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(target, 1 << 16);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip, 1 << 16));
+        int n = columns.size;
+        out.writeInt(MAGIC);
+        writeVarLong(out, n);
+
+        writeDeltas(out, columns.ids, n);
+        writeDeltas(out, columns.itemIds, n);
+        out.write(columns.types, 0, n);
+        out.write(columns.statuses, 0, n);
+        for (int i = 0; i < n; i++) {
+            writeVarLong(out, zigzag(columns.quantities[i]));
+        }
+        for (int i = 0; i < n; i++) {
+            writeVarLong(out, zigzag(columns.priceUnscaled[i]));
+        }
+        out.write(columns.priceScales, 0, n);
+        writeDeltas(out, columns.dateMillis, n);
+        for (int i = 0; i < n; i++) {
+            writeVarLong(out, zigzag(columns.inventoryBefore[i]));
+        }
+        for (int i = 0; i < n; i++) {
+            writeVarLong(out, zigzag(columns.inventoryAfter[i]));
+        }
+        for (int i = 0; i < n; i++) {
+            String note = columns.notes[i];
+            if (note == null) {
+                writeVarLong(out, 0);
+            } else {
+                byte[] bytes = note.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length + 1L);
+                out.write(bytes);
+            }
+        }
+        out.flush();
+        gzip.finish();
+    }
+
+    static TransactionColumns read(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(source, 1 << 16), 1 << 16));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a transaction archive file");
+        }
+        int n = (int) readVarLong(in);
+        TransactionColumns columns = new TransactionColumns(n);
+
+        readDeltas(in, columns.ids, n);
+        readDeltas(in, columns.itemIds, n);
+        in.readFully(columns.types, 0, n);
+        in.readFully(columns.statuses, 0, n);
+        for (int i = 0; i < n; i++) {
+            columns.quantities[i] = (int) unzigzag(readVarLong(in));
+        }
+        for (int i = 0; i < n; i++) {
+            columns.priceUnscaled[i] = unzigzag(readVarLong(in));
+        }
+        in.readFully(columns.priceScales, 0, n);
+        readDeltas(in, columns.dateMillis, n);
+        for (int i = 0; i < n; i++) {
+            columns.inventoryBefore[i] = (int) unzigzag(readVarLong(in));
+        }
+        for (int i = 0; i < n; i++) {
+            columns.inventoryAfter[i] = (int) unzigzag(readVarLong(in));
+        }
+        for (int i = 0; i < n; i++) {
+            int length = (int) readVarLong(in);
+            if (length > 0) {
+                byte[] bytes = new byte[length - 1];
+                in.readFully(bytes);
+                columns.notes[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        columns.size = n;
+        return columns;
+    }
+
+    private static void writeDeltas(DataOutputStream out, long[] values, int n) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            writeVarLong(out, zigzag(values[i] - previous));
+            previous = values[i];
+        }
+    }
+
+    private static void readDeltas(DataInputStream in, long[] values, int n) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            previous += unzigzag(readVarLong(in));
+            values[i] = previous;
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated archive file");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint in archive file");
+    }
+}
@@ -0,0 +1,123 @@
+package dev.inventorymanager.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+
+/**
+ * On-disk layout of the transaction archive.
+ *
+ * One file per user and month: {@code <dir>/user-<userId>/<yyyy-MM>.txa.gz},
+ * in the format described by {@link ColumnarArchiveFile}. Files are replaced
+ * atomically (write to a temporary file, fsync, rename), so readers see either
+ * the old or the new contents of a month and never a partial file.
+ *
+ * Configuration:
+ * - inventory.archive.dir: root directory of the archive
+ */
+@Component
+public class TransactionArchive {
+
+    private static final String SUFFIX = ".txa.gz";
+
+    private final Path root;
+
+    public TransactionArchive(@Value("${inventory.archive.dir:./data/archive}") String directory) {
+        this.root = Paths.get(directory);
+    }
+
+    /**
+     * @return The archived rows of one month, or an empty set if the month is not archived
+     */
+    public TransactionColumns read(long userId, YearMonth month) {
+        Path file = file(userId, month);
+        if (!Files.exists(file)) {
+            return new TransactionColumns();
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return ColumnarArchiveFile.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive file " + file, e);
+        }
+    }
+
+    /**
+     * Replaces the archived rows of one month.
+     */
+    public void write(long userId, YearMonth month, TransactionColumns columns) throws IOException {
+        Path file = file(userId, month);
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            ColumnarArchiveFile.write(columns, out);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return Size on disk of one month's file, or 0 if it does not exist
+     */
+    public long sizeOf(long userId, YearMonth month) {
+        try {
+            Path file = file(userId, month);
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes one archived month, if it exists.
+     */
+    public void delete(long userId, YearMonth month) throws IOException {
+        Files.deleteIfExists(file(userId, month));
+    }
+
+    /**
+     * Deletes every archived month of one user.
+     *
+     * @return Number of month files deleted
+     */
+    public int deleteUser(long userId) throws IOException {
+        Path dir = userDir(userId);
+        if (!Files.exists(dir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(SUFFIX)) {
+                    deleted++;
+                }
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+        return deleted;
+    }
+
+    private Path userDir(long userId) {
+        return root.resolve("user-" + userId);
+    }
+
+    private Path file(long userId, YearMonth month) {
+        return userDir(userId).resolve(month + SUFFIX);
+    }
+}
@@ -0,0 +1,274 @@
+package dev.inventorymanager.archive;
+
+import dev.inventorymanager.model.TransactionRollup;
+import dev.inventorymanager.model.TransactionStatus;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.TransactionRollupRepository;
+import dev.inventorymanager.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves old transactions out of the transactions table into the archive.
+ *
+ * Works one user and one whole month at a time, oldest first:
+ * 1. Reads the month's rows from the table (via the user/date index)
+ * 2. Merges them into the month's archive file and replaces the file atomically
+ * 3. In one database transaction, recomputes the month's TransactionRollup rows
+ *    from the file and deletes the archived rows from the table
+ *
+ * The file is durable before any row is deleted. If a run dies between steps 2
+ * and 3, the rows are still in the table and the month has no rollups, so the
+ * next run rewrites the file from the table. When a month is archived again
+ * (rows dated into it after an earlier run), the merge skips ids already in
+ * the file, so nothing is duplicated.
+ *
+ * Only whole months before the retention window are archived, so a month is
+ * normally archived exactly once.
+ *
+ * Deleting an item removes its rows from the archived months too (see
+ * {@link #purgeItems}): each affected file is rewritten without them and the
+ * month's rollups are recomputed, so history and totals no longer count it.
+ *
+ * Configuration:
+ * - inventory.archive.enabled: whether the scheduled run does anything
+ * - inventory.archive.retention-months: months of history kept in the table (besides the current one)
+ * - inventory.archive.cron: schedule of the nightly run
+ * - inventory.archive.delete-batch-size: rows deleted per statement batch
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private static final String SELECT_MONTH =
+        "SELECT id, item_id, type, status, quantity, price_per_unit, transaction_date, "
+            + "inventory_before, inventory_after, notes FROM transactions "
+            + "WHERE user_id = ? AND transaction_date >= ? AND transaction_date < ?";
+
+    private final TransactionArchive archive;
+    private final TransactionRollupRepository rollupRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Value("${inventory.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${inventory.archive.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    public TransactionArchiver(TransactionArchive archive, TransactionRollupRepository rollupRepository,
+                               UserRepository userRepository, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.archive = archive;
+        this.rollupRepository = rollupRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${inventory.archive.cron:0 30 3 * * *}")
+    public void archiveOnSchedule() {
+        if (enabled) {
+            archiveBefore(defaultCutoff());
+        }
+    }
+
+    /**
+     * @return First day of the oldest month that stays in the transactions table
+     */
+    public YearMonth defaultCutoff() {
+        return YearMonth.now().minusMonths(retentionMonths);
+    }
+
+    /**
+     * Archives every user's transactions dated before the given month.
+     *
+     * @param cutoff First month that is kept in the table
+     * @return Number of rows moved to the archive
+     * @throws IllegalStateException if another run is in progress
+     */
+    public long archiveBefore(YearMonth cutoff) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Archival is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            long moved = 0;
+            List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+            for (Long userId : userIds) {
+                moved += archiveUser(userId, cutoff);
+            }
+            log.info("Archived {} transactions older than {} in {} ms", moved, cutoff,
+                (System.nanoTime() - started) / 1_000_000);
+            return moved;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private long archiveUser(long userId, YearMonth cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+            "SELECT MIN(transaction_date) FROM transactions WHERE user_id = ? AND transaction_date < ?",
+            Timestamp.class, userId, Timestamp.valueOf(cutoff.atDay(1).atStartOfDay()));
+        if (oldest == null) {
+            return 0;
+        }
+        long moved = 0;
+        for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); month.isBefore(cutoff);
+             month = month.plusMonths(1)) {
+            moved += archiveMonth(userId, month);
+        }
+        return moved;
+    }
+
+    /**
+     * Removes deleted items' rows from a user's archived months and recomputes
+     * the rollups of every month that had some. Waits for a running archival,
+     * which could otherwise rewrite a month from its old file.
+     *
+     * A month left empty loses its rollups before its file, so readers, which
+     * list months from the rollups, never look for a missing file.
+     *
+     * @return Number of archived rows removed
+     */
+    public long purgeItems(long userId, Collection<Long> itemIds) {
+        Set<Long> removed = new HashSet<>(itemIds);
+        running.lock();
+        try {
+            long purged = 0;
+            List<LocalDate> periods = jdbcTemplate.queryForList(
+                "SELECT DISTINCT period_start FROM transaction_rollups WHERE user_id = ?", LocalDate.class, userId);
+            for (LocalDate periodStart : periods) {
+                YearMonth month = YearMonth.from(periodStart);
+                TransactionColumns archived = archive.read(userId, month);
+                TransactionColumns kept = archived.withoutItems(removed);
+                if (kept.size() == archived.size()) {
+                    continue;
+                }
+                try {
+                    if (kept.size() == 0) {
+                        jdbcTemplate.update("DELETE FROM transaction_rollups WHERE user_id = ? AND period_start = ?",
+                            userId, periodStart);
+                        archive.delete(userId, month);
+                    } else {
+                        archive.write(userId, month, kept);
+                        User user = userRepository.getReferenceById(userId);
+                        transactionTemplate.executeWithoutResult(status -> replaceRollups(user, periodStart, kept));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not rewrite archive for user " + userId + ", " + month, e);
+                }
+                purged += archived.size() - kept.size();
+            }
+            return purged;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private long archiveMonth(long userId, YearMonth month) {
+        TransactionColumns fresh = new TransactionColumns();
+        jdbcTemplate.query(SELECT_MONTH, rs -> {
+            String status = rs.getString("status");
+            fresh.add(
+                rs.getLong("id"),
+                rs.getLong("item_id"),
+                TransactionType.valueOf(rs.getString("type")),
+                status == null ? null : TransactionStatus.valueOf(status),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("price_per_unit"),
+                rs.getTimestamp("transaction_date").toLocalDateTime(),
+                (Integer) rs.getObject("inventory_before"),
+                (Integer) rs.getObject("inventory_after"),
+                rs.getString("notes"));
+        }, userId, Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+            Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+        if (fresh.size() == 0) {
+            return 0;
+        }
+
+        // Without rollups the month was never committed; a file there is left over from an
+        // interrupted run (whose rows are all still in the table) or from an earlier database
+        User user = userRepository.getReferenceById(userId);
+        boolean committed = !rollupRepository.findByUserAndPeriodStart(user, month.atDay(1)).isEmpty();
+        TransactionColumns merged = committed ? archive.read(userId, month) : new TransactionColumns();
+        merged.mergeFrom(fresh);
+        try {
+            archive.write(userId, month, merged.sortedByDate());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive for user " + userId + ", " + month, e);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            replaceRollups(user, month.atDay(1), merged);
+            List<Object[]> ids = new ArrayList<>(deleteBatchSize);
+            for (int i = 0; i < fresh.size(); i++) {
+                ids.add(new Object[] {fresh.idAt(i)});
+                if (ids.size() == deleteBatchSize) {
+                    jdbcTemplate.batchUpdate("DELETE FROM transactions WHERE id = ?", ids);
+                    ids.clear();
+                }
+            }
+            if (!ids.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM transactions WHERE id = ?", ids);
+            }
+        });
+        log.debug("Archived {} transactions of user {} for {} ({} bytes on disk)",
+            fresh.size(), userId, month, archive.sizeOf(userId, month));
+        return fresh.size();
+    }
+
+    private void replaceRollups(User user, LocalDate periodStart, TransactionColumns rows) {
+        Map<TransactionType, TransactionRollup> rollups = new EnumMap<>(TransactionType.class);
+        for (TransactionRollup existing : rollupRepository.findByUserAndPeriodStart(user, periodStart)) {
+            existing.setTransactionCount(0L);
+            existing.setTotalQuantity(0L);
+            existing.setTotalAmount(BigDecimal.ZERO);
+            rollups.put(existing.getType(), existing);
+        }
+        Map<TransactionType, long[]> counts = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            TransactionType type = rows.typeAt(i);
+            TransactionRollup rollup = rollups.computeIfAbsent(type, t -> new TransactionRollup(user, periodStart, t));
+            long[] c = counts.computeIfAbsent(type, t -> new long[2]);
+            c[0]++;
+            c[1] += rows.quantityAt(i);
+            rollup.setTotalAmount(rollup.getTotalAmount().add(rows.totalAmountAt(i)));
+        }
+        for (Map.Entry<TransactionType, long[]> entry : counts.entrySet()) {
+            TransactionRollup rollup = rollups.get(entry.getKey());
+            rollup.setTransactionCount(entry.getValue()[0]);
+            rollup.setTotalQuantity(entry.getValue()[1]);
+        }
+        rollupRepository.saveAll(rollups.values());
+    }
+}
@@ -0,0 +1,222 @@
+package dev.inventorymanager.archive;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionStatus;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Archived transactions of one user and month, held column by column.
+ *
+ * This is the in-memory form of an archive file: one primitive array per
+ * field instead of one object per row, which is what makes the files compress
+ * well and lets readers filter on a single column (e.g. item id) without
+ * materializing rows that do not match.
+ */
+public final class TransactionColumns {
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    long[] ids;
+    long[] itemIds;
+    byte[] types;
+    byte[] statuses;
+    int[] quantities;
+    long[] priceUnscaled;
+    byte[] priceScales;
+    long[] dateMillis;
+    int[] inventoryBefore;
+    int[] inventoryAfter;
+    String[] notes;
+    int size;
+
+    public TransactionColumns() {
+        this(64);
+    }
+
+    TransactionColumns(int capacity) {
+        allocate(Math.max(capacity, 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long idAt(int row) {
+        return ids[row];
+    }
+
+    public long itemIdAt(int row) {
+        return itemIds[row];
+    }
+
+    public TransactionType typeAt(int row) {
+        return types[row] == 0 ? TransactionType.BUY : TransactionType.SELL;
+    }
+
+    public int quantityAt(int row) {
+        return quantities[row];
+    }
+
+    public BigDecimal pricePerUnitAt(int row) {
+        return BigDecimal.valueOf(priceUnscaled[row], priceScales[row]);
+    }
+
+    public BigDecimal totalAmountAt(int row) {
+        return pricePerUnitAt(row).multiply(BigDecimal.valueOf(quantities[row]));
+    }
+
+    public LocalDateTime transactionDateAt(int row) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(dateMillis[row]), ZONE);
+    }
+
+    /**
+     * Appends one row.
+     */
+    public void add(long id, long itemId, TransactionType type, TransactionStatus status, int quantity,
+                    BigDecimal pricePerUnit, LocalDateTime transactionDate, Integer before, Integer after,
+                    String note) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        itemIds[size] = itemId;
+        types[size] = (byte) (type == TransactionType.BUY ? 0 : 1);
+        statuses[size] = (byte) (status == null ? -1 : status.ordinal());
+        quantities[size] = quantity;
+        priceUnscaled[size] = pricePerUnit.unscaledValue().longValueExact();
+        priceScales[size] = (byte) pricePerUnit.scale();
+        dateMillis[size] = transactionDate.atZone(ZONE).toInstant().toEpochMilli();
+        inventoryBefore[size] = before == null ? Integer.MIN_VALUE : before;
+        inventoryAfter[size] = after == null ? Integer.MIN_VALUE : after;
+        notes[size] = note;
+        size++;
+    }
+
+    /**
+     * Appends the rows of {@code other} whose ids are not already present.
+     * Re-archiving after an interrupted run therefore never duplicates rows.
+     */
+    public void mergeFrom(TransactionColumns other) {
+        Set<Long> present = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            present.add(ids[i]);
+        }
+        for (int i = 0; i < other.size; i++) {
+            if (present.add(other.ids[i])) {
+                copyRow(other, i);
+            }
+        }
+    }
+
+    /**
+     * @return A copy without the rows of the given items, in the same order
+     */
+    public TransactionColumns withoutItems(Set<Long> removed) {
+        TransactionColumns kept = new TransactionColumns(size);
+        for (int i = 0; i < size; i++) {
+            if (!removed.contains(itemIds[i])) {
+                kept.copyRow(this, i);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @return A copy with rows ordered by transaction date, then id
+     */
+    public TransactionColumns sortedByDate() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> dateMillis[a] != dateMillis[b]
+            ? Long.compare(dateMillis[a], dateMillis[b])
+            : Long.compare(ids[a], ids[b]));
+        TransactionColumns sorted = new TransactionColumns(size);
+        for (int row : order) {
+            sorted.copyRow(this, row);
+        }
+        return sorted;
+    }
+
+    /**
+     * Materializes one row as an unmanaged Transaction.
+     *
+     * @param items Items by id; rows whose item no longer exists get a placeholder carrying only the id
+     */
+    public Transaction toTransaction(int row, User user, Map<Long, Item> items) {
+        Item item = items.get(itemIds[row]);
+        if (item == null) {
+            item = new Item();
+            item.setId(itemIds[row]);
+        }
+        Transaction transaction = new Transaction(item, typeAt(row), quantities[row], pricePerUnitAt(row));
+        transaction.setId(ids[row]);
+        transaction.setUser(user);
+        transaction.setStatus(statuses[row] < 0 ? null : STATUSES[statuses[row]]);
+        transaction.setTransactionDate(transactionDateAt(row));
+        transaction.setInventoryBefore(inventoryBefore[row] == Integer.MIN_VALUE ? null : inventoryBefore[row]);
+        transaction.setInventoryAfter(inventoryAfter[row] == Integer.MIN_VALUE ? null : inventoryAfter[row]);
+        transaction.setNotes(notes[row]);
+        return transaction;
+    }
+
+    private void copyRow(TransactionColumns from, int row) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = from.ids[row];
+        itemIds[size] = from.itemIds[row];
+        types[size] = from.types[row];
+        statuses[size] = from.statuses[row];
+        quantities[size] = from.quantities[row];
+        priceUnscaled[size] = from.priceUnscaled[row];
+        priceScales[size] = from.priceScales[row];
+        dateMillis[size] = from.dateMillis[row];
+        inventoryBefore[size] = from.inventoryBefore[row];
+        inventoryAfter[size] = from.inventoryAfter[row];
+        notes[size] = from.notes[row];
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        itemIds = new long[capacity];
+        types = new byte[capacity];
+        statuses = new byte[capacity];
+        quantities = new int[capacity];
+        priceUnscaled = new long[capacity];
+        priceScales = new byte[capacity];
+        dateMillis = new long[capacity];
+        inventoryBefore = new int[capacity];
+        inventoryAfter = new int[capacity];
+        notes = new String[capacity];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        itemIds = Arrays.copyOf(itemIds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        priceUnscaled = Arrays.copyOf(priceUnscaled, capacity);
+        priceScales = Arrays.copyOf(priceScales, capacity);
+        dateMillis = Arrays.copyOf(dateMillis, capacity);
+        inventoryBefore = Arrays.copyOf(inventoryBefore, capacity);
+        inventoryAfter = Arrays.copyOf(inventoryAfter, capacity);
+        notes = Arrays.copyOf(notes, capacity);
+    }
+}
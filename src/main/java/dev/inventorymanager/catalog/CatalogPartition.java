@@ -0,0 +1,411 @@
+package dev.inventorymanager.catalog;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One user's items as parallel primitive arrays, indexed by item id with an
+ * open-addressing hash table.
+ *
+ * A row costs 28 bytes (id, SKU hash, quantity, price in minor units) plus
+ * 16 to 32 bytes of index (kept at most 75% full), and the whole partition
+ * is six arrays no matter how many items it holds, so the garbage collector has
+ * almost nothing to trace. Removal moves the last row into the freed slot to
+ * keep rows dense for scans.
+ *
+ * Guarded by a read/write lock: writes are single-row and short, reads scan.
+ */
+final class CatalogPartition {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids;
+    private long[] skuHashes;
+    private int[] quantities;
+    private long[] pricesMinor;
+    private int size;
+
+    // Item id -> row; id 0 marks an empty bucket (ids come from a sequence starting at 1)
+    private long[] indexKeys;
+    private int[] indexRows;
+
+    CatalogPartition() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedItems Rows to allocate up front, so a bulk load does not over-allocate while growing
+     */
+    CatalogPartition(int expectedItems) {
+        int capacity = Math.max(INITIAL_CAPACITY, expectedItems);
+        ids = new long[capacity];
+        skuHashes = new long[capacity];
+        quantities = new int[capacity];
+        pricesMinor = new long[capacity];
+        indexKeys = new long[indexCapacityFor(capacity)];
+        indexRows = new int[indexKeys.length];
+    }
+
+    void put(long itemId, long skuHash, int quantity, long priceMinor) {
+        lock.writeLock().lock();
+        try {
+            int row = find(itemId);
+            if (row < 0) {
+                row = size;
+                if (row == ids.length) {
+                    growRows();
+                }
+                ids[row] = itemId;
+                size = row + 1;
+                if (size > indexKeys.length * MAX_LOAD_FACTOR) {
+                    rehash(indexKeys.length * 2);
+                }
+                insert(itemId, row);
+            }
+            skuHashes[row] = skuHash;
+            quantities[row] = quantity;
+            pricesMinor[row] = priceMinor;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false if the item is not in the partition
+     */
+    boolean setQuantity(long itemId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            int row = find(itemId);
+            if (row < 0) {
+                return false;
+            }
+            quantities[row] = quantity;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a bulk update under one write lock. Items not in the partition are skipped.
+     *
+     * @param quantities New quantities, parallel to itemIds, or null to keep them
+     * @param pricesMinor New prices in minor units, parallel to itemIds, or null to keep them
+     */
+    void update(long[] itemIds, int[] quantities, long[] pricesMinor) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < itemIds.length; i++) {
+                int row = find(itemIds[i]);
+                if (row < 0) {
+                    continue;
+                }
+                if (quantities != null) {
+                    this.quantities[row] = quantities[i];
+                }
+                if (pricesMinor != null) {
+                    this.pricesMinor[row] = pricesMinor[i];
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            int row = find(itemId);
+            if (row < 0) {
+                return;
+            }
+            delete(itemId);
+            int last = size - 1;
+            if (row != last) {
+                ids[row] = ids[last];
+                skuHashes[row] = skuHashes[last];
+                quantities[row] = quantities[last];
+                pricesMinor[row] = pricesMinor[last];
+                indexRows[bucketOf(ids[row])] = row;
+            }
+            size = last;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The item's quantity, or null if it is not in the partition
+     */
+    Integer quantityOf(long itemId) {
+        lock.readLock().lock();
+        try {
+            int row = find(itemId);
+            return row < 0 ? null : quantities[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Item count, total quantity, total value in minor units, and count of items below the threshold
+     */
+    long[] totals(int lowStockThreshold) {
+        lock.readLock().lock();
+        try {
+            long quantity = 0;
+            long value = 0;
+            long lowStock = 0;
+            for (int row = 0; row < size; row++) {
+                int q = quantities[row];
+                quantity += q;
+                value += q * pricesMinor[row];
+                if (q < lowStockThreshold) {
+                    lowStock++;
+                }
+            }
+            return new long[] {size, quantity, value, lowStock};
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Ids of up to {@code limit} items below the threshold, lowest quantity first
+     */
+    long[] lowestQuantities(int threshold, int limit) {
+        lock.readLock().lock();
+        try {
+            TopK top = new TopK(limit);
+            for (int row = 0; row < size; row++) {
+                if (quantities[row] < threshold) {
+                    top.offer(-quantities[row], ids[row]);
+                }
+            }
+            return top.idsDescending();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Ids of up to {@code limit} items with the highest quantity * price, highest first
+     */
+    long[] highestValues(int limit) {
+        lock.readLock().lock();
+        try {
+            TopK top = new TopK(limit);
+            for (int row = 0; row < size; row++) {
+                top.offer(quantities[row] * pricesMinor[row], ids[row]);
+            }
+            return top.idsDescending();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Ids of items whose SKU hash matches; callers confirm against the SKU itself
+     */
+    long[] idsWithSkuHash(long skuHash) {
+        lock.readLock().lock();
+        try {
+            long[] matches = new long[4];
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if (skuHashes[row] == skuHash) {
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, count * 2);
+                    }
+                    matches[count++] = ids[row];
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Bytes held by the partition's arrays
+     */
+    long bytesUsed() {
+        lock.readLock().lock();
+        try {
+            return ids.length * (8L + 8 + 4 + 8) + indexKeys.length * (8L + 4);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void growRows() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        skuHashes = Arrays.copyOf(skuHashes, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        pricesMinor = Arrays.copyOf(pricesMinor, capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = indexKeys;
+        int[] oldRows = indexRows;
+        indexKeys = new long[capacity];
+        indexRows = new int[capacity];
+        for (int bucket = 0; bucket < oldKeys.length; bucket++) {
+            if (oldKeys[bucket] != 0) {
+                insert(oldKeys[bucket], oldRows[bucket]);
+            }
+        }
+    }
+
+    private static int indexCapacityFor(int rows) {
+        int capacity = 16;
+        while (capacity * MAX_LOAD_FACTOR < rows) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private int find(long itemId) {
+        int mask = indexKeys.length - 1;
+        for (int bucket = hash(itemId) & mask; ; bucket = (bucket + 1) & mask) {
+            long key = indexKeys[bucket];
+            if (key == itemId) {
+                return indexRows[bucket];
+            }
+            if (key == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private int bucketOf(long itemId) {
+        int mask = indexKeys.length - 1;
+        int bucket = hash(itemId) & mask;
+        while (indexKeys[bucket] != itemId) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    private void insert(long itemId, int row) {
+        int mask = indexKeys.length - 1;
+        int bucket = hash(itemId) & mask;
+        while (indexKeys[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        indexKeys[bucket] = itemId;
+        indexRows[bucket] = row;
+    }
+
+    /** Linear-probing delete: shift later entries of the same probe run back into the hole. */
+    private void delete(long itemId) {
+        int mask = indexKeys.length - 1;
+        int hole = bucketOf(itemId);
+        int bucket = hole;
+        while (true) {
+            bucket = (bucket + 1) & mask;
+            long key = indexKeys[bucket];
+            if (key == 0) {
+                break;
+            }
+            int home = hash(key) & mask;
+            // Move the entry if its home bucket is not cyclically in (hole, bucket]
+            if (hole <= bucket ? (home <= hole || home > bucket) : (home <= hole && home > bucket)) {
+                indexKeys[hole] = key;
+                indexRows[hole] = indexRows[bucket];
+                hole = bucket;
+            }
+        }
+        indexKeys[hole] = 0;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** Bounded min-heap of (score, id) keeping the {@code limit} highest scores. */
+    private static final class TopK {
+        private final long[] scores;
+        private final long[] ids;
+        private int size;
+
+        TopK(int limit) {
+            scores = new long[limit];
+            ids = new long[limit];
+        }
+
+        void offer(long score, long id) {
+            if (size < scores.length) {
+                scores[size] = score;
+                ids[size] = id;
+                siftUp(size++);
+            } else if (size > 0 && score > scores[0]) {
+                scores[0] = score;
+                ids[0] = id;
+                siftDown(0);
+            }
+        }
+
+        long[] idsDescending() {
+            long[] result = new long[size];
+            while (size > 0) {
+                result[size - 1] = ids[0];
+                size--;
+                scores[0] = scores[size];
+                ids[0] = ids[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left + 1 < size && scores[left + 1] < scores[left] ? left + 1 : left;
+                if (scores[i] <= scores[smallest]) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package dev.inventorymanager.catalog;
+
+import dev.inventorymanager.events.ItemDeletedEvent;
+import dev.inventorymanager.events.ItemSavedEvent;
+import dev.inventorymanager.events.ItemsBulkUpdatedEvent;
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.events.TransactionsImportedEvent;
+import dev.inventorymanager.events.UserDeletedEvent;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact in-memory copy of the hot item fields, for tenants with very large
+ * SKU counts.
+ *
+ * Each user's items are a {@link CatalogPartition}: primitive arrays of id,
+ * SKU hash, quantity and price in minor units, with an open-addressing index by
+ * id. Stock reads and the dashboard's inventory totals, low-stock and top-value
+ * lists are computed from it without loading Item entities; only the handful of
+ * items that end up in a list are fetched by id.
+ *
+ * Loaded from the items table on startup and kept current from item and
+ * transaction events. Rows written behind the entities' back (the seeder)
+ * trigger a full reload.
+ *
+ * Configuration:
+ * - inventory.catalog.enabled: set to true to keep the catalog (off by default)
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.catalog.enabled", havingValue = "true")
+public class ItemCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemCatalog.class);
+
+    private static final int FETCH_SIZE = 4096;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<JournalTransactionWriter> journalWriter;
+
+    private volatile Map<Long, CatalogPartition> partitions = new ConcurrentHashMap<>();
+
+    public ItemCatalog(JdbcTemplate jdbcTemplate, ObjectProvider<JournalTransactionWriter> journalWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.journalWriter = journalWriter;
+    }
+
+    /**
+     * Rebuilds the catalog from the items table.
+     */
+    @PostConstruct
+    public void reload() {
+        long started = System.nanoTime();
+        JournalTransactionWriter writer = journalWriter.getIfAvailable();
+        Map<Long, CatalogPartition> loaded = new ConcurrentHashMap<>();
+        // Presized partitions keep a bulk load from over-allocating while arrays grow
+        jdbcTemplate.query("SELECT user_id, COUNT(*) FROM items GROUP BY user_id",
+            rs -> { loaded.put(rs.getLong(1), new CatalogPartition(rs.getInt(2))); });
+        long[] count = new long[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, user_id, sku, quantity, price FROM items");
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            long itemId = rs.getLong(1);
+            int quantity = rs.getInt(4);
+            if (writer != null) {
+                // The journal is ahead of the projected row
+                Integer journaled = writer.quantityOf(itemId);
+                if (journaled != null) {
+                    quantity = journaled;
+                }
+            }
+            loaded.computeIfAbsent(rs.getLong(2), u -> new CatalogPartition())
+                .put(itemId, skuHash(rs.getString(3)), quantity, priceMinor(rs.getBigDecimal(5)));
+            count[0]++;
+        });
+        partitions = loaded;
+        log.info("Item catalog loaded {} items for {} users in {} ms ({} MB)", count[0], loaded.size(),
+            (System.nanoTime() - started) / 1_000_000, bytesUsed() / (1024 * 1024));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        partitionFor(event.getUserId())
+            .put(event.getItemId(), skuHash(event.getSku()), event.getQuantity(), event.getPriceMinor());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        int quantity = event.getInventoryAfter();
+        JournalTransactionWriter writer = journalWriter.getIfAvailable();
+        if (writer != null) {
+            // Events from concurrent journal writes can arrive out of order; the journal state cannot
+            Integer current = writer.quantityOf(event.getItemId());
+            if (current != null) {
+                quantity = current;
+            }
+        }
+        partitionFor(event.getUserId()).setQuantity(event.getItemId(), quantity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkUpdated(ItemsBulkUpdatedEvent event) {
+        partitionFor(event.getUserId()).update(event.getItemIds(), event.getQuantities(), event.getPricesMinor());
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        CatalogPartition partition = partitions.get(event.getUserId());
+        if (partition != null) {
+            partition.remove(event.getItemId());
+        }
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        partitions.remove(event.getUserId());
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        reload();
+    }
+
+    /**
+     * @return The item's quantity, or null if the user has no such item
+     */
+    public Integer quantityOf(long userId, long itemId) {
+        CatalogPartition partition = partitions.get(userId);
+        return partition == null ? null : partition.quantityOf(itemId);
+    }
+
+    /**
+     * @return The user's inventory totals
+     */
+    public Totals totals(long userId, int lowStockThreshold) {
+        CatalogPartition partition = partitions.get(userId);
+        long[] totals = partition == null ? new long[4] : partition.totals(lowStockThreshold);
+        return new Totals(totals[0], totals[1], totals[2], totals[3]);
+    }
+
+    /**
+     * @return Ids of up to {@code limit} items below the threshold, lowest quantity first
+     */
+    public long[] lowStockItemIds(long userId, int threshold, int limit) {
+        CatalogPartition partition = partitions.get(userId);
+        return partition == null ? new long[0] : partition.lowestQuantities(threshold, limit);
+    }
+
+    /**
+     * @return Ids of up to {@code limit} items with the highest stock value, highest first
+     */
+    public long[] topValueItemIds(long userId, int limit) {
+        CatalogPartition partition = partitions.get(userId);
+        return partition == null ? new long[0] : partition.highestValues(limit);
+    }
+
+    /**
+     * @return Ids of the user's items that may have this SKU; hash collisions are possible
+     */
+    public long[] candidateIdsForSku(long userId, String sku) {
+        CatalogPartition partition = partitions.get(userId);
+        return partition == null ? new long[0] : partition.idsWithSkuHash(skuHash(sku));
+    }
+
+    /**
+     * @return Number of items in the catalog
+     */
+    public long size() {
+        long size = 0;
+        for (CatalogPartition partition : partitions.values()) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return Bytes held by the catalog's arrays
+     */
+    public long bytesUsed() {
+        long bytes = 0;
+        for (CatalogPartition partition : partitions.values()) {
+            bytes += partition.bytesUsed();
+        }
+        return bytes;
+    }
+
+    private CatalogPartition partitionFor(long userId) {
+        return partitions.computeIfAbsent(userId, u -> new CatalogPartition());
+    }
+
+    /** 64-bit FNV-1a of the SKU's characters. */
+    static long skuHash(String sku) {
+        if (sku == null) {
+            return 0;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < sku.length(); i++) {
+            hash ^= sku.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long priceMinor(BigDecimal price) {
+        return price == null ? 0 : Money.toMinor(price);
+    }
+
+    /** Inventory totals of one user. */
+    public static class Totals {
+        private final long itemCount;
+        private final long totalQuantity;
+        private final long totalValueMinor;
+        private final long lowStockCount;
+
+        Totals(long itemCount, long totalQuantity, long totalValueMinor, long lowStockCount) {
+            this.itemCount = itemCount;
+            this.totalQuantity = totalQuantity;
+            this.totalValueMinor = totalValueMinor;
+            this.lowStockCount = lowStockCount;
+        }
+
+        public long getItemCount() {
+            return itemCount;
+        }
+
+        public long getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        public BigDecimal getTotalValue() {
+            return Money.toDecimal(totalValueMinor);
+        }
+
+        public long getTotalValueMinor() {
+            return totalValueMinor;
+        }
+
+        public long getLowStockCount() {
+            return lowStockCount;
+        }
+    }
+}
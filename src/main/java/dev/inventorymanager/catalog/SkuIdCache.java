@@ -0,0 +1,187 @@
+package dev.inventorymanager.catalog;
+
+import dev.inventorymanager.events.ItemDeletedEvent;
+import dev.inventorymanager.events.ItemSavedEvent;
+import dev.inventorymanager.events.TransactionsImportedEvent;
+import dev.inventorymanager.events.UserDeletedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded (user, SKU) to item id cache for scanner lookups.
+ *
+ * Split into stripes, each a small LRU map under its own lock, so devices
+ * scanning concurrently rarely contend. The stripe locks are plain monitors
+ * because nothing blocks while one is held, so they cannot pin a virtual
+ * thread across I/O. Entries are dropped when their item is saved or deleted,
+ * a user's entries when the user is purged, and the whole cache after bulk
+ * imports. Callers still load the item by id and check its SKU, so an entry
+ * that outlives its item for the moment before the event arrives is never
+ * served.
+ *
+ * Configuration:
+ * - inventory.sku-cache.max-entries: total capacity (default 100000)
+ */
+@Component
+public class SkuIdCache {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // Item id to its cached key, so item events can find the entry whatever its SKU was
+    private final Map<Long, Key> keyOfItem = new ConcurrentHashMap<>();
+
+    public SkuIdCache(@Value("${inventory.sku-cache.max-entries:100000}") int maxEntries) {
+        if (maxEntries < STRIPES) {
+            throw new IllegalArgumentException("inventory.sku-cache.max-entries must be at least " + STRIPES);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxEntries / STRIPES);
+        }
+    }
+
+    /**
+     * @return The cached item id, or null on a miss
+     */
+    public Long get(long userId, String sku) {
+        Key key = new Key(userId, sku);
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    public void put(long userId, String sku, long itemId) {
+        Key key = new Key(userId, sku);
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Long previous = stripe.put(key, itemId);
+            if (previous != null && previous != itemId) {
+                keyOfItem.remove(previous, key);
+            }
+            keyOfItem.put(itemId, key);
+        }
+    }
+
+    public void evict(long userId, String sku) {
+        Key key = new Key(userId, sku);
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Long itemId = stripe.remove(key);
+            if (itemId != null) {
+                keyOfItem.remove(itemId, key);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        evictItem(event.getItemId());
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        evictItem(event.getItemId());
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entrySet().removeIf(entry -> {
+                    if (entry.getKey().userId != event.getUserId()) {
+                        return false;
+                    }
+                    keyOfItem.remove(entry.getValue(), entry.getKey());
+                    return true;
+                });
+            }
+        }
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        keyOfItem.clear();
+    }
+
+    private void evictItem(long itemId) {
+        Key key = keyOfItem.get(itemId);
+        if (key == null) {
+            return;
+        }
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.remove(key, itemId);
+            keyOfItem.remove(itemId, key);
+        }
+    }
+
+    private Stripe stripeOf(Key key) {
+        // High bits of a multiplicative hash, so each stripe's own table still sees varied low bits
+        return stripes[(key.hashCode() * 0x9E3779B9) >>> 28];
+    }
+
+    /** One lock's worth of the cache: an access-ordered map that drops its least recently used entry. */
+    private final class Stripe extends LinkedHashMap<Key, Long> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            keyOfItem.remove(eldest.getValue(), eldest.getKey());
+            return true;
+        }
+    }
+
+    private static final class Key {
+        private final long userId;
+        private final String sku;
+
+        Key(long userId, String sku) {
+            this.userId = userId;
+            this.sku = sku;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return userId == key.userId && sku.equals(key.sku);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(userId) + sku.hashCode();
+        }
+    }
+}
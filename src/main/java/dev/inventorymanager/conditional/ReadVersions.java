@@ -0,0 +1,297 @@
+package dev.inventorymanager.conditional;
+
+import dev.inventorymanager.config.WireFormatConfig;
+import dev.inventorymanager.datasource.RoutingDataSource;
+import dev.inventorymanager.events.ItemDeletedEvent;
+import dev.inventorymanager.events.ItemSavedEvent;
+import dev.inventorymanager.events.ItemsBulkUpdatedEvent;
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.events.TransactionsImportedEvent;
+import dev.inventorymanager.events.UserDeletedEvent;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory version counters behind the ETag and Last-Modified validators of
+ * item and transaction reads, so a conditional GET is answered with 304 before
+ * any query runs and without hashing a response body.
+ *
+ * Each user has a counter for their lists, bumped by every change to their
+ * items or transactions (a transaction embeds its item, and an item's quantity
+ * follows its transactions), and one counter per item they changed. Counters
+ * move once the change has committed, from the same events that keep the other
+ * in-memory views current. Reads that do not match the client's tag take the
+ * tag before their query, so a response is never labelled newer than its data;
+ * under read/write routing they stay on the primary until the replica has the
+ * tag's latest change.
+ *
+ * Tags carry the user's id, the start time of this instance and a generation
+ * that bulk imports move on, so counters that start over never repeat an earlier
+ * tag and two users' counters never yield the same tag. A single item is only
+ * answered with 304 when this instance already knows it is the user's: their
+ * own change to it, or a read that found it, marks it owned, and deleting it
+ * marks it gone. Anything else (another user's item, a deleted one, or one not
+ * yet seen) goes on to the read, which answers 404 or the item; no query runs
+ * to decide. Last-Modified
+ * is the time of the latest change, or the start time; it is only sent once its
+ * second has passed, so a second change within the same second cannot hide behind
+ * it. Each representation (JSON, CBOR, Smile) gets its own tag, and responses are
+ * private and vary on Authorization: they are per user, so browsers may keep them
+ * but shared caches must not, and a browser switching users must not reuse them.
+ *
+ * Like the other in-memory views, assumes a single application instance writes
+ * to the database.
+ */
+@Component
+public class ReadVersions {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.AUTHORIZATION;
+
+    private static final long OWNED = 1;
+    private static final long GONE = 0;
+
+    private final UserRepository userRepository;
+    private final ObjectProvider<JournalTransactionWriter> journalWriter;
+    private final ObjectProvider<RoutingDataSource> routing;
+    private final long started = System.currentTimeMillis();
+
+    // Username to user id, so a conditional read needs no query to find the user
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+    private final Map<Long, UserVersions> users = new ConcurrentHashMap<>();
+    private volatile Generation generation = new Generation(0, started);
+
+    public ReadVersions(UserRepository userRepository, ObjectProvider<JournalTransactionWriter> journalWriter,
+                        ObjectProvider<RoutingDataSource> routing) {
+        this.userRepository = userRepository;
+        this.journalWriter = journalWriter;
+        this.routing = routing;
+    }
+
+    /**
+     * Validators of GET /api/items.
+     *
+     * @return True if the client's copy is current; the response is then a 304
+     */
+    public boolean itemsNotModified(NativeWebRequest request, String username) {
+        Long userId = userId(username);
+        if (userId == null) {
+            return false;
+        }
+        long[] version = versionOf(userId, null);
+        return notModified(request, username, userId, "items", version);
+    }
+
+    /**
+     * Validators of GET /api/items/{id}.
+     *
+     * @return True if the client's copy is current; the response is then a 304
+     */
+    public boolean itemNotModified(NativeWebRequest request, String username, long itemId) {
+        Long userId = userId(username);
+        if (userId == null) {
+            return false;
+        }
+        long[] version = versionOf(userId, itemId);
+        if (isConditional(request) && !owns(userId, itemId)) {
+            // Not known to be the user's: the read goes on to answer 404 or the item
+            return false;
+        }
+        return notModified(request, username, userId, "item-" + itemId, version);
+    }
+
+    /**
+     * Records that GET /api/items/{id} found the item among the user's, so later
+     * conditional reads of it can be answered from memory. Does not move its tag.
+     */
+    public void itemFound(String username, long itemId) {
+        Long userId = userIds.get(username);
+        if (userId == null) {
+            return;
+        }
+        UserVersions versions = users.computeIfAbsent(userId, id -> new UserVersions(generation.modified));
+        synchronized (versions) {
+            // A delete that committed since the read keeps its mark
+            versions.items.computeIfAbsent(itemId, id -> new long[] {0, generation.modified, OWNED});
+        }
+    }
+
+    /**
+     * Validators of GET /api/transactions.
+     *
+     * @return True if the client's copy is current; the response is then a 304
+     */
+    public boolean transactionsNotModified(NativeWebRequest request, String username) {
+        Long userId = userId(username);
+        if (userId == null) {
+            return false;
+        }
+        long[] version = versionOf(userId, null);
+        return notModified(request, username, userId, "transactions", version);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        changed(event.getUserId(), event.getItemId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        changed(event.getUserId(), event.getItemId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkUpdated(ItemsBulkUpdatedEvent event) {
+        changed(event.getUserId(), event.getItemIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemDeleted(ItemDeletedEvent event) {
+        // The item's counter stays, so a tag taken before the delete never matches again
+        changed(event.getUserId(), event.getItemId());
+        UserVersions versions = users.get(event.getUserId());
+        synchronized (versions) {
+            versions.items.get(event.getItemId())[2] = GONE;
+        }
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        userIds.values().remove(event.getUserId());
+        users.remove(event.getUserId());
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        // Counters carry on, so a tag of the new generation can never repeat
+        Generation previous = generation;
+        generation = new Generation(previous.number + 1, Math.max(System.currentTimeMillis(), previous.modified));
+    }
+
+    private Long userId(String username) {
+        Long userId = userIds.get(username);
+        if (userId == null) {
+            userId = userRepository.findByUsername(username).map(User::getId).orElse(null);
+            if (userId != null) {
+                userIds.put(username, userId);
+            }
+        }
+        return userId;
+    }
+
+    private static boolean isConditional(NativeWebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+            || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private boolean owns(long userId, long itemId) {
+        UserVersions versions = users.get(userId);
+        if (versions == null) {
+            return false;
+        }
+        synchronized (versions) {
+            long[] item = versions.items.get(itemId);
+            return item != null && item[2] == OWNED;
+        }
+    }
+
+    /**
+     * @param itemId An item, or null for the user's lists
+     * @return {generation, counter, last modified}
+     */
+    private long[] versionOf(long userId, Long itemId) {
+        Generation current = generation;
+        UserVersions versions = users.get(userId);
+        if (versions == null) {
+            return new long[] {current.number, 0, current.modified};
+        }
+        synchronized (versions) {
+            long[] item = itemId == null ? versions.lists : versions.items.get(itemId);
+            return item == null
+                ? new long[] {current.number, 0, current.modified}
+                : new long[] {current.number, item[0], Math.max(item[1], current.modified)};
+        }
+    }
+
+    private void changed(long userId, long... itemIds) {
+        long now = System.currentTimeMillis();
+        UserVersions versions = users.computeIfAbsent(userId, id -> new UserVersions(generation.modified));
+        synchronized (versions) {
+            bump(versions.lists, now);
+            for (long itemId : itemIds) {
+                long[] item = versions.items.computeIfAbsent(itemId, id -> new long[] {0, generation.modified, OWNED});
+                bump(item, now);
+            }
+        }
+    }
+
+    private static void bump(long[] version, long now) {
+        version[0]++;
+        version[1] = Math.max(version[1], now);
+    }
+
+    private boolean notModified(NativeWebRequest request, String username, long userId, String resource,
+                                long[] version) {
+        String type = WireFormatConfig.responseType(request.getHeader(HttpHeaders.ACCEPT)).getSubtype();
+        String tag = "\"" + resource + "-" + userId + "-" + Long.toString(started, 36) + "." + version[0] + "."
+            + version[1] + "-" + type + "\"";
+        // A change later in the same second would carry the same Last-Modified
+        long lastModified = version[2] / 1000 < System.currentTimeMillis() / 1000 ? version[2] : -1;
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            response.setHeader(HttpHeaders.VARY, VARY);
+        }
+        if (request.checkNotModified(tag, lastModified)) {
+            return true;
+        }
+        JournalTransactionWriter writer = journalWriter.getIfAvailable();
+        if (writer != null) {
+            // Sales journaled before the tag was taken must be in the tables the response is read from
+            writer.awaitProjected();
+        }
+        RoutingDataSource routingDataSource = routing.getIfAvailable();
+        if (routingDataSource != null) {
+            // The replica must not serve data older than the tag, whoever made the change
+            routingDataSource.requireFreshReads(username, version[2]);
+        }
+        return false;
+    }
+
+    private static final class Generation {
+
+        private final long number;
+        private final long modified;
+
+        Generation(long number, long modified) {
+            this.number = number;
+            this.modified = modified;
+        }
+    }
+
+    private static final class UserVersions {
+
+        /** {counter, last modified} of the user's lists */
+        private final long[] lists;
+        /** Item id to {counter, last modified, OWNED or GONE} */
+        private final Map<Long, long[]> items = new HashMap<>();
+
+        UserVersions(long modified) {
+            lists = new long[] {0, modified};
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dev.inventorymanager.config;
+
+import dev.inventorymanager.diagnostics.EntityLoadCounter;
+import dev.inventorymanager.diagnostics.SlowLogHandlerInterceptor;
+import dev.inventorymanager.diagnostics.SqlTimingListener;
+import dev.inventorymanager.diagnostics.SqlTraceInspector;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wires the slow-request and slow-query log into Spring MVC and Hibernate.
+ */
+@Configuration
+public class DiagnosticsConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SlowLogHandlerInterceptor());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer slowLogHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlTraceInspector());
+            properties.put(AvailableSettings.INTERCEPTOR, new EntityLoadCounter());
+        };
+    }
+
+    /**
+     * Adds the shared {@link SqlTimingListener} to every session as Spring creates it.
+     * Static so that registering the post-processor does not instantiate this configuration early.
+     */
+    @Bean
+    public static BeanPostProcessor sqlTimingListenerRegistrar() {
+        SqlTimingListener listener = new SqlTimingListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean) {
+                    ((AbstractEntityManagerFactoryBean) bean).setEntityManagerInitializer(
+                        entityManager -> entityManager.unwrap(Session.class).addEventListeners(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package dev.inventorymanager.config;
+
+import dev.inventorymanager.journal.JournalHealthIndicator;
+import dev.inventorymanager.journal.JournalProjector;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.journal.QuantityState;
+import dev.inventorymanager.journal.TransactionJournal;
+import dev.inventorymanager.reservation.StockReservations;
+import dev.inventorymanager.sync.ChangeSequence;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Journal write mode, enabled with {@code inventory.transactions.write-mode=journal}.
+ *
+ * Configuration:
+ * - inventory.journal.dir: directory for journal segments and quantity snapshots
+ * - inventory.journal.segment-size-mb: size of each memory-mapped segment file
+ * - inventory.journal.snapshot-interval-seconds: how often item quantities are snapshotted
+ * - inventory.journal.projector-batch-size: records applied to the database per transaction
+ * - inventory.journal.projector-max-attempts: attempts at a failing batch before its bad record is quarantined
+ * - inventory.journal.projector-stall-ms: how long the projector may lag without progress before health is DOWN
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.transactions.write-mode", havingValue = "journal")
+public class JournalConfig {
+
+    @Value("${inventory.journal.dir:./data/journal}")
+    private String directory;
+
+    @Value("${inventory.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${inventory.journal.snapshot-interval-seconds:60}")
+    private long snapshotIntervalSeconds;
+
+    @Value("${inventory.journal.projector-batch-size:1000}")
+    private int projectorBatchSize;
+
+    @Value("${inventory.journal.projector-max-attempts:5}")
+    private int projectorMaxAttempts;
+
+    @Value("${inventory.journal.projector-stall-ms:30000}")
+    private long projectorStallMillis;
+
+    // Opened and closed by the writer, which orders shutdown after the projector has drained
+    @Bean(destroyMethod = "")
+    public TransactionJournal transactionJournal() {
+        return new TransactionJournal(journalPath(), segmentSizeMb * 1024 * 1024);
+    }
+
+    @Bean
+    public QuantityState quantityState() {
+        return new QuantityState(journalPath());
+    }
+
+    @Bean
+    public JournalProjector journalProjector(TransactionJournal journal, QuantityState state,
+                                             JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager,
+                                             ChangeSequence changeSequence) {
+        return new JournalProjector(journal, state, jdbcTemplate, new TransactionTemplate(transactionManager),
+            changeSequence, projectorBatchSize, 50, projectorMaxAttempts);
+    }
+
+    @Bean
+    public JournalHealthIndicator journalHealthIndicator(JournalProjector projector) {
+        return new JournalHealthIndicator(projector, projectorStallMillis);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public JournalTransactionWriter journalTransactionWriter(TransactionJournal journal, QuantityState state,
+                                                             JournalProjector projector, JdbcTemplate jdbcTemplate,
+                                                             EntityManagerFactory entityManagerFactory,
+                                                             ApplicationEventPublisher events,
+                                                             StockReservations reservations) {
+        String nextId = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSequenceNextValString("transactions_id_seq");
+        return new JournalTransactionWriter(journal, state, projector, jdbcTemplate, nextId, snapshotIntervalSeconds,
+            events, reservations::held);
+    }
+
+    private Path journalPath() {
+        return Paths.get(directory);
+    }
+}
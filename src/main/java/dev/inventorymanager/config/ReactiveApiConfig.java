@@ -0,0 +1,122 @@
+package dev.inventorymanager.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.inventorymanager.archive.TransactionArchive;
+import dev.inventorymanager.catalog.ItemCatalog;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.reactive.ReactiveApiServer;
+import dev.inventorymanager.reactive.ReactiveInventoryHandler;
+import dev.inventorymanager.reactive.ReactiveInventoryReader;
+import dev.inventorymanager.reactive.ReactiveUserDetailsServiceImpl;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.WebFilterChainProxy;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+/**
+ * Reactive read API, enabled with {@code inventory.reactive.enabled=true}.
+ *
+ * Serves non-blocking GET /api/items, /api/transactions and /api/dashboard from
+ * a Netty server on its own port, reading through an R2DBC pool. Authentication
+ * uses the same users, password encoder and access rules as the servlet API
+ * (see {@link SecurityConfig}); after the first Basic-authenticated request the
+ * client rides on a session cookie, as it does on the servlet side.
+ *
+ * Configuration:
+ * - inventory.reactive.address / port: where the Netty server listens
+ * - inventory.reactive.r2dbc.url: R2DBC URL of the same database as spring.datasource.url
+ * - inventory.reactive.r2dbc.username / password: credentials (default to the servlet side's)
+ * - inventory.reactive.r2dbc.pool-size: R2DBC connections
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.reactive.enabled", havingValue = "true")
+public class ReactiveApiConfig {
+
+    @Value("${inventory.reactive.address:0.0.0.0}")
+    private String address;
+
+    @Value("${inventory.reactive.port:8081}")
+    private int port;
+
+    @Value("${inventory.reactive.r2dbc.url}")
+    private String r2dbcUrl;
+
+    @Value("${inventory.reactive.r2dbc.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${inventory.reactive.r2dbc.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${inventory.reactive.r2dbc.pool-size:10}")
+    private int poolSize;
+
+    @Bean(destroyMethod = "close")
+    public ReactiveInventoryReader reactiveInventoryReader(TransactionArchive archive,
+                                                           ObjectProvider<ItemCatalog> catalog,
+                                                           ObjectProvider<JournalTransactionWriter> journalWriter) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .name("reactive")
+            .initialSize(1)
+            .maxSize(poolSize)
+            .build());
+        return new ReactiveInventoryReader(pool, archive, catalog.getIfAvailable(), journalWriter.getIfAvailable());
+    }
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ReactiveInventoryReader reader, PasswordEncoder passwordEncoder,
+                                               ObjectMapper objectMapper) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+            new UserDetailsRepositoryReactiveAuthenticationManager(new ReactiveUserDetailsServiceImpl(reader));
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        WebSessionServerSecurityContextRepository sessions = new WebSessionServerSecurityContextRepository();
+
+        SecurityWebFilterChain security = ServerHttpSecurity.http()
+            .csrf().disable()
+            .authenticationManager(authenticationManager)
+            .securityContextRepository(sessions)
+            .authorizeExchange()
+                .pathMatchers(SecurityConfig.PUBLIC_PATHS).permitAll()
+                .pathMatchers(SecurityConfig.ADMIN_PATHS).hasRole(SecurityConfig.ADMIN_ROLE)
+                .pathMatchers(SecurityConfig.AUTHENTICATED_PATHS).authenticated()
+                .anyExchange().permitAll()
+            .and()
+            .httpBasic()
+                .securityContextRepository(sessions)
+            .and()
+            .build();
+
+        // The application's ObjectMapper, so dates and numbers render as on the servlet side
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build();
+        HttpHandler httpHandler = WebHttpHandlerBuilder
+            .webHandler(RouterFunctions.toWebHandler(new ReactiveInventoryHandler(reader).routes(), strategies))
+            .filter(new WebFilterChainProxy(security))
+            .build();
+        return new ReactiveApiServer(httpHandler, address, port);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.inventorymanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.inventorymanager.datasource.DataSourceRoute;
+import dev.inventorymanager.datasource.ReplicaLagMonitor;
+import dev.inventorymanager.datasource.RoutingDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read/write routing, enabled with {@code inventory.datasource.routing.enabled=true}.
+ *
+ * The primary pool is built from the usual spring.datasource.* settings and
+ * takes all writes; {@code @Transactional(readOnly = true)} service methods read
+ * from the replica pool when it is fresh enough (see {@link RoutingDataSource}).
+ *
+ * Configuration:
+ * - inventory.datasource.primary.pool-size: connections to the primary
+ * - inventory.datasource.replica.url / username / password: the replica (credentials default to the primary's)
+ * - inventory.datasource.replica.pool-size: connections to the replica
+ * - inventory.datasource.replica.max-staleness-ms: replica lag beyond which reads go to the primary
+ * - inventory.datasource.replica.heartbeat-ms: how often replica lag is measured
+ * - inventory.datasource.replica.read-packages: packages whose read-only transactions may use the replica
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.datasource.routing.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${inventory.datasource.primary.pool-size:10}")
+    private int primaryPoolSize;
+
+    @Value("${inventory.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${inventory.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${inventory.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${inventory.datasource.replica.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${inventory.datasource.replica.max-staleness-ms:5000}")
+    private long maxStalenessMs;
+
+    @Value("${inventory.datasource.replica.read-packages:dev.inventorymanager.service.}")
+    private List<String> readPackages;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        dataSource.setMaximumPoolSize(primaryPoolSize);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(replicaUrl);
+        dataSource.setUsername(replicaUsername);
+        dataSource.setPassword(replicaPassword);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setMaximumPoolSize(replicaPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxStalenessMs);
+    }
+
+    @Bean
+    public RoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaLagMonitor lagMonitor) {
+        RoutingDataSource routing = new RoutingDataSource(lagMonitor, readPackages);
+        routing.setTargetDataSources(Map.of(
+            DataSourceRoute.PRIMARY, primaryDataSource,
+            DataSourceRoute.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        return routing;
+    }
+
+    /**
+     * The DataSource everything else uses (JPA, JdbcTemplate, schema init).
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
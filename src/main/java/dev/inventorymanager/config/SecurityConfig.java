@@ -10,13 +10,24 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.session.HttpSessionEventPublisher;
+
+import javax.servlet.http.HttpServletResponse;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Access rules, shared with the reactive read API (ReactiveApiConfig)
+    static final String[] PUBLIC_PATHS = {"/", "/index.html", "/api/auth/**", "/actuator/health"};
+    static final String[] ADMIN_PATHS = {"/api/admin/**", "/actuator/**"};
+    static final String[] AUTHENTICATED_PATHS = {"/api/**"};
+    static final String ADMIN_ROLE = "ADMIN";
+
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
@@ -38,13 +49,31 @@ public class SecurityConfig {
         return authProvider;
     }
 
+    /**
+     * Signed-in sessions by user, so deleting a tenant can expire its sessions
+     * (see TenantDeletionService).
+     */
+    @Bean
+    public SessionRegistry sessionRegistry() {
+        return new SessionRegistryImpl();
+    }
+
+    /**
+     * Tells the session registry when sessions end.
+     */
+    @Bean
+    public HttpSessionEventPublisher httpSessionEventPublisher() {
+        return new HttpSessionEventPublisher();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf().disable()
             .authorizeRequests()
-                .antMatchers("/", "/index.html", "/api/auth/**").permitAll()
-                .antMatchers("/api/**").authenticated()
+                .antMatchers(PUBLIC_PATHS).permitAll()
+                .antMatchers(ADMIN_PATHS).hasRole(ADMIN_ROLE)
+                .antMatchers(AUTHENTICATED_PATHS).authenticated()
                 .anyRequest().permitAll()
             .and()
             .formLogin()
@@ -58,7 +87,12 @@ public class SecurityConfig {
                 .logoutSuccessUrl("/")
                 .permitAll()
             .and()
-            .httpBasic();
+            .httpBasic()
+            .and()
+            .sessionManagement()
+                .maximumSessions(-1)
+                .sessionRegistry(sessionRegistry())
+                .expiredSessionStrategy(event -> event.getResponse().sendError(HttpServletResponse.SC_UNAUTHORIZED));
 
         http.authenticationProvider(authenticationProvider());
 
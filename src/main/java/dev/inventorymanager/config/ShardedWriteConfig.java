@@ -0,0 +1,56 @@
+package dev.inventorymanager.config;
+
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.reservation.StockReservations;
+import dev.inventorymanager.sharding.ShardedTransactionWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sharded write mode, enabled with {@code inventory.transactions.write-mode=sharded}.
+ *
+ * Configuration:
+ * - inventory.shards.count: number of single-threaded write shards
+ * - inventory.shards.queue-capacity: writes that may wait per shard before callers block
+ * - inventory.shards.max-batch: most writes a shard commits in one database transaction
+ *
+ * Needs spring.jpa.open-in-view=false: with open-in-view a request keeps its
+ * connection while it waits for its shard, and enough waiting requests leave
+ * the shards no connection to commit with.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.transactions.write-mode", havingValue = "sharded")
+public class ShardedWriteConfig {
+
+    @Value("${inventory.shards.count:4}")
+    private int shardCount;
+
+    @Value("${inventory.shards.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${inventory.shards.max-batch:64}")
+    private int maxBatch;
+
+    @Value("${spring.jpa.open-in-view:true}")
+    private boolean openInView;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ShardedTransactionWriter shardedTransactionWriter(ItemRepository itemRepository,
+                                                             TransactionRepository transactionRepository,
+                                                             PlatformTransactionManager transactionManager,
+                                                             ApplicationEventPublisher events,
+                                                             StockReservations reservations) {
+        if (openInView) {
+            throw new IllegalStateException(
+                "inventory.transactions.write-mode=sharded needs spring.jpa.open-in-view=false");
+        }
+        return new ShardedTransactionWriter(shardCount, queueCapacity, maxBatch, itemRepository,
+            transactionRepository, new TransactionTemplate(transactionManager), events, reservations::held);
+    }
+}
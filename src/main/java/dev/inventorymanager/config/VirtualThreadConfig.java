@@ -0,0 +1,74 @@
+package dev.inventorymanager.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual-thread request execution, enabled with {@code inventory.web.thread-mode=virtual}.
+ *
+ * Tomcat runs every request on a new virtual thread instead of its bounded
+ * worker pool, so a request blocked on JDBC (or on a slow client's body) parks
+ * and gives its carrier thread back. Async MVC work (streamed responses) runs on
+ * virtual threads as well. Concurrency against the database is still bounded by
+ * the connection pool; excess requests wait for a connection rather than for a
+ * Tomcat thread, and {@code server.tomcat.max-connections} bounds how many are
+ * accepted at all.
+ *
+ * Virtual threads need Java 21. They are looked up reflectively so the
+ * application still builds for and runs on older runtimes in the default
+ * platform mode; selecting virtual mode on one fails at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.web.thread-mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor() {
+        return newVirtualThreadExecutor("http-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService requestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+
+    /**
+     * Replaces Boot's pooled application executor, which Spring MVC uses for async requests.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadExecutor("task-vt-"));
+    }
+
+    /**
+     * Equivalent to {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())}.
+     */
+    static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new IllegalStateException("inventory.web.thread-mode=virtual needs Java 21 or later, running on "
+                + Runtime.version(), e);
+        } catch (InvocationTargetException e) {
+            // Java 19 and 20 have the API but refuse it without --enable-preview
+            throw new IllegalStateException("Virtual threads are unavailable on " + Runtime.version(), e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Virtual threads are unavailable on " + Runtime.version(), e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.inventorymanager.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Binary encodings of the REST API, alongside JSON.
+ *
+ * Every endpoint that reads or writes a JSON body also speaks CBOR
+ * ({@value #CBOR_VALUE}) and Smile ({@value #SMILE_VALUE}) when the client asks
+ * for them with Accept or Content-Type; JSON stays the default. The documents
+ * are the same as the JSON ones, with numbers, dates and money encoded the same
+ * way, so a client only swaps its decoder. The mappers come from the
+ * application's Jackson builder, so they carry the same modules and settings
+ * as the JSON one.
+ *
+ * Smile back-references repeated property names and short string values, which
+ * suits lists of transactions that each embed their item; CBOR is the more
+ * widely supported of the two.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    public static final String CBOR_VALUE = "application/cbor";
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType CBOR = MediaType.valueOf(CBOR_VALUE);
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+
+    /** The binary types, in the order they win a tie in Accept */
+    public static final List<MediaType> BINARY_TYPES = List.of(SMILE, CBOR);
+
+    /**
+     * @return The type a JSON document is written in for the Accept header: JSON,
+     *         unless a binary type is preferred over it
+     */
+    public static MediaType responseType(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(types);
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            for (MediaType binary : BINARY_TYPES) {
+                if (binary.isCompatibleWith(type)) {
+                    return binary;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,115 @@
+package dev.inventorymanager.controller;
+
+import dev.inventorymanager.analytics.AnalyticsQuery;
+import dev.inventorymanager.analytics.AnalyticsResult;
+import dev.inventorymanager.analytics.AnalyticsStore;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ad-hoc aggregates over the current user's transactions, answered from the
+ * in-memory {@link AnalyticsStore} instead of the database.
+ *
+ * Base URL: /api/analytics
+ *
+ * Example: GET /api/analytics?groupBy=item,month&type=SELL&from=2024-01-01&to=2025-01-01&top=20
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsStore store;
+    private final UserRepository userRepository;
+
+    // Absent when inventory.analytics.enabled=false
+    public AnalyticsController(ObjectProvider<AnalyticsStore> store, UserRepository userRepository) {
+        this.store = store.getIfAvailable();
+        this.userRepository = userRepository;
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() ||
+            authentication.getPrincipal().equals("anonymousUser")) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        return userRepository.findByUsername(authentication.getName())
+            .orElseThrow(() -> new IllegalStateException("User not found"));
+    }
+
+    /**
+     * GET /api/analytics
+     * Counts, quantities and amounts of the current user's transactions, live and archived.
+     *
+     * @param groupBy Comma-separated dimensions: item, type, and at most one of year, month, week, day, hour
+     * @param type Optional filter: BUY or SELL
+     * @param itemId Optional filter: one or more item IDs
+     * @param from Optional inclusive start date (yyyy-MM-dd)
+     * @param to Optional exclusive end date (yyyy-MM-dd)
+     * @param top Optional: keep only the groups with the largest amounts
+     * @return Groups (in key order, or by amount descending when top is given) and scan statistics
+     */
+    @GetMapping
+    public ResponseEntity<?> query(@RequestParam(required = false) String groupBy,
+                                   @RequestParam(required = false) TransactionType type,
+                                   @RequestParam(required = false) List<Long> itemId,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(required = false) Integer top) {
+        if (store == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        AnalyticsResult result;
+        try {
+            List<AnalyticsQuery.Dimension> dimensions = new ArrayList<>();
+            if (groupBy != null && !groupBy.isBlank()) {
+                for (String name : groupBy.split(",")) {
+                    dimensions.add(AnalyticsQuery.Dimension.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+            AnalyticsQuery query = new AnalyticsQuery(dimensions, type,
+                itemId == null ? null : new HashSet<>(itemId),
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.atStartOfDay());
+            result = store.query(getCurrentUser().getId(), query);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        List<AnalyticsResult.Group> groups = result.getGroups();
+        if (top != null && top >= 0) {
+            groups = groups.stream()
+                .sorted(Comparator.comparing(AnalyticsResult.Group::getAmount).reversed())
+                .limit(top)
+                .collect(Collectors.toList());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("groups", groups);
+        response.put("rowsScanned", result.getRowsScanned());
+        response.put("elapsedMicros", result.getElapsedMicros());
+        return ResponseEntity.ok(response);
+    }
+}
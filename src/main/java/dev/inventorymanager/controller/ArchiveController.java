@@ -0,0 +1,46 @@
+package dev.inventorymanager.controller;
+
+import dev.inventorymanager.archive.TransactionArchiver;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for running transaction archival on demand.
+ * Restricted to ADMIN users by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin/archive")
+public class ArchiveController {
+
+    private final TransactionArchiver archiver;
+
+    public ArchiveController(TransactionArchiver archiver) {
+        this.archiver = archiver;
+    }
+
+    /**
+     * POST /api/admin/archive/run
+     * Moves transactions dated before {@code before} (default: the retention cutoff) to the archive.
+     *
+     * @param before First month to keep in the transactions table, e.g. 2024-06
+     * @return The cutoff used and the number of transactions archived
+     */
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> run(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth before) {
+        YearMonth cutoff = before != null ? before : archiver.defaultCutoff();
+        long archived = archiver.archiveBefore(cutoff);
+        Map<String, Object> response = new HashMap<>();
+        response.put("before", cutoff.toString());
+        response.put("archived", archived);
+        return ResponseEntity.ok(response);
+    }
+}
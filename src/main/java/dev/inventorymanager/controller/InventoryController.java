@@ -1,59 +1,128 @@
 package dev.inventorymanager.controller;
 
+import dev.inventorymanager.conditional.ReadVersions;
+import dev.inventorymanager.config.WireFormatConfig;
+import dev.inventorymanager.dto.BulkUpdateResponse;
+import dev.inventorymanager.dto.ItemSearchResponse;
 import dev.inventorymanager.model.Item;
 import dev.inventorymanager.model.User;
 import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.BulkItemService;
+import dev.inventorymanager.service.ConcurrentUpdateException;
 import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.ItemPatch;
+import dev.inventorymanager.service.PriceChange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.math.BigDecimal;
 import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/items")
 public class InventoryController {
 
     private final InventoryService service;
+    private final BulkItemService bulkService;
     private final UserRepository userRepository;
+    private final ReadVersions readVersions;
 
-    public InventoryController(InventoryService service, UserRepository userRepository) {
+    public InventoryController(InventoryService service, BulkItemService bulkService, UserRepository userRepository,
+                               ReadVersions readVersions) {
         this.service = service;
+        this.bulkService = bulkService;
         this.userRepository = userRepository;
+        this.readVersions = readVersions;
     }
 
-    private User getCurrentUser() {
+    private String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() ||
             authentication.getPrincipal().equals("anonymousUser")) {
             throw new IllegalStateException("User not authenticated");
         }
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
+        return authentication.getName();
+    }
+
+    private User getCurrentUser() {
+        return userRepository.findByUsername(getCurrentUsername())
             .orElseThrow(() -> new IllegalStateException("User not found"));
     }
 
+    /**
+     * Conditional: answers If-None-Match / If-Modified-Since with 304 before any query (see {@link ReadVersions}).
+     */
     @GetMapping
-    public List<Item> list() {
+    public List<Item> list(NativeWebRequest request) {
+        if (readVersions.itemsNotModified(request, getCurrentUsername())) {
+            return null;
+        }
         return service.list(getCurrentUser());
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ItemSearchResponse> search(@RequestParam String q,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(service.search(q, page, size, getCurrentUser()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Conditional, like {@link #list}.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Item> get(@PathVariable Long id) {
-        return service.get(id, getCurrentUser()).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Item> get(@PathVariable Long id, NativeWebRequest request) {
+        String username = getCurrentUsername();
+        if (readVersions.itemNotModified(request, username, id)) {
+            return null;
+        }
+        return service.get(id, getCurrentUser()).map(item -> {
+            readVersions.itemFound(username, id);
+            return ResponseEntity.ok(item);
+        }).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<Item> getBySku(@PathVariable String sku) {
+        return service.findBySku(sku, getCurrentUser()).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<Map<String, Object>> stock(@PathVariable Long id) {
+        return service.stockOf(id, getCurrentUser()).map(quantity -> {
+            Map<String, Object> body = new HashMap<>();
+            body.put("itemId", id);
+            body.put("quantity", quantity);
+            return ResponseEntity.ok(body);
+        }).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public ResponseEntity<Item> create(@RequestBody Item item) {
+        User currentUser = getCurrentUser();
         try {
-            Item created = service.create(item, getCurrentUser());
+            Item created = service.create(item, currentUser);
             URI location = URI.create("/api/items/" + created.getId());
             if (location == null) {
                 throw new IllegalStateException("Failed to create URI");
             }
             return ResponseEntity.created(location).body(created);
+        } catch (IllegalStateException ex) {
+            // Duplicate SKU
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             // Log the full error for debugging
             e.printStackTrace();
@@ -63,11 +132,49 @@ public class InventoryController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Item> update(@PathVariable Long id, @RequestBody Item item) {
+        User currentUser = getCurrentUser();
         try {
-            Item updated = service.update(id, item, getCurrentUser());
+            Item updated = service.update(id, item, currentUser);
             return ResponseEntity.ok(updated);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.notFound().build();
+        } catch (ConcurrentUpdateException ex) {
+            // Stale version: answer with the item as it is now
+            return ResponseEntity.status(HttpStatus.CONFLICT).body((Item) ex.getCurrent());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Changes only the fields in the body, a JSON Merge Patch (RFC 7396).
+     *
+     * Request Body Example (Content-Type: application/merge-patch+json):
+     * {
+     *   "price": 12.50
+     * }
+     *
+     * Members: name, sku, quantity, price (null removes it). An optional
+     * "version" makes the patch apply only to that version of the item; without
+     * it, patches of different fields never conflict.
+     *
+     * Error Responses:
+     * - 400 Bad Request: Unknown field, or a required field removed or invalid
+     * - 404 Not Found: No such item
+     * - 409 Conflict: Stale version (body: the current item), or SKU taken
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody ItemPatch patch) {
+        User currentUser = getCurrentUser();
+        try {
+            return service.patch(id, patch, currentUser).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (ConcurrentUpdateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getCurrent());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
         }
     }
 
@@ -76,4 +183,238 @@ public class InventoryController {
         service.delete(id, getCurrentUser());
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Reprices many items at once.
+     *
+     * Request Body Example (all items whose SKU starts with "TS-", +5%):
+     * {
+     *   "skuPrefix": "TS-",
+     *   "operation": "MULTIPLY",
+     *   "value": 1.05
+     * }
+     *
+     * Select items with either "itemIds" or the "skuPrefix"/"nameContains" filter;
+     * no selection at all reprices every item. Operations: SET, MULTIPLY, ADD.
+     *
+     * Error Responses:
+     * - 400 Bad Request: Unknown operation, negative price, or both ids and a filter
+     */
+    @PostMapping("/bulk/price")
+    public ResponseEntity<?> reprice(@RequestBody BulkPriceRequest request) {
+        User currentUser = getCurrentUser();
+        try {
+            PriceChange change = new PriceChange(parseOperation(request.getOperation()), request.getValue());
+            return ResponseEntity.ok(bulkService.reprice(request.getItemIds(), request.getSkuPrefix(),
+                request.getNameContains(), change, currentUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Deletes many items, with their transactions, at once.
+     *
+     * Request Body Example:
+     * {
+     *   "itemIds": [12, 13, 14]
+     * }
+     *
+     * Ids of items the user does not own are skipped.
+     *
+     * Error Responses:
+     * - 400 Bad Request: No item ids
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<?> bulkDelete(@RequestBody BulkDeleteRequest request) {
+        User currentUser = getCurrentUser();
+        try {
+            return ResponseEntity.ok(bulkService.delete(request.getItemIds(), currentUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Sets quantities from a stock-take, recording an adjustment transaction for
+     * every item whose count differs.
+     *
+     * Request Body Example:
+     * {
+     *   "counts": [{"sku": "TS-001", "quantity": 42}, {"sku": "TS-002", "quantity": 0}],
+     *   "notes": "Q3 count"
+     * }
+     *
+     * Error Responses:
+     * - 400 Bad Request: No counts, or a negative count
+     */
+    @PostMapping(value = "/stock-take",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormatConfig.CBOR_VALUE, WireFormatConfig.SMILE_VALUE})
+    public ResponseEntity<?> stockTake(@RequestBody StockTakeRequest request) {
+        User currentUser = getCurrentUser();
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            if (request.getCounts() != null) {
+                for (StockCount count : request.getCounts()) {
+                    counts.put(count.getSku(), count.getQuantity());
+                }
+            }
+            return ResponseEntity.ok(bulkService.stockTake(counts, request.getNotes(), currentUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Same as the JSON stock-take, for a count file: one "sku,quantity" per line,
+     * with an optional header.
+     */
+    @PostMapping(value = "/stock-take", consumes = "text/csv")
+    public ResponseEntity<?> stockTakeFile(@RequestBody String file, @RequestParam(required = false) String notes) {
+        User currentUser = getCurrentUser();
+        try {
+            BulkUpdateResponse result = bulkService.stockTake(BulkItemService.parseCounts(file), notes, currentUser);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static PriceChange.Operation parseOperation(String operation) {
+        if (operation == null) {
+            throw new IllegalArgumentException("operation is required (SET, MULTIPLY or ADD)");
+        }
+        try {
+            return PriceChange.Operation.valueOf(operation.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid operation: " + operation + " (use SET, MULTIPLY or ADD)");
+        }
+    }
+
+    /**
+     * Data Transfer Object (DTO) for POST /api/items/bulk/delete.
+     */
+    public static class BulkDeleteRequest {
+        /** Items to delete */
+        private List<Long> itemIds;
+
+        public List<Long> getItemIds() {
+            return itemIds;
+        }
+
+        public void setItemIds(List<Long> itemIds) {
+            this.itemIds = itemIds;
+        }
+    }
+
+    /**
+     * Data Transfer Object (DTO) for POST /api/items/bulk/price.
+     */
+    public static class BulkPriceRequest {
+        /** Items to reprice; leave out to use the filter */
+        private List<Long> itemIds;
+
+        /** Only items whose SKU starts with this */
+        private String skuPrefix;
+
+        /** Only items whose name contains this, ignoring case */
+        private String nameContains;
+
+        /** SET, MULTIPLY or ADD */
+        private String operation;
+
+        /** New price, factor, or amount to add */
+        private BigDecimal value;
+
+        public List<Long> getItemIds() {
+            return itemIds;
+        }
+
+        public void setItemIds(List<Long> itemIds) {
+            this.itemIds = itemIds;
+        }
+
+        public String getSkuPrefix() {
+            return skuPrefix;
+        }
+
+        public void setSkuPrefix(String skuPrefix) {
+            this.skuPrefix = skuPrefix;
+        }
+
+        public String getNameContains() {
+            return nameContains;
+        }
+
+        public void setNameContains(String nameContains) {
+            this.nameContains = nameContains;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public void setOperation(String operation) {
+            this.operation = operation;
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+
+        public void setValue(BigDecimal value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Data Transfer Object (DTO) for POST /api/items/stock-take.
+     */
+    public static class StockTakeRequest {
+        /** Counted quantity per SKU */
+        private List<StockCount> counts;
+
+        /** Optional notes for the adjustment transactions */
+        private String notes;
+
+        public List<StockCount> getCounts() {
+            return counts;
+        }
+
+        public void setCounts(List<StockCount> counts) {
+            this.counts = counts;
+        }
+
+        public String getNotes() {
+            return notes;
+        }
+
+        public void setNotes(String notes) {
+            this.notes = notes;
+        }
+    }
+
+    /**
+     * One counted SKU of a {@link StockTakeRequest}.
+     */
+    public static class StockCount {
+        private String sku;
+        private Integer quantity;
+
+        public String getSku() {
+            return sku;
+        }
+
+        public void setSku(String sku) {
+            this.sku = sku;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
 }
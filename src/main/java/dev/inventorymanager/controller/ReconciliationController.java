@@ -0,0 +1,80 @@
+package dev.inventorymanager.controller;
+
+import dev.inventorymanager.reconciliation.LedgerMismatch;
+import dev.inventorymanager.reconciliation.LedgerReconciler;
+import dev.inventorymanager.reconciliation.ReconciliationStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints for ledger reconciliation.
+ * Restricted to ADMIN users by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+public class ReconciliationController {
+
+    private final LedgerReconciler reconciler;
+
+    public ReconciliationController(LedgerReconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    /**
+     * GET /api/admin/reconciliation
+     * Returns the progress of the current run, or the outcome of the last one.
+     */
+    @GetMapping
+    public ReconciliationStatus status() {
+        return reconciler.status();
+    }
+
+    /**
+     * POST /api/admin/reconciliation/run
+     * Starts a run in the background. An unfinished run is resumed from its checkpoint.
+     *
+     * @param repair Record adjustments for items whose quantity does not match their ledger
+     * @param fresh Start over from the first user instead of resuming
+     * @return 202 with the run's status, or 409 if a run is in progress
+     */
+    @PostMapping("/run")
+    public ResponseEntity<?> run(@RequestParam(defaultValue = "false") boolean repair,
+                                 @RequestParam(defaultValue = "false") boolean fresh) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciler.start(repair, fresh));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/admin/reconciliation/stop
+     * Stops the current run after the users it is checking; the next run resumes after them.
+     */
+    @PostMapping("/stop")
+    public ReconciliationStatus stop() {
+        reconciler.stop();
+        return reconciler.status();
+    }
+
+    /**
+     * GET /api/admin/reconciliation/mismatches
+     * Lists the breaks found by a run, by user and item.
+     *
+     * @param runId Run to list; defaults to the current or last run
+     * @param limit Maximum number of mismatches to return
+     */
+    @GetMapping("/mismatches")
+    public List<LedgerMismatch> mismatches(@RequestParam(required = false) Long runId,
+                                           @RequestParam(defaultValue = "200") int limit) {
+        return reconciler.mismatches(runId != null ? runId : reconciler.status().getRunId(), limit);
+    }
+}
@@ -0,0 +1,224 @@
+package dev.inventorymanager.controller;
+
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.reservation.Reservation;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.ReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST Controller for stock reservations: holding units during checkout and
+ * then confirming them into a sale or releasing them.
+ *
+ * Endpoints:
+ * - POST   /api/reservations                    - Hold units of an item
+ * - GET    /api/reservations/{id}               - A reservation, while it is held
+ * - POST   /api/reservations/{id}/confirm       - Sell the held units
+ * - DELETE /api/reservations/{id}               - Release the held units
+ * - GET    /api/reservations/availability/{itemId} - On-hand, reserved and available-to-sell
+ *
+ * Reservations are user-isolated like items; another user's reservation is 404.
+ *
+ * Base URL: /api/reservations
+ *
+ * Authentication: Required (Spring Security)
+ */
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+    private final InventoryService inventoryService;
+    private final UserRepository userRepository;
+
+    public ReservationController(ReservationService reservationService, InventoryService inventoryService,
+                                 UserRepository userRepository) {
+        this.reservationService = reservationService;
+        this.inventoryService = inventoryService;
+        this.userRepository = userRepository;
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() ||
+            authentication.getPrincipal().equals("anonymousUser")) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new IllegalStateException("User not found"));
+    }
+
+    /**
+     * Hold units of an item.
+     *
+     * Request Body Example:
+     * {
+     *   "itemId": 1,
+     *   "quantity": 2,
+     *   "ttlSeconds": 600
+     * }
+     *
+     * Error Responses:
+     * - 400 Bad Request: Invalid data, an item that is not the user's, or too few units available
+     *
+     * @param request itemId, quantity and optional ttlSeconds
+     * @return The reservation, with the time it expires
+     */
+    @PostMapping
+    public ResponseEntity<?> reserve(@RequestBody ReservationRequest request) {
+        User currentUser = getCurrentUser();
+        try {
+            return ResponseEntity.ok(reservationService.reserve(request.getItemId(), request.getQuantity(),
+                request.getTtlSeconds(), currentUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Reservation> get(@PathVariable long id) {
+        return reservationService.lookup(id, getCurrentUser())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Sell the held units.
+     *
+     * Request Body Example:
+     * {
+     *   "pricePerUnit": 24.99,
+     *   "notes": "Order #1042"
+     * }
+     *
+     * Error Responses:
+     * - 400 Bad Request: Invalid price
+     * - 404 Not Found: No such reservation held for the user
+     * - 409 Conflict: The reservation expired or was released meanwhile
+     *
+     * @return The SELL transaction
+     */
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<?> confirm(@PathVariable long id, @RequestBody ConfirmRequest request) {
+        User currentUser = getCurrentUser();
+        if (reservationService.lookup(id, currentUser).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(reservationService.confirm(id, request.getPricePerUnit(), request.getNotes(),
+                currentUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> release(@PathVariable long id) {
+        User currentUser = getCurrentUser();
+        if (reservationService.lookup(id, currentUser).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            reservationService.release(id, currentUser);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * On-hand quantity, units held by reservations, and what is left to sell.
+     */
+    @GetMapping("/availability/{itemId}")
+    public ResponseEntity<Map<String, Object>> availability(@PathVariable Long itemId) {
+        Optional<Integer> onHand = inventoryService.stockOf(itemId, getCurrentUser());
+        if (onHand.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        int reserved = reservationService.held(itemId);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("itemId", itemId);
+        body.put("onHand", onHand.get());
+        body.put("reserved", reserved);
+        body.put("available", onHand.get() - reserved);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Data Transfer Object (DTO) for POST /api/reservations.
+     */
+    public static class ReservationRequest {
+        /** ID of the item to hold */
+        private Long itemId;
+
+        /** Units to hold (must be positive) */
+        private Integer quantity;
+
+        /** How long to hold them; the configured default when absent */
+        private Long ttlSeconds;
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public Long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(Long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+
+    /**
+     * Data Transfer Object (DTO) for POST /api/reservations/{id}/confirm.
+     */
+    public static class ConfirmRequest {
+        /** Sale price per unit (must be non-negative) */
+        private BigDecimal pricePerUnit;
+
+        /** Optional notes for the SELL transaction */
+        private String notes;
+
+        public BigDecimal getPricePerUnit() {
+            return pricePerUnit;
+        }
+
+        public void setPricePerUnit(BigDecimal pricePerUnit) {
+            this.pricePerUnit = pricePerUnit;
+        }
+
+        public String getNotes() {
+            return notes;
+        }
+
+        public void setNotes(String notes) {
+            this.notes = notes;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dev.inventorymanager.controller;
+
+import dev.inventorymanager.diagnostics.SlowLogEntry;
+import dev.inventorymanager.diagnostics.SlowLogRecorder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Admin endpoints for the slow-request and slow-query log.
+ * Restricted to ADMIN users by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin/slow-log")
+public class SlowLogController {
+
+    private final SlowLogRecorder recorder;
+
+    public SlowLogController(SlowLogRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * GET /api/admin/slow-log
+     * Returns captured entries, newest first, optionally filtered by kind.
+     *
+     * @param kind Optional filter: REQUEST or SQL
+     * @param limit Maximum number of entries to return
+     * @return Captured entries
+     */
+    @GetMapping
+    public List<SlowLogEntry> list(@RequestParam(required = false) SlowLogEntry.Kind kind,
+                                   @RequestParam(defaultValue = "200") int limit) {
+        return recorder.snapshot().stream()
+            .filter(entry -> kind == null || entry.getKind() == kind)
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * POST /api/admin/slow-log/dump
+     * Writes the current buffer to a JSON-lines file on the server.
+     *
+     * @return The path of the written file and the number of entries captured since startup
+     */
+    @PostMapping("/dump")
+    public ResponseEntity<Map<String, Object>> dump() throws IOException {
+        Path file = recorder.dump();
+        Map<String, Object> response = new HashMap<>();
+        response.put("file", file.toString());
+        response.put("capturedSinceStartup", recorder.capturedCount());
+        return ResponseEntity.ok(response);
+    }
+}
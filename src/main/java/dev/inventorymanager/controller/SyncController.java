@@ -0,0 +1,61 @@
+package dev.inventorymanager.controller;
+
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.sync.SyncService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Delta sync for offline-capable clients (see {@link SyncService}).
+ */
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+    private final UserRepository userRepository;
+
+    public SyncController(SyncService syncService, UserRepository userRepository) {
+        this.syncService = syncService;
+        this.userRepository = userRepository;
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() ||
+            authentication.getPrincipal().equals("anonymousUser")) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new IllegalStateException("User not found"));
+    }
+
+    /**
+     * GET /api/sync?since={token}&limit={n}
+     * Returns the items, transactions and deleted item ids that changed since the
+     * token, oldest change first, with the token for the next sync. Without a
+     * token, returns everything. While "more" is true, sync again with the new token.
+     *
+     * @param since Token from the previous sync
+     * @param limit Maximum number of changes in the page (1 to 1000)
+     * @return The page, or 400 for a malformed or unknown token (start over without one)
+     */
+    @GetMapping
+    public ResponseEntity<?> sync(@RequestParam(required = false) String since,
+                                  @RequestParam(defaultValue = "" + SyncService.DEFAULT_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(syncService.changesSince(since, limit, getCurrentUser()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
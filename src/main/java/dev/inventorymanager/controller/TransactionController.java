@@ -1,16 +1,39 @@
 package dev.inventorymanager.controller;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import dev.inventorymanager.conditional.ReadVersions;
+import dev.inventorymanager.config.WireFormatConfig;
 import dev.inventorymanager.model.*;
 import dev.inventorymanager.repository.ItemRepository;
-import dev.inventorymanager.repository.TransactionRepository;
 import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.ConcurrentUpdateException;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.OrderLine;
+import dev.inventorymanager.service.TransactionHistoryService;
 import dev.inventorymanager.service.TransactionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,9 +43,17 @@ import java.util.Map;
  *
  * This controller provides endpoints for:
  * - Creating new buy/sell transactions (POST)
+ * - Resolving a scanned SKU and transacting in one call (POST /scan)
+ * - Placing multi-line orders applied atomically (POST /orders)
  * - Viewing transaction history (GET)
  * - Getting transaction summaries and analytics (GET /summary)
  * - Viewing item-specific transaction history (GET /item/{itemId})
+ * - Exporting transaction history as CSV (GET /export)
+ *
+ * Bodies can be CBOR or Smile instead of JSON (see WireFormatConfig).
+ *
+ * History reads go through TransactionHistoryService, so transactions moved
+ * to the cold-storage archive are included transparently.
  *
  * All endpoints require authentication. Transactions are user-isolated,
  * meaning users can only see and create transactions for their own items.
@@ -36,32 +67,39 @@ import java.util.Map;
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
-    private final TransactionRepository transactionRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final TransactionService transactionService;
+    private final TransactionHistoryService historyService;
+    private final InventoryService inventoryService;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+    private final ReadVersions readVersions;
 
-    public TransactionController(TransactionRepository transactionRepository,
-                                ItemRepository itemRepository,
+    public TransactionController(ItemRepository itemRepository,
                                 UserRepository userRepository,
-                                TransactionService transactionService) {
-        this.transactionRepository = transactionRepository;
+                                TransactionService transactionService,
+                                TransactionHistoryService historyService,
+                                InventoryService inventoryService,
+                                MappingJackson2CborHttpMessageConverter cborConverter,
+                                MappingJackson2SmileHttpMessageConverter smileConverter,
+                                ReadVersions readVersions) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.transactionService = transactionService;
+        this.historyService = historyService;
+        this.inventoryService = inventoryService;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.smileMapper = smileConverter.getObjectMapper();
+        this.readVersions = readVersions;
     }
 
     /**
-     * Helper method to get the currently authenticated user.
-     *
-     * Extracts the user from Spring Security's authentication context.
-     * This ensures that all operations are performed in the context of
-     * the logged-in user, maintaining multi-tenancy isolation.
+     * Helper method to get the currently authenticated user's name, without a query.
      *
-     * @return The currently authenticated User entity
-     * @throws IllegalStateException if user is not authenticated or not found in database
+     * @throws IllegalStateException if user is not authenticated
      */
-    private User getCurrentUser() {
+    private String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         // Check if user is authenticated
@@ -69,10 +107,22 @@ public class TransactionController {
             authentication.getPrincipal().equals("anonymousUser")) {
             throw new IllegalStateException("User not authenticated");
         }
+        return authentication.getName();
+    }
 
-        // Get username from authentication and fetch User entity from database
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
+    /**
+     * Helper method to get the currently authenticated user.
+     *
+     * Extracts the user from Spring Security's authentication context.
+     * This ensures that all operations are performed in the context of
+     * the logged-in user, maintaining multi-tenancy isolation.
+     *
+     * @return The currently authenticated User entity
+     * @throws IllegalStateException if user is not authenticated or not found in database
+     */
+    private User getCurrentUser() {
+        // Fetch User entity from database by the authenticated username
+        return userRepository.findByUsername(getCurrentUsername())
             .orElseThrow(() -> new IllegalStateException("User not found"));
     }
 
@@ -84,6 +134,8 @@ public class TransactionController {
      *
      * Endpoint: GET /api/transactions
      * Authentication: Required
+     * Conditional: ETag / Last-Modified; a matching If-None-Match or
+     * If-Modified-Since gets 304 before any query (see ReadVersions)
      *
      * Example Response:
      * [
@@ -102,32 +154,76 @@ public class TransactionController {
      *   }
      * ]
      *
-     * @return List of transactions ordered by date descending
+     * @return List of transactions ordered by date descending, or nothing with a 304
      */
     @GetMapping
-    public List<Transaction> list() {
-        return transactionRepository.findByUserOrderByTransactionDateDesc(getCurrentUser());
+    public List<Transaction> list(NativeWebRequest request) {
+        if (readVersions.transactionsNotModified(request, getCurrentUsername())) {
+            return null;
+        }
+        return historyService.findByUser(getCurrentUser());
     }
 
     @GetMapping("/item/{itemId}")
     public List<Transaction> getByItem(@PathVariable Long itemId) {
-        return transactionRepository.findByItemIdOrderByTransactionDateDesc(itemId);
+        return historyService.findByItem(itemId, getCurrentUser());
     }
 
     @GetMapping("/summary")
     public ResponseEntity<Map<String, BigDecimal>> getSummary() {
         User currentUser = getCurrentUser();
         Map<String, BigDecimal> summary = new HashMap<>();
-        summary.put("totalSpending", transactionRepository.getTotalSpending(currentUser));
-        summary.put("totalSales", transactionRepository.getTotalSales(currentUser));
-
-        BigDecimal spending = summary.get("totalSpending");
-        BigDecimal sales = summary.get("totalSales");
-        summary.put("netProfit", sales.subtract(spending));
+        long spending = historyService.getTotalSpendingMinor(currentUser);
+        long sales = historyService.getTotalSalesMinor(currentUser);
+        summary.put("totalSpending", Money.toDecimal(spending));
+        summary.put("totalSales", Money.toDecimal(sales));
+        summary.put("netProfit", Money.toDecimal(sales - spending));
 
         return ResponseEntity.ok(summary);
     }
 
+    /**
+     * Export the current user's transactions as CSV, oldest first.
+     *
+     * Endpoint: GET /api/transactions/export?from=2024-01-01&to=2025-01-01
+     * Authentication: Required
+     *
+     * Covers both live and archived transactions. The response is streamed, so
+     * large ranges do not have to fit in memory.
+     *
+     * With Accept: application/cbor or application/x-jackson-smile (preferred over
+     * text/csv), the same rows are streamed as an array of objects in that format.
+     *
+     * @param from Inclusive start date (default: 1970-01-01)
+     * @param to Exclusive end date (default: tomorrow)
+     * @return CSV body with a header row, or the rows in the requested binary format
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        User currentUser = getCurrentUser();
+        LocalDate start = from != null ? from : LocalDate.of(1970, 1, 1);
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        MediaType binary = preferredBinaryType(accept);
+        if (binary != null) {
+            ObjectMapper mapper = binary.equals(WireFormatConfig.CBOR) ? cborMapper : smileMapper;
+            StreamingResponseBody rows = out -> historyService.exportRows(currentUser, start, end,
+                mapper.getFactory().createGenerator(out));
+            return ResponseEntity.ok().contentType(binary).body(rows);
+        }
+        StreamingResponseBody body = out -> historyService.exportCsv(currentUser, start, end,
+            new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        return ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions.csv\"")
+            .body(body);
+    }
+
     /**
      * Create a new buy or sell transaction.
      *
@@ -175,6 +271,7 @@ public class TransactionController {
      * - 400 Bad Request: Invalid data (negative quantity, invalid type, insufficient inventory)
      * - 401 Unauthorized: Not authenticated
      * - 403 Forbidden: Item doesn't belong to current user
+     * - 409 Conflict: The item kept changing concurrently until retries ran out; the body is the current item
      *
      * @param request Transaction request containing itemId, type, quantity, pricePerUnit, and optional notes
      * @return ResponseEntity with the created transaction
@@ -191,13 +288,7 @@ public class TransactionController {
                 .orElseThrow(() -> new IllegalArgumentException("Item not found or access denied"));
 
         // Parse transaction type from string to enum
-        // Accepts "BUY", "SELL", "buy", "sell" (case-insensitive)
-        TransactionType type;
-        try {
-            type = TransactionType.valueOf(request.getType().toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid transaction type. Must be BUY or SELL");
-        }
+        TransactionType type = parseType(request.getType());
 
         // Use TransactionService to process the transaction atomically
         // This ensures inventory and transaction record are updated together
@@ -205,7 +296,7 @@ public class TransactionController {
                 item,
                 type,
                 request.getQuantity(),
-                request.getPricePerUnit(),
+                requiredPrice(request.getPricePerUnitMinor()),
                 currentUser,
                 request.getNotes()
         );
@@ -213,6 +304,190 @@ public class TransactionController {
         return ResponseEntity.ok(transaction);
     }
 
+    /**
+     * Resolve a scanned SKU and create a buy or sell transaction for it, so a
+     * barcode scan is one round trip instead of a lookup followed by a POST.
+     *
+     * Endpoint: POST /api/transactions/scan
+     * Authentication: Required
+     *
+     * Request Body Example:
+     * {
+     *   "sku": "WM-001",
+     *   "type": "SELL",
+     *   "quantity": 1,
+     *   "pricePerUnit": 24.99
+     * }
+     *
+     * Error Responses:
+     * - 400 Bad Request: Invalid data (as for POST /api/transactions)
+     * - 404 Not Found: No item with this SKU for the current user
+     *
+     * @param request Scan request: sku, type, quantity, pricePerUnit and optional notes
+     * @return ResponseEntity with the created transaction
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<Transaction> scan(@RequestBody ScanRequest request) {
+        User currentUser = getCurrentUser();
+        if (request.getSku() == null) {
+            throw new IllegalArgumentException("sku is required");
+        }
+        TransactionType type = parseType(request.getType());
+
+        // The SKU lookup is user-scoped, so it doubles as the ownership check
+        Item item = inventoryService.findBySku(request.getSku(), currentUser).orElse(null);
+        if (item == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Transaction transaction = transactionService.processTransaction(
+                item,
+                type,
+                request.getQuantity(),
+                requiredPrice(request.getPricePerUnitMinor()),
+                currentUser,
+                request.getNotes()
+        );
+        return ResponseEntity.ok(transaction);
+    }
+
+    /**
+     * Place a multi-line order: several buys and sells applied all together or not at all.
+     *
+     * Endpoint: POST /api/transactions/orders
+     * Authentication: Required
+     *
+     * Request Body Example:
+     * {
+     *   "lines": [
+     *     { "itemId": 1, "type": "SELL", "quantity": 2, "pricePerUnit": 24.99 },
+     *     { "itemId": 7, "type": "SELL", "quantity": 1, "pricePerUnit": 9.99, "notes": "Gift wrap" }
+     *   ]
+     * }
+     *
+     * Success Response (200 OK): one transaction per line, in line order.
+     *
+     * Error Responses:
+     * - 400 Bad Request: No lines, an invalid line, an item that is not the user's, or a
+     *   sell exceeding stock; {"error": ...} names it and nothing is applied
+     * - 409 Conflict: An item stayed locked by other writers past the lock timeout
+     *
+     * @param request Order request with its lines
+     * @return ResponseEntity with the created transactions
+     */
+    @PostMapping("/orders")
+    public ResponseEntity<?> order(@RequestBody OrderRequest request) {
+        User currentUser = getCurrentUser();
+        try {
+            if (request.getLines() == null) {
+                throw new IllegalArgumentException("An order needs at least one line");
+            }
+            List<OrderLine> lines = new ArrayList<>(request.getLines().size());
+            for (TransactionRequest line : request.getLines()) {
+                lines.add(new OrderLine(line.getItemId(), parseType(line.getType()), line.getQuantity(),
+                    line.getPricePerUnitMinor(), line.getNotes()));
+            }
+            return ResponseEntity.ok(transactionService.processOrder(lines, currentUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Validation failures thrown by any endpoint here (e.g. an empty export range or a scan
+     * without a SKU): 400 with the reason, in the same shape as the orders and sync endpoints.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * A buy or sell that kept losing to concurrent writes of its item: 409 with the item as it is now.
+     */
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<Item> conflict(ConcurrentUpdateException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body((Item) ex.getCurrent());
+    }
+
+    /**
+     * Accepts "BUY", "SELL", "buy", "sell" (case-insensitive).
+     */
+    private TransactionType parseType(String type) {
+        try {
+            return TransactionType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid transaction type. Must be BUY or SELL");
+        }
+    }
+
+    /**
+     * @return The binary format the Accept header prefers, or null if it prefers anything else (e.g. CSV or any type)
+     */
+    private static MediaType preferredBinaryType(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return null;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(types);
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType binary : WireFormatConfig.BINARY_TYPES) {
+                if (binary.equalsTypeAndSubtype(type)) {
+                    return binary;
+                }
+            }
+            return null;
+        }
+        return null;
+    }
+
+    private static long requiredPrice(Long pricePerUnitMinor) {
+        if (pricePerUnitMinor == null) {
+            throw new IllegalArgumentException("pricePerUnit is required");
+        }
+        return pricePerUnitMinor;
+    }
+
+    /**
+     * Data Transfer Object (DTO) for POST /api/transactions/orders.
+     */
+    public static class OrderRequest {
+        /** The order's lines, each shaped like a POST /api/transactions body */
+        private List<TransactionRequest> lines;
+
+        public List<TransactionRequest> getLines() {
+            return lines;
+        }
+
+        public void setLines(List<TransactionRequest> lines) {
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Data Transfer Object (DTO) for POST /api/transactions/scan: a transaction
+     * request that names the item by SKU instead of id.
+     */
+    public static class ScanRequest extends TransactionRequest {
+        /** SKU read by the scanner */
+        private String sku;
+
+        public String getSku() {
+            return sku;
+        }
+
+        public void setSku(String sku) {
+            this.sku = sku;
+        }
+    }
+
     /**
      * Data Transfer Object (DTO) for creating transactions.
      *
@@ -231,8 +506,14 @@ public class TransactionController {
         /** Number of units to buy or sell (must be positive) */
         private Integer quantity;
 
-        /** Price per unit for this transaction (must be non-negative) */
-        private BigDecimal pricePerUnit;
+        /**
+         * Price per unit for this transaction (must be non-negative), parsed from the
+         * JSON number straight into minor units (see {@link Money})
+         */
+        @JsonProperty("pricePerUnit")
+        @JsonSerialize(using = Money.Serializer.class)
+        @JsonDeserialize(using = Money.Deserializer.class)
+        private Long pricePerUnitMinor;
 
         /** Optional notes/comments about the transaction */
         private String notes;
@@ -261,12 +542,12 @@ public class TransactionController {
             this.quantity = quantity;
         }
 
-        public BigDecimal getPricePerUnit() {
-            return pricePerUnit;
+        public Long getPricePerUnitMinor() {
+            return pricePerUnitMinor;
         }
 
-        public void setPricePerUnit(BigDecimal pricePerUnit) {
-            this.pricePerUnit = pricePerUnit;
+        public void setPricePerUnitMinor(Long pricePerUnitMinor) {
+            this.pricePerUnitMinor = pricePerUnitMinor;
         }
 
         public String getNotes() {
@@ -0,0 +1,69 @@
+package dev.inventorymanager.controller;
+
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.TenantDeletionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Admin endpoints for deleting and restoring tenants.
+ * Restricted to ADMIN users by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserAdminController {
+
+    private final TenantDeletionService deletionService;
+    private final UserRepository userRepository;
+
+    public UserAdminController(TenantDeletionService deletionService, UserRepository userRepository) {
+        this.deletionService = deletionService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * DELETE /api/admin/users/{username}
+     * Deletes a user with all of their items and transactions.
+     *
+     * @param soft Only disable the account and keep its data until the scheduled purge
+     * @return What was deleted, or 404 if there is no such user
+     */
+    @DeleteMapping("/{username}")
+    public ResponseEntity<?> delete(@PathVariable String username, @RequestParam(defaultValue = "false") boolean soft) {
+        Optional<User> user = userRepository.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(soft ? deletionService.softDelete(user.get()) : deletionService.purge(user.get()));
+    }
+
+    /**
+     * POST /api/admin/users/{username}/restore
+     * Re-enables a soft-deleted user.
+     *
+     * @return 204, 404 if there is no such user, or 409 if the user is not deleted
+     */
+    @PostMapping("/{username}/restore")
+    public ResponseEntity<?> restore(@PathVariable String username) {
+        Optional<User> user = userRepository.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            deletionService.restore(user.get());
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
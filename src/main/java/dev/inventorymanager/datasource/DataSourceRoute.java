@@ -0,0 +1,11 @@
+package dev.inventorymanager.datasource;
+
+/**
+ * Target of a connection request under read/write routing.
+ */
+public enum DataSourceRoute {
+    /** Writes, and reads that must see the latest commit */
+    PRIMARY,
+    /** Read-only transactions, when the replica is fresh enough for the caller */
+    REPLICA
+}
@@ -0,0 +1,101 @@
+package dev.inventorymanager.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Measures how far the read replica is behind the primary.
+ *
+ * Every heartbeat the current time is written to a one-row table on the
+ * primary and read back from the replica. Replication applies commits in
+ * order, so a replica showing beat T has every commit made before T; its lag is
+ * at most now - T.
+ *
+ * Until a beat has been read from the replica (or when reading it fails) the
+ * replica counts as unusable and reads stay on the primary.
+ *
+ * The heartbeat table comes from db/schema.sql. The monitor sits underneath the
+ * DataSource that applies that script, so it starts beating once the application
+ * is ready rather than when it is created.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxStalenessMs;
+
+    // Primary time of the newest beat visible on the replica; -1 when unknown
+    private volatile long caughtUpTo = -1;
+    private volatile boolean replicaFailing;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxStalenessMs) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxStalenessMs = maxStalenessMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (primary.update("UPDATE replica_heartbeat SET beat_millis = beat_millis WHERE id = 1") == 0) {
+            primary.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", System.currentTimeMillis());
+        }
+        // First beat here rather than whenever the scheduler gets to it, so later beats come at a steady interval
+        refresh();
+    }
+
+    /**
+     * Writes a beat to the primary, then reads the newest beat the replica has.
+     */
+    @Scheduled(initialDelayString = "${inventory.datasource.replica.heartbeat-ms:1000}",
+               fixedDelayString = "${inventory.datasource.replica.heartbeat-ms:1000}")
+    public void refresh() {
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            log.warn("Could not write replica heartbeat: {}", e.getMessage());
+        }
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+            caughtUpTo = beats.isEmpty() ? -1 : beats.get(0);
+            if (replicaFailing) {
+                log.info("Replica heartbeat readable again");
+                replicaFailing = false;
+            }
+        } catch (DataAccessException e) {
+            caughtUpTo = -1;
+            if (!replicaFailing) {
+                log.warn("Replica heartbeat unreadable, reads go to the primary: {}", e.getMessage());
+                replicaFailing = true;
+            }
+        }
+    }
+
+    /**
+     * @return Whether the replica is within the staleness budget and has every
+     *         commit made up to {@code mustSeeMillis}
+     */
+    public boolean canServe(long mustSeeMillis) {
+        long seen = caughtUpTo;
+        return seen >= 0
+            && System.currentTimeMillis() - seen <= maxStalenessMs
+            && seen >= mustSeeMillis;
+    }
+
+    /**
+     * @return Estimated replica lag in milliseconds, or -1 when unknown
+     */
+    public long lagMillis() {
+        long seen = caughtUpTo;
+        return seen < 0 ? -1 : Math.max(0, System.currentTimeMillis() - seen);
+    }
+}
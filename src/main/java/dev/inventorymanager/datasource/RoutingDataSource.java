@@ -0,0 +1,127 @@
+package dev.inventorymanager.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends read-only service transactions to the replica and everything else to the primary.
+ *
+ * A read goes to the replica only if:
+ * - it runs in a {@code @Transactional(readOnly = true)} transaction started in
+ *   one of the configured packages (the service layer). Spring Data wraps bare
+ *   repository reads such as findById in read-only transactions of its own, and
+ *   callers routinely read through those and then write; those stay on the
+ *   primary.
+ * - the replica is within the staleness budget
+ * - read-your-writes: the replica already has the current user's latest
+ *   committed write
+ * Work outside a transaction always uses the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks
+ * for a connection before the transaction's read-only flag is published, and
+ * the proxy defers the lookup to the first statement.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final List<String> readPackages;
+
+    // Username to the time of their latest committed write; dropped once the replica has it
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong replicaReads = new AtomicLong();
+
+    /**
+     * @param readPackages Package prefixes whose read-only transactions may use the replica
+     */
+    public RoutingDataSource(ReplicaLagMonitor lagMonitor, List<String> readPackages) {
+        this.lagMonitor = lagMonitor;
+        this.readPackages = List.copyOf(readPackages);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return DataSourceRoute.PRIMARY;
+        }
+        String user = currentUsername();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lastWriteByUser.merge(user, System.currentTimeMillis(), Math::max);
+                    }
+                });
+            }
+            return DataSourceRoute.PRIMARY;
+        }
+        if (!startedInReadPackage(TransactionSynchronizationManager.getCurrentTransactionName())) {
+            return DataSourceRoute.PRIMARY;
+        }
+        Long lastWrite = user == null ? null : lastWriteByUser.get(user);
+        if (lagMonitor.canServe(lastWrite == null ? 0 : lastWrite)) {
+            if (lastWrite != null) {
+                lastWriteByUser.remove(user, lastWrite);
+            }
+            replicaReads.incrementAndGet();
+            return DataSourceRoute.REPLICA;
+        }
+        primaryReads.incrementAndGet();
+        return DataSourceRoute.PRIMARY;
+    }
+
+    /**
+     * Keeps the user's reads on the primary until the replica has everything
+     * committed up to the given time, as after the user's own writes. For data
+     * that changed on the user's behalf, e.g. through the journal projector.
+     */
+    public void requireFreshReads(String username, long committedMillis) {
+        lastWriteByUser.merge(username, committedMillis, Math::max);
+    }
+
+    /**
+     * @return Replica-eligible read-only transactions the primary served instead, since startup
+     */
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    /**
+     * @return Read-only transactions served by the replica since startup
+     */
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    /** The transaction name is the qualified name of the method that started it. */
+    private boolean startedInReadPackage(String transactionName) {
+        if (transactionName == null) {
+            return false;
+        }
+        for (String prefix : readPackages) {
+            if (transactionName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || "anonymousUser".equals(authentication.getPrincipal())) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
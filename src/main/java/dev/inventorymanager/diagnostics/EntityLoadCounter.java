@@ -0,0 +1,19 @@
+package dev.inventorymanager.diagnostics;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/**
+ * Counts entities hydrated from result sets, which the slow log reports as
+ * rows loaded per request and per statement.
+ */
+public class EntityLoadCounter extends EmptyInterceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestTrace.current().rowsLoaded++;
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package dev.inventorymanager.diagnostics;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Mutable per-thread timing context for the slow-request and slow-query log.
+ *
+ * One instance lives in a ThreadLocal per worker thread and is reset at the
+ * start of every request, so the measuring path only writes primitive fields
+ * and references that already exist; nothing is allocated unless a threshold
+ * is crossed and {@link SlowLogRecorder} builds a {@link SlowLogEntry}.
+ *
+ * Statements executed outside a request (scheduled jobs, startup) use the same
+ * context with {@link #request} left null.
+ */
+final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = ThreadLocal.withInitial(RequestTrace::new);
+
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    // Request-level timings (System.nanoTime values)
+    HttpServletRequest request;
+    String principal;
+    long requestStartNanos;
+    long handlerStartNanos;
+    long handlerEndNanos;
+
+    // Accumulated database work for the current request
+    long sqlNanos;
+    int sqlStatements;
+    long rowsLoaded;
+
+    // Statement currently executing, as seen by the Hibernate statement inspector
+    String currentSql;
+    long statementStartNanos;
+
+    // A statement that crossed the SQL threshold; captured once its rows are hydrated
+    String pendingSql;
+    long pendingSqlNanos;
+    long pendingRowsBase;
+
+    void beginRequest(HttpServletRequest request, long now) {
+        this.request = request;
+        this.principal = null;
+        this.requestStartNanos = now;
+        this.handlerStartNanos = 0;
+        this.handlerEndNanos = 0;
+        this.sqlNanos = 0;
+        this.sqlStatements = 0;
+        this.rowsLoaded = 0;
+        this.currentSql = null;
+        this.statementStartNanos = 0;
+        this.pendingSql = null;
+    }
+
+    void endRequest() {
+        this.request = null;
+        this.principal = null;
+        this.currentSql = null;
+        this.pendingSql = null;
+    }
+}
@@ -0,0 +1,117 @@
+package dev.inventorymanager.diagnostics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * One captured slow request or slow SQL statement.
+ *
+ * Immutable so it can be published into the ring buffer and read by the admin
+ * endpoint without locking. Durations are in microseconds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SlowLogEntry {
+
+    /** What crossed the threshold. */
+    public enum Kind {
+        REQUEST,
+        SQL
+    }
+
+    private final Kind kind;
+    private final Instant capturedAt;
+    private final String endpoint;
+    private final String principal;
+    private final long durationMicros;
+
+    // REQUEST only: breakdown of where the time went
+    private final Integer status;
+    private final Long securityMicros;
+    private final Long handlerMicros;
+    private final Long sqlMicros;
+    private final Integer sqlStatements;
+
+    // SQL only
+    private final String sql;
+
+    /** Entities hydrated by the request, or by the statement for SQL entries. */
+    private final long rowsLoaded;
+
+    private SlowLogEntry(Kind kind, String endpoint, String principal, long durationMicros, Integer status,
+                         Long securityMicros, Long handlerMicros, Long sqlMicros, Integer sqlStatements,
+                         String sql, long rowsLoaded) {
+        this.kind = kind;
+        this.capturedAt = Instant.now();
+        this.endpoint = endpoint;
+        this.principal = principal;
+        this.durationMicros = durationMicros;
+        this.status = status;
+        this.securityMicros = securityMicros;
+        this.handlerMicros = handlerMicros;
+        this.sqlMicros = sqlMicros;
+        this.sqlStatements = sqlStatements;
+        this.sql = sql;
+        this.rowsLoaded = rowsLoaded;
+    }
+
+    static SlowLogEntry request(String endpoint, String principal, int status, long totalMicros,
+                                long securityMicros, long handlerMicros, long sqlMicros,
+                                int sqlStatements, long rowsLoaded) {
+        return new SlowLogEntry(Kind.REQUEST, endpoint, principal, totalMicros, status,
+            securityMicros, handlerMicros, sqlMicros, sqlStatements, null, rowsLoaded);
+    }
+
+    static SlowLogEntry sql(String endpoint, String principal, String sql, long durationMicros, long rowsLoaded) {
+        return new SlowLogEntry(Kind.SQL, endpoint, principal, durationMicros, null,
+            null, null, null, null, sql, rowsLoaded);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Instant getCapturedAt() {
+        return capturedAt;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public Long getSecurityMicros() {
+        return securityMicros;
+    }
+
+    public Long getHandlerMicros() {
+        return handlerMicros;
+    }
+
+    public Long getSqlMicros() {
+        return sqlMicros;
+    }
+
+    public Integer getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getRowsLoaded() {
+        return rowsLoaded;
+    }
+}
@@ -0,0 +1,230 @@
+package dev.inventorymanager.diagnostics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Always-on recorder for slow HTTP requests and slow SQL statements.
+ *
+ * Anything slower than its configured threshold is turned into a
+ * {@link SlowLogEntry} and published into a fixed-size ring buffer. Writers
+ * claim a slot with a single atomic increment and never block each other or
+ * readers; once the buffer is full the oldest entries are overwritten.
+ *
+ * Measuring happens in {@link RequestTrace} and costs a few field writes per
+ * request and per statement. Entries (and the strings inside them) are only
+ * built once a threshold has been exceeded.
+ *
+ * Configuration:
+ * - inventory.slowlog.request-threshold-ms: requests slower than this are captured
+ * - inventory.slowlog.sql-threshold-ms: statements slower than this are captured
+ * - inventory.slowlog.capacity: ring buffer size (rounded up to a power of two)
+ * - inventory.slowlog.dump-dir: directory for on-demand dumps
+ */
+@Component
+public class SlowLogRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowLogRecorder.class);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    /**
+     * Hibernate instantiates session listeners itself, so they reach the recorder
+     * through this reference rather than through injection.
+     */
+    private static volatile SlowLogRecorder active;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${inventory.slowlog.request-threshold-ms:500}")
+    private long requestThresholdMillis;
+
+    @Value("${inventory.slowlog.sql-threshold-ms:100}")
+    private long sqlThresholdMillis;
+
+    @Value("${inventory.slowlog.capacity:1024}")
+    private int capacity;
+
+    @Value("${inventory.slowlog.dump-dir:${java.io.tmpdir}}")
+    private String dumpDir;
+
+    private long requestThresholdNanos;
+    private long sqlThresholdNanos;
+    private AtomicReferenceArray<SlowLogEntry> ring;
+    private int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlowLogRecorder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() {
+        int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        ring = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        requestThresholdNanos = requestThresholdMillis * 1_000_000L;
+        sqlThresholdNanos = sqlThresholdMillis * 1_000_000L;
+        active = this;
+    }
+
+    @PreDestroy
+    void stop() {
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    static SlowLogRecorder active() {
+        return active;
+    }
+
+    /**
+     * Called when a request finishes. Captures it if it exceeded the request threshold.
+     */
+    void onRequestEnd(RequestTrace trace, int status, long now) {
+        flushPendingStatement(trace);
+        long total = now - trace.requestStartNanos;
+        if (total < requestThresholdNanos) {
+            return;
+        }
+        long handlerStart = trace.handlerStartNanos != 0 ? trace.handlerStartNanos : now;
+        long handlerEnd = trace.handlerEndNanos != 0 ? trace.handlerEndNanos : now;
+        publish(SlowLogEntry.request(
+            endpoint(trace.request),
+            trace.principal,
+            status,
+            total / 1000,
+            (handlerStart - trace.requestStartNanos) / 1000,
+            (handlerEnd - handlerStart) / 1000,
+            trace.sqlNanos / 1000,
+            trace.sqlStatements,
+            trace.rowsLoaded));
+    }
+
+    /**
+     * Called when a JDBC statement finishes executing. A slow statement is held as
+     * pending until the next statement (or the end of the request/session) so the
+     * rows hydrated from its result set can be attributed to it.
+     */
+    void onStatementEnd(RequestTrace trace, long now) {
+        if (trace.statementStartNanos == 0) {
+            return;
+        }
+        long elapsed = now - trace.statementStartNanos;
+        trace.statementStartNanos = 0;
+        trace.sqlNanos += elapsed;
+        trace.sqlStatements++;
+        if (elapsed >= sqlThresholdNanos) {
+            flushPendingStatement(trace);
+            trace.pendingSql = trace.currentSql;
+            trace.pendingSqlNanos = elapsed;
+            trace.pendingRowsBase = trace.rowsLoaded;
+        }
+    }
+
+    void flushPendingStatement(RequestTrace trace) {
+        if (trace.pendingSql == null) {
+            return;
+        }
+        String sql = trace.pendingSql;
+        trace.pendingSql = null;
+        publish(SlowLogEntry.sql(
+            endpoint(trace.request),
+            trace.principal,
+            redact(sql),
+            trace.pendingSqlNanos / 1000,
+            trace.rowsLoaded - trace.pendingRowsBase));
+    }
+
+    private void publish(SlowLogEntry entry) {
+        long slot = sequence.getAndIncrement();
+        ring.set((int) (slot & mask), entry);
+    }
+
+    /**
+     * Returns the captured entries, newest first.
+     * @return Snapshot of the ring buffer
+     */
+    public List<SlowLogEntry> snapshot() {
+        long end = sequence.get();
+        long start = Math.max(0, end - ring.length());
+        List<SlowLogEntry> entries = new ArrayList<>((int) (end - start));
+        for (long slot = end - 1; slot >= start; slot--) {
+            SlowLogEntry entry = ring.get((int) (slot & mask));
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return Total number of entries captured since startup (including overwritten ones)
+     */
+    public long capturedCount() {
+        return sequence.get();
+    }
+
+    /**
+     * Writes the current ring buffer contents to a JSON-lines file in the dump directory.
+     * @return Path of the written file
+     * @throws IOException if the file cannot be written
+     */
+    public Path dump() throws IOException {
+        Path directory = Paths.get(dumpDir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve("slow-log-"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")) + ".jsonl");
+        List<SlowLogEntry> entries = snapshot();
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (SlowLogEntry entry : entries) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.newLine();
+            }
+        }
+        log.info("Dumped {} slow-log entries to {}", entries.size(), file);
+        return file;
+    }
+
+    /**
+     * Replaces string and numeric literals with '?'. Bind parameters are already
+     * placeholders in Hibernate's SQL; this catches literals inlined from JPQL.
+     */
+    static String redact(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String withoutStrings = STRING_LITERAL.matcher(sql).replaceAll("'?'");
+        return NUMERIC_LITERAL.matcher(withoutStrings).replaceAll("?");
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        if (request == null) {
+            return "background";
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
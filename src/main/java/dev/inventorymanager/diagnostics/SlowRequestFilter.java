@@ -0,0 +1,40 @@
+package dev.inventorymanager.diagnostics;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Outermost filter of the slow-request log. Runs before Spring Security so the
+ * measured time includes authentication.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SlowRequestFilter extends OncePerRequestFilter {
+
+    private final SlowLogRecorder recorder;
+
+    public SlowRequestFilter(SlowLogRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.current();
+        trace.beginRequest(request, System.nanoTime());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            recorder.onRequestEnd(trace, response.getStatus(), System.nanoTime());
+            trace.endRequest();
+        }
+    }
+}
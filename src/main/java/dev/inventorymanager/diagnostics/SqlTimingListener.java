@@ -0,0 +1,53 @@
+package dev.inventorymanager.diagnostics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Times JDBC statement and batch executions for the slow-query log.
+ *
+ * Stateless: one instance is shared by every session (see DiagnosticsConfig)
+ * and all state lives in the thread's {@link RequestTrace}. Registering the
+ * class through {@code hibernate.session.events.auto} instead would make
+ * Hibernate instantiate it for every session.
+ */
+public class SqlTimingListener extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        finish();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        finish();
+    }
+
+    @Override
+    public void end() {
+        SlowLogRecorder recorder = SlowLogRecorder.active();
+        if (recorder != null) {
+            recorder.flushPendingStatement(RequestTrace.current());
+        }
+    }
+
+    private static void start() {
+        RequestTrace.current().statementStartNanos = System.nanoTime();
+    }
+
+    private static void finish() {
+        SlowLogRecorder recorder = SlowLogRecorder.active();
+        if (recorder != null) {
+            recorder.onStatementEnd(RequestTrace.current(), System.nanoTime());
+        }
+    }
+}
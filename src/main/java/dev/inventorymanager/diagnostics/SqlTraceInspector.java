@@ -0,0 +1,16 @@
+package dev.inventorymanager.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the SQL of the statement about to be prepared so a slow execution
+ * can be attributed to it. Returns the statement unchanged.
+ */
+public class SqlTraceInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestTrace.current().currentSql = sql;
+        return sql;
+    }
+}
@@ -0,0 +1,85 @@
+package dev.inventorymanager.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a bulk repricing, stock-take or delete.
+ */
+public class BulkUpdateResponse {
+
+    /** Items the update selected */
+    private int matched;
+
+    /** Items whose row changed */
+    private int updated;
+
+    /** Audit transactions recorded (stock-take only) */
+    private int adjustments;
+
+    /** Transactions deleted along with their items (delete only) */
+    private long deletedTransactions;
+
+    /** Counted SKUs the user has no item for (stock-take only) */
+    private List<String> unknownSkus;
+
+    /** Wall-clock time the update took */
+    private long elapsedMs;
+
+    public BulkUpdateResponse() {}
+
+    public BulkUpdateResponse(int matched, int updated, int adjustments, List<String> unknownSkus, long elapsedMs) {
+        this.matched = matched;
+        this.updated = updated;
+        this.adjustments = adjustments;
+        this.unknownSkus = unknownSkus;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public void setMatched(int matched) {
+        this.matched = matched;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getAdjustments() {
+        return adjustments;
+    }
+
+    public void setAdjustments(int adjustments) {
+        this.adjustments = adjustments;
+    }
+
+    public long getDeletedTransactions() {
+        return deletedTransactions;
+    }
+
+    public void setDeletedTransactions(long deletedTransactions) {
+        this.deletedTransactions = deletedTransactions;
+    }
+
+    public List<String> getUnknownSkus() {
+        return unknownSkus;
+    }
+
+    public void setUnknownSkus(List<String> unknownSkus) {
+        this.unknownSkus = unknownSkus;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+}
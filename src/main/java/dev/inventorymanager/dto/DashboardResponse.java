@@ -1,6 +1,11 @@
 package dev.inventorymanager.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
 import dev.inventorymanager.model.Transaction;
 
 import java.math.BigDecimal;
@@ -12,6 +17,9 @@ import java.util.List;
  * - Inventory metrics (items, values, quantities)
  * - Transaction metrics (spending, sales, profit)
  * - Activity lists (recent transactions, top items, low stock alerts)
+ *
+ * Amounts are held in minor units (see {@link Money}) and written to JSON as
+ * decimal numbers; the BigDecimal getters are for Java callers.
  */
 public class DashboardResponse {
 
@@ -20,7 +28,10 @@ public class DashboardResponse {
     private Long totalItems;
 
     /** Total monetary value of all inventory (sum of price * quantity for all items) */
-    private BigDecimal totalInventoryValue;
+    @JsonProperty
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long totalInventoryValue;
 
     /** Total quantity of all items combined */
     private Integer totalItemQuantity;
@@ -33,13 +44,22 @@ public class DashboardResponse {
     private Long totalTransactions;
 
     /** Total amount spent on BUY transactions */
-    private BigDecimal totalSpending;
+    @JsonProperty
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long totalSpending;
 
     /** Total revenue from SELL transactions */
-    private BigDecimal totalSales;
+    @JsonProperty
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long totalSales;
 
     /** Net profit calculated as totalSales - totalSpending */
-    private BigDecimal netProfit;
+    @JsonProperty
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long netProfit;
 
     // Recent Activity
     /** List of the most recent transactions (up to 10) */
@@ -62,12 +82,19 @@ public class DashboardResponse {
         this.totalItems = totalItems;
     }
 
+    @JsonIgnore
     public BigDecimal getTotalInventoryValue() {
+        return Money.toDecimal(totalInventoryValue);
+    }
+
+    @JsonIgnore
+    public long getTotalInventoryValueMinor() {
         return totalInventoryValue;
     }
 
-    public void setTotalInventoryValue(BigDecimal totalInventoryValue) {
-        this.totalInventoryValue = totalInventoryValue;
+    @JsonIgnore
+    public void setTotalInventoryValueMinor(long totalInventoryValueMinor) {
+        this.totalInventoryValue = totalInventoryValueMinor;
     }
 
     public Integer getTotalItemQuantity() {
@@ -94,28 +121,49 @@ public class DashboardResponse {
         this.totalTransactions = totalTransactions;
     }
 
+    @JsonIgnore
     public BigDecimal getTotalSpending() {
+        return Money.toDecimal(totalSpending);
+    }
+
+    @JsonIgnore
+    public long getTotalSpendingMinor() {
         return totalSpending;
     }
 
-    public void setTotalSpending(BigDecimal totalSpending) {
-        this.totalSpending = totalSpending;
+    @JsonIgnore
+    public void setTotalSpendingMinor(long totalSpendingMinor) {
+        this.totalSpending = totalSpendingMinor;
     }
 
+    @JsonIgnore
     public BigDecimal getTotalSales() {
+        return Money.toDecimal(totalSales);
+    }
+
+    @JsonIgnore
+    public long getTotalSalesMinor() {
         return totalSales;
     }
 
-    public void setTotalSales(BigDecimal totalSales) {
-        this.totalSales = totalSales;
+    @JsonIgnore
+    public void setTotalSalesMinor(long totalSalesMinor) {
+        this.totalSales = totalSalesMinor;
     }
 
+    @JsonIgnore
     public BigDecimal getNetProfit() {
+        return Money.toDecimal(netProfit);
+    }
+
+    @JsonIgnore
+    public long getNetProfitMinor() {
         return netProfit;
     }
 
-    public void setNetProfit(BigDecimal netProfit) {
-        this.netProfit = netProfit;
+    @JsonIgnore
+    public void setNetProfitMinor(long netProfitMinor) {
+        this.netProfit = netProfitMinor;
     }
 
     public List<Transaction> getRecentTransactions() {
@@ -152,9 +200,15 @@ public class DashboardResponse {
         private String name;
         private String sku;
         private Integer quantity;
-        private BigDecimal price;
+        @JsonProperty
+        @JsonSerialize(using = Money.Serializer.class)
+        @JsonDeserialize(using = Money.Deserializer.class)
+        private Long price;
         /** Calculated total value (price * quantity) */
-        private BigDecimal totalValue;
+        @JsonProperty
+        @JsonSerialize(using = Money.Serializer.class)
+        @JsonDeserialize(using = Money.Deserializer.class)
+        private long totalValue;
 
         public ItemSummary() {}
 
@@ -168,11 +222,11 @@ public class DashboardResponse {
             this.name = item.getName();
             this.sku = item.getSku();
             this.quantity = item.getQuantity();
-            this.price = item.getPrice();
+            this.price = item.getPriceMinor();
             // Calculate total value, defaulting to zero if price or quantity is null
-            this.totalValue = item.getPrice() != null && item.getQuantity() != null
-                ? item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()))
-                : BigDecimal.ZERO;
+            this.totalValue = price != null && item.getQuantity() != null
+                ? Money.times(price, item.getQuantity())
+                : 0;
         }
 
         // Getters and Setters
@@ -208,20 +262,24 @@ public class DashboardResponse {
             this.quantity = quantity;
         }
 
+        @JsonIgnore
         public BigDecimal getPrice() {
-            return price;
+            return Money.toDecimalOrNull(price);
         }
 
+        @JsonIgnore
         public void setPrice(BigDecimal price) {
-            this.price = price;
+            this.price = Money.toMinorOrNull(price);
         }
 
+        @JsonIgnore
         public BigDecimal getTotalValue() {
-            return totalValue;
+            return Money.toDecimal(totalValue);
         }
 
+        @JsonIgnore
         public void setTotalValue(BigDecimal totalValue) {
-            this.totalValue = totalValue;
+            this.totalValue = Money.toMinor(totalValue);
         }
     }
 }
@@ -0,0 +1,64 @@
+package dev.inventorymanager.dto;
+
+import dev.inventorymanager.model.Item;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of item search results.
+ */
+public class ItemSearchResponse {
+
+    /** Matching items on this page, best match first */
+    private List<Item> items;
+
+    /** Number of matching items across all pages */
+    private int total;
+
+    /** Zero-based page number */
+    private int page;
+
+    /** Requested page size */
+    private int size;
+
+    public ItemSearchResponse() {}
+
+    public ItemSearchResponse(List<Item> items, int total, int page, int size) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
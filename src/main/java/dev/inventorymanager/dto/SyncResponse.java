@@ -0,0 +1,78 @@
+package dev.inventorymanager.dto;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of a delta sync.
+ */
+public class SyncResponse {
+
+    /** Items created or updated since the token, in their current state */
+    private List<Item> items;
+
+    /** Transactions recorded (or updated) since the token */
+    private List<Transaction> transactions;
+
+    /** Ids of items deleted since the token; their transactions are gone with them */
+    private List<Long> deletedItems;
+
+    /** Token to send on the next sync; opaque to clients */
+    private String token;
+
+    /** True if more changes are waiting; sync again with the token straight away */
+    private boolean more;
+
+    public SyncResponse() {}
+
+    public SyncResponse(List<Item> items, List<Transaction> transactions, List<Long> deletedItems, String token,
+                        boolean more) {
+        this.items = items;
+        this.transactions = transactions;
+        this.deletedItems = deletedItems;
+        this.token = token;
+        this.more = more;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<Transaction> transactions) {
+        this.transactions = transactions;
+    }
+
+    public List<Long> getDeletedItems() {
+        return deletedItems;
+    }
+
+    public void setDeletedItems(List<Long> deletedItems) {
+        this.deletedItems = deletedItems;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+
+    public void setMore(boolean more) {
+        this.more = more;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.inventorymanager.dto;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of deleting a tenant.
+ */
+public class TenantDeletionResponse {
+
+    /** The deleted user */
+    private String username;
+
+    /** True if the account was only disabled and its data kept */
+    private boolean soft;
+
+    /** Items purged */
+    private long items;
+
+    /** Transactions purged */
+    private long transactions;
+
+    /** Wall-clock time the deletion took */
+    private long elapsedMs;
+
+    public TenantDeletionResponse() {}
+
+    public TenantDeletionResponse(String username, boolean soft, long items, long transactions, long elapsedMs) {
+        this.username = username;
+        this.soft = soft;
+        this.items = items;
+        this.transactions = transactions;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public boolean isSoft() {
+        return soft;
+    }
+
+    public void setSoft(boolean soft) {
+        this.soft = soft;
+    }
+
+    public long getItems() {
+        return items;
+    }
+
+    public void setItems(long items) {
+        this.items = items;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+}
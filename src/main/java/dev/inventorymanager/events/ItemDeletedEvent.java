@@ -0,0 +1,23 @@
+package dev.inventorymanager.events;
+
+/**
+ * Published when an item (and with it, its transactions) is deleted.
+ */
+public class ItemDeletedEvent {
+
+    private final long userId;
+    private final long itemId;
+
+    public ItemDeletedEvent(long userId, long itemId) {
+        this.userId = userId;
+        this.itemId = itemId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+}
@@ -0,0 +1,56 @@
+package dev.inventorymanager.events;
+
+import dev.inventorymanager.model.Item;
+
+/**
+ * Published when an item is created or edited through InventoryService.
+ */
+public class ItemSavedEvent {
+
+    private final long userId;
+    private final long itemId;
+    private final String name;
+    private final String sku;
+    private final int quantity;
+    /** Minor units, see {@link dev.inventorymanager.model.Money} */
+    private final long priceMinor;
+
+    public ItemSavedEvent(long userId, long itemId, String name, String sku, int quantity, long priceMinor) {
+        this.userId = userId;
+        this.itemId = itemId;
+        this.name = name;
+        this.sku = sku;
+        this.quantity = quantity;
+        this.priceMinor = priceMinor;
+    }
+
+    public static ItemSavedEvent of(Item item) {
+        return new ItemSavedEvent(item.getUser().getId(), item.getId(), item.getName(), item.getSku(),
+            item.getQuantity() == null ? 0 : item.getQuantity(),
+            item.getPriceMinor() == null ? 0 : item.getPriceMinor());
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getPriceMinor() {
+        return priceMinor;
+    }
+}
@@ -0,0 +1,57 @@
+package dev.inventorymanager.events;
+
+import java.util.List;
+
+/**
+ * Published once per chunk of a bulk update (repricing or stock-take), instead
+ * of one {@link ItemSavedEvent} per item, so in-memory views apply the whole
+ * chunk at once.
+ *
+ * The arrays are parallel to {@link #getItemIds()}; a field the update did not
+ * touch is null. Audit transactions written by a stock-take come along as
+ * {@link #getAdjustments()} rather than as separate {@link TransactionRecordedEvent}s.
+ */
+public class ItemsBulkUpdatedEvent {
+
+    private final long userId;
+    private final long[] itemIds;
+    private final int[] quantities;
+    private final long[] pricesMinor;
+    private final List<TransactionRecordedEvent> adjustments;
+
+    public ItemsBulkUpdatedEvent(long userId, long[] itemIds, int[] quantities, long[] pricesMinor,
+                                 List<TransactionRecordedEvent> adjustments) {
+        this.userId = userId;
+        this.itemIds = itemIds;
+        this.quantities = quantities;
+        this.pricesMinor = pricesMinor;
+        this.adjustments = adjustments;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long[] getItemIds() {
+        return itemIds;
+    }
+
+    /**
+     * @return New quantities, or null if the update left quantities alone
+     */
+    public int[] getQuantities() {
+        return quantities;
+    }
+
+    /**
+     * @return New prices in minor units (see {@link dev.inventorymanager.model.Money}),
+     *         or null if the update left prices alone
+     */
+    public long[] getPricesMinor() {
+        return pricesMinor;
+    }
+
+    public List<TransactionRecordedEvent> getAdjustments() {
+        return adjustments;
+    }
+}
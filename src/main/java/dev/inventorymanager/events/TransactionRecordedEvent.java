@@ -0,0 +1,81 @@
+package dev.inventorymanager.events;
+
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a buy or sell has been recorded.
+ *
+ * In direct write mode it is published inside the database transaction, so
+ * listeners that need the row to be committed use
+ * {@code @TransactionalEventListener}. In journal mode it is published once the
+ * journal record is durable.
+ */
+public class TransactionRecordedEvent {
+
+    private final long transactionId;
+    private final long userId;
+    private final long itemId;
+    private final TransactionType type;
+    private final int quantity;
+    /** Minor units, see {@link dev.inventorymanager.model.Money} */
+    private final long totalAmountMinor;
+    private final LocalDateTime transactionDate;
+    private final int inventoryAfter;
+
+    public TransactionRecordedEvent(long transactionId, long userId, long itemId, TransactionType type,
+                                    int quantity, long totalAmountMinor, LocalDateTime transactionDate,
+                                    int inventoryAfter) {
+        this.transactionId = transactionId;
+        this.userId = userId;
+        this.itemId = itemId;
+        this.type = type;
+        this.quantity = quantity;
+        this.totalAmountMinor = totalAmountMinor;
+        this.transactionDate = transactionDate;
+        this.inventoryAfter = inventoryAfter;
+    }
+
+    public static TransactionRecordedEvent of(Transaction transaction) {
+        return new TransactionRecordedEvent(transaction.getId(), transaction.getUser().getId(),
+            transaction.getItem().getId(), transaction.getType(), transaction.getQuantity(),
+            transaction.getTotalAmountMinor(), transaction.getTransactionDate(), transaction.getInventoryAfter());
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getTotalAmountMinor() {
+        return totalAmountMinor;
+    }
+
+    public LocalDateTime getTransactionDate() {
+        return transactionDate;
+    }
+
+    /**
+     * @return The item's quantity right after this transaction
+     */
+    public int getInventoryAfter() {
+        return inventoryAfter;
+    }
+}
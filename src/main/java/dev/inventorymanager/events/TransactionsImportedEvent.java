@@ -0,0 +1,19 @@
+package dev.inventorymanager.events;
+
+/**
+ * Published after transactions were written in bulk outside the services
+ * (e.g. by the synthetic data seeder), so in-memory views can catch up from
+ * the database instead of expecting one event per transaction.
+ */
+public class TransactionsImportedEvent {
+
+    private final long count;
+
+    public TransactionsImportedEvent(long count) {
+        this.count = count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
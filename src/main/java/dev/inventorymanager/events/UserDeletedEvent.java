@@ -0,0 +1,18 @@
+package dev.inventorymanager.events;
+
+/**
+ * Published when a user and everything they own has been purged, so in-memory
+ * views drop the user at once instead of hearing about each item.
+ */
+public class UserDeletedEvent {
+
+    private final long userId;
+
+    public UserDeletedEvent(long userId) {
+        this.userId = userId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,43 @@
+package dev.inventorymanager.journal;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Reports the journal projector under /actuator/health as "journal".
+ *
+ * DOWN when the projector thread is not running, or when durable records are
+ * waiting and nothing has been projected for {@code stallMillis}: journal
+ * writes are acknowledged before projection, so a stalled projector otherwise
+ * only shows up as reads that stop changing. Quarantined records keep the
+ * status UP (the projector has moved past them) but are counted in the details.
+ */
+public class JournalHealthIndicator implements HealthIndicator {
+
+    private final JournalProjector projector;
+    private final long stallMillis;
+
+    public JournalHealthIndicator(JournalProjector projector, long stallMillis) {
+        this.projector = projector;
+        this.stallMillis = stallMillis;
+    }
+
+    @Override
+    public Health health() {
+        long lag = projector.getLag();
+        long idleMillis = System.currentTimeMillis() - projector.getLastProgressMillis();
+        boolean stalled = lag > 0 && idleMillis > stallMillis;
+
+        Health.Builder builder = projector.isRunning() && !stalled ? Health.up() : Health.down();
+        builder.withDetail("projectedSeq", projector.getProjectedSeq())
+            .withDetail("lag", lag)
+            .withDetail("millisSinceProgress", idleMillis)
+            .withDetail("failures", projector.getFailures())
+            .withDetail("quarantined", projector.getQuarantined());
+        String lastError = projector.getLastError();
+        if (lastError != null) {
+            builder.withDetail("lastError", lastError);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,373 @@
+package dev.inventorymanager.journal;
+
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.sync.ChangeSequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies durable journal records to the items and transactions tables.
+ *
+ * Runs on a single background thread. Each pass reads up to
+ * {@code batchSize} records after the checkpoint and, in one database
+ * transaction, batch-inserts their Transaction rows, sets each touched item's
+ * quantity to its last inventoryAfter, and advances the checkpoint row. Because
+ * the checkpoint commits together with the rows it covers, every record is
+ * projected exactly once, including across restarts.
+ *
+ * A failing batch is retried {@code maxAttempts} times. After that its records
+ * are projected one at a time, and a record that still fails on its own is
+ * quarantined: it goes to journal_dead_letters with the error, in the same
+ * database transaction that moves the checkpoint past it, so the records after
+ * it are not held up. The quarantined sale is not in the tables (the ledger
+ * reconciliation reports the item's quantity break). If the dead letter cannot
+ * be written either, the database itself is failing and the projector keeps
+ * retrying. Lag, failures and quarantined records are reported by
+ * {@link JournalHealthIndicator}.
+ */
+public class JournalProjector {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalProjector.class);
+
+    static final String CHECKPOINT_NAME = "transactions";
+
+    private static final long RETRY_MILLIS = 1000;
+
+    private static final String INSERT_DEAD_LETTER =
+        "INSERT INTO journal_dead_letters (seq, transaction_id, item_id, user_id, type, quantity, "
+            + "price_per_unit_minor, epoch_millis, inventory_before, inventory_after, notes, error, quarantined_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TRANSACTION =
+        "INSERT INTO transactions (id, item_id, user_id, type, status, quantity, price_per_unit, "
+            + "total_amount, transaction_date, inventory_before, inventory_after, notes, change_seq) "
+            + "VALUES (?, ?, ?, ?, 'COMPLETED', ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final TransactionJournal journal;
+    private final QuantityState state;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeSequence changeSequence;
+    private final int batchSize;
+    private final long pollMillis;
+    private final int maxAttempts;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition progressed = lock.newCondition();
+
+    private volatile long projectedSeq;
+    private volatile boolean running;
+    private volatile long lastProgressMillis = System.currentTimeMillis();
+    private volatile int failures;
+    private volatile String lastError;
+    private volatile long quarantined;
+    private Thread worker;
+
+    /**
+     * @param maxAttempts Attempts at a batch before its failing record is quarantined
+     */
+    public JournalProjector(TransactionJournal journal, QuantityState state, JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate, ChangeSequence changeSequence, int batchSize,
+                            long pollMillis, int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("inventory.journal.projector-max-attempts must be positive");
+        }
+        this.journal = journal;
+        this.state = state;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeSequence = changeSequence;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Reconciles the checkpoint with the journal and starts the projection thread.
+     * Call after the journal has been opened and the quantity state recovered.
+     */
+    public void start() throws IOException {
+        // journal_checkpoint comes from db/schema.sql
+        List<Long> rows = jdbcTemplate.queryForList(
+            "SELECT seq FROM journal_checkpoint WHERE name = ?", Long.class, CHECKPOINT_NAME);
+
+        long checkpoint = rows.isEmpty() ? 0 : rows.get(0);
+        if (rows.isEmpty() && journal.getLastSeq() > 0) {
+            // The database was recreated (e.g. an in-memory database) under an existing journal.
+            // Its records reference rows that no longer exist, so start the journal over.
+            log.warn("No journal checkpoint in the database but journal holds {} records; resetting journal",
+                journal.getLastSeq());
+            resetJournal();
+        } else if (checkpoint > journal.getLastSeq()) {
+            log.warn("Journal checkpoint {} is ahead of the journal ({}); the journal was lost, resetting checkpoint",
+                checkpoint, journal.getLastSeq());
+            resetJournal();
+            checkpoint = 0;
+        }
+        if (rows.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO journal_checkpoint (name, seq) VALUES (?, 0)", CHECKPOINT_NAME);
+        } else if (checkpoint == 0) {
+            jdbcTemplate.update("UPDATE journal_checkpoint SET seq = 0 WHERE name = ?", CHECKPOINT_NAME);
+        }
+        projectedSeq = checkpoint;
+        quarantined = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM journal_dead_letters", Long.class);
+
+        running = true;
+        worker = new Thread(this::run, "journal-projector");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Journal projector started at seq {} (journal at {})", projectedSeq, journal.getLastSeq());
+    }
+
+    public void stop() {
+        running = false;
+        signal();
+        if (worker != null) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wakes the projector; called after appends so projection lag stays short.
+     */
+    public void signal() {
+        lock.lock();
+        try {
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record up to {@code seq} is reflected in the database.
+     */
+    public void awaitProjected(long seq) {
+        if (projectedSeq >= seq) {
+            return;
+        }
+        signal();
+        lock.lock();
+        try {
+            while (projectedSeq < seq) {
+                if (!running) {
+                    throw new IllegalStateException("Journal projector is not running");
+                }
+                progressed.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal projection", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getProjectedSeq() {
+        return projectedSeq;
+    }
+
+    /**
+     * @return Durable records not yet in the tables
+     */
+    public long getLag() {
+        return Math.max(0, journal.getDurableSeq() - projectedSeq);
+    }
+
+    /**
+     * @return When the projector last applied a record or found nothing to apply
+     */
+    public long getLastProgressMillis() {
+        return lastProgressMillis;
+    }
+
+    /**
+     * @return Failed attempts at the current batch
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return The last failure's message, or null since the last success
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return Records in journal_dead_letters
+     */
+    public long getQuarantined() {
+        return quarantined;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running || projectedSeq < journal.getDurableSeq()) {
+            try {
+                List<JournalRecord> batch = journal.read(projectedSeq, batchSize);
+                if (batch.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    lastProgressMillis = System.currentTimeMillis();
+                    lock.lock();
+                    try {
+                        work.await(pollMillis, TimeUnit.MILLISECONDS);
+                    } finally {
+                        lock.unlock();
+                    }
+                    continue;
+                }
+                if (failures < maxAttempts) {
+                    project(batch);
+                    advance(batch.get(batch.size() - 1).getSeq());
+                } else {
+                    projectOneByOne(batch);
+                }
+                failures = 0;
+                lastError = null;
+                journal.truncateThrough(Math.min(projectedSeq, state.getSnapshotSeq()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failures++;
+                lastError = e.toString();
+                log.error("Journal projection failed at seq {} (attempt {} of {}); retrying", projectedSeq, failures,
+                    maxAttempts, e);
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void advance(long seq) {
+        lock.lock();
+        try {
+            projectedSeq = seq;
+            lastProgressMillis = System.currentTimeMillis();
+            progressed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a batch that kept failing one record at a time, quarantining the records that fail alone.
+     */
+    private void projectOneByOne(List<JournalRecord> batch) {
+        for (JournalRecord record : batch) {
+            try {
+                project(List.of(record));
+            } catch (RuntimeException e) {
+                quarantine(record, e);
+            }
+            advance(record.getSeq());
+        }
+    }
+
+    private void quarantine(JournalRecord record, RuntimeException cause) {
+        String error = String.valueOf(cause);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(INSERT_DEAD_LETTER, record.getSeq(), record.getTransactionId(), record.getItemId(),
+                record.getUserId(), record.getType().name(), record.getQuantity(), record.getPricePerUnitMinor(),
+                record.getEpochMillis(), record.getInventoryBefore(), record.getInventoryAfter(), record.getNotes(),
+                error.length() > 1000 ? error.substring(0, 1000) : error, Timestamp.valueOf(LocalDateTime.now()));
+            jdbcTemplate.update("UPDATE journal_checkpoint SET seq = ? WHERE name = ?", record.getSeq(),
+                CHECKPOINT_NAME);
+        });
+        quarantined++;
+        log.error("Quarantined journal record {} (transaction {}, item {}) after {} attempts: {}", record.getSeq(),
+            record.getTransactionId(), record.getItemId(), maxAttempts, error);
+    }
+
+    private void project(List<JournalRecord> batch) {
+        ZoneId zone = ZoneId.systemDefault();
+        Map<Long, Integer> finalQuantities = new LinkedHashMap<>();
+        for (JournalRecord record : batch) {
+            finalQuantities.put(record.getItemId(), record.getInventoryAfter());
+        }
+        long lastSeq = batch.get(batch.size() - 1).getSeq();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // One change sequence value stamps the whole batch
+            long changeSeq = changeSequence.next();
+            List<Object[]> itemUpdates = new ArrayList<>(finalQuantities.size());
+            for (Map.Entry<Long, Integer> entry : finalQuantities.entrySet()) {
+                itemUpdates.add(new Object[] {entry.getValue(), changeSeq, entry.getKey()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    JournalRecord record = batch.get(i);
+                    ps.setLong(1, record.getTransactionId());
+                    ps.setLong(2, record.getItemId());
+                    ps.setLong(3, record.getUserId());
+                    ps.setString(4, record.getType().name());
+                    ps.setInt(5, record.getQuantity());
+                    ps.setBigDecimal(6, Money.toDecimal(record.getPricePerUnitMinor()));
+                    ps.setBigDecimal(7,
+                        Money.toDecimal(Money.times(record.getPricePerUnitMinor(), record.getQuantity())));
+                    ps.setTimestamp(8, Timestamp.valueOf(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getEpochMillis()), zone)));
+                    ps.setInt(9, record.getInventoryBefore());
+                    ps.setInt(10, record.getInventoryAfter());
+                    if (record.getNotes() == null) {
+                        ps.setNull(11, Types.VARCHAR);
+                    } else {
+                        ps.setString(11, record.getNotes());
+                    }
+                    ps.setLong(12, changeSeq);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            // Bumping the version makes an edit based on the row's previous state fail its check
+            jdbcTemplate.batchUpdate("UPDATE items SET quantity = ?, version = version + 1, change_seq = ? WHERE id = ?",
+                itemUpdates);
+            jdbcTemplate.update("UPDATE journal_checkpoint SET seq = ? WHERE name = ?", lastSeq, CHECKPOINT_NAME);
+        });
+    }
+
+    private void resetJournal() throws IOException {
+        journal.reset();
+        state.clear();
+        state.deleteSnapshots();
+    }
+}
@@ -0,0 +1,212 @@
+package dev.inventorymanager.journal;
+
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * One buy/sell transaction as stored in the journal.
+ *
+ * Binary layout (big-endian):
+ * <pre>
+ * int   bodyLength
+ * int   crc32(body)
+ * body:
+ *   long  seq              journal sequence number
+ *   long  transactionId    pre-assigned from transactions_id_seq
+ *   long  itemId
+ *   long  userId
+ *   byte  type             0 = BUY, 1 = SELL
+ *   int   quantity
+ *   long  priceUnscaled    pricePerUnit as unscaled value ...
+ *   byte  priceScale       ... and scale (always Money.SCALE when written, so the value is minor units)
+ *   long  epochMillis      transaction date (UTC)
+ *   int   inventoryBefore
+ *   int   inventoryAfter
+ *   short notesLength      -1 for no notes
+ *   byte[] notes           UTF-8
+ * </pre>
+ * A record without notes is 72 bytes. A zero length marks the end of the
+ * written part of a segment.
+ */
+public final class JournalRecord {
+
+    static final int HEADER_BYTES = 8;
+    private static final int FIXED_BODY_BYTES = 8 + 8 + 8 + 8 + 1 + 4 + 8 + 1 + 8 + 4 + 4 + 2;
+
+    private long seq;
+    private final long transactionId;
+    private final long itemId;
+    private final long userId;
+    private final TransactionType type;
+    private final int quantity;
+    private final long pricePerUnitMinor;
+    private final long epochMillis;
+    private final int inventoryBefore;
+    private final int inventoryAfter;
+    private final String notes;
+    private final byte[] notesBytes;
+
+    public JournalRecord(long transactionId, long itemId, long userId, TransactionType type, int quantity,
+                         long pricePerUnitMinor, long epochMillis, int inventoryBefore, int inventoryAfter,
+                         String notes) {
+        this.transactionId = transactionId;
+        this.itemId = itemId;
+        this.userId = userId;
+        this.type = type;
+        this.quantity = quantity;
+        this.pricePerUnitMinor = pricePerUnitMinor;
+        this.epochMillis = epochMillis;
+        this.inventoryBefore = inventoryBefore;
+        this.inventoryAfter = inventoryAfter;
+        this.notes = notes;
+        this.notesBytes = notes == null ? null : notes.getBytes(StandardCharsets.UTF_8);
+        if (notesBytes != null && notesBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Notes are too long");
+        }
+    }
+
+    /**
+     * @return Number of bytes this record occupies in a segment, header included
+     */
+    int encodedSize() {
+        return HEADER_BYTES + FIXED_BODY_BYTES + (notesBytes == null ? 0 : notesBytes.length);
+    }
+
+    void encode(ByteBuffer buffer) {
+        int start = buffer.position();
+        int bodyLength = encodedSize() - HEADER_BYTES;
+        buffer.position(start + HEADER_BYTES);
+        buffer.putLong(seq);
+        buffer.putLong(transactionId);
+        buffer.putLong(itemId);
+        buffer.putLong(userId);
+        buffer.put((byte) (type == TransactionType.BUY ? 0 : 1));
+        buffer.putInt(quantity);
+        buffer.putLong(pricePerUnitMinor);
+        buffer.put((byte) Money.SCALE);
+        buffer.putLong(epochMillis);
+        buffer.putInt(inventoryBefore);
+        buffer.putInt(inventoryAfter);
+        if (notesBytes == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) notesBytes.length);
+            buffer.put(notesBytes);
+        }
+        int end = buffer.position();
+
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + HEADER_BYTES).limit(end);
+        crc.update(body);
+
+        // Length goes last so a torn write never looks like a complete record
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, bodyLength);
+        buffer.position(end);
+    }
+
+    /**
+     * Decodes the record at the buffer's position.
+     * @return The record, or null if the position holds no complete, intact record
+     */
+    static JournalRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int bodyLength = buffer.getInt(start);
+        if (bodyLength < FIXED_BODY_BYTES || bodyLength > buffer.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        int expectedCrc = buffer.getInt(start + 4);
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + HEADER_BYTES).limit(start + HEADER_BYTES + bodyLength);
+        crc.update(body);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+
+        buffer.position(start + HEADER_BYTES);
+        long seq = buffer.getLong();
+        long transactionId = buffer.getLong();
+        long itemId = buffer.getLong();
+        long userId = buffer.getLong();
+        TransactionType type = buffer.get() == 0 ? TransactionType.BUY : TransactionType.SELL;
+        int quantity = buffer.getInt();
+        long priceUnscaled = buffer.getLong();
+        byte priceScale = buffer.get();
+        // Older segments may hold prices at any scale
+        long price = priceScale == Money.SCALE ? priceUnscaled
+            : Money.toMinor(BigDecimal.valueOf(priceUnscaled, priceScale));
+        long epochMillis = buffer.getLong();
+        int before = buffer.getInt();
+        int after = buffer.getInt();
+        short notesLength = buffer.getShort();
+        String notes = null;
+        if (notesLength >= 0) {
+            byte[] bytes = new byte[notesLength];
+            buffer.get(bytes);
+            notes = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        JournalRecord record = new JournalRecord(transactionId, itemId, userId, type, quantity, price,
+            epochMillis, before, after, notes);
+        record.seq = seq;
+        return record;
+    }
+
+    void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getPricePerUnitMinor() {
+        return pricePerUnitMinor;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public int getInventoryBefore() {
+        return inventoryBefore;
+    }
+
+    public int getInventoryAfter() {
+        return inventoryAfter;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+}
@@ -0,0 +1,286 @@
+package dev.inventorymanager.journal;
+
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionStatus;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Write path for {@code inventory.transactions.write-mode=journal}.
+ *
+ * A buy or sell is validated against the authoritative quantity in
+ * {@link QuantityState}, appended to the {@link TransactionJournal} and
+ * acknowledged once the journal has been forced to disk. No ORM work happens on
+ * the request path; the only database round trip is fetching the transaction
+ * id from its sequence so the returned Transaction carries the id it will have
+ * once {@link JournalProjector} inserts the row.
+ *
+ * Sells are checked against on-hand quantity minus the units held by stock
+ * reservations.
+ *
+ * Also owns the lifecycle of the journal components: recovery on start,
+ * periodic quantity snapshots, and an orderly drain on shutdown.
+ */
+public class JournalTransactionWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalTransactionWriter.class);
+
+    private final TransactionJournal journal;
+    private final QuantityState state;
+    private final JournalProjector projector;
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextTransactionIdSql;
+    private final long snapshotIntervalSeconds;
+    private final ApplicationEventPublisher events;
+    private final LongToIntFunction heldStock;
+
+    private ScheduledExecutorService snapshotScheduler;
+
+    public JournalTransactionWriter(TransactionJournal journal, QuantityState state, JournalProjector projector,
+                                    JdbcTemplate jdbcTemplate, String nextTransactionIdSql,
+                                    long snapshotIntervalSeconds, ApplicationEventPublisher events,
+                                    LongToIntFunction heldStock) {
+        this.journal = journal;
+        this.state = state;
+        this.projector = projector;
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextTransactionIdSql = nextTransactionIdSql;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        this.events = events;
+        this.heldStock = heldStock;
+    }
+
+    public void start() throws IOException {
+        journal.open();
+        state.recover(journal);
+        projector.start();
+
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly,
+            snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        snapshotQuietly();
+        projector.stop();
+        journal.close();
+    }
+
+    /**
+     * Records a buy or sell. Validation matches TransactionService's direct path.
+     *
+     * @return The transaction as it will be projected; its item carries the new quantity
+     * @param pricePerUnitMinor Price per unit in minor units (see {@link Money})
+     * @throws IllegalArgumentException if quantity <= 0, pricePerUnit < 0, the total is out of range,
+     *         or insufficient inventory
+     * @throws IllegalStateException if the journal cannot be written
+     */
+    public Transaction write(Item item, TransactionType type, int quantity, long pricePerUnitMinor,
+                             User user, String notes) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        if (pricePerUnitMinor < 0) {
+            throw new IllegalArgumentException("Price per unit cannot be negative");
+        }
+        Money.times(pricePerUnitMinor, quantity);
+        if (notes != null && notes.isEmpty()) {
+            notes = null;
+        }
+
+        long transactionId = jdbcTemplate.queryForObject(nextTransactionIdSql, Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        long itemId = item.getId();
+        long seq;
+        int before;
+        int after;
+
+        ReentrantLock lock = state.lockFor(itemId);
+        lock.lock();
+        try {
+            before = currentQuantity(itemId);
+            if (type == TransactionType.SELL) {
+                int available = before - heldStock.applyAsInt(itemId);
+                if (available < quantity) {
+                    throw new IllegalArgumentException(
+                        String.format("Insufficient inventory. Available: %d, Requested: %d", available, quantity));
+                }
+                after = before - quantity;
+            } else {
+                try {
+                    after = Math.addExact(before, quantity);
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException(
+                        String.format("Inventory out of range. Current: %d, Requested: %d", before, quantity));
+                }
+            }
+            JournalRecord record = new JournalRecord(transactionId, itemId, user.getId(), type, quantity,
+                pricePerUnitMinor, now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), before, after, notes);
+            final int newQuantity = after;
+            seq = journal.append(record, () -> state.apply(itemId, newQuantity));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write transaction journal", e);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            journal.awaitDurable(seq);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write transaction journal", e);
+        }
+        projector.signal();
+
+        item.setQuantity(after);
+        Transaction transaction = new Transaction(item, type, quantity, pricePerUnitMinor);
+        transaction.setId(transactionId);
+        transaction.setUser(user);
+        transaction.setInventoryBefore(before);
+        transaction.setInventoryAfter(after);
+        transaction.setTransactionDate(now);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setNotes(notes);
+        events.publishEvent(TransactionRecordedEvent.of(transaction));
+        return transaction;
+    }
+
+    /**
+     * Runs a direct write to an item row (edit, delete) without racing the journal.
+     *
+     * Blocks the item's writers, waits until everything journaled so far is in the
+     * database, runs the action, and then hands the item back to its database row so
+     * the next journaled transaction starts from whatever the action stored.
+     */
+    public <T> T runExclusive(long itemId, Supplier<T> action) {
+        return runExclusive(List.of(itemId), action);
+    }
+
+    /**
+     * Like {@link #runExclusive(long, Supplier)} for a write spanning several items,
+     * such as a multi-line order. The items' writers are blocked in a fixed order,
+     * so two such writes over overlapping items cannot deadlock.
+     */
+    public <T> T runExclusive(Collection<Long> itemIds, Supplier<T> action) {
+        List<ReentrantLock> locks = state.locksFor(itemIds);
+        int held = 0;
+        try {
+            for (ReentrantLock lock : locks) {
+                lock.lock();
+                held++;
+            }
+            projector.awaitProjected(journal.getLastSeq());
+            T result = action.get();
+            AtomicReference<QuantityState.Snapshot> captured = new AtomicReference<>();
+            journal.withAppendsPaused(seq -> {
+                for (long itemId : itemIds) {
+                    state.remove(itemId);
+                }
+                captured.set(state.capture(seq));
+            });
+            // Without a fresh snapshot, recovery would replay older records for the items over the new row values
+            state.writeSnapshot(captured.get());
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (int i = held - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs an action with the item's journal writers blocked, passing it the item's
+     * current quantity. Unlike {@link #runExclusive(long, Supplier)} the item stays
+     * with the journal, so the action may journal writes of its own for it but must
+     * not write the row directly.
+     */
+    public <T> T withCurrentQuantity(long itemId, IntFunction<T> action) {
+        ReentrantLock lock = state.lockFor(itemId);
+        lock.lock();
+        try {
+            return action.apply(currentQuantity(itemId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until everything journaled so far has been projected into the database.
+     */
+    public void awaitProjected() {
+        projector.awaitProjected(journal.getLastSeq());
+    }
+
+    /**
+     * @return The current quantity of an item that has been written through the journal, if any
+     */
+    public Integer quantityOf(long itemId) {
+        return state.get(itemId);
+    }
+
+    /**
+     * Replaces the quantity of each item with the journal's authoritative value,
+     * which can be ahead of the projected row.
+     */
+    public void overlayQuantities(List<Item> items) {
+        for (Item item : items) {
+            if (item.getId() != null) {
+                Integer quantity = state.get(item.getId());
+                if (quantity != null) {
+                    item.setQuantity(quantity);
+                }
+            }
+        }
+    }
+
+    private int currentQuantity(long itemId) {
+        Integer known = state.get(itemId);
+        if (known != null) {
+            return known;
+        }
+        Integer stored = jdbcTemplate.queryForObject("SELECT quantity FROM items WHERE id = ?", Integer.class, itemId);
+        return stored == null ? 0 : stored;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            AtomicReference<QuantityState.Snapshot> captured = new AtomicReference<>();
+            journal.withAppendsPaused(seq -> captured.set(state.capture(seq)));
+            if (captured.get().getSeq() != state.getSnapshotSeq()) {
+                state.writeSnapshot(captured.get());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write quantity snapshot", e);
+        }
+    }
+}
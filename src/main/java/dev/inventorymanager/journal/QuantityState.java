@@ -0,0 +1,295 @@
+package dev.inventorymanager.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Authoritative item quantities in journal write mode.
+ *
+ * Holds the quantity after the last journaled transaction of every item that
+ * has been written through the journal. Items that are absent have never been
+ * journaled (or were dropped by {@link #remove}) and their database row is
+ * current.
+ *
+ * Writers serialize per item on a lock stripe. The map itself is only changed
+ * while journal appends are blocked (from the append callback, or under
+ * {@link TransactionJournal#withAppendsPaused}), i.e. in journal order, which
+ * lets {@link #capture} copy it at an exact sequence number. On startup the
+ * state is rebuilt from the newest snapshot plus the journal records after it.
+ *
+ * Snapshot file layout: int magic, long seq, int count, count x (long itemId,
+ * int quantity), long crc32 of everything before it. Files are written to a
+ * temporary name and renamed into place, so a crash never leaves a partial
+ * snapshot behind.
+ */
+public class QuantityState {
+
+    private static final Logger log = LoggerFactory.getLogger(QuantityState.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x51545953;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int STRIPES = 256;
+
+    private final Path directory;
+    private final ConcurrentHashMap<Long, Integer> quantities = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private volatile long snapshotSeq;
+
+    public QuantityState(Path directory) {
+        this.directory = directory;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return The lock that serializes writers of the given item
+     */
+    public ReentrantLock lockFor(long itemId) {
+        return stripes[stripeOf(itemId)];
+    }
+
+    /**
+     * @return The distinct locks covering the given items, in stripe order; taking
+     *         them in this order cannot deadlock with another caller doing the same
+     */
+    public List<ReentrantLock> locksFor(Collection<Long> itemIds) {
+        boolean[] needed = new boolean[STRIPES];
+        for (long itemId : itemIds) {
+            needed[stripeOf(itemId)] = true;
+        }
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            if (needed[i]) {
+                locks.add(stripes[i]);
+            }
+        }
+        return locks;
+    }
+
+    private static int stripeOf(long itemId) {
+        return Long.hashCode(itemId * 0x9E3779B97F4A7C15L) & (STRIPES - 1);
+    }
+
+    public Integer get(long itemId) {
+        return quantities.get(itemId);
+    }
+
+    void apply(long itemId, int quantity) {
+        quantities.put(itemId, quantity);
+    }
+
+    /**
+     * Forgets an item so its database row becomes authoritative again.
+     * Callers hold the item's stripe lock and have paused journal appends.
+     */
+    public void remove(long itemId) {
+        quantities.remove(itemId);
+    }
+
+    void clear() {
+        quantities.clear();
+    }
+
+    public int size() {
+        return quantities.size();
+    }
+
+    public long getSnapshotSeq() {
+        return snapshotSeq;
+    }
+
+    /**
+     * Rebuilds the state from the newest readable snapshot and the journal tail.
+     */
+    public void recover(TransactionJournal journal) throws IOException {
+        quantities.clear();
+        long fromSeq = 0;
+        for (Path snapshot : listSnapshots()) {
+            try {
+                fromSeq = readSnapshot(snapshot);
+                break;
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable snapshot {}: {}", snapshot.getFileName(), e.getMessage());
+                quantities.clear();
+            }
+        }
+        snapshotSeq = fromSeq;
+
+        long replayed = 0;
+        List<JournalRecord> batch;
+        while (!(batch = journal.read(fromSeq, 10_000)).isEmpty()) {
+            for (JournalRecord record : batch) {
+                quantities.put(record.getItemId(), record.getInventoryAfter());
+                fromSeq = record.getSeq();
+                replayed++;
+            }
+        }
+        log.info("Recovered quantities for {} items (snapshot seq {}, {} journal records replayed)",
+            quantities.size(), snapshotSeq, replayed);
+    }
+
+    /**
+     * Copies the current state. Must be called while journal appends are paused so
+     * the copy matches {@code seq} exactly.
+     */
+    public Snapshot capture(long seq) {
+        int size = quantities.size();
+        long[] itemIds = new long[size];
+        int[] values = new int[size];
+        int n = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (n == size) {
+                break;
+            }
+            itemIds[n] = entry.getKey();
+            values[n] = entry.getValue();
+            n++;
+        }
+        return new Snapshot(seq, itemIds, values, n);
+    }
+
+    /**
+     * Writes a captured snapshot and deletes older ones. A snapshot older than the
+     * newest one on disk is discarded.
+     */
+    public void writeSnapshot(Snapshot snapshot) throws IOException {
+        snapshotLock.lock();
+        try {
+            if (snapshot.seq >= snapshotSeq) {
+                write(snapshot);
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void write(Snapshot snapshot) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshot.seq, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(snapshot.seq);
+            out.writeInt(snapshot.count);
+            for (int i = 0; i < snapshot.count; i++) {
+                out.writeLong(snapshot.itemIds[i]);
+                out.writeInt(snapshot.quantities[i]);
+            }
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        snapshotSeq = snapshot.seq;
+
+        for (Path old : listSnapshots()) {
+            if (old.getFileName().compareTo(target.getFileName()) < 0) {
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+
+    /**
+     * Deletes every snapshot, e.g. after the journal has been reset.
+     */
+    public void deleteSnapshots() throws IOException {
+        snapshotLock.lock();
+        try {
+            for (Path snapshot : listSnapshots()) {
+                Files.deleteIfExists(snapshot);
+            }
+            snapshotSeq = 0;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private long readSnapshot(Path file) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("bad magic");
+            }
+            long seq = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                quantities.put(in.readLong(), in.readInt());
+            }
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            return seq;
+        }
+    }
+
+    /**
+     * @return Snapshot files, newest first
+     */
+    private List<Path> listSnapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing
+                .filter(p -> {
+                    String name = p.getFileName().toString();
+                    return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                })
+                .sorted((a, b) -> b.getFileName().compareTo(a.getFileName()))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /** Point-in-time copy of the state, taken at a journal sequence number. */
+    public static final class Snapshot {
+        private final long seq;
+        private final long[] itemIds;
+        private final int[] quantities;
+        private final int count;
+
+        private Snapshot(long seq, long[] itemIds, int[] quantities, int count) {
+            this.seq = seq;
+            this.itemIds = itemIds;
+            this.quantities = quantities;
+            this.count = count;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+    }
+}
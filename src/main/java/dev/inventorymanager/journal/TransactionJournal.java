@@ -0,0 +1,408 @@
+package dev.inventorymanager.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped, segmented log of {@link JournalRecord}s.
+ *
+ * Appends copy the encoded record into the active segment's mapping under a
+ * short lock and return a sequence number. Durability is decoupled from the
+ * append: a single flusher thread forces the mapping to disk and then wakes
+ * every caller waiting in {@link #awaitDurable(long)}. All records appended
+ * while one force is in flight are made durable by the next one (group
+ * commit), so throughput is bounded by sequential disk bandwidth rather than
+ * by one fsync per transaction.
+ *
+ * Segments are files named after their first sequence number. They are
+ * pre-sized, so the zeroed tail marks the end of data; on open the last
+ * segment is scanned and anything after the last intact record (a torn write)
+ * is ignored and later overwritten.
+ *
+ * Locks are ReentrantLocks rather than monitors so callers parked on I/O never
+ * pin a carrier thread when requests run on virtual threads.
+ */
+public class TransactionJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition flushRequested = durableLock.newCondition();
+    private final Condition durableAdvanced = durableLock.newCondition();
+
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+
+    private volatile long lastSeq;
+    private volatile long durableSeq;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private Thread flusher;
+
+    public TransactionJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens (or creates) the journal and recovers the position of the last intact record.
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            segments.add(Segment.open(file, firstSeqOf(file), segmentSize));
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(1);
+            lastSeq = 0;
+        } else {
+            active = segments.get(segments.size() - 1);
+            long last = active.firstSeq - 1;
+            active.buffer.position(0);
+            JournalRecord record;
+            while ((record = JournalRecord.decode(active.buffer)) != null) {
+                last = record.getSeq();
+            }
+            // Zero whatever a torn write left behind so scans stop at the same place
+            int end = active.buffer.position();
+            for (int i = end; i < Math.min(end + JournalRecord.HEADER_BYTES, active.buffer.capacity()); i++) {
+                active.buffer.put(i, (byte) 0);
+            }
+            active.buffer.position(end);
+            lastSeq = last;
+        }
+        durableSeq = lastSeq;
+
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Opened transaction journal in {} ({} segments, last seq {})", directory, segments.size(), lastSeq);
+    }
+
+    /**
+     * Appends a record and assigns its sequence number.
+     *
+     * @param record The record to append
+     * @param onAppended Runs under the append lock right after the record is written, so
+     *                   state derived from the journal can be updated in journal order and
+     *                   observed consistently by {@link #withAppendsPaused}
+     * @return The record's sequence number; pass it to {@link #awaitDurable(long)}
+     */
+    public long append(JournalRecord record, Runnable onAppended) throws IOException {
+        checkUsable();
+        int size = record.encodedSize();
+        if (size + JournalRecord.HEADER_BYTES > segmentSize) {
+            throw new IllegalArgumentException("Record larger than a journal segment");
+        }
+        appendLock.lock();
+        try {
+            if (active.buffer.remaining() < size + JournalRecord.HEADER_BYTES) {
+                roll();
+            }
+            long seq = lastSeq + 1;
+            record.setSeq(seq);
+            record.encode(active.buffer);
+            lastSeq = seq;
+            if (onAppended != null) {
+                onAppended.run();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        requestFlush();
+        return record.getSeq();
+    }
+
+    /**
+     * Blocks until the record with the given sequence number has been forced to disk.
+     */
+    public void awaitDurable(long seq) throws IOException {
+        if (durableSeq >= seq) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableSeq < seq) {
+                checkUsable();
+                durableAdvanced.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for journal flush", e);
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action while no appends can happen, e.g. to snapshot derived state at a
+     * well-defined sequence number.
+     * @param action Receives the sequence number of the last appended record
+     */
+    public void withAppendsPaused(Consumer<Long> action) {
+        appendLock.lock();
+        try {
+            action.accept(lastSeq);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Reads durable records with sequence numbers greater than {@code afterSeq}.
+     *
+     * @param afterSeq Exclusive lower bound
+     * @param max Maximum number of records to return
+     * @return Records in sequence order; empty if none are durable yet
+     */
+    public List<JournalRecord> read(long afterSeq, int max) {
+        long limit = durableSeq;
+        List<JournalRecord> records = new ArrayList<>();
+        if (afterSeq >= limit) {
+            return records;
+        }
+        List<Segment> snapshot;
+        appendLock.lock();
+        try {
+            snapshot = new ArrayList<>(segments);
+        } finally {
+            appendLock.unlock();
+        }
+        for (int i = 0; i < snapshot.size() && records.size() < max; i++) {
+            Segment segment = snapshot.get(i);
+            long nextFirst = i + 1 < snapshot.size() ? snapshot.get(i + 1).firstSeq : Long.MAX_VALUE;
+            if (nextFirst <= afterSeq + 1) {
+                continue;
+            }
+            ByteBuffer view = segment.buffer.duplicate();
+            view.position(0);
+            JournalRecord record;
+            while (records.size() < max && (record = JournalRecord.decode(view)) != null) {
+                if (record.getSeq() > limit) {
+                    return records;
+                }
+                if (record.getSeq() > afterSeq) {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Deletes segments that only contain records with sequence numbers up to {@code seq}.
+     * The active segment is never deleted.
+     */
+    public void truncateThrough(long seq) {
+        appendLock.lock();
+        try {
+            while (segments.size() > 1 && segments.get(1).firstSeq <= seq + 1) {
+                Segment obsolete = segments.remove(0);
+                obsolete.close();
+                Files.deleteIfExists(obsolete.file);
+                log.debug("Deleted journal segment {}", obsolete.file.getFileName());
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete obsolete journal segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes every segment and starts over at sequence 1.
+     */
+    public void reset() throws IOException {
+        appendLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.close();
+                Files.deleteIfExists(segment.file);
+            }
+            segments.clear();
+            active = createSegment(1);
+            lastSeq = 0;
+            durableSeq = 0;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public long getDurableSeq() {
+        return durableSeq;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        requestFlush();
+        if (flusher != null) {
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        appendLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        active.buffer.force();
+        active = createSegment(lastSeq + 1);
+    }
+
+    private Segment createSegment(long firstSeq) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", firstSeq, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(file, firstSeq, segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void requestFlush() {
+        durableLock.lock();
+        try {
+            flushRequested.signal();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            durableLock.lock();
+            try {
+                while (lastSeq == durableSeq && !closed) {
+                    flushRequested.await(100, TimeUnit.MILLISECONDS);
+                }
+                if (closed && lastSeq == durableSeq) {
+                    durableAdvanced.signalAll();
+                    return;
+                }
+                target = lastSeq;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                durableLock.unlock();
+            }
+
+            try {
+                // Earlier segments were forced when they were rolled
+                Segment current;
+                appendLock.lock();
+                try {
+                    current = active;
+                } finally {
+                    appendLock.unlock();
+                }
+                current.buffer.force();
+            } catch (RuntimeException e) {
+                failure = new IOException("Journal flush failed", e);
+                log.error("Journal flush failed; rejecting further writes", e);
+            }
+
+            durableLock.lock();
+            try {
+                if (failure == null) {
+                    durableSeq = Math.max(durableSeq, target);
+                }
+                durableAdvanced.signalAll();
+            } finally {
+                durableLock.unlock();
+            }
+            if (failure != null) {
+                return;
+            }
+        }
+    }
+
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+    }
+
+    private static long firstSeqOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /** One pre-sized, memory-mapped segment file. */
+    private static final class Segment {
+        private final Path file;
+        private final long firstSeq;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path file, long firstSeq, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.firstSeq = firstSeq;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path file, long firstSeq, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long mappedSize = Math.max(size, channel.size());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+            return new Segment(file, firstSeq, channel, buffer);
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
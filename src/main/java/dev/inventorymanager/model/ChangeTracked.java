@@ -0,0 +1,12 @@
+package dev.inventorymanager.model;
+
+/**
+ * An entity stamped with the change sequence on every insert and update (see
+ * dev.inventorymanager.sync.ChangeSequence), so delta sync can find what changed.
+ */
+public interface ChangeTracked {
+
+    long getChangeSeq();
+
+    void setChangeSeq(long changeSeq);
+}
@@ -1,6 +1,12 @@
 package dev.inventorymanager.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import dev.inventorymanager.sync.ChangeSequenceListener;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.DynamicUpdate;
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.util.List;
@@ -16,13 +22,25 @@ import java.util.List;
  * - Transaction history
  *
  * Items are owned by users in a multi-tenant system. Each user can only see
- * and manage their own items.
+ * and manage their own items. A SKU is unique within one user's items.
+ *
+ * Updates are dynamic: an UPDATE sets only the columns that changed (and the
+ * version), so a sale that changes the quantity does not rewrite the name or
+ * price, and an edit of the price does not rewrite the quantity.
  *
  * Database Table: items
  */
 @Entity
-@Table(name = "items")
-public class Item {
+@DynamicUpdate
+@EntityListeners(ChangeSequenceListener.class)
+@Table(name = "items", uniqueConstraints = @UniqueConstraint(name = "uk_items_user_sku", columnNames = {"user_id", "sku"}),
+    indexes = {
+        // Walks one user's items in id order, as bulk updates page through them
+        @Index(name = "idx_items_user_id", columnList = "user_id, id"),
+        // Walks one user's changes in change order, as delta sync pages through them
+        @Index(name = "idx_items_user_change", columnList = "user_id, change_seq, id")
+    })
+public class Item implements ChangeTracked {
 
     /**
      * Unique identifier for this item.
@@ -43,8 +61,8 @@ public class Item {
     private String name;
 
     /**
-     * Stock Keeping Unit - a unique identifier for this product.
-     * Used for inventory tracking and identification.
+     * Stock Keeping Unit - a unique identifier for this product within the owner's items.
+     * Used for inventory tracking and identification, and what barcode scanners look up.
      * Example: "WM-001", "LC-XYZ", "OC-ERGONOMIC"
      */
     private String sku;
@@ -57,11 +75,35 @@ public class Item {
     private Integer quantity;
 
     /**
-     * Current price of the item.
-     * Using BigDecimal for precise monetary calculations.
+     * Current price of the item, in minor units (see {@link Money}).
+     * Stored in the NUMERIC price column, scaled in SQL so the JDBC bind is a long;
+     * read and written as a JSON number.
      * This can represent either purchase price or selling price depending on context.
      */
-    private BigDecimal price;
+    @Column(columnDefinition = Money.COLUMN_DEFINITION)
+    @ColumnTransformer(read = "price * 100", write = "? * 0.01")
+    @JsonProperty
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long price;
+
+    /**
+     * Optimistic-locking version, incremented by every update of the row.
+     * Clients may send it back with an update; if the item has changed since,
+     * the update is refused with 409 Conflict instead of overwriting the change.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Change sequence value of the item's last insert or update, stamped by
+     * {@link ChangeSequenceListener} (or by the statement, for set-based updates).
+     * Delta sync returns the items whose value is past the client's token.
+     */
+    @Column(name = "change_seq", nullable = false)
+    @JsonIgnore
+    private long changeSeq;
 
     /**
      * The user who owns this item.
@@ -79,6 +121,8 @@ public class Item {
      * One item can have many transactions (One-to-Many relationship).
      * CascadeType.ALL: operations on item cascade to transactions
      * orphanRemoval: deleting an item deletes all its transactions
+     * (The application deletes items with set-based statements instead, see BulkItemService,
+     * as this cascade loads and deletes every transaction one by one)
      * JsonIgnore prevents including full transaction history in item JSON responses
      */
     @OneToMany(mappedBy = "item", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -102,7 +146,7 @@ public class Item {
         this.name = name;
         this.sku = sku;
         this.quantity = quantity;
-        this.price = price;
+        this.price = Money.toMinorOrNull(price);
     }
 
     public Long getId() {
@@ -137,12 +181,42 @@ public class Item {
         this.quantity = quantity;
     }
 
+    @JsonIgnore
     public BigDecimal getPrice() {
-        return price;
+        return Money.toDecimalOrNull(price);
     }
 
+    @JsonIgnore
     public void setPrice(BigDecimal price) {
-        this.price = price;
+        this.price = Money.toMinorOrNull(price);
+    }
+
+    @JsonIgnore
+    public Long getPriceMinor() {
+        return price;
+    }
+
+    @JsonIgnore
+    public void setPriceMinor(Long priceMinor) {
+        this.price = priceMinor;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
     }
 
     public User getUser() {
@@ -0,0 +1,232 @@
+package dev.inventorymanager.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monetary amounts as a primitive {@code long} of minor units (cents).
+ *
+ * Prices and totals are held, summed and multiplied as longs; BigDecimal only
+ * appears where Java callers still pass it and in JDBC code that reads the
+ * NUMERIC(19, 2) columns itself. The entities' money columns are scaled in SQL
+ * ({@code price * 100} on read, {@code ? * 0.01} on write), so Hibernate binds
+ * and reads them as longs.
+ * JSON numbers are read and written straight from and to minor units by
+ * {@link Serializer} and {@link Deserializer}.
+ *
+ * Rounding rules:
+ * - Amounts have exactly {@link #SCALE} decimal places
+ * - Amounts with more decimal places are rounded half-up (away from zero on a tie), once, on the way in
+ * - Arithmetic on minor units is exact; a result that does not fit a long is refused rather than wrapped
+ */
+public final class Money {
+
+    /** Decimal places of every amount */
+    public static final int SCALE = 2;
+
+    /** Rounding applied to amounts given with more than {@link #SCALE} decimal places */
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    /** DDL of the money columns; minor units are scaled to and from it in SQL */
+    public static final String COLUMN_DEFINITION = "NUMERIC(19, 2)";
+
+    private static final long UNIT = 100;
+
+    private Money() {}
+
+    /**
+     * @return The amount in minor units, rounded to {@link #SCALE} decimal places
+     * @throws IllegalArgumentException if the amount does not fit a long of minor units
+     */
+    public static long toMinor(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, ROUNDING).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+    }
+
+    /**
+     * @return The amount in minor units, or null for a null amount
+     */
+    public static Long toMinorOrNull(BigDecimal amount) {
+        return amount == null ? null : toMinor(amount);
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static BigDecimal toDecimalOrNull(Long minor) {
+        return minor == null ? null : toDecimal(minor);
+    }
+
+    /**
+     * @return unitMinor x quantity
+     * @throws IllegalArgumentException if the result does not fit a long
+     */
+    public static long times(long unitMinor, long quantity) {
+        try {
+            return Math.multiplyExact(unitMinor, quantity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + format(unitMinor) + " x " + quantity);
+        }
+    }
+
+    /**
+     * @return a + b
+     * @throws IllegalArgumentException if the result does not fit a long
+     */
+    public static long plus(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + format(a) + " + " + format(b));
+        }
+    }
+
+    /**
+     * Parses a decimal amount such as "12", "-0.5" or "3.14159" into minor units
+     * without going through BigDecimal (except for exponent notation).
+     *
+     * @throws IllegalArgumentException if the text is not a decimal number or is out of range
+     */
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long units = 0;
+        int fractionDigits = -1;
+        long fraction = 0;
+        boolean roundUp = false;
+        boolean digits = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+                if (fractionDigits < 0) {
+                    if (units > Long.MAX_VALUE / UNIT / 10) {
+                        throw new IllegalArgumentException("Amount out of range: " + text);
+                    }
+                    units = units * 10 + (c - '0');
+                } else if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (fractionDigits == SCALE) {
+                    // Only the first dropped digit decides a half-up rounding
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                }
+            } else if ((c == 'e' || c == 'E') && digits) {
+                try {
+                    return toMinor(new BigDecimal(text.toString()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Not an amount: " + text);
+                }
+            } else {
+                throw new IllegalArgumentException("Not an amount: " + text);
+            }
+        }
+        if (!digits) {
+            throw new IllegalArgumentException("Not an amount: " + text);
+        }
+        for (int d = Math.max(fractionDigits, 0); d < SCALE; d++) {
+            fraction *= 10;
+        }
+        long minor;
+        try {
+            minor = Math.addExact(Math.multiplyExact(units, UNIT), fraction + (roundUp ? 1 : 0));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + text);
+        }
+        return negative ? -minor : minor;
+    }
+
+    /**
+     * @return The amount as plain decimal text with {@link #SCALE} decimal places, e.g. "-0.05"
+     */
+    public static String format(long minor) {
+        long abs = Math.abs(minor);
+        if (abs < 0) {
+            return toDecimal(minor).toPlainString();
+        }
+        StringBuilder text = new StringBuilder(24);
+        if (minor < 0) {
+            text.append('-');
+        }
+        long fraction = abs % UNIT;
+        text.append(abs / UNIT).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+
+    /**
+     * Writes minor units as a JSON number with {@link #SCALE} decimal places, or
+     * as a binary format's decimal number (e.g. a CBOR decimal fraction).
+     */
+    public static class Serializer extends StdSerializer<Long> {
+
+        public Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (gen.canWriteFormattedNumbers()) {
+                gen.writeNumber(format(value));
+            } else {
+                // Binary formats would write the text as a string
+                gen.writeNumber(toDecimal(value));
+            }
+        }
+    }
+
+    /**
+     * Reads a JSON number (or numeric string) into minor units, rounding half-up
+     * to {@link #SCALE} decimal places.
+     */
+    public static class Deserializer extends StdDeserializer<Long> {
+
+        public Deserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                    return times(p.getLongValue(), UNIT);
+                }
+                if (token == JsonToken.VALUE_NUMBER_FLOAT && p.getNumberType() == JsonParser.NumberType.BIG_DECIMAL) {
+                    // Binary formats' decimal numbers arrive already parsed
+                    return toMinor(p.getDecimalValue());
+                }
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                        || token == JsonToken.VALUE_STRING) {
+                    return parse(p.getText().trim());
+                }
+            } catch (IllegalArgumentException e) {
+                return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), e.getMessage());
+            }
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+    }
+}
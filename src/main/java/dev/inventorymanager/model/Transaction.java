@@ -1,6 +1,12 @@
 package dev.inventorymanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import dev.inventorymanager.sync.ChangeSequenceListener;
+import org.hibernate.annotations.ColumnTransformer;
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,8 +28,11 @@ import java.time.LocalDateTime;
  * Database Table: transactions
  */
 @Entity
-@Table(name = "transactions")
-public class Transaction {
+@EntityListeners(ChangeSequenceListener.class)
+@Table(name = "transactions",
+    // Walks one user's changes in change order, as delta sync pages through them
+    indexes = @Index(name = "idx_transactions_user_change", columnList = "user_id, change_seq, id"))
+public class Transaction implements ChangeTracked {
 
     /**
      * Unique identifier for this transaction.
@@ -91,20 +100,27 @@ public class Transaction {
     private Integer quantity;
 
     /**
-     * Price per unit for this transaction.
-     * Using BigDecimal for precise monetary calculations.
+     * Price per unit for this transaction, in minor units (see {@link Money}).
      * Should not be negative.
      */
-    @Column(nullable = false)
-    private BigDecimal pricePerUnit;
+    @Column(nullable = false, columnDefinition = Money.COLUMN_DEFINITION)
+    @ColumnTransformer(read = "price_per_unit * 100", write = "? * 0.01")
+    @JsonProperty
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long pricePerUnit;
 
     /**
-     * Total monetary amount for this transaction.
+     * Total monetary amount for this transaction, in minor units.
      * Calculated as: pricePerUnit * quantity
      * Automatically set during transaction creation.
      */
-    @Column(nullable = false)
-    private BigDecimal totalAmount;
+    @Column(nullable = false, columnDefinition = Money.COLUMN_DEFINITION)
+    @ColumnTransformer(read = "total_amount * 100", write = "? * 0.01")
+    @JsonProperty
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long totalAmount;
 
     /**
      * Timestamp when this transaction was created.
@@ -137,6 +153,13 @@ public class Transaction {
     @Column(length = 1000)
     private String notes;
 
+    /**
+     * Change sequence value of the transaction's insert (or last update), see {@link Item#getChangeSeq()}.
+     */
+    @Column(name = "change_seq", nullable = false)
+    @JsonIgnore
+    private long changeSeq;
+
     /**
      * Default constructor required by JPA.
      * Initializes transaction date to current time.
@@ -155,12 +178,22 @@ public class Transaction {
      * @param pricePerUnit Price per unit
      */
     public Transaction(Item item, TransactionType type, Integer quantity, BigDecimal pricePerUnit) {
+        this(item, type, quantity, Money.toMinor(pricePerUnit));
+    }
+
+    /**
+     * Constructs a new transaction priced in minor units.
+     *
+     * @param pricePerUnitMinor Price per unit in minor units
+     * @throws IllegalArgumentException if the total does not fit a long of minor units
+     */
+    public Transaction(Item item, TransactionType type, Integer quantity, long pricePerUnitMinor) {
         this.item = item;
         this.type = type;
         this.quantity = quantity;
-        this.pricePerUnit = pricePerUnit;
+        this.pricePerUnit = pricePerUnitMinor;
         // Calculate total amount: price per unit * quantity
-        this.totalAmount = pricePerUnit.multiply(BigDecimal.valueOf(quantity));
+        this.totalAmount = Money.times(pricePerUnitMinor, quantity);
         this.transactionDate = LocalDateTime.now();
         this.status = TransactionStatus.COMPLETED;
     }
@@ -173,6 +206,16 @@ public class Transaction {
         this.id = id;
     }
 
+    @Override
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     public Item getItem() {
         return item;
     }
@@ -237,20 +280,44 @@ public class Transaction {
         this.quantity = quantity;
     }
 
+    @JsonIgnore
     public BigDecimal getPricePerUnit() {
-        return pricePerUnit;
+        return Money.toDecimalOrNull(pricePerUnit);
     }
 
+    @JsonIgnore
     public void setPricePerUnit(BigDecimal pricePerUnit) {
-        this.pricePerUnit = pricePerUnit;
+        this.pricePerUnit = Money.toMinorOrNull(pricePerUnit);
     }
 
+    @JsonIgnore
     public BigDecimal getTotalAmount() {
-        return totalAmount;
+        return Money.toDecimalOrNull(totalAmount);
     }
 
+    @JsonIgnore
     public void setTotalAmount(BigDecimal totalAmount) {
-        this.totalAmount = totalAmount;
+        this.totalAmount = Money.toMinorOrNull(totalAmount);
+    }
+
+    @JsonIgnore
+    public long getPricePerUnitMinor() {
+        return pricePerUnit;
+    }
+
+    @JsonIgnore
+    public void setPricePerUnitMinor(long pricePerUnitMinor) {
+        this.pricePerUnit = pricePerUnitMinor;
+    }
+
+    @JsonIgnore
+    public long getTotalAmountMinor() {
+        return totalAmount;
+    }
+
+    @JsonIgnore
+    public void setTotalAmountMinor(long totalAmountMinor) {
+        this.totalAmount = totalAmountMinor;
     }
 
     public LocalDateTime getTransactionDate() {
@@ -0,0 +1,127 @@
+package dev.inventorymanager.model;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entity holding per-month totals for transactions that have been moved to
+ * cold storage.
+ *
+ * When the archival job moves a user's transactions for a month out of the
+ * transactions table, it leaves one rollup row per transaction type behind.
+ * Aggregates (total spending, total sales, transaction counts) add these rows
+ * to the live table's totals, so they stay correct without reading the archive.
+ *
+ * A rollup always describes the whole archived month: re-archiving a month
+ * recomputes it from the archive file rather than adding to it.
+ *
+ * Database Table: transaction_rollups
+ */
+@Entity
+@Table(name = "transaction_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_transaction_rollups_period",
+        columnNames = {"user_id", "period_start", "type"}))
+public class TransactionRollup {
+
+    /**
+     * Unique identifier for this rollup.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_rollup_seq")
+    @SequenceGenerator(name = "transaction_rollup_seq", sequenceName = "transaction_rollups_id_seq", allocationSize = 1)
+    private Long id;
+
+    /**
+     * The user whose transactions are summarized.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /**
+     * First day of the summarized month.
+     */
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    /**
+     * Transaction type summarized by this row (BUY or SELL).
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    /**
+     * Number of archived transactions in the month.
+     */
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    /**
+     * Sum of the archived transactions' quantities.
+     */
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity;
+
+    /**
+     * Sum of the archived transactions' total amounts.
+     */
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public TransactionRollup() {
+    }
+
+    public TransactionRollup(User user, LocalDate periodStart, TransactionType type) {
+        this.user = user;
+        this.periodStart = periodStart;
+        this.type = type;
+        this.transactionCount = 0L;
+        this.totalQuantity = 0L;
+        this.totalAmount = BigDecimal.ZERO;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public Long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(Long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
@@ -1,5 +1,7 @@
 package dev.inventorymanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -73,11 +75,26 @@ public class User {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    /**
+     * When the account was soft-deleted: disabled, with its data kept until it is
+     * purged (see TenantDeletionService). Null for live accounts.
+     */
+    private LocalDateTime deletedAt;
+
+    /**
+     * Optimistic-locking version, incremented by every update of the row.
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
     /**
      * All transactions created by this user.
      * One user can have many transactions (One-to-Many relationship).
      * LAZY fetch: transactions are loaded only when explicitly accessed
      * orphanRemoval: deleting user deletes all their transactions
+     * (Tenants are purged with set-based statements instead, see TenantDeletionService)
      */
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private Set<Transaction> transactions = new HashSet<>();
@@ -161,6 +178,22 @@ public class User {
         this.enabled = enabled;
     }
 
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Set<Transaction> getTransactions() {
         return transactions;
     }
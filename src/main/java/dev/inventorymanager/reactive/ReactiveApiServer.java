@@ -0,0 +1,68 @@
+package dev.inventorymanager.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+/**
+ * Netty server for the reactive read API, on its own port next to Tomcat.
+ *
+ * Connections are served by a few event-loop threads, so an idle kiosk holding
+ * its connection open costs a socket and some buffers rather than a thread.
+ */
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveApiServer.class);
+
+    private final HttpHandler httpHandler;
+    private final String host;
+    private final int port;
+    private volatile DisposableServer server;
+
+    /**
+     * @param port Port to listen on; 0 picks a free one (see {@link #getPort()})
+     */
+    public ReactiveApiServer(HttpHandler httpHandler, String host, int port) {
+        this.httpHandler = httpHandler;
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+            .host(host)
+            .port(port)
+            .handle(new ReactorHttpHandlerAdapter(httpHandler))
+            .bindNow();
+        log.info("Reactive read API listening on {}:{}", host, server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow(Duration.ofSeconds(10));
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return The port actually bound, or -1 when not running
+     */
+    public int getPort() {
+        DisposableServer running = server;
+        return running == null ? -1 : running.port();
+    }
+}
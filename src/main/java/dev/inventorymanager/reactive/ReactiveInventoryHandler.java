@@ -0,0 +1,81 @@
+package dev.inventorymanager.reactive;
+
+import dev.inventorymanager.dto.DashboardResponse;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.User;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.function.Function;
+
+/**
+ * Non-blocking versions of GET /api/items, GET /api/transactions and GET /api/dashboard.
+ *
+ * Responses match the servlet endpoints. With {@code Accept: application/x-ndjson}
+ * the two listings stream one JSON document per line as rows arrive from the
+ * database, and stop reading rows while the client is not keeping up; plain
+ * {@code application/json} returns the same array the servlet endpoints do.
+ */
+public class ReactiveInventoryHandler {
+
+    private final ReactiveInventoryReader reader;
+
+    public ReactiveInventoryHandler(ReactiveInventoryReader reader) {
+        this.reader = reader;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+            .GET("/api/items", this::items)
+            .GET("/api/transactions", this::transactions)
+            .GET("/api/dashboard", this::dashboard)
+            .build();
+    }
+
+    private Mono<ServerResponse> items(ServerRequest request) {
+        return withUser(request, user -> ServerResponse.ok()
+            .contentType(listingType(request))
+            .body(reader.items(user), Item.class));
+    }
+
+    private Mono<ServerResponse> transactions(ServerRequest request) {
+        return withUser(request, user -> ServerResponse.ok()
+            .contentType(listingType(request))
+            .body(reader.transactions(user), Transaction.class));
+    }
+
+    private Mono<ServerResponse> dashboard(ServerRequest request) {
+        return withUser(request, user -> ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(reader.dashboard(user), DashboardResponse.class));
+    }
+
+    /**
+     * Resolves the authenticated principal to its user row. The security filter has
+     * already rejected anonymous requests; a user deleted since logging in gets a 401.
+     */
+    private Mono<ServerResponse> withUser(ServerRequest request,
+                                          Function<User, Mono<ServerResponse>> handler) {
+        return request.principal()
+            .map(Principal::getName)
+            .flatMap(reader::findUser)
+            .flatMap(handler)
+            .switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.UNAUTHORIZED).build()));
+    }
+
+    private static MediaType listingType(ServerRequest request) {
+        for (MediaType accepted : request.headers().accept()) {
+            if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(accepted)) {
+                return MediaType.APPLICATION_NDJSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
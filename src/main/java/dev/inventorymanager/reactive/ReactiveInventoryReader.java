@@ -0,0 +1,313 @@
+package dev.inventorymanager.reactive;
+
+import dev.inventorymanager.archive.TransactionArchive;
+import dev.inventorymanager.archive.TransactionColumns;
+import dev.inventorymanager.catalog.ItemCatalog;
+import dev.inventorymanager.dto.DashboardResponse;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionStatus;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking reads of items, transactions and dashboard figures over R2DBC.
+ *
+ * Rows are mapped onto the same model classes the JPA side uses (as unmanaged
+ * objects), so both APIs serialize identically. The queries mirror the JPA
+ * repositories and DashboardService, including the in-memory catalog when it
+ * is enabled, journal-mode quantities and archived transactions.
+ *
+ * Owns its connection pool; close() releases it.
+ */
+public class ReactiveInventoryReader implements AutoCloseable {
+
+    // Same thresholds and limits as DashboardService
+    private static final int LOW_STOCK_THRESHOLD = 10;
+    private static final int RECENT_TRANSACTIONS_LIMIT = 10;
+    private static final int TOP_ITEMS_LIMIT = 5;
+
+    private static final Comparator<Transaction> NEWEST_FIRST =
+        Comparator.comparing(Transaction::getTransactionDate).thenComparing(Transaction::getId).reversed();
+
+    private static final String ITEM_COLUMNS = "id, name, sku, quantity, price, version";
+
+    private static final String TRANSACTION_SELECT =
+        "SELECT t.id, t.type, t.status, t.quantity, t.price_per_unit, t.total_amount, t.transaction_date, "
+            + "t.inventory_before, t.inventory_after, t.notes, "
+            + "i.id AS item_id, i.name AS item_name, i.sku AS item_sku, i.quantity AS item_quantity, i.price AS item_price, "
+            + "i.version AS item_version "
+            + "FROM transactions t JOIN items i ON i.id = t.item_id "
+            + "WHERE t.user_id = :userId ORDER BY t.transaction_date DESC, t.id DESC";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient db;
+    private final TransactionArchive archive;
+    private final ItemCatalog catalog;
+    private final JournalTransactionWriter journalWriter;
+
+    /**
+     * @param catalog In-memory item catalog, or null when disabled
+     * @param journalWriter Journal write mode's writer, or null in direct mode
+     */
+    public ReactiveInventoryReader(ConnectionPool pool, TransactionArchive archive,
+                                   ItemCatalog catalog, JournalTransactionWriter journalWriter) {
+        this.pool = pool;
+        this.db = DatabaseClient.create(pool);
+        this.archive = archive;
+        this.catalog = catalog;
+        this.journalWriter = journalWriter;
+    }
+
+    public Mono<User> findUser(String username) {
+        return db.sql("SELECT id, username, password, role, created_at, enabled FROM users WHERE username = :username")
+            .bind("username", username)
+            .map((row, meta) -> {
+                User user = new User(row.get("username", String.class), row.get("password", String.class));
+                user.setId(row.get("id", Long.class));
+                user.setRole(row.get("role", String.class));
+                user.setCreatedAt(row.get("created_at", LocalDateTime.class));
+                user.setEnabled(Boolean.TRUE.equals(row.get("enabled", Boolean.class)));
+                return user;
+            })
+            .one();
+    }
+
+    /**
+     * @return The user's items in id order, streamed as rows arrive
+     */
+    public Flux<Item> items(User user) {
+        return db.sql("SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = :userId ORDER BY id")
+            .bind("userId", user.getId())
+            .map((row, meta) -> overlay(item(row, "")))
+            .all();
+    }
+
+    /**
+     * Live and archived transactions, newest first, like TransactionHistoryService.findByUser.
+     * Both sides are already in that order, so they are merged as they stream; archive
+     * files are read one month at a time off the event loop.
+     */
+    public Flux<Transaction> transactions(User user) {
+        Flux<Transaction> live = db.sql(TRANSACTION_SELECT)
+            .bind("userId", user.getId())
+            .map((row, meta) -> transaction(row, user))
+            .all();
+        return Flux.mergeComparing(NEWEST_FIRST, live, archived(user));
+    }
+
+    public Mono<DashboardResponse> dashboard(User user) {
+        Mono<DashboardResponse> inventory = catalog != null ? catalogInventory(user) : tableInventory(user);
+        Mono<long[]> liveCounts = db.sql("SELECT COUNT(*) FROM transactions WHERE user_id = :userId")
+            .bind("userId", user.getId())
+            .map((row, meta) -> new long[] {longValue(row, 0)})
+            .one();
+        Mono<long[]> liveTotals = totalsByType("transactions", user);
+        Mono<long[]> archivedCounts = db.sql(
+                "SELECT COALESCE(SUM(transaction_count), 0) FROM transaction_rollups WHERE user_id = :userId")
+            .bind("userId", user.getId())
+            .map((row, meta) -> new long[] {longValue(row, 0)})
+            .one();
+        Mono<long[]> archivedTotals = totalsByType("transaction_rollups", user);
+        Mono<List<Transaction>> recent = db.sql(TRANSACTION_SELECT + " LIMIT " + RECENT_TRANSACTIONS_LIMIT)
+            .bind("userId", user.getId())
+            .map((row, meta) -> transaction(row, user))
+            .all()
+            .collectList();
+
+        return Mono.zip(inventory, liveCounts, liveTotals, archivedCounts, archivedTotals, recent)
+            .map(parts -> {
+                DashboardResponse dashboard = parts.getT1();
+                dashboard.setTotalTransactions(parts.getT2()[0] + parts.getT4()[0]);
+                long totalSpending = Money.plus(parts.getT3()[0], parts.getT5()[0]);
+                long totalSales = Money.plus(parts.getT3()[1], parts.getT5()[1]);
+                dashboard.setTotalSpendingMinor(totalSpending);
+                dashboard.setTotalSalesMinor(totalSales);
+                dashboard.setNetProfitMinor(totalSales - totalSpending);
+                dashboard.setRecentTransactions(parts.getT6());
+                return dashboard;
+            });
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+
+    /** Inventory half of the dashboard from the items table. */
+    private Mono<DashboardResponse> tableInventory(User user) {
+        Mono<DashboardResponse> totals = db.sql(
+                "SELECT COUNT(*), COALESCE(SUM(quantity), 0), "
+                    + "CAST(COALESCE(SUM(price * quantity), 0) * 100 AS BIGINT), "
+                    + "COUNT(CASE WHEN quantity < :threshold THEN 1 END) FROM items WHERE user_id = :userId")
+            .bind("threshold", LOW_STOCK_THRESHOLD)
+            .bind("userId", user.getId())
+            .map((row, meta) -> {
+                DashboardResponse dashboard = new DashboardResponse();
+                dashboard.setTotalItems(longValue(row, 0));
+                dashboard.setTotalItemQuantity(Math.toIntExact(longValue(row, 1)));
+                dashboard.setTotalInventoryValueMinor(longValue(row, 2));
+                dashboard.setLowStockItemsCount(longValue(row, 3));
+                return dashboard;
+            })
+            .one();
+        Mono<List<DashboardResponse.ItemSummary>> topValue = summaries(db.sql(
+                "SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = :userId ORDER BY price * quantity DESC LIMIT "
+                    + TOP_ITEMS_LIMIT)
+            .bind("userId", user.getId())
+            .map((row, meta) -> item(row, ""))
+            .all());
+        Mono<List<DashboardResponse.ItemSummary>> lowStock = summaries(db.sql(
+                "SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = :userId AND quantity < :threshold "
+                    + "ORDER BY quantity ASC LIMIT " + TOP_ITEMS_LIMIT)
+            .bind("userId", user.getId())
+            .bind("threshold", LOW_STOCK_THRESHOLD)
+            .map((row, meta) -> item(row, ""))
+            .all());
+        return Mono.zip(totals, topValue, lowStock).map(parts -> {
+            DashboardResponse dashboard = parts.getT1();
+            dashboard.setTopValueItems(parts.getT2());
+            dashboard.setLowStockItems(parts.getT3());
+            return dashboard;
+        });
+    }
+
+    /** Inventory half of the dashboard from the in-memory catalog; only the listed items are read. */
+    private Mono<DashboardResponse> catalogInventory(User user) {
+        ItemCatalog.Totals totals = catalog.totals(user.getId(), LOW_STOCK_THRESHOLD);
+        DashboardResponse dashboard = new DashboardResponse();
+        dashboard.setTotalItems(totals.getItemCount());
+        dashboard.setTotalInventoryValueMinor(totals.getTotalValueMinor());
+        dashboard.setTotalItemQuantity(Math.toIntExact(totals.getTotalQuantity()));
+        dashboard.setLowStockItemsCount(totals.getLowStockCount());
+        long[] topIds = catalog.topValueItemIds(user.getId(), TOP_ITEMS_LIMIT);
+        long[] lowIds = catalog.lowStockItemIds(user.getId(), LOW_STOCK_THRESHOLD, TOP_ITEMS_LIMIT);
+        return Mono.zip(summaries(itemsInOrder(topIds)), summaries(itemsInOrder(lowIds))).map(parts -> {
+            dashboard.setTopValueItems(parts.getT1());
+            dashboard.setLowStockItems(parts.getT2());
+            return dashboard;
+        });
+    }
+
+    /** [BUY total, SELL total] in minor units of a table with type and total_amount columns. */
+    private Mono<long[]> totalsByType(String table, User user) {
+        return db.sql("SELECT CAST(COALESCE(SUM(CASE WHEN type = 'BUY' THEN total_amount END), 0) * 100 AS BIGINT), "
+                + "CAST(COALESCE(SUM(CASE WHEN type = 'SELL' THEN total_amount END), 0) * 100 AS BIGINT) "
+                + "FROM " + table
+                + " WHERE user_id = :userId")
+            .bind("userId", user.getId())
+            .map((row, meta) -> new long[] {longValue(row, 0), longValue(row, 1)})
+            .one();
+    }
+
+    private Flux<Transaction> archived(User user) {
+        return db.sql("SELECT DISTINCT period_start FROM transaction_rollups WHERE user_id = :userId ORDER BY period_start DESC")
+            .bind("userId", user.getId())
+            .map((row, meta) -> YearMonth.from(row.get(0, LocalDate.class)))
+            .all()
+            .concatMap(month -> Mono.fromCallable(() -> archive.read(user.getId(), month))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(columns -> archivedMonth(columns, user)));
+    }
+
+    private Flux<Transaction> archivedMonth(TransactionColumns columns, User user) {
+        if (columns.size() == 0) {
+            return Flux.empty();
+        }
+        Set<Long> itemIds = new HashSet<>();
+        for (int i = 0; i < columns.size(); i++) {
+            itemIds.add(columns.itemIdAt(i));
+        }
+        return itemsById(itemIds).collectMap(Item::getId).flatMapMany(items -> {
+            List<Transaction> rows = new ArrayList<>(columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                rows.add(columns.toTransaction(i, user, items));
+            }
+            rows.sort(NEWEST_FIRST);
+            return Flux.fromIterable(rows);
+        });
+    }
+
+    private Flux<Item> itemsById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return db.sql("SELECT " + ITEM_COLUMNS + " FROM items WHERE id IN (:ids)")
+            .bind("ids", ids)
+            .map((row, meta) -> item(row, ""))
+            .all();
+    }
+
+    private Flux<Item> itemsInOrder(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        return itemsById(idList).collectMap(Item::getId).flatMapMany(byId -> Flux.fromStream(
+            idList.stream().map(byId::get).filter(item -> item != null)));
+    }
+
+    private Mono<List<DashboardResponse.ItemSummary>> summaries(Flux<Item> items) {
+        return items.map(this::overlay).map(DashboardResponse.ItemSummary::new).collectList();
+    }
+
+    private Item overlay(Item item) {
+        if (journalWriter != null) {
+            journalWriter.overlayQuantities(List.of(item));
+        }
+        return item;
+    }
+
+    private static Item item(Row row, String prefix) {
+        Item item = new Item(
+            row.get(prefix + "name", String.class),
+            row.get(prefix + "sku", String.class),
+            row.get(prefix + "quantity", Integer.class),
+            row.get(prefix + "price", BigDecimal.class));
+        item.setId(row.get(prefix + "id", Long.class));
+        item.setVersion(row.get(prefix + "version", Long.class));
+        return item;
+    }
+
+    private static Transaction transaction(Row row, User user) {
+        Transaction transaction = new Transaction();
+        transaction.setId(row.get("id", Long.class));
+        transaction.setItem(item(row, "item_"));
+        transaction.setUser(user);
+        transaction.setType(TransactionType.valueOf(row.get("type", String.class)));
+        String status = row.get("status", String.class);
+        transaction.setStatus(status == null ? null : TransactionStatus.valueOf(status));
+        transaction.setQuantity(row.get("quantity", Integer.class));
+        transaction.setPricePerUnit(row.get("price_per_unit", BigDecimal.class));
+        transaction.setTotalAmount(row.get("total_amount", BigDecimal.class));
+        transaction.setTransactionDate(row.get("transaction_date", LocalDateTime.class));
+        transaction.setInventoryBefore(row.get("inventory_before", Integer.class));
+        transaction.setInventoryAfter(row.get("inventory_after", Integer.class));
+        transaction.setNotes(row.get("notes", String.class));
+        return transaction;
+    }
+
+    private static long longValue(Row row, int index) {
+        Number value = row.get(index, Number.class);
+        return value == null ? 0 : value.longValue();
+    }
+}
@@ -0,0 +1,34 @@
+package dev.inventorymanager.reactive;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of UserDetailsServiceImpl: the same users table and the
+ * same ROLE_ authorities, read over R2DBC.
+ */
+public class ReactiveUserDetailsServiceImpl implements ReactiveUserDetailsService {
+
+    private final ReactiveInventoryReader reader;
+
+    public ReactiveUserDetailsServiceImpl(ReactiveInventoryReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return reader.findUser(username).map(user -> new org.springframework.security.core.userdetails.User(
+            user.getUsername(),
+            user.getPassword(),
+            user.isEnabled(),
+            true, // accountNonExpired
+            true, // credentialsNonExpired
+            true, // accountNonLocked
+            List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
+        ));
+    }
+}
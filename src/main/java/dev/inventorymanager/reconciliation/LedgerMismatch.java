@@ -0,0 +1,89 @@
+package dev.inventorymanager.reconciliation;
+
+import java.time.LocalDateTime;
+
+/**
+ * One break in an item's ledger found by {@link LedgerReconciler}.
+ */
+public class LedgerMismatch {
+
+    public enum Kind {
+        /** inventoryAfter is not inventoryBefore plus (BUY) or minus (SELL) the quantity */
+        ARITHMETIC,
+        /** inventoryBefore is not the inventoryAfter of the item's previous transaction */
+        CHAIN_GAP,
+        /** The item's quantity is not the inventoryAfter of its latest transaction */
+        QUANTITY
+    }
+
+    private final long runId;
+    private final long userId;
+    private final long itemId;
+    private final long transactionId;
+    private final Kind kind;
+    private final Integer expected;
+    private final Integer actual;
+    private final boolean repaired;
+    private final LocalDateTime foundAt;
+
+    public LedgerMismatch(long runId, long userId, long itemId, long transactionId, Kind kind,
+                          Integer expected, Integer actual, boolean repaired, LocalDateTime foundAt) {
+        this.runId = runId;
+        this.userId = userId;
+        this.itemId = itemId;
+        this.transactionId = transactionId;
+        this.kind = kind;
+        this.expected = expected;
+        this.actual = actual;
+        this.repaired = repaired;
+        this.foundAt = foundAt;
+    }
+
+    public long getRunId() {
+        return runId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    /**
+     * @return The transaction the break was found at; for QUANTITY, the item's latest transaction
+     */
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return What the ledger says the value should be
+     */
+    public Integer getExpected() {
+        return expected;
+    }
+
+    /**
+     * @return The value actually stored
+     */
+    public Integer getActual() {
+        return actual;
+    }
+
+    /**
+     * @return Whether repair mode recorded an adjustment for it
+     */
+    public boolean isRepaired() {
+        return repaired;
+    }
+
+    public LocalDateTime getFoundAt() {
+        return foundAt;
+    }
+}
@@ -0,0 +1,556 @@
+package dev.inventorymanager.reconciliation;
+
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.sharding.ShardedTransactionWriter;
+import dev.inventorymanager.sync.ChangeSequence;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Checks every item's transaction ledger against the item.
+ *
+ * For each item, its COMPLETED transactions in (date, id) order must form an
+ * unbroken chain: each one's inventoryAfter is its inventoryBefore plus (BUY)
+ * or minus (SELL) its quantity, each inventoryBefore is the previous one's
+ * inventoryAfter, and the last inventoryAfter is the item's quantity. Together
+ * these mean the quantity is the opening stock plus BUYs minus SELLs. Archived
+ * transactions are no longer in the table, so an item's chain starts at its
+ * oldest transaction still there; items without transactions have nothing to check.
+ *
+ * A run works through users in ascending id order, a batch at a time. The users
+ * of a batch are split across a fork-join pool; each worker pages through one
+ * user's items along the (user_id, id) index and streams the transactions of each
+ * page in (item, date) order along the item/date index, so memory stays flat
+ * however large a tenant is. After each batch the run saves a checkpoint (last
+ * user checked and running totals) in reconciliation_checkpoint, and every break
+ * found is stored in reconciliation_mismatches as it is found (both tables come
+ * from db/schema.sql). A stopped, failed
+ * or killed run resumes after its checkpoint on the next start.
+ *
+ * Reading an item and its transactions are separate statements, so a write
+ * landing between them can look like a QUANTITY break. Such a break is checked
+ * again in one statement before it is reported.
+ *
+ * Repair mode closes QUANTITY breaks: the item's quantity is what stock is sold
+ * against, so a BUY or SELL adjustment at price 0 is recorded from the ledger's
+ * last inventoryAfter to the quantity (as a stock-take does). Each repair holds the
+ * item the way an edit does in the current write mode and checks the break again
+ * first, so it never races a sale. ARITHMETIC and CHAIN_GAP breaks are in past
+ * transactions and are reported only.
+ *
+ * Throttling (see {@link ReconciliationThrottle}) keeps a run from slowing requests:
+ * a small dedicated pool, a ceiling on rows read per second, and pausing while
+ * requests are waiting for a database connection.
+ *
+ * Configuration:
+ * - inventory.reconciliation.parallelism: users checked at once
+ * - inventory.reconciliation.batch-users: users per checkpoint
+ * - inventory.reconciliation.page-items: items read per query
+ * - inventory.reconciliation.max-rows-per-second: ceiling on items plus transactions read (0 = none)
+ * - inventory.reconciliation.busy-backoff-ms: pause while requests wait for a connection (0 = never pause)
+ */
+@Component
+public class LedgerReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciler.class);
+
+    public static final String REPAIR_NOTES = "Reconciliation adjustment";
+
+    private static final String CHECKPOINT_NAME = "ledger";
+
+    private static final String SELECT_ITEMS =
+        "SELECT id, quantity FROM items WHERE user_id = ? AND id > ? ORDER BY user_id, id LIMIT ?";
+
+    // Item ranges keep the scan on the item/date index; the user_id filter drops other users' items in the range
+    private static final String SELECT_TRANSACTIONS =
+        "SELECT id, item_id, type, quantity, inventory_before, inventory_after FROM transactions "
+            + "WHERE item_id BETWEEN ? AND ? AND user_id = ? AND (status IS NULL OR status = 'COMPLETED') "
+            + "ORDER BY item_id, transaction_date, id";
+
+    // One statement, so the item and its latest transaction are read at the same point in time
+    private static final String SELECT_LEDGER_END =
+        "SELECT i.quantity, t.id, t.inventory_after FROM items i LEFT JOIN transactions t ON t.id = ("
+            + "SELECT l.id FROM transactions l WHERE l.item_id = i.id AND (l.status IS NULL OR l.status = 'COMPLETED') "
+            + "ORDER BY l.transaction_date DESC, l.id DESC LIMIT 1) WHERE i.id = ?";
+
+    private static final String INSERT_MISMATCH =
+        "INSERT INTO reconciliation_mismatches (run_id, user_id, item_id, transaction_id, kind, expected, actual, "
+            + "repaired, found_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ADJUSTMENT =
+        "INSERT INTO transactions (id, item_id, user_id, type, status, quantity, price_per_unit, "
+            + "total_amount, transaction_date, inventory_before, inventory_after, notes, change_seq) "
+            + "VALUES (?, ?, ?, ?, 'COMPLETED', ?, 0, 0, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalTransactionWriter journalWriter;
+    private final ShardedTransactionWriter shardedWriter;
+    private final ApplicationEventPublisher events;
+    private final DataSource dataSource;
+    private final String nextTransactionIdSql;
+    private final ChangeSequence changeSequence;
+
+    @Value("${inventory.reconciliation.parallelism:2}")
+    private int parallelism;
+
+    @Value("${inventory.reconciliation.batch-users:64}")
+    private int batchUsers;
+
+    @Value("${inventory.reconciliation.page-items:500}")
+    private int pageItems;
+
+    @Value("${inventory.reconciliation.max-rows-per-second:50000}")
+    private int maxRowsPerSecond;
+
+    @Value("${inventory.reconciliation.busy-backoff-ms:20}")
+    private long busyBackoffMs;
+
+    // A lock rather than a monitor: begin() reads and writes the checkpoint while holding it
+    private final ReentrantLock lifecycle = new ReentrantLock();
+    private Thread worker;
+    private volatile boolean running;
+    private volatile boolean stopRequested;
+    private volatile String lastError;
+    private volatile Run current;
+
+    public LedgerReconciler(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ObjectProvider<JournalTransactionWriter> journalWriter,
+                            ObjectProvider<ShardedTransactionWriter> shardedWriter,
+                            ApplicationEventPublisher events, DataSource dataSource,
+                            EntityManagerFactory entityManagerFactory, ChangeSequence changeSequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalWriter = journalWriter.getIfAvailable();
+        this.shardedWriter = shardedWriter.getIfAvailable();
+        this.events = events;
+        this.dataSource = dataSource;
+        this.nextTransactionIdSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSequenceNextValString("transactions_id_seq");
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * Starts a run on a background thread.
+     *
+     * @param repair Record adjustments for QUANTITY breaks
+     * @param fresh Start over from the first user even if the last run did not finish
+     * @return The run's status as it starts
+     * @throws IllegalStateException if a run is in progress
+     */
+    public ReconciliationStatus start(boolean repair, boolean fresh) {
+        lifecycle.lock();
+        try {
+            begin(repair, fresh);
+            worker = new Thread(this::runToEnd, "ledger-reconciler");
+            worker.setDaemon(true);
+            worker.start();
+            return status();
+        } finally {
+            lifecycle.unlock();
+        }
+    }
+
+    /**
+     * Runs reconciliation on the calling thread, resuming an unfinished run unless {@code fresh}.
+     *
+     * @return The run's status when it finished or stopped
+     * @throws IllegalStateException if a run is in progress
+     */
+    public ReconciliationStatus run(boolean repair, boolean fresh) {
+        lifecycle.lock();
+        try {
+            begin(repair, fresh);
+        } finally {
+            lifecycle.unlock();
+        }
+        runToEnd();
+        return status();
+    }
+
+    /**
+     * Asks the current run to stop after the users it is checking. Its checkpoint
+     * is kept, so the next start resumes after them.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * @return Progress of the current run, or of the last one
+     */
+    public ReconciliationStatus status() {
+        Run run = current;
+        if (run != null && running) {
+            return new ReconciliationStatus(run.runId, true, run.repair, run.lastUserId, run.users.get(),
+                run.items.get(), run.transactions.get(), run.mismatches.get(), run.repaired.get(),
+                run.throttle.throttledMs(), run.startedAt, null, null);
+        }
+        List<ReconciliationStatus> saved = jdbcTemplate.query("SELECT run_id, repair, last_user_id, users_checked, "
+                + "items_checked, transactions_checked, mismatches, repaired, started_at, finished_at "
+                + "FROM reconciliation_checkpoint WHERE name = ?",
+            (rs, row) -> new ReconciliationStatus(rs.getLong(1), false, rs.getBoolean(2), rs.getLong(3),
+                rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8),
+                run != null ? run.throttle.throttledMs() : 0, rs.getTimestamp(9).toLocalDateTime(),
+                rs.getTimestamp(10) != null ? rs.getTimestamp(10).toLocalDateTime() : null, lastError),
+            CHECKPOINT_NAME);
+        return saved.isEmpty()
+            ? new ReconciliationStatus(0, false, false, 0, 0, 0, 0, 0, 0, 0, null, null, null)
+            : saved.get(0);
+    }
+
+    /**
+     * @return Breaks found by a run, by user and item
+     */
+    public List<LedgerMismatch> mismatches(long runId, int limit) {
+        return jdbcTemplate.query("SELECT run_id, user_id, item_id, transaction_id, kind, expected, actual, repaired, "
+                + "found_at FROM reconciliation_mismatches WHERE run_id = ? ORDER BY user_id, item_id, transaction_id "
+                + "LIMIT ?",
+            (rs, row) -> new LedgerMismatch(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                LedgerMismatch.Kind.valueOf(rs.getString(5)), (Integer) rs.getObject(6), (Integer) rs.getObject(7),
+                rs.getBoolean(8), rs.getTimestamp(9).toLocalDateTime()),
+            runId, limit);
+    }
+
+    /**
+     * Claims the reconciler and sets up the run's checkpoint: a new run, or the
+     * unfinished one resumed after its last checked user.
+     */
+    private void begin(boolean repair, boolean fresh) {
+        if (running) {
+            throw new IllegalStateException("Reconciliation is already running");
+        }
+        ReconciliationStatus saved = status();
+        boolean resume = !fresh && saved.getRunId() > 0 && saved.getFinishedAt() == null;
+        Run run;
+        if (resume) {
+            run = new Run(saved.getRunId(), repair, saved.getStartedAt(), saved.getLastUserId());
+            run.users.set(saved.getUsersChecked());
+            run.items.set(saved.getItemsChecked());
+            run.transactions.set(saved.getTransactionsChecked());
+            run.mismatches.set(saved.getMismatches());
+            run.repaired.set(saved.getRepaired());
+            // Breaks recorded after the checkpoint are found again by this run
+            jdbcTemplate.update("DELETE FROM reconciliation_mismatches WHERE run_id = ? AND user_id > ?",
+                run.runId, run.lastUserId);
+            jdbcTemplate.update("UPDATE reconciliation_checkpoint SET repair = ? WHERE name = ?", repair,
+                CHECKPOINT_NAME);
+            log.info("Resuming ledger reconciliation run {} after user {}", run.runId, run.lastUserId);
+        } else {
+            run = new Run(saved.getRunId() + 1, repair, LocalDateTime.now(), 0);
+            jdbcTemplate.update("DELETE FROM reconciliation_checkpoint WHERE name = ?", CHECKPOINT_NAME);
+            jdbcTemplate.update("INSERT INTO reconciliation_checkpoint (name, run_id, repair, last_user_id, "
+                    + "users_checked, items_checked, transactions_checked, mismatches, repaired, started_at) "
+                    + "VALUES (?, ?, ?, 0, 0, 0, 0, 0, 0, ?)",
+                CHECKPOINT_NAME, run.runId, repair, Timestamp.valueOf(run.startedAt));
+            log.info("Starting ledger reconciliation run {}{}", run.runId, repair ? " with repair" : "");
+        }
+        current = run;
+        stopRequested = false;
+        lastError = null;
+        running = true;
+    }
+
+    private void runToEnd() {
+        Run run = current;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        long started = System.nanoTime();
+        try {
+            while (!stopRequested) {
+                List<Long> userIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?", Long.class, run.lastUserId,
+                    Math.max(1, batchUsers));
+                if (userIds.isEmpty()) {
+                    jdbcTemplate.update("UPDATE reconciliation_checkpoint SET finished_at = ? WHERE name = ?",
+                        Timestamp.valueOf(LocalDateTime.now()), CHECKPOINT_NAME);
+                    log.info("Ledger reconciliation run {} checked {} users, {} items and {} transactions in {} ms: "
+                            + "{} mismatches, {} repaired", run.runId, run.users.get(), run.items.get(),
+                        run.transactions.get(), run.mismatches.get(), run.repaired.get(),
+                        (System.nanoTime() - started) / 1_000_000);
+                    break;
+                }
+                pool.invoke(new Tenants(run, userIds, 0, userIds.size()));
+                if (stopRequested) {
+                    // Users of this batch may have been skipped; the checkpoint stays before them
+                    break;
+                }
+                run.lastUserId = userIds.get(userIds.size() - 1);
+                jdbcTemplate.update("UPDATE reconciliation_checkpoint SET last_user_id = ?, users_checked = ?, "
+                        + "items_checked = ?, transactions_checked = ?, mismatches = ?, repaired = ? WHERE name = ?",
+                    run.lastUserId, run.users.get(), run.items.get(), run.transactions.get(), run.mismatches.get(),
+                    run.repaired.get(), CHECKPOINT_NAME);
+            }
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Ledger reconciliation run {} failed after user {}", run.runId, run.lastUserId, e);
+        } finally {
+            pool.shutdownNow();
+            running = false;
+        }
+    }
+
+    /**
+     * Checks one user's items, a page at a time.
+     */
+    private void reconcileTenant(Run run, long userId) throws InterruptedException {
+        long after = 0;
+        while (!stopRequested) {
+            run.throttle.awaitIdlePool();
+            List<long[]> items = new ArrayList<>();
+            jdbcTemplate.query(SELECT_ITEMS, rs -> {
+                Object quantity = rs.getObject(2);
+                // A null quantity has no ledger end to compare with
+                items.add(new long[] {rs.getLong(1), quantity == null ? Long.MIN_VALUE : ((Number) quantity).longValue()});
+            }, userId, after, Math.max(1, pageItems));
+            if (items.isEmpty()) {
+                break;
+            }
+            long first = items.get(0)[0];
+            after = items.get(items.size() - 1)[0];
+
+            PageLedger ledger = new PageLedger(items);
+            jdbcTemplate.query(SELECT_TRANSACTIONS, ledger::accept, first, after, userId);
+            ledger.finish();
+            for (Object[] found : ledger.breaks) {
+                recordMismatch(run, userId, (Long) found[0], (Long) found[1], (LedgerMismatch.Kind) found[2],
+                    (Integer) found[3], (Integer) found[4], false);
+            }
+            for (long itemId : ledger.suspectItems) {
+                checkLedgerEnd(run, userId, itemId);
+            }
+
+            run.items.addAndGet(items.size());
+            run.transactions.addAndGet(ledger.transactions);
+            run.throttle.charge(items.size() + ledger.transactions);
+        }
+        if (!stopRequested) {
+            run.users.incrementAndGet();
+        }
+    }
+
+    /**
+     * Walks one page's transaction stream alongside its items. Breaks are collected
+     * and written after the stream is closed, so a worker uses one connection at a time.
+     */
+    private static class PageLedger {
+
+        private final List<long[]> items;
+        private final List<Object[]> breaks = new ArrayList<>();
+        private final List<Long> suspectItems = new ArrayList<>();
+        private int itemIndex;
+        private boolean inItem;
+        private long itemId;
+        private Integer lastAfter;
+        private long transactions;
+
+        PageLedger(List<long[]> items) {
+            this.items = items;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            long transactionId = rs.getLong(1);
+            long transactionItem = rs.getLong(2);
+            if (!inItem || transactionItem != itemId) {
+                endItem();
+                inItem = true;
+                itemId = transactionItem;
+            }
+            transactions++;
+            TransactionType type = TransactionType.valueOf(rs.getString(3));
+            int quantity = rs.getInt(4);
+            Integer before = (Integer) rs.getObject(5);
+            Integer after = (Integer) rs.getObject(6);
+
+            if (before != null && after != null) {
+                int expected = type == TransactionType.BUY ? before + quantity : before - quantity;
+                if (after != expected) {
+                    breaks.add(new Object[] {itemId, transactionId, LedgerMismatch.Kind.ARITHMETIC, expected, after});
+                }
+            }
+            if (lastAfter != null && before != null && !lastAfter.equals(before)) {
+                breaks.add(new Object[] {itemId, transactionId, LedgerMismatch.Kind.CHAIN_GAP, lastAfter, before});
+            }
+            if (after != null) {
+                lastAfter = after;
+            }
+        }
+
+        void finish() {
+            endItem();
+        }
+
+        private void endItem() {
+            if (inItem && lastAfter != null) {
+                // Both the items and the stream are in id order, so the search only moves forward
+                while (itemIndex < items.size() && items.get(itemIndex)[0] < itemId) {
+                    itemIndex++;
+                }
+                if (itemIndex < items.size() && items.get(itemIndex)[0] == itemId
+                        && items.get(itemIndex)[1] != Long.MIN_VALUE && items.get(itemIndex)[1] != lastAfter) {
+                    suspectItems.add(itemId);
+                }
+            }
+            inItem = false;
+            lastAfter = null;
+        }
+    }
+
+    /**
+     * Confirms a suspected QUANTITY break with one consistent read, and repairs it in repair mode.
+     */
+    private void checkLedgerEnd(Run run, long userId, long itemId) {
+        LedgerEnd end = readLedgerEnd(itemId);
+        if (end == null || !end.broken()) {
+            return;
+        }
+        boolean repaired = run.repair && repair(userId, itemId);
+        recordMismatch(run, userId, itemId, end.transactionId, LedgerMismatch.Kind.QUANTITY, end.ledgerQuantity,
+            end.quantity, repaired);
+        if (repaired) {
+            run.repaired.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records an adjustment from the ledger's end to the item's quantity, holding
+     * the item like an edit does.
+     *
+     * @return Whether the break was still there and an adjustment was recorded
+     */
+    private boolean repair(long userId, long itemId) {
+        Supplier<Boolean> work = () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM items WHERE id = ? FOR UPDATE", Long.class, itemId);
+            LedgerEnd end = readLedgerEnd(itemId);
+            if (end == null || !end.broken()) {
+                return false;
+            }
+            int before = end.ledgerQuantity;
+            int after = end.quantity;
+            TransactionType type = after > before ? TransactionType.BUY : TransactionType.SELL;
+            int quantity = Math.abs(after - before);
+            LocalDateTime now = LocalDateTime.now();
+            long transactionId = jdbcTemplate.queryForObject(nextTransactionIdSql, Long.class);
+            jdbcTemplate.update(INSERT_ADJUSTMENT, transactionId, itemId, userId, type.name(), quantity,
+                Timestamp.valueOf(now), before, after, REPAIR_NOTES, changeSequence.next());
+            events.publishEvent(new TransactionRecordedEvent(transactionId, userId, itemId, type, quantity,
+                0, now, after));
+            return true;
+        });
+        if (journalWriter != null) {
+            return journalWriter.runExclusive(itemId, work);
+        }
+        if (shardedWriter != null) {
+            return shardedWriter.runExclusive(itemId, work);
+        }
+        return work.get();
+    }
+
+    private LedgerEnd readLedgerEnd(long itemId) {
+        List<LedgerEnd> rows = jdbcTemplate.query(SELECT_LEDGER_END,
+            (rs, row) -> new LedgerEnd((Integer) rs.getObject(1), rs.getLong(2), (Integer) rs.getObject(3)), itemId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void recordMismatch(Run run, long userId, long itemId, long transactionId, LedgerMismatch.Kind kind,
+                                Integer expected, Integer actual, boolean repaired) {
+        jdbcTemplate.update(INSERT_MISMATCH, run.runId, userId, itemId, transactionId, kind.name(), expected, actual,
+            repaired, Timestamp.valueOf(LocalDateTime.now()));
+        run.mismatches.incrementAndGet();
+    }
+
+    private static class LedgerEnd {
+
+        final Integer quantity;
+        final long transactionId;
+        final Integer ledgerQuantity;
+
+        LedgerEnd(Integer quantity, long transactionId, Integer ledgerQuantity) {
+            this.quantity = quantity;
+            this.transactionId = transactionId;
+            this.ledgerQuantity = ledgerQuantity;
+        }
+
+        boolean broken() {
+            return quantity != null && ledgerQuantity != null && !Objects.equals(quantity, ledgerQuantity);
+        }
+    }
+
+    /**
+     * Splits a batch of users in halves until each task checks one user.
+     */
+    private class Tenants extends RecursiveAction {
+
+        private final Run run;
+        private final List<Long> userIds;
+        private final int from;
+        private final int to;
+
+        Tenants(Run run, List<Long> userIds, int from, int to) {
+            this.run = run;
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Tenants(run, userIds, from, middle), new Tenants(run, userIds, middle, to));
+                return;
+            }
+            try {
+                reconcileTenant(run, userIds.get(from));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopRequested = true;
+            }
+        }
+    }
+
+    private class Run {
+
+        final long runId;
+        final boolean repair;
+        final LocalDateTime startedAt;
+        final ReconciliationThrottle throttle = new ReconciliationThrottle(dataSource, maxRowsPerSecond, busyBackoffMs);
+        final AtomicLong users = new AtomicLong();
+        final AtomicLong items = new AtomicLong();
+        final AtomicLong transactions = new AtomicLong();
+        final AtomicLong mismatches = new AtomicLong();
+        final AtomicLong repaired = new AtomicLong();
+        volatile long lastUserId;
+
+        Run(long runId, boolean repair, LocalDateTime startedAt, long lastUserId) {
+            this.runId = runId;
+            this.repair = repair;
+            this.startedAt = startedAt;
+            this.lastUserId = lastUserId;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package dev.inventorymanager.reconciliation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the current (or last) reconciliation run, as stored in its checkpoint.
+ */
+public class ReconciliationStatus {
+
+    private final long runId;
+    private final boolean running;
+    private final boolean repair;
+    private final long lastUserId;
+    private final long usersChecked;
+    private final long itemsChecked;
+    private final long transactionsChecked;
+    private final long mismatches;
+    private final long repaired;
+    private final long throttledMs;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final String error;
+
+    public ReconciliationStatus(long runId, boolean running, boolean repair, long lastUserId, long usersChecked,
+                                long itemsChecked, long transactionsChecked, long mismatches, long repaired,
+                                long throttledMs, LocalDateTime startedAt, LocalDateTime finishedAt, String error) {
+        this.runId = runId;
+        this.running = running;
+        this.repair = repair;
+        this.lastUserId = lastUserId;
+        this.usersChecked = usersChecked;
+        this.itemsChecked = itemsChecked;
+        this.transactionsChecked = transactionsChecked;
+        this.mismatches = mismatches;
+        this.repaired = repaired;
+        this.throttledMs = throttledMs;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    /**
+     * @return The run's id, or 0 if reconciliation has never run
+     */
+    public long getRunId() {
+        return runId;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isRepair() {
+        return repair;
+    }
+
+    /**
+     * @return Every user up to and including this id has been checked
+     */
+    public long getLastUserId() {
+        return lastUserId;
+    }
+
+    public long getUsersChecked() {
+        return usersChecked;
+    }
+
+    public long getItemsChecked() {
+        return itemsChecked;
+    }
+
+    public long getTransactionsChecked() {
+        return transactionsChecked;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    /**
+     * @return Time the run spent paused to stay under its row rate or to let requests have connections
+     */
+    public long getThrottledMs() {
+        return throttledMs;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return When the run checked its last user; null while running, or if it was stopped or failed
+     */
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return Why the run stopped early, if it failed
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,88 @@
+package dev.inventorymanager.reconciliation;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a reconciliation run from competing with requests.
+ *
+ * - Rows read are paced to a fixed rate shared by all of the run's workers
+ * - Before each page a worker waits while request threads are queued for a
+ *   connection from the application's pool, so the run only uses connections
+ *   nobody else is waiting for
+ *
+ * Workers are between queries whenever they pause, so a paused run holds no connection.
+ */
+class ReconciliationThrottle {
+
+    private final DataSource dataSource;
+    private final long nanosPerRow;
+    private final long busyBackoffMs;
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private long nextFreeNanos;
+
+    ReconciliationThrottle(DataSource dataSource, int maxRowsPerSecond, long busyBackoffMs) {
+        this.dataSource = dataSource;
+        this.nanosPerRow = maxRowsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond : 0;
+        this.busyBackoffMs = busyBackoffMs;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits until the connection pool has no queued requests.
+     */
+    void awaitIdlePool() throws InterruptedException {
+        HikariPoolMXBean pool = connectionPool();
+        if (pool == null || busyBackoffMs <= 0) {
+            return;
+        }
+        while (pool.getThreadsAwaitingConnection() > 0) {
+            pause(TimeUnit.MILLISECONDS.toNanos(busyBackoffMs));
+        }
+    }
+
+    /**
+     * Charges rows that were just read against the rate, sleeping if the run is ahead of it.
+     */
+    void charge(long rows) throws InterruptedException {
+        if (nanosPerRow == 0 || rows == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Time left unused in the past is not banked; the rate is a ceiling
+            nextFreeNanos = Math.max(nextFreeNanos, now) + rows * nanosPerRow;
+            wait = nextFreeNanos - now - rows * nanosPerRow;
+        }
+        if (wait > 0) {
+            pause(wait);
+        }
+    }
+
+    long throttledMs() {
+        return TimeUnit.NANOSECONDS.toMillis(throttledNanos.get());
+    }
+
+    private void pause(long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+        throttledNanos.addAndGet(nanos);
+    }
+
+    private HikariPoolMXBean connectionPool() {
+        try {
+            // With read/write routing this resolves to the primary's pool, which requests write through
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            // Not a Hikari pool; pace by rate only
+        }
+        return null;
+    }
+}
@@ -2,29 +2,39 @@ package dev.inventorymanager.repository;
 
 import dev.inventorymanager.model.Item;
 import dev.inventorymanager.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import javax.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    Optional<Item> findBySku(String sku);
     List<Item> findByUser(User user);
+    // Backed by the (user_id, sku) unique index
+    Optional<Item> findByUserAndSku(User user, String sku);
     Optional<Item> findByIdAndUser(Long id, User user);
 
+    // SELECT ... FOR UPDATE; multi-item writers take these in ascending id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id AND i.user = :user")
+    Optional<Item> findByIdAndUserForUpdate(@Param("id") Long id, @Param("user") User user);
+
     // Dashboard queries
     Long countByUser(User user);
 
     @Query("SELECT COALESCE(SUM(i.quantity), 0) FROM Item i WHERE i.user = :user")
     Integer getTotalQuantityByUser(@Param("user") User user);
 
-    @Query("SELECT COALESCE(SUM(i.price * i.quantity), 0) FROM Item i WHERE i.user = :user")
-    BigDecimal getTotalInventoryValueByUser(@Param("user") User user);
+    /** Sum of price * quantity in minor units (see {@link dev.inventorymanager.model.Money}) */
+    @Query(value = "SELECT CAST(COALESCE(SUM(price * quantity), 0) * 100 AS BIGINT) FROM items WHERE user_id = :userId",
+        nativeQuery = true)
+    long getTotalInventoryValueMinorByUser(@Param("userId") long userId);
 
     @Query("SELECT COUNT(i) FROM Item i WHERE i.user = :user AND i.quantity < :threshold")
     Long countLowStockItems(@Param("user") User user, @Param("threshold") Integer threshold);
@@ -34,4 +44,10 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     @Query("SELECT i FROM Item i WHERE i.user = :user ORDER BY (i.price * i.quantity) DESC")
     List<Item> findTopValueItems(@Param("user") User user);
+
+    // Delta sync: a page of the user's items changed after (seq, afterId), up to the watermark, in change order
+    @Query("SELECT i FROM Item i WHERE i.user.id = :userId AND i.changeSeq <= :upTo "
+        + "AND (i.changeSeq > :seq OR (i.changeSeq = :seq AND i.id > :afterId)) ORDER BY i.changeSeq, i.id")
+    List<Item> findChangedSince(@Param("userId") long userId, @Param("seq") long seq, @Param("afterId") long afterId,
+                                @Param("upTo") long upTo, Pageable page);
 }
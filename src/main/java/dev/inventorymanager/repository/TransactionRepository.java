@@ -2,12 +2,13 @@ package dev.inventorymanager.repository;
 
 import dev.inventorymanager.model.Transaction;
 import dev.inventorymanager.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -58,33 +59,48 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      */
     List<Transaction> findByUserOrderByTransactionDateDesc(User user);
 
+    /**
+     * Find a user's transactions in a date range, oldest first.
+     *
+     * Used by the export endpoint. Served by the (user_id, transaction_date) index.
+     *
+     * @param user The user whose transactions to retrieve
+     * @param from Inclusive lower bound
+     * @param to Exclusive upper bound
+     * @return Transactions in the range, oldest first
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.transactionDate >= :from "
+        + "AND t.transactionDate < :to ORDER BY t.transactionDate, t.id")
+    List<Transaction> findByUserInRange(@Param("user") User user, @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
     /**
      * Calculate total spending (sum of all BUY transactions) for a user.
      *
-     * This custom JPQL query sums the totalAmount of all BUY transactions.
-     * COALESCE returns 0 if there are no transactions (prevents null).
+     * Sums total_amount in SQL and returns the result in minor units (see
+     * {@link dev.inventorymanager.model.Money}), so the total never becomes a
+     * BigDecimal. COALESCE returns 0 if there are no transactions (prevents null).
      *
      * Use case: Dashboard analytics, profit calculation
      *
-     * @param user The user whose spending to calculate
-     * @return Total amount spent on purchases (BUY transactions)
+     * @param userId The user whose spending to calculate
+     * @return Total amount spent on purchases (BUY transactions), in minor units
      */
-    @Query("SELECT COALESCE(SUM(t.totalAmount), 0) FROM Transaction t WHERE t.type = 'BUY' AND t.user = :user")
-    BigDecimal getTotalSpending(@Param("user") User user);
+    @Query(value = "SELECT CAST(COALESCE(SUM(total_amount), 0) * 100 AS BIGINT) FROM transactions "
+        + "WHERE type = 'BUY' AND user_id = :userId", nativeQuery = true)
+    long getTotalSpendingMinor(@Param("userId") long userId);
 
     /**
      * Calculate total sales (sum of all SELL transactions) for a user.
      *
-     * This custom JPQL query sums the totalAmount of all SELL transactions.
-     * COALESCE returns 0 if there are no transactions (prevents null).
+     * Use case: Dashboard analytics, revenue tracking, profit calculation
      *
-     * Use case: Dashboard analytics, profit calculation
-     *
-     * @param user The user whose sales to calculate
-     * @return Total amount earned from sales (SELL transactions)
+     * @param userId The user whose sales to calculate
+     * @return Total amount earned from sales (SELL transactions), in minor units
      */
-    @Query("SELECT COALESCE(SUM(t.totalAmount), 0) FROM Transaction t WHERE t.type = 'SELL' AND t.user = :user")
-    BigDecimal getTotalSales(@Param("user") User user);
+    @Query(value = "SELECT CAST(COALESCE(SUM(total_amount), 0) * 100 AS BIGINT) FROM transactions "
+        + "WHERE type = 'SELL' AND user_id = :userId", nativeQuery = true)
+    long getTotalSalesMinor(@Param("userId") long userId);
 
     /**
      * Count total number of transactions for a user.
@@ -98,4 +114,20 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @return Total number of transactions for the user
      */
     Long countByUser(User user);
+
+    /**
+     * Find a page of a user's transactions written after a delta sync position,
+     * in change order (see dev.inventorymanager.sync.SyncService).
+     *
+     * Walks the (user_id, change_seq, id) index.
+     *
+     * @param seq Change sequence value of the position
+     * @param afterId Transactions at exactly {@code seq} must have a larger id
+     * @param upTo Change sequence watermark; later transactions are left for the next sync
+     * @return Up to a page of transactions, by change sequence value then id
+     */
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.item WHERE t.user.id = :userId AND t.changeSeq <= :upTo "
+        + "AND (t.changeSeq > :seq OR (t.changeSeq = :seq AND t.id > :afterId)) ORDER BY t.changeSeq, t.id")
+    List<Transaction> findChangedSince(@Param("userId") long userId, @Param("seq") long seq,
+                                       @Param("afterId") long afterId, @Param("upTo") long upTo, Pageable page);
 }
@@ -0,0 +1,43 @@
+package dev.inventorymanager.repository;
+
+import dev.inventorymanager.model.TransactionRollup;
+import dev.inventorymanager.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for the per-month totals of archived transactions.
+ */
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, Long> {
+
+    /**
+     * @return The user's rollups for one archived month (at most one per transaction type)
+     */
+    List<TransactionRollup> findByUserAndPeriodStart(User user, LocalDate periodStart);
+
+    /**
+     * @return Archived months for the user, oldest first
+     */
+    @Query("SELECT DISTINCT r.periodStart FROM TransactionRollup r WHERE r.user = :user ORDER BY r.periodStart")
+    List<LocalDate> findArchivedPeriods(@Param("user") User user);
+
+    /**
+     * Sum of archived totals of one type (BUY or SELL) in minor units (see
+     * {@link dev.inventorymanager.model.Money}). Returns 0 when nothing is archived.
+     */
+    @Query(value = "SELECT CAST(COALESCE(SUM(total_amount), 0) * 100 AS BIGINT) FROM transaction_rollups "
+        + "WHERE user_id = :userId AND type = :type", nativeQuery = true)
+    long getArchivedTotalMinor(@Param("userId") long userId, @Param("type") String type);
+
+    /**
+     * Number of archived transactions. Returns 0 when nothing is archived.
+     */
+    @Query("SELECT COALESCE(SUM(r.transactionCount), 0) FROM TransactionRollup r WHERE r.user = :user")
+    Long getArchivedCount(@Param("user") User user);
+}
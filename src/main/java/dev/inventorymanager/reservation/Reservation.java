@@ -0,0 +1,71 @@
+package dev.inventorymanager.reservation;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stock held for a client until it confirms or releases it, or the hold expires.
+ *
+ * Reservations live in memory only (see {@link StockReservations}); the status
+ * moves out of HELD exactly once, so a confirm, a release and an expiry racing
+ * for the same reservation cannot all take effect.
+ */
+public class Reservation {
+
+    private final long id;
+    private final long itemId;
+    private final long userId;
+    private final int quantity;
+    private final LocalDateTime expiresAt;
+    private final AtomicReference<ReservationStatus> status = new AtomicReference<>(ReservationStatus.HELD);
+
+    // Set while the reservation is on the expiry wheel
+    private volatile TimingWheel.Timeout<Reservation> timeout;
+
+    Reservation(long id, long itemId, long userId, int quantity, LocalDateTime expiresAt) {
+        this.id = id;
+        this.itemId = itemId;
+        this.userId = userId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    @JsonIgnore
+    public long getUserId() {
+        return userId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public ReservationStatus getStatus() {
+        return status.get();
+    }
+
+    boolean transition(ReservationStatus from, ReservationStatus to) {
+        return status.compareAndSet(from, to);
+    }
+
+    TimingWheel.Timeout<Reservation> getTimeout() {
+        return timeout;
+    }
+
+    void setTimeout(TimingWheel.Timeout<Reservation> timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.inventorymanager.reservation;
+
+/**
+ * Lifecycle of a stock reservation.
+ *
+ * Status Flow:
+ * HELD -> CONFIRMED (sold through TransactionService)
+ * HELD -> RELEASED (given back by the client)
+ * HELD -> EXPIRED (reclaimed when its time ran out)
+ */
+public enum ReservationStatus {
+    /**
+     * Stock is set aside: it counts against available-to-sell but is still on hand.
+     */
+    HELD,
+
+    /**
+     * The reservation was turned into a SELL transaction.
+     */
+    CONFIRMED,
+
+    /**
+     * The reservation was cancelled and its stock is available again.
+     */
+    RELEASED,
+
+    /**
+     * Nobody confirmed or released the reservation in time; its stock is available again.
+     */
+    EXPIRED
+}
@@ -0,0 +1,231 @@
+package dev.inventorymanager.reservation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory ledger of stock reservations.
+ *
+ * Keeps a running total of held units per item, so available-to-sell is
+ * on-hand quantity minus one map lookup, never a scan of the reservations. Every
+ * SELL path subtracts {@link #held(long)} before checking stock. Expired holds
+ * are reclaimed by a {@link TimingWheel} that a background thread advances once
+ * per tick, so the cost of expiry does not grow with the number of outstanding
+ * reservations.
+ *
+ * Taking stock ({@link #hold}) must happen while the caller has the item's write
+ * path to itself (its row lock, journal lock or shard), so no sale slips in
+ * between the check and the hold. Giving stock back (release, expiry) needs no
+ * lock: it can only make more stock available.
+ *
+ * Holds are not persisted: after a restart every item is fully available again,
+ * and confirming a reservation made before it fails.
+ *
+ * Metrics:
+ * - inventory.reservations: reservations by outcome (held, confirmed, restored, released, expired)
+ * - inventory.reservations.outstanding: reservations currently held
+ *
+ * Configuration:
+ * - inventory.reservations.tick-ms: expiry resolution
+ * - inventory.reservations.wheel-slots: slots of the expiry wheel
+ * - inventory.reservations.default-ttl-seconds: hold time when the client names none
+ * - inventory.reservations.max-ttl-seconds: longest hold a client may ask for
+ */
+@Component
+public class StockReservations {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservations.class);
+
+    private final MeterRegistry registry;
+    private final long tickMillis;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final TimingWheel<Reservation> wheel;
+    private final ConcurrentHashMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> heldByItem = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    private ScheduledExecutorService ticker;
+
+    public StockReservations(MeterRegistry registry,
+                             @Value("${inventory.reservations.tick-ms:100}") long tickMillis,
+                             @Value("${inventory.reservations.wheel-slots:4096}") int wheelSlots,
+                             @Value("${inventory.reservations.default-ttl-seconds:300}") long defaultTtlSeconds,
+                             @Value("${inventory.reservations.max-ttl-seconds:3600}") long maxTtlSeconds) {
+        this.registry = registry;
+        this.tickMillis = tickMillis;
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.wheel = new TimingWheel<>(wheelSlots, tickMillis, TimeUnit.MILLISECONDS, System.nanoTime());
+    }
+
+    @PostConstruct
+    public void start() {
+        registry.gauge("inventory.reservations.outstanding", reservations, ConcurrentHashMap::size);
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Units of the item currently held by reservations
+     */
+    public int held(long itemId) {
+        return heldByItem.getOrDefault(itemId, 0);
+    }
+
+    /**
+     * @param ttlSeconds Requested hold time, or null for the default
+     * @return The hold time to use
+     * @throws IllegalArgumentException if the requested time is not positive or above the maximum
+     */
+    public Duration ttl(Long ttlSeconds) {
+        if (ttlSeconds == null) {
+            return defaultTtl;
+        }
+        if (ttlSeconds <= 0 || ttlSeconds > maxTtl.getSeconds()) {
+            throw new IllegalArgumentException("ttlSeconds must be between 1 and " + maxTtl.getSeconds());
+        }
+        return Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Holds stock of an item. The caller must have the item's write path to itself.
+     *
+     * @param onHand The item's current on-hand quantity
+     * @return The new reservation
+     * @throws IllegalArgumentException if quantity <= 0 or fewer than quantity units are available
+     */
+    public Reservation hold(long itemId, long userId, int quantity, Duration ttl, int onHand) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        int available = onHand - held(itemId);
+        if (available < quantity) {
+            throw new IllegalArgumentException(
+                String.format("Insufficient inventory. Available: %d, Requested: %d", available, quantity));
+        }
+        Reservation reservation = new Reservation(nextId.incrementAndGet(), itemId, userId, quantity,
+            LocalDateTime.now().plus(ttl));
+        reservations.put(reservation.getId(), reservation);
+        addHeld(itemId, quantity);
+        reservation.setTimeout(wheel.schedule(reservation, System.nanoTime() + ttl.toNanos()));
+        count("held");
+        return reservation;
+    }
+
+    /**
+     * @return The user's reservation if it is still held
+     */
+    public Optional<Reservation> find(long reservationId, long userId) {
+        Reservation reservation = reservations.get(reservationId);
+        return reservation != null && reservation.getUserId() == userId ? Optional.of(reservation) : Optional.empty();
+    }
+
+    /**
+     * Takes a reservation off the books just before its units are sold, so the
+     * sale is not blocked by its own hold. Undo with {@link #restore} if the sale fails.
+     *
+     * @throws IllegalStateException if the reservation is no longer held
+     */
+    public void consume(Reservation reservation) {
+        if (!reservation.transition(ReservationStatus.HELD, ReservationStatus.CONFIRMED)) {
+            throw new IllegalStateException("Reservation is no longer held: " + reservation.getStatus());
+        }
+        unhold(reservation);
+        count("confirmed");
+    }
+
+    /**
+     * Puts back a reservation whose sale failed after {@link #consume}. It keeps
+     * its original deadline, so one that ran out meanwhile expires on the next tick.
+     */
+    public void restore(Reservation reservation) {
+        if (!reservation.transition(ReservationStatus.CONFIRMED, ReservationStatus.HELD)) {
+            return;
+        }
+        reservations.put(reservation.getId(), reservation);
+        addHeld(reservation.getItemId(), reservation.getQuantity());
+        reservation.setTimeout(wheel.schedule(reservation, reservation.getTimeout().getDeadlineNanos()));
+        count("restored");
+    }
+
+    /**
+     * Gives the reserved units back.
+     *
+     * @return False if the reservation had already been confirmed, released or expired
+     */
+    public boolean release(Reservation reservation) {
+        if (!reservation.transition(ReservationStatus.HELD, ReservationStatus.RELEASED)) {
+            return false;
+        }
+        unhold(reservation);
+        count("released");
+        return true;
+    }
+
+    /**
+     * @return Reservations currently held
+     */
+    public int outstanding() {
+        return reservations.size();
+    }
+
+    /**
+     * Expires whatever came due since the last tick; runs on the ticker thread.
+     */
+    void expireDue() {
+        try {
+            wheel.advance(System.nanoTime(), reservation -> {
+                if (reservation.transition(ReservationStatus.HELD, ReservationStatus.EXPIRED)) {
+                    unhold(reservation);
+                    count("expired");
+                }
+            });
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task and stop all further expiry
+            log.warn("Could not expire reservations", e);
+        }
+    }
+
+    private void unhold(Reservation reservation) {
+        if (reservation.getTimeout() != null) {
+            wheel.cancel(reservation.getTimeout());
+        }
+        reservations.remove(reservation.getId());
+        addHeld(reservation.getItemId(), -reservation.getQuantity());
+    }
+
+    private void addHeld(long itemId, int delta) {
+        // Items with nothing held drop out of the map, so it only grows with items that have holds
+        heldByItem.merge(itemId, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private void count(String outcome) {
+        registry.counter("inventory.reservations", "outcome", outcome).increment();
+    }
+}
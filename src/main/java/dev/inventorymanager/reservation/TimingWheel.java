@@ -0,0 +1,206 @@
+package dev.inventorymanager.reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of slots, each a doubly linked list of timeouts,
+ * with a cursor that moves one slot per tick.
+ *
+ * A timeout due in k ticks goes into slot (cursor + k) mod size and carries the
+ * number of full turns, k / size, the cursor must make before it is due. Scheduling
+ * and cancelling are O(1) whatever the number of outstanding timeouts; a tick only
+ * visits the timeouts in one slot, so with more timeouts than slots each tick costs
+ * about timeouts / size. Expiry is accurate to one tick.
+ *
+ * Thread-safe. Timeouts are expired by {@link #advance}, which the owner calls
+ * from a single thread at least once per tick.
+ *
+ * @param <T> Payload handed back when a timeout expires
+ */
+public class TimingWheel<T> {
+
+    private final Slot<T>[] slots;
+    private final int mask;
+    private final long tickNanos;
+    private final long startNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Next tick to process; tick k expires what is due by startNanos + (k + 1) * tickNanos
+    private long tick;
+    private int size;
+
+    /**
+     * @param slotCount Number of slots; rounded up to a power of two
+     * @param tickDuration Length of one tick
+     * @param startNanos {@link System#nanoTime()} value the first tick counts from
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(int slotCount, long tickDuration, TimeUnit unit, long startNanos) {
+        if (slotCount <= 0 || slotCount > (1 << 30)) {
+            throw new IllegalArgumentException("Slot count must be between 1 and 2^30");
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        int n = Integer.highestOneBit(slotCount);
+        if (n < slotCount) {
+            n <<= 1;
+        }
+        this.slots = new Slot[n];
+        for (int i = 0; i < n; i++) {
+            slots[i] = new Slot<>();
+        }
+        this.mask = n - 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Schedules a payload to expire at a {@link System#nanoTime()} deadline. A
+     * deadline that has already passed expires on the next tick.
+     *
+     * @return Handle for {@link #cancel}
+     */
+    public Timeout<T> schedule(T payload, long deadlineNanos) {
+        Timeout<T> timeout = new Timeout<>(payload, deadlineNanos);
+        lock.lock();
+        try {
+            long due = Math.max(tick, ceilDiv(deadlineNanos - startNanos, tickNanos) - 1);
+            timeout.rounds = (due - tick) / slots.length;
+            slots[(int) (due & mask)].add(timeout);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+        return timeout;
+    }
+
+    /**
+     * @return Whether the timeout was still pending; false if it had expired or was cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        lock.lock();
+        try {
+            if (timeout.slot == null) {
+                return false;
+            }
+            timeout.slot.remove(timeout);
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Processes every tick that has ended by {@code nowNanos} and hands the
+     * payloads that came due to {@code expired}, outside the wheel's lock.
+     *
+     * @return Number of payloads expired
+     */
+    public int advance(long nowNanos, Consumer<? super T> expired) {
+        List<T> due = new ArrayList<>();
+        lock.lock();
+        try {
+            while (startNanos + (tick + 1) * tickNanos - nowNanos <= 0) {
+                Slot<T> slot = slots[(int) (tick & mask)];
+                Timeout<T> timeout = slot.head;
+                while (timeout != null) {
+                    Timeout<T> next = timeout.next;
+                    if (timeout.rounds <= 0) {
+                        slot.remove(timeout);
+                        size--;
+                        due.add(timeout.payload);
+                    } else {
+                        timeout.rounds--;
+                    }
+                    timeout = next;
+                }
+                tick++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(expired);
+        return due.size();
+    }
+
+    /**
+     * @return Timeouts scheduled and neither expired nor cancelled
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    /**
+     * A scheduled payload; pass it to {@link TimingWheel#cancel} to drop it.
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineNanos;
+
+        // Guarded by the wheel's lock
+        private long rounds;
+        private Slot<T> slot;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineNanos) {
+            this.payload = payload;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+    }
+
+    private static final class Slot<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.prev = tail;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
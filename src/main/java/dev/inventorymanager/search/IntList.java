@@ -0,0 +1,32 @@
+package dev.inventorymanager.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of ints, used for posting lists in ascending document order.
+ */
+final class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return true if the (ascending) list contains the value */
+    boolean containsSorted(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+}
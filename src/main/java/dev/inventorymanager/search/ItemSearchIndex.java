@@ -0,0 +1,105 @@
+package dev.inventorymanager.search;
+
+import dev.inventorymanager.events.ItemDeletedEvent;
+import dev.inventorymanager.events.ItemSavedEvent;
+import dev.inventorymanager.events.TransactionsImportedEvent;
+import dev.inventorymanager.events.UserDeletedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search over item names and SKUs, one {@link UserSearchIndex} per user.
+ *
+ * Built from the items table on startup and maintained incrementally from the
+ * item events InventoryService publishes; bulk imports trigger a rebuild.
+ *
+ * Configuration:
+ * - inventory.search.enabled: set to false to skip building the index
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.search.enabled", havingValue = "true", matchIfMissing = true)
+public class ItemSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final int FETCH_SIZE = 4096;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Map<Long, UserSearchIndex> indexes = new ConcurrentHashMap<>();
+
+    public ItemSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rebuilds the index from the items table.
+     */
+    @PostConstruct
+    public void rebuild() {
+        long started = System.nanoTime();
+        Map<Long, UserSearchIndex> built = new ConcurrentHashMap<>();
+        long[] count = new long[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, user_id, name, sku FROM items");
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            built.computeIfAbsent(rs.getLong(2), u -> new UserSearchIndex())
+                .put(rs.getLong(1), rs.getString(3), rs.getString(4));
+            count[0]++;
+        });
+        indexes = built;
+        log.info("Item search index built over {} items in {} ms", count[0], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        indexes.computeIfAbsent(event.getUserId(), u -> new UserSearchIndex())
+            .put(event.getItemId(), event.getName(), event.getSku());
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        UserSearchIndex index = indexes.get(event.getUserId());
+        if (index != null) {
+            index.remove(event.getItemId());
+        }
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        indexes.remove(event.getUserId());
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Searches one user's items by name and SKU: prefix, substring, and within one
+     * or two typos for queries of four or more characters.
+     *
+     * @param offset Number of ranked matches to skip
+     * @param limit Maximum number of item ids to return
+     * @return The page of item ids, best match first, and the total number of matches
+     */
+    public SearchHits search(long userId, String query, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        UserSearchIndex index = indexes.get(userId);
+        return index == null ? new SearchHits(new long[0], 0) : index.search(query, offset, limit);
+    }
+}
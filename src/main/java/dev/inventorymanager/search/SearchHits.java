@@ -0,0 +1,23 @@
+package dev.inventorymanager.search;
+
+/**
+ * One page of search results: matching item ids, best first, and how many items matched in total.
+ */
+public class SearchHits {
+
+    private final long[] itemIds;
+    private final int total;
+
+    SearchHits(long[] itemIds, int total) {
+        this.itemIds = itemIds;
+        this.total = total;
+    }
+
+    public long[] getItemIds() {
+        return itemIds;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,615 @@
+package dev.inventorymanager.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search index over one user's item names and SKUs.
+ *
+ * Names and SKUs are normalized and split into words. Each distinct word is a
+ * dictionary entry with a posting list of the documents containing it; every
+ * posting also records where the word occurs (first word of the SKU, first word
+ * of the name, or elsewhere), which is all ranking needs for one-word queries.
+ * The dictionary itself is indexed two ways:
+ * - sorted, so words starting with the query are a range scan
+ * - by trigram, so words containing the query, or within one or two typos of
+ *   it, are found without touching the documents
+ *
+ * Documents are append-only: an edit indexes a new document and retires the
+ * old one in the {@code alive} set, so posting lists stay sorted by document and
+ * never need in-place removal. Once retired documents outnumber live ones the
+ * index is rebuilt from the live documents.
+ *
+ * Ranking, best first: SKU equals the query, SKU starts with it, name starts
+ * with it, a word starts with it, a word contains it, then typo matches by edit
+ * distance (only when nothing matches exactly). Ties go to the shorter name,
+ * then the older item.
+ */
+final class UserSearchIndex {
+
+    static final int SCORE_SKU_EXACT = 100;
+    static final int SCORE_SKU_PREFIX = 90;
+    static final int SCORE_NAME_PREFIX = 80;
+    static final int SCORE_WORD_PREFIX = 70;
+    static final int SCORE_ALL_WORDS = 65;
+    static final int SCORE_SUBSTRING = 60;
+    static final int SCORE_FUZZY = 40;
+
+    // Where a word occurs in a document, stored in the low bits of each posting
+    private static final int IN_SKU_FIRST = 0;
+    private static final int IN_NAME_FIRST = 1;
+    private static final int IN_OTHER = 2;
+    private static final int CLASS_BITS = 2;
+
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Phrase words with up to this many times the rarest word's postings are intersected as sets
+    private static final int PHRASE_INTERSECT_RATIO = 8;
+    private static final int COMPACT_MIN_DEAD = 1024;
+    private static final long ITEM_ID_MASK = (1L << 40) - 1;
+
+    /** A dictionary entry. */
+    private static final class Word {
+        final int id;
+        final String text;
+        final IntList postings = new IntList();
+
+        Word(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] docItem = new long[16];
+    private long[] docRank = new long[16];
+    private String[] docName = new String[16];
+    private String[] docSku = new String[16];
+    private int docCount;
+    private final BitSet alive = new BitSet();
+    private final Map<Long, Integer> docOfItem = new HashMap<>();
+
+    private final TreeMap<String, Word> words = new TreeMap<>();
+    private final List<Word> wordById = new ArrayList<>();
+    private final Map<Long, IntList> wordTrigrams = new HashMap<>();
+
+    void put(long itemId, String name, String sku) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = docOfItem.remove(itemId);
+            if (previous != null) {
+                alive.clear(previous);
+            }
+            addDocument(itemId, normalize(name), normalize(sku));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = docOfItem.remove(itemId);
+            if (previous != null) {
+                alive.clear(previous);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docOfItem.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return One page of matching item ids, best first, and the total number of matches
+     */
+    SearchHits search(String rawQuery, int offset, int limit) {
+        String query = normalize(rawQuery);
+        if (query.isEmpty()) {
+            return new SearchHits(new long[0], 0);
+        }
+        lock.readLock().lock();
+        try {
+            // Never more than every document, however deep the page
+            TopK top = new TopK((int) Math.min((long) offset + limit, docOfItem.size()));
+            int total = query.indexOf(' ') < 0 ? searchWord(query, top) : searchPhrase(query, top);
+            return new SearchHits(top.itemIdsBestFirst(offset), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** One-word query: every score comes from posting classes, no document strings are read. */
+    private int searchWord(String query, TopK top) {
+        byte[] best = new byte[docCount];
+        IntList touched = new IntList();
+
+        for (Word word : words.subMap(query, true, query + Character.MAX_VALUE, true).values()) {
+            boolean whole = word.text.length() == query.length();
+            IntList postings = word.postings;
+            for (int i = 0; i < postings.size(); i++) {
+                int posting = postings.get(i);
+                int doc = posting >>> CLASS_BITS;
+                int score;
+                switch (posting & ((1 << CLASS_BITS) - 1)) {
+                    case IN_SKU_FIRST:
+                        score = whole && docSku[doc].length() == query.length() ? SCORE_SKU_EXACT : SCORE_SKU_PREFIX;
+                        break;
+                    case IN_NAME_FIRST:
+                        score = SCORE_NAME_PREFIX;
+                        break;
+                    default:
+                        score = SCORE_WORD_PREFIX;
+                }
+                record(doc, score, best, touched);
+            }
+        }
+        if (query.length() >= 3) {
+            for (Word word : wordsContaining(query)) {
+                if (!word.text.startsWith(query)) {
+                    recordAll(word, SCORE_SUBSTRING, best, touched);
+                }
+            }
+        }
+        if (query.length() >= MIN_FUZZY_LENGTH && !anyAlive(touched)) {
+            int maxEdits = maxEdits(query);
+            for (Word word : wordsNear(query, maxEdits)) {
+                int distance = prefixEditDistance(query, word.text, maxEdits);
+                recordAll(word, SCORE_FUZZY - 10 * (distance - 1), best, touched);
+            }
+        }
+
+        int total = 0;
+        for (int i = 0; i < touched.size(); i++) {
+            int doc = touched.get(i);
+            if (alive.get(doc)) {
+                total++;
+                top.offer(rankKey(best[doc], doc));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Multi-word query: each word must match some word of the document (prefix, infix, or
+     * fuzzily when it matches nothing exactly). Candidates are the rarest query word's
+     * documents, intersected with the documents of any word of similar frequency; much
+     * commoner words are checked against the surviving candidates' text instead.
+     */
+    private int searchPhrase(String query, TopK top) {
+        String[] queryWords = query.split(" ");
+        List<List<Word>> matches = new ArrayList<>(queryWords.length);
+        boolean[] fuzzyWord = new boolean[queryWords.length];
+        long[] counts = new long[queryWords.length];
+        boolean fuzzy = false;
+        int rarest = 0;
+        for (int w = 0; w < queryWords.length; w++) {
+            String queryWord = queryWords[w];
+            List<Word> found = new ArrayList<>(words.subMap(queryWord, true, queryWord + Character.MAX_VALUE, true).values());
+            if (queryWord.length() >= 3) {
+                for (Word word : wordsContaining(queryWord)) {
+                    if (!word.text.startsWith(queryWord)) {
+                        found.add(word);
+                    }
+                }
+            }
+            if (found.isEmpty() && queryWord.length() >= MIN_FUZZY_LENGTH) {
+                found = wordsNear(queryWord, maxEdits(queryWord));
+                fuzzyWord[w] = true;
+                fuzzy = true;
+            }
+            if (found.isEmpty()) {
+                return 0;
+            }
+            for (Word word : found) {
+                counts[w] += word.postings.size();
+            }
+            if (counts[w] < counts[rarest]) {
+                rarest = w;
+            }
+            matches.add(found);
+        }
+
+        BitSet candidates = documentsOf(matches.get(rarest));
+        candidates.and(alive);
+        boolean[] checked = new boolean[queryWords.length];
+        checked[rarest] = true;
+        for (int w = 0; w < queryWords.length; w++) {
+            if (!checked[w] && (fuzzyWord[w] || counts[w] <= PHRASE_INTERSECT_RATIO * counts[rarest])) {
+                candidates.and(documentsOf(matches.get(w)));
+                checked[w] = true;
+            }
+        }
+
+        boolean bounded = true;
+        for (boolean wordChecked : checked) {
+            bounded &= wordChecked;
+        }
+        bounded &= counts[0] <= PHRASE_INTERSECT_RATIO * counts[rarest];
+        // Where the first query word sits bounds the score: only a document whose SKU or name
+        // starts with it can rank above a word-prefix match. Worth it when every word was
+        // intersected as a set, so skipping the scoring skips reading the strings at all.
+        BitSet skuFirst = new BitSet(bounded ? docCount : 0);
+        BitSet nameFirst = new BitSet(bounded ? docCount : 0);
+        for (Word word : bounded ? matches.get(0) : List.<Word>of()) {
+            IntList postings = word.postings;
+            for (int i = 0; i < postings.size(); i++) {
+                int posting = postings.get(i);
+                int cls = posting & ((1 << CLASS_BITS) - 1);
+                if (cls == IN_SKU_FIRST) {
+                    skuFirst.set(posting >>> CLASS_BITS);
+                } else if (cls == IN_NAME_FIRST) {
+                    nameFirst.set(posting >>> CLASS_BITS);
+                }
+            }
+        }
+
+        String wordPrefix = " " + query;
+        int total = 0;
+        candidates:
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            if (bounded) {
+                int bound = skuFirst.get(doc) ? SCORE_SKU_EXACT : nameFirst.get(doc) ? SCORE_NAME_PREFIX : SCORE_WORD_PREFIX;
+                if (!top.accepts(rankKey(bound, doc))) {
+                    // A match either way, but it cannot make the page
+                    total++;
+                    continue;
+                }
+            }
+            String sku = docSku[doc];
+            String name = docName[doc];
+            for (int w = 0; w < queryWords.length; w++) {
+                // Exact matches are words starting with (or, from three characters, containing) the query word
+                if (!checked[w] && !containsMatch(name, queryWords[w]) && !containsMatch(sku, queryWords[w])) {
+                    continue candidates;
+                }
+            }
+            int score;
+            if (sku.equals(query)) {
+                score = SCORE_SKU_EXACT;
+            } else if (sku.startsWith(query)) {
+                score = SCORE_SKU_PREFIX;
+            } else if (name.startsWith(query)) {
+                score = SCORE_NAME_PREFIX;
+            } else if (name.contains(wordPrefix) || sku.contains(wordPrefix)) {
+                score = SCORE_WORD_PREFIX;
+            } else if (name.contains(query) || sku.contains(query)) {
+                score = SCORE_SUBSTRING;
+            } else {
+                score = fuzzy ? SCORE_FUZZY : SCORE_ALL_WORDS;
+            }
+            total++;
+            top.offer(rankKey(score, doc));
+        }
+        return total;
+    }
+
+    private BitSet documentsOf(List<Word> matched) {
+        BitSet docs = new BitSet(docCount);
+        for (Word word : matched) {
+            IntList postings = word.postings;
+            for (int i = 0; i < postings.size(); i++) {
+                docs.set(postings.get(i) >>> CLASS_BITS);
+            }
+        }
+        return docs;
+    }
+
+    private static boolean containsMatch(String text, String queryWord) {
+        if (queryWord.length() >= 3) {
+            return text.contains(queryWord);
+        }
+        return text.startsWith(queryWord) || text.contains(" " + queryWord);
+    }
+
+    private boolean anyAlive(IntList docs) {
+        for (int i = 0; i < docs.size(); i++) {
+            if (alive.get(docs.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordAll(Word word, int score, byte[] best, IntList touched) {
+        IntList postings = word.postings;
+        for (int i = 0; i < postings.size(); i++) {
+            record(postings.get(i) >>> CLASS_BITS, score, best, touched);
+        }
+    }
+
+    private static void record(int doc, int score, byte[] best, IntList touched) {
+        if (best[doc] == 0) {
+            touched.add(doc);
+        }
+        if (score > best[doc]) {
+            best[doc] = (byte) score;
+        }
+    }
+
+    /** Higher is better: score, then shorter name, then older item. */
+    private long rankKey(int score, int doc) {
+        return ((long) score << 50) | docRank[doc];
+    }
+
+    /** Dictionary words containing the text (three or more characters), via the word trigram index. */
+    private List<Word> wordsContaining(String text) {
+        long[] grams = trigramsOf(text);
+        IntList[] lists = new IntList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = wordTrigrams.get(grams[i]);
+            if (lists[i] == null) {
+                return List.of();
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+        List<Word> result = new ArrayList<>();
+        IntList rarest = lists[0];
+        outer:
+        for (int i = 0; i < rarest.size(); i++) {
+            int wordId = rarest.get(i);
+            for (int l = 1; l < lists.length; l++) {
+                if (!lists[l].containsSorted(wordId)) {
+                    continue outer;
+                }
+            }
+            Word word = wordById.get(wordId);
+            if (grams.length == 1 || word.text.contains(text)) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Dictionary words whose prefix is within {@code maxEdits} of the text. Candidates share
+     * enough trigrams with the text to fit the budget (one edit destroys at most three).
+     */
+    private List<Word> wordsNear(String text, int maxEdits) {
+        long[] grams = trigramsOf(text);
+        int required = Math.max(1, grams.length - 3 * maxEdits);
+        int[] hits = new int[wordById.size()];
+        IntList candidates = new IntList();
+        for (long gram : grams) {
+            IntList ids = wordTrigrams.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                int wordId = ids.get(i);
+                if (++hits[wordId] == required) {
+                    candidates.add(wordId);
+                }
+            }
+        }
+        List<Word> result = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Word word = wordById.get(candidates.get(i));
+            if (prefixEditDistance(text, word.text, maxEdits) <= maxEdits) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private static int maxEdits(String text) {
+        return text.length() >= 8 ? 2 : 1;
+    }
+
+    /**
+     * Levenshtein distance between the query and the closest prefix of the text,
+     * giving up once every row exceeds the budget.
+     */
+    static int prefixEditDistance(String query, String text, int maxEdits) {
+        int n = query.length();
+        int m = Math.min(text.length(), n + maxEdits);
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            previous[i] = i;
+        }
+        int best = previous[n];
+        for (int j = 1; j <= m; j++) {
+            current[0] = j;
+            int rowMin = j;
+            char c = text.charAt(j - 1);
+            for (int i = 1; i <= n; i++) {
+                int cost = query.charAt(i - 1) == c ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            best = Math.min(best, current[n]);
+            if (rowMin > maxEdits) {
+                break;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return best;
+    }
+
+    private void addDocument(long itemId, String name, String sku) {
+        int doc = docCount;
+        if (doc == docItem.length) {
+            int capacity = doc + (doc >> 1);
+            docItem = Arrays.copyOf(docItem, capacity);
+            docRank = Arrays.copyOf(docRank, capacity);
+            docName = Arrays.copyOf(docName, capacity);
+            docSku = Arrays.copyOf(docSku, capacity);
+        }
+        docItem[doc] = itemId;
+        // The score-independent part of the rank key, so ranking never reads the strings
+        docRank[doc] = ((1023L - Math.min(name.length(), 1023)) << 40) | (ITEM_ID_MASK - (itemId & ITEM_ID_MASK));
+        docName[doc] = name;
+        docSku[doc] = sku;
+        docCount = doc + 1;
+        alive.set(doc);
+        docOfItem.put(itemId, doc);
+
+        addWords(sku, doc, IN_SKU_FIRST);
+        addWords(name, doc, IN_NAME_FIRST);
+    }
+
+    private void addWords(String text, int doc, int firstClass) {
+        if (text.isEmpty()) {
+            return;
+        }
+        int position = 0;
+        for (String text1 : text.split(" ")) {
+            Word word = words.get(text1);
+            if (word == null) {
+                word = new Word(wordById.size(), text1);
+                words.put(text1, word);
+                wordById.add(word);
+                for (long gram : trigramsOf(text1)) {
+                    wordTrigrams.computeIfAbsent(gram, g -> new IntList()).add(word.id);
+                }
+            }
+            word.postings.add(doc << CLASS_BITS | (position++ == 0 ? firstClass : IN_OTHER));
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = docCount - docOfItem.size();
+        if (dead < COMPACT_MIN_DEAD || dead < docOfItem.size()) {
+            return;
+        }
+        long[] items = docItem;
+        String[] names = docName;
+        String[] skus = docSku;
+        int count = docCount;
+        BitSet live = (BitSet) alive.clone();
+
+        docItem = new long[Math.max(16, docOfItem.size())];
+        docRank = new long[docItem.length];
+        docName = new String[docItem.length];
+        docSku = new String[docItem.length];
+        docCount = 0;
+        alive.clear();
+        docOfItem.clear();
+        words.clear();
+        wordById.clear();
+        wordTrigrams.clear();
+        for (int doc = live.nextSetBit(0); doc >= 0 && doc < count; doc = live.nextSetBit(doc + 1)) {
+            addDocument(items[doc], names[doc], skus[doc]);
+        }
+    }
+
+    /**
+     * Lower-cases and reduces every run of characters other than letters and digits
+     * to one space, so "Heavy-Duty  Drill" and "heavy duty drill" index the same.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (space && out.length() > 0) {
+                    out.append(' ');
+                }
+                out.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return out.toString();
+    }
+
+    /** @return The distinct trigrams of the text, each packed as three 16-bit chars */
+    private static long[] trigramsOf(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /** Bounded min-heap of rank keys keeping the {@code capacity} highest. */
+    private static final class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int capacity) {
+            heap = new long[capacity];
+        }
+
+        /** Whether a key would currently be kept. */
+        boolean accepts(long key) {
+            return size < heap.length || (size > 0 && key > heap[0]);
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                heap[size] = key;
+                int i = size++;
+                while (i > 0 && heap[(i - 1) >>> 1] > heap[i]) {
+                    swap(i, (i - 1) >>> 1);
+                    i = (i - 1) >>> 1;
+                }
+            } else if (size > 0 && key > heap[0]) {
+                heap[0] = key;
+                int i = 0;
+                while (true) {
+                    int left = 2 * i + 1;
+                    if (left >= size) {
+                        break;
+                    }
+                    int smallest = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+                    if (heap[i] <= heap[smallest]) {
+                        break;
+                    }
+                    swap(i, smallest);
+                    i = smallest;
+                }
+            }
+        }
+
+        long[] itemIdsBestFirst(int offset) {
+            long[] keys = Arrays.copyOf(heap, size);
+            Arrays.sort(keys);
+            int count = Math.max(0, size - offset);
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = ITEM_ID_MASK - (keys[size - 1 - offset - i] & ITEM_ID_MASK);
+            }
+            return ids;
+        }
+
+        private void swap(int a, int b) {
+            long t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package dev.inventorymanager.seed;
+
+import dev.inventorymanager.events.TransactionsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates a large, deterministic data set for benchmarks and scale testing.
+ *
+ * Active only under the {@code seed} profile:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=seed \
+ *     -Dspring-boot.run.arguments="--seed.users=2000 --seed.items-per-user=500"
+ * </pre>
+ *
+ * The same configuration always produces the same rows (including IDs), so
+ * benchmark runs and tests can share a data set. The generator models:
+ * - Zipfian SKU popularity: a few items per tenant receive most transactions
+ * - Seasonality: yearly wave, weekend bump and a December peak
+ * - Valid audit chains: every transaction's inventoryBefore equals the previous
+ *   inventoryAfter of the same item, and each Item.quantity equals the last
+ *   inventoryAfter (or its initial stock if it never traded)
+ *
+ * Rows are written to the same tables the JPA entities map to, using JDBC
+ * batches with pre-assigned IDs so tenants can be generated on parallel
+ * threads. The ID sequences are moved past the seeded ranges afterwards so the
+ * application keeps generating unique IDs.
+ */
+@Component
+@Profile("seed")
+public class SyntheticDataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+
+    private static final String USERNAME_PREFIX = "seed-user-";
+
+    private static final String[] ADJECTIVES = {
+        "Wireless", "Ergonomic", "Compact", "Heavy-Duty", "Premium", "Portable", "Smart", "Classic",
+        "Industrial", "Eco", "Deluxe", "Mini", "Pro", "Ultra", "Basic", "Modular"
+    };
+
+    private static final String[] NOUNS = {
+        "Mouse", "Keyboard", "Charger", "Chair", "Desk Lamp", "Monitor Arm", "Cable", "Headset",
+        "Notebook", "Stapler", "Drill", "Bolt Pack", "Water Bottle", "Backpack", "Router", "Webcam"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher events;
+
+    @Value("${seed.users:2000}")
+    private int users;
+
+    @Value("${seed.items-per-user:500}")
+    private int itemsPerUser;
+
+    @Value("${seed.transactions-per-user:5000}")
+    private int transactionsPerUser;
+
+    @Value("${seed.history-days:730}")
+    private int historyDays;
+
+    @Value("${seed.end-date:2024-12-31}")
+    private String endDate;
+
+    @Value("${seed.random-seed:20240101}")
+    private long randomSeed;
+
+    @Value("${seed.zipf-exponent:1.07}")
+    private double zipfExponent;
+
+    @Value("${seed.threads:0}")
+    private int threads;
+
+    @Value("${seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${seed.password:seed-password}")
+    private String password;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+                               ApplicationEventPublisher events) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.events = events;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Integer existing = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username LIKE ?", Integer.class, USERNAME_PREFIX + "%");
+        if (existing != null && existing > 0) {
+            log.info("Seed data already present ({} seed users), skipping", existing);
+            return;
+        }
+        seed();
+    }
+
+    /**
+     * Generates and inserts the whole data set.
+     */
+    public void seed() throws Exception {
+        long started = System.nanoTime();
+        LocalDate end = "now".equalsIgnoreCase(endDate.trim()) ? LocalDate.now() : LocalDate.parse(endDate.trim());
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Seeding {} users x {} items x {} transactions (history {} days to {}, seed {}, {} threads)",
+            users, itemsPerUser, transactionsPerUser, historyDays, end, randomSeed, poolSize);
+
+        long userBase = maxId("users");
+        long itemBase = maxId("items");
+        long transactionBase = maxId("transactions");
+
+        LocalDateTime firstDay = end.minusDays(historyDays - 1L).atStartOfDay();
+        insertUsers(userBase, Timestamp.valueOf(firstDay));
+
+        ZipfSampler popularity = new ZipfSampler(itemsPerUser, zipfExponent);
+        double[] dayCdf = seasonalDayCdf(end);
+        long firstDayEpoch = firstDay.toEpochSecond(ZoneOffset.UTC);
+
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        AtomicInteger done = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int u = 0; u < users; u++) {
+                final int userIndex = u;
+                futures.add(pool.submit(() -> {
+                    seedTenant(userIndex, userBase, itemBase, transactionBase, popularity, dayCdf, firstDayEpoch);
+                    int completed = done.incrementAndGet();
+                    if (completed % Math.max(1, users / 20) == 0) {
+                        log.info("Seeded {}/{} tenants", completed, users);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        restartSequence("users_id_seq", userBase + users + 1);
+        restartSequence("items_id_seq", itemBase + (long) users * itemsPerUser + 1);
+        restartSequence("transactions_id_seq", transactionBase + (long) users * transactionsPerUser + 1);
+
+        log.info("Seeded {} users, {} items, {} transactions in {} s",
+            users, (long) users * itemsPerUser, (long) users * transactionsPerUser,
+            (System.nanoTime() - started) / 1_000_000_000);
+        // Rows were written behind the entities' back, so in-memory views have to pick them up
+        events.publishEvent(new TransactionsImportedEvent((long) users * transactionsPerUser));
+    }
+
+    private void insertUsers(long userBase, Timestamp createdAt) {
+        // BCrypt is deliberately slow; every seeded tenant shares one hash.
+        String hash = passwordEncoder.encode(password);
+        for (int from = 0; from < users; from += batchSize) {
+            int start = from;
+            int count = Math.min(batchSize, users - from);
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO users (id, username, password, role, created_at, enabled, version) VALUES (?, ?, ?, ?, ?, ?, 0)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int u = start + i;
+                        ps.setLong(1, userBase + u + 1);
+                        ps.setString(2, String.format("%s%05d", USERNAME_PREFIX, u));
+                        ps.setString(3, hash);
+                        ps.setString(4, "USER");
+                        ps.setTimestamp(5, createdAt);
+                        ps.setBoolean(6, true);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+        }
+    }
+
+    private void seedTenant(int userIndex, long userBase, long itemBase, long transactionBase,
+                            ZipfSampler popularity, double[] dayCdf, long firstDayEpoch) {
+        SplittableRandom random = new SplittableRandom(tenantSeed(userIndex, 1));
+        long userId = userBase + userIndex + 1;
+        long firstItemId = itemBase + (long) userIndex * itemsPerUser + 1;
+
+        // Items: price in cents, initial stock, and a per-tenant shuffle of popularity ranks
+        long[] priceCents = new long[itemsPerUser];
+        int[] initialQuantity = new int[itemsPerUser];
+        String[] names = new String[itemsPerUser];
+        int[] rankToItem = new int[itemsPerUser];
+        for (int i = 0; i < itemsPerUser; i++) {
+            priceCents[i] = Math.round(Math.exp(random.nextDouble(0.0, 6.2)) * 100); // ~$1 .. ~$500
+            initialQuantity[i] = 20 + random.nextInt(200);
+            names[i] = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+            rankToItem[i] = i;
+        }
+        for (int i = itemsPerUser - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = rankToItem[i];
+            rankToItem[i] = rankToItem[j];
+            rankToItem[j] = tmp;
+        }
+
+        // Transaction timestamps drawn from the seasonal curve, then replayed in order
+        long[] timestamps = new long[transactionsPerUser];
+        for (int k = 0; k < transactionsPerUser; k++) {
+            int day = sampleDay(dayCdf, random);
+            timestamps[k] = firstDayEpoch + day * 86_400L + random.nextInt(86_400);
+        }
+        Arrays.sort(timestamps);
+
+        // The simulation runs twice from the same seed: the first pass only tracks stock so
+        // the items can be inserted with their final quantity before any transaction row
+        // references them; the second pass streams the transactions out in batches.
+        int[] finalQuantity = initialQuantity.clone();
+        simulate(userIndex, rankToItem, priceCents, finalQuantity, popularity, timestamps, null);
+        insertItems(userIndex, userId, firstItemId, names, finalQuantity, priceCents);
+
+        long firstTransactionId = transactionBase + (long) userIndex * transactionsPerUser + 1;
+        TransactionBatch batch = new TransactionBatch(Math.min(batchSize, Math.max(1, transactionsPerUser)),
+            userId, firstItemId, firstTransactionId);
+        simulate(userIndex, rankToItem, priceCents, initialQuantity.clone(), popularity, timestamps, batch);
+        batch.flush();
+    }
+
+    /**
+     * Replays a tenant's trading history. Sales only happen when stock covers them; an
+     * order that would oversell becomes a bulk restock instead, so the audit chain never
+     * goes negative.
+     */
+    private void simulate(int userIndex, int[] rankToItem, long[] priceCents, int[] quantity,
+                          ZipfSampler popularity, long[] timestamps, TransactionBatch batch) {
+        SplittableRandom random = new SplittableRandom(tenantSeed(userIndex, 2));
+        for (int k = 0; k < timestamps.length; k++) {
+            int item = rankToItem[popularity.sample(random)];
+            int units = 1 + (int) Math.floor(Math.pow(random.nextDouble(), 3) * 20);
+            boolean sell = random.nextInt(100) < 60 && quantity[item] >= units;
+            if (!sell && quantity[item] < units) {
+                units = units * 5 + random.nextInt(50);
+            }
+            int before = quantity[item];
+            int after = sell ? before - units : before + units;
+            quantity[item] = after;
+
+            long unitCents = sell
+                ? priceCents[item] * (100 + random.nextInt(30)) / 100
+                : priceCents[item] * (60 + random.nextInt(20)) / 100;
+
+            if (batch != null) {
+                batch.add(k, item, sell, units, unitCents, timestamps[k], before, after);
+                if (batch.isFull()) {
+                    batch.flush();
+                }
+            }
+        }
+    }
+
+    private long tenantSeed(int userIndex, int stream) {
+        return randomSeed ^ (0x9E3779B97F4A7C15L * (userIndex + 1)) ^ (0xBF58476D1CE4E5B9L * stream);
+    }
+
+    private void insertItems(int userIndex, long userId, long firstItemId,
+                             String[] names, int[] quantity, long[] priceCents) {
+        for (int from = 0; from < itemsPerUser; from += batchSize) {
+            int start = from;
+            int count = Math.min(batchSize, itemsPerUser - from);
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO items (id, name, sku, quantity, price, user_id, version, change_seq) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, 0, 0)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int item = start + i;
+                        ps.setLong(1, firstItemId + item);
+                        ps.setString(2, names[item]);
+                        ps.setString(3, String.format("S%05d-%06d", userIndex, item));
+                        ps.setInt(4, quantity[item]);
+                        ps.setBigDecimal(5, BigDecimal.valueOf(priceCents[item], 2));
+                        ps.setLong(6, userId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+        }
+    }
+
+    /**
+     * Builds the cumulative distribution of transactions over the history window.
+     * Weight per day: a yearly sine wave peaking in early summer, +25% on weekends
+     * and up to +80% in the run-up to Christmas.
+     */
+    private double[] seasonalDayCdf(LocalDate end) {
+        double[] cdf = new double[historyDays];
+        LocalDate day = end.minusDays(historyDays - 1L);
+        double sum = 0;
+        for (int d = 0; d < historyDays; d++, day = day.plusDays(1)) {
+            double weight = 1.0 + 0.3 * Math.sin(2 * Math.PI * (day.getDayOfYear() - 80) / 365.0);
+            if (day.getDayOfWeek().getValue() >= 6) {
+                weight *= 1.25;
+            }
+            if (day.getMonthValue() == 12 && day.getDayOfMonth() <= 24) {
+                weight *= 1.0 + 0.8 * day.getDayOfMonth() / 24.0;
+            }
+            sum += weight;
+            cdf[d] = sum;
+        }
+        for (int d = 0; d < historyDays; d++) {
+            cdf[d] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sampleDay(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private void restartSequence(String sequence, long next) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+    }
+
+    /**
+     * Column buffers for one JDBC batch of transactions. Reused across flushes so a
+     * tenant's transactions are generated without per-row object allocation.
+     */
+    private class TransactionBatch {
+        private final long[] ids;
+        private final long[] itemIds;
+        private final boolean[] sells;
+        private final int[] units;
+        private final long[] unitCents;
+        private final long[] epochSeconds;
+        private final int[] before;
+        private final int[] after;
+        private final long userId;
+        private final long firstItemId;
+        private final long firstTransactionId;
+        private int size;
+
+        TransactionBatch(int capacity, long userId, long firstItemId, long firstTransactionId) {
+            this.userId = userId;
+            this.firstItemId = firstItemId;
+            this.firstTransactionId = firstTransactionId;
+            ids = new long[capacity];
+            itemIds = new long[capacity];
+            sells = new boolean[capacity];
+            units = new int[capacity];
+            unitCents = new long[capacity];
+            epochSeconds = new long[capacity];
+            before = new int[capacity];
+            after = new int[capacity];
+        }
+
+        void add(int sequence, int item, boolean sell, int quantity, long cents, long epochSecond,
+                 int inventoryBefore, int inventoryAfter) {
+            ids[size] = firstTransactionId + sequence;
+            itemIds[size] = firstItemId + item;
+            sells[size] = sell;
+            units[size] = quantity;
+            unitCents[size] = cents;
+            epochSeconds[size] = epochSecond;
+            before[size] = inventoryBefore;
+            after[size] = inventoryAfter;
+            size++;
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        void flush() {
+            if (size == 0) {
+                return;
+            }
+            int count = size;
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (id, item_id, user_id, type, status, quantity, price_per_unit, "
+                    + "total_amount, transaction_date, inventory_before, inventory_after, change_seq) "
+                    + "VALUES (?, ?, ?, ?, 'COMPLETED', ?, ?, ?, ?, ?, ?, 0)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, ids[i]);
+                        ps.setLong(2, itemIds[i]);
+                        ps.setLong(3, userId);
+                        ps.setString(4, sells[i] ? "SELL" : "BUY");
+                        ps.setInt(5, units[i]);
+                        ps.setBigDecimal(6, BigDecimal.valueOf(unitCents[i], 2));
+                        ps.setBigDecimal(7, BigDecimal.valueOf(unitCents[i] * units[i], 2));
+                        ps.setTimestamp(8, Timestamp.valueOf(
+                            LocalDateTime.ofEpochSecond(epochSeconds[i], 0, ZoneOffset.UTC)));
+                        ps.setInt(9, before[i]);
+                        ps.setInt(10, after[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+            size = 0;
+        }
+    }
+}
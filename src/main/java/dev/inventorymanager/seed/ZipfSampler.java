@@ -0,0 +1,49 @@
+package dev.inventorymanager.seed;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks 0..n-1 from a Zipf distribution with exponent {@code s}.
+ *
+ * The cumulative distribution is computed once and sampled with a binary
+ * search, so a sampler can be shared by every seeding thread (it is immutable)
+ * and each draw costs O(log n).
+ *
+ * Rank 0 is the most popular. With s around 1 a handful of SKUs receive most
+ * of the traffic, which is what real sales data looks like and what exposes
+ * hot-row contention.
+ */
+class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double s) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, s);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,496 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.archive.TransactionArchiver;
+import dev.inventorymanager.dto.BulkUpdateResponse;
+import dev.inventorymanager.events.ItemDeletedEvent;
+import dev.inventorymanager.events.ItemsBulkUpdatedEvent;
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.sharding.ShardedTransactionWriter;
+import dev.inventorymanager.sync.ChangeSequence;
+import dev.inventorymanager.sync.SyncService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Set-based updates over many of a user's items: repricing, stock-takes and deletes.
+ *
+ * Instead of loading and dirty-checking one Item entity per row, each chunk of
+ * {@code inventory.bulk.chunk-size} items is a handful of SQL statements in its
+ * own database transaction, and in-memory views hear about it through one
+ * {@link ItemsBulkUpdatedEvent} per chunk. A failure stops the update at the
+ * failing chunk; earlier chunks stay committed.
+ *
+ * Write modes:
+ * - repricing touches only the price column, which the journal does not own; in
+ *   sharded mode each chunk holds its items' shards, as the shards' row updates check the version
+ * - a stock-take sets quantities, so each chunk first takes its items from the
+ *   journal or the shards, like a single-item edit does
+ * - a delete removes rows the journal and the shards write to, so it holds its
+ *   items the same way
+ *
+ * Stock-take adjustments are recorded as BUY (count above stock) or SELL (count
+ * below stock) transactions at price 0, so the audit trail explains every
+ * quantity change without moving the financial totals.
+ *
+ * Deletes never load Item or Transaction entities (whose cascades would load and
+ * delete every transaction one by one). An item's transactions go first, in
+ * DELETE statements of at most {@code inventory.bulk.chunk-size} rows that each
+ * commit on their own, so neither the heap nor the database's undo log grows
+ * with an item's history. The items then go in one database transaction that
+ * locks them, sweeps any transaction recorded in the meantime and leaves
+ * their delta sync tombstones (see SyncService). Last, the deleted items' rows
+ * leave the archived months and their rollups (see TransactionArchiver).
+ *
+ * Configuration:
+ * - inventory.bulk.chunk-size: items (or deleted transaction rows) per statement and per database transaction
+ */
+@Service
+public class BulkItemService {
+
+    public static final String STOCK_TAKE_NOTES = "Stock-take adjustment";
+
+    private static final String INSERT_ADJUSTMENT =
+        "INSERT INTO transactions (id, item_id, user_id, type, status, quantity, price_per_unit, "
+            + "total_amount, transaction_date, inventory_before, inventory_after, notes, change_seq) "
+            + "VALUES (?, ?, ?, ?, 'COMPLETED', ?, 0, 0, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_TRANSACTIONS_CHUNK =
+        "DELETE FROM transactions WHERE id IN (SELECT id FROM transactions WHERE item_id IN (%s) LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalTransactionWriter journalWriter;
+    private final ShardedTransactionWriter shardedWriter;
+    private final ApplicationEventPublisher events;
+    private final String transactionIdBlockSql;
+    private final ChangeSequence changeSequence;
+    private final SyncService syncService;
+    private final TransactionArchiver archiver;
+    private final int chunkSize;
+
+    public BulkItemService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           ObjectProvider<JournalTransactionWriter> journalWriter,
+                           ObjectProvider<ShardedTransactionWriter> shardedWriter,
+                           ApplicationEventPublisher events, EntityManagerFactory entityManagerFactory,
+                           ChangeSequence changeSequence, SyncService syncService, TransactionArchiver archiver,
+                           @Value("${inventory.bulk.chunk-size:1000}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("inventory.bulk.chunk-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalWriter = journalWriter.getIfAvailable();
+        this.shardedWriter = shardedWriter.getIfAvailable();
+        this.events = events;
+        // One round trip for all of a chunk's adjustments, whatever its size
+        this.transactionIdBlockSql = "SELECT " + entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSelectSequenceNextValString("transactions_id_seq")
+            + " FROM SYSTEM_RANGE(1, ?)";
+        this.changeSequence = changeSequence;
+        this.syncService = syncService;
+        this.archiver = archiver;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Changes the price of the given items, or of every item matching the filter.
+     * An empty filter matches all of the user's items.
+     *
+     * @param itemIds Items to reprice; ids that are not the user's are skipped
+     * @param skuPrefix Only items whose SKU starts with this (case-sensitive)
+     * @param nameContains Only items whose name contains this (case-insensitive)
+     * @throws IllegalArgumentException if both ids and a filter are given
+     */
+    public BulkUpdateResponse reprice(Collection<Long> itemIds, String skuPrefix, String nameContains,
+                                      PriceChange change, User user) {
+        boolean filtered = (skuPrefix != null && !skuPrefix.isEmpty())
+            || (nameContains != null && !nameContains.isEmpty());
+        if (itemIds != null && filtered) {
+            throw new IllegalArgumentException("Give either itemIds or a filter, not both");
+        }
+        long started = System.nanoTime();
+        int matched = 0;
+        int updated = 0;
+        if (itemIds != null) {
+            List<Long> sorted = new ArrayList<>(new TreeSet<>(itemIds));
+            for (int from = 0; from < sorted.size(); from += chunkSize) {
+                List<Long> chunk = sorted.subList(from, Math.min(sorted.size(), from + chunkSize));
+                List<Object> args = new ArrayList<>();
+                args.add(user.getId());
+                args.add(chunk.get(0));
+                args.add(chunk.get(chunk.size() - 1));
+                args.addAll(chunk);
+                // The id range keeps the statements on one stretch of the (user_id, id) index
+                String where = " WHERE user_id = ? AND id BETWEEN ? AND ? AND id IN (" + placeholders(chunk.size()) + ")";
+                List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM items" + where + " ORDER BY id",
+                    Long.class, args.toArray());
+                if (!ids.isEmpty()) {
+                    matched += ids.size();
+                    updated += repriceChunk(user.getId(), ids, where, args, change);
+                }
+            }
+        } else {
+            StringBuilder filter = new StringBuilder();
+            List<Object> filterArgs = new ArrayList<>();
+            if (skuPrefix != null && !skuPrefix.isEmpty()) {
+                filter.append(" AND sku LIKE ? ESCAPE '\\'");
+                filterArgs.add(escapeLike(skuPrefix) + "%");
+            }
+            if (nameContains != null && !nameContains.isEmpty()) {
+                filter.append(" AND LOWER(name) LIKE ? ESCAPE '\\'");
+                filterArgs.add("%" + escapeLike(nameContains.toLowerCase()) + "%");
+            }
+            // Keyset pagination: each chunk starts after the last id of the previous one
+            long after = 0;
+            while (true) {
+                List<Object> args = new ArrayList<>();
+                args.add(user.getId());
+                args.add(after);
+                args.addAll(filterArgs);
+                args.add(chunkSize);
+                // Ordered like the (user_id, id) index, so the database reads just one chunk of it
+                List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM items WHERE user_id = ? AND id > ?" + filter
+                    + " ORDER BY user_id, id LIMIT ?", Long.class, args.toArray());
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long first = ids.get(0);
+                long last = ids.get(ids.size() - 1);
+                // Every row of the user's in [first, last] that passes the filter is in this chunk
+                List<Object> whereArgs = new ArrayList<>();
+                whereArgs.add(user.getId());
+                whereArgs.add(first);
+                whereArgs.add(last);
+                whereArgs.addAll(filterArgs);
+                matched += ids.size();
+                updated += repriceChunk(user.getId(), ids, " WHERE user_id = ? AND id BETWEEN ? AND ?" + filter,
+                    whereArgs, change);
+                after = last;
+            }
+        }
+        return new BulkUpdateResponse(matched, updated, 0, List.of(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Sets item quantities to counted values, recording an audit transaction for
+     * every item whose count differs from its stock.
+     *
+     * @param counts Counted quantity by SKU
+     * @param notes Notes for the audit transactions; {@value #STOCK_TAKE_NOTES} when null
+     * @throws IllegalArgumentException if there are no counts or a count is negative
+     */
+    public BulkUpdateResponse stockTake(Map<String, Integer> counts, String notes, User user) {
+        if (counts == null || counts.isEmpty()) {
+            throw new IllegalArgumentException("At least one count is required");
+        }
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            if (count.getKey() == null || count.getKey().isEmpty()) {
+                throw new IllegalArgumentException("sku is required");
+            }
+            if (count.getValue() == null || count.getValue() < 0) {
+                throw new IllegalArgumentException("Count for " + count.getKey() + " must be 0 or more");
+            }
+        }
+        String note = notes == null || notes.isEmpty() ? STOCK_TAKE_NOTES : notes;
+        long started = System.nanoTime();
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        List<String> unknown = new ArrayList<>();
+        int matched = 0;
+        int updated = 0;
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            Map<String, Integer> chunk = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : entries.subList(from, Math.min(entries.size(), from + chunkSize))) {
+                chunk.put(entry.getKey(), entry.getValue());
+            }
+            int[] result = stockTakeChunk(chunk, note, user, unknown);
+            matched += result[0];
+            updated += result[1];
+        }
+        return new BulkUpdateResponse(matched, updated, updated, unknown, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Deletes the given items and their transactions.
+     *
+     * @param itemIds Items to delete; ids that are not the user's are skipped
+     */
+    public BulkUpdateResponse delete(Collection<Long> itemIds, User user) {
+        if (itemIds == null || itemIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one item id is required");
+        }
+        long started = System.nanoTime();
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(itemIds));
+        int matched = 0;
+        long transactions = 0;
+        for (int from = 0; from < sorted.size(); from += chunkSize) {
+            List<Long> chunk = sorted.subList(from, Math.min(sorted.size(), from + chunkSize));
+            List<Object> args = new ArrayList<>();
+            args.add(user.getId());
+            args.add(chunk.get(0));
+            args.add(chunk.get(chunk.size() - 1));
+            args.addAll(chunk);
+            List<Long> owned = jdbcTemplate.queryForList("SELECT id FROM items WHERE user_id = ? AND id BETWEEN ? AND ?"
+                + " AND id IN (" + placeholders(chunk.size()) + ") ORDER BY id", Long.class, args.toArray());
+            if (!owned.isEmpty()) {
+                int[] result = deleteChunk(user.getId(), owned, true);
+                matched += result[0];
+                transactions += result[1];
+            }
+        }
+        BulkUpdateResponse response = new BulkUpdateResponse(matched, matched, 0, List.of(),
+            (System.nanoTime() - started) / 1_000_000);
+        response.setDeletedTransactions(transactions);
+        return response;
+    }
+
+    /**
+     * Parses a count file: one {@code sku,quantity} per line, with an optional header line.
+     *
+     * @throws IllegalArgumentException if a line is not a SKU and a whole number
+     */
+    public static Map<String, Integer> parseCounts(String csv) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String[] lines = csv == null ? new String[0] : csv.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int comma = line.lastIndexOf(',');
+            String sku = comma < 0 ? "" : line.substring(0, comma).trim();
+            String quantity = comma < 0 ? "" : line.substring(comma + 1).trim();
+            try {
+                counts.put(sku, Integer.parseInt(quantity));
+            } catch (NumberFormatException e) {
+                if (counts.isEmpty() && comma > 0) {
+                    // Header line
+                    continue;
+                }
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected sku,quantity");
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Updates one chunk with a single statement, then reads back the prices it
+     * wrote, so the event carries what the rows hold rather than a figure worked
+     * out from prices read before the chunk's transaction.
+     *
+     * @param ids The chunk's items
+     * @param where Selects exactly the chunk's rows
+     * @return Rows whose price changed
+     */
+    private int repriceChunk(long userId, List<Long> ids, String where, List<Object> whereArgs,
+                             PriceChange change) {
+        Supplier<Integer> work = () -> transactionTemplate.execute(status -> {
+            List<Object> args = new ArrayList<>();
+            args.add(change.getValue());
+            args.add(changeSequence.next());
+            args.addAll(whereArgs);
+            args.add(change.getValue());
+            // Rows already at the target price keep their version
+            int updated = jdbcTemplate.update("UPDATE items SET price = " + change.sqlExpression()
+                    + ", version = version + 1, change_seq = ?" + where
+                    + " AND (price IS NULL OR price <> " + change.sqlExpression() + ")",
+                args.toArray());
+
+            // Locked, rows left at their price too, so no edit commits in between
+            Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+            jdbcTemplate.query("SELECT id, price FROM items" + where + " ORDER BY id FOR UPDATE",
+                rs -> { prices.put(rs.getLong(1), rs.getBigDecimal(2)); }, whereArgs.toArray());
+            long[] itemIds = new long[prices.size()];
+            long[] newPrices = new long[prices.size()];
+            int i = 0;
+            for (Map.Entry<Long, BigDecimal> price : prices.entrySet()) {
+                itemIds[i] = price.getKey();
+                newPrices[i] = price.getValue() == null ? 0 : Money.toMinor(price.getValue());
+                i++;
+            }
+            events.publishEvent(new ItemsBulkUpdatedEvent(userId, itemIds, null, newPrices, List.of()));
+            return updated;
+        });
+        if (shardedWriter != null) {
+            return shardedWriter.runExclusive(ids, work);
+        }
+        return work.get();
+    }
+
+    /**
+     * Deletes one chunk of a user's items, holding them from the journal or the shards.
+     *
+     * @param itemIds The chunk's items, in ascending order
+     * @param publish Whether to publish an ItemDeletedEvent per item and purge the
+     *                items' archived rows (a tenant deletion drops the user's in-memory
+     *                views and whole archive at once instead)
+     * @return Items and transactions deleted, archived ones included
+     */
+    int[] deleteChunk(long userId, List<Long> itemIds, boolean publish) {
+        String in = placeholders(itemIds.size());
+        List<Long> deletedIds = new ArrayList<>();
+        Supplier<int[]> work = () -> {
+            List<Object> args = new ArrayList<>(itemIds);
+            args.add(chunkSize);
+            int transactions = 0;
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(String.format(DELETE_TRANSACTIONS_CHUNK, in), args.toArray()));
+                transactions += deleted;
+            } while (deleted == chunkSize);
+
+            int[] stragglers = new int[1];
+            List<Long> removed = transactionTemplate.execute(status -> {
+                List<Object> lockArgs = new ArrayList<>();
+                lockArgs.add(userId);
+                lockArgs.addAll(itemIds);
+                List<Long> locked = jdbcTemplate.queryForList("SELECT id FROM items WHERE user_id = ? AND id IN ("
+                    + in + ") ORDER BY id FOR UPDATE", Long.class, lockArgs.toArray());
+                if (locked.isEmpty()) {
+                    return locked;
+                }
+                String lockedIn = placeholders(locked.size());
+                // Transactions recorded since the chunked deletes, e.g. a sale in direct write mode
+                stragglers[0] = jdbcTemplate.update("DELETE FROM transactions WHERE item_id IN (" + lockedIn + ")",
+                    locked.toArray());
+                jdbcTemplate.update("DELETE FROM items WHERE id IN (" + lockedIn + ")", locked.toArray());
+                syncService.recordDeletedItems(userId, locked);
+                if (publish) {
+                    for (long itemId : locked) {
+                        events.publishEvent(new ItemDeletedEvent(userId, itemId));
+                    }
+                }
+                return locked;
+            });
+            deletedIds.addAll(removed);
+            return new int[] {removed.size(), transactions + stragglers[0]};
+        };
+        int[] result;
+        if (journalWriter != null) {
+            result = journalWriter.runExclusive(itemIds, work);
+        } else if (shardedWriter != null) {
+            result = shardedWriter.runExclusive(itemIds, work);
+        } else {
+            result = work.get();
+        }
+        // Outside the hold: the items are gone, and rewriting archive files is slow I/O
+        if (publish && !deletedIds.isEmpty()) {
+            result[1] += Math.toIntExact(archiver.purgeItems(userId, deletedIds));
+        }
+        return result;
+    }
+
+    /**
+     * @return Items matched and items adjusted
+     */
+    private int[] stockTakeChunk(Map<String, Integer> counts, String notes, User user, List<String> unknown) {
+        String in = placeholders(counts.size());
+        List<Object> args = new ArrayList<>();
+        args.add(user.getId());
+        args.addAll(counts.keySet());
+
+        Supplier<int[]> work = () -> transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            List<String> skus = new ArrayList<>();
+            List<Integer> quantities = new ArrayList<>();
+            // Row locks in ascending id order, like multi-line orders take them
+            jdbcTemplate.query("SELECT id, sku, quantity FROM items WHERE user_id = ? AND sku IN (" + in + ")"
+                    + " ORDER BY id FOR UPDATE",
+                rs -> {
+                    ids.add(rs.getLong(1));
+                    skus.add(rs.getString(2));
+                    quantities.add(rs.getInt(3));
+                }, args.toArray());
+
+            List<Integer> changed = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (quantities.get(i).intValue() != counts.get(skus.get(i))) {
+                    changed.add(i);
+                }
+            }
+            List<Long> transactionIds = changed.isEmpty() ? List.of()
+                : jdbcTemplate.queryForList(transactionIdBlockSql, Long.class, changed.size());
+
+            LocalDateTime now = LocalDateTime.now();
+            Long seq = changed.isEmpty() ? null : changeSequence.next();
+            List<Object[]> rowUpdates = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            List<TransactionRecordedEvent> adjustments = new ArrayList<>();
+            for (int n = 0; n < changed.size(); n++) {
+                int i = changed.get(n);
+                int before = quantities.get(i);
+                int after = counts.get(skus.get(i));
+                TransactionType type = after > before ? TransactionType.BUY : TransactionType.SELL;
+                int quantity = Math.abs(after - before);
+                long transactionId = transactionIds.get(n);
+                rowUpdates.add(new Object[] {after, seq, ids.get(i)});
+                inserts.add(new Object[] {transactionId, ids.get(i), user.getId(), type.name(), quantity,
+                    Timestamp.valueOf(now), before, after, notes, seq});
+                adjustments.add(new TransactionRecordedEvent(transactionId, user.getId(), ids.get(i), type, quantity,
+                    0, now, after));
+            }
+            if (!rowUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE items SET quantity = ?, version = version + 1, change_seq = ? "
+                    + "WHERE id = ?", rowUpdates);
+                jdbcTemplate.batchUpdate(INSERT_ADJUSTMENT, inserts);
+                long[] adjustedIds = new long[adjustments.size()];
+                int[] adjustedQuantities = new int[adjustments.size()];
+                for (int i = 0; i < adjustments.size(); i++) {
+                    adjustedIds[i] = adjustments.get(i).getItemId();
+                    adjustedQuantities[i] = adjustments.get(i).getInventoryAfter();
+                }
+                events.publishEvent(new ItemsBulkUpdatedEvent(user.getId(), adjustedIds, adjustedQuantities, null,
+                    adjustments));
+            }
+            List<String> missing = new ArrayList<>(counts.keySet());
+            missing.removeAll(skus);
+            unknown.addAll(missing);
+            return new int[] {ids.size(), adjustments.size()};
+        });
+
+        if (journalWriter == null && shardedWriter == null) {
+            return work.get();
+        }
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM items WHERE user_id = ? AND sku IN (" + in + ")",
+            Long.class, args.toArray());
+        if (ids.isEmpty()) {
+            unknown.addAll(counts.keySet());
+            return new int[2];
+        }
+        // Quantities belong to the journal or the shards; take the items from them first
+        return journalWriter != null
+            ? journalWriter.runExclusive(ids, work)
+            : shardedWriter.runExclusive(ids, work);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
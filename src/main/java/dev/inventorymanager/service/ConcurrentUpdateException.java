@@ -0,0 +1,24 @@
+package dev.inventorymanager.service;
+
+/**
+ * Thrown when an update cannot be applied because the row changed underneath it
+ * and retrying would overwrite that change: the client sent a version that is no
+ * longer current, or retries ran out. Carries the current state so the caller
+ * can answer 409 Conflict with it.
+ */
+public class ConcurrentUpdateException extends IllegalStateException {
+
+    private final transient Object current;
+
+    public ConcurrentUpdateException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+
+    /**
+     * @return The current state of the conflicting entity, or null if it is gone
+     */
+    public Object getCurrent() {
+        return current;
+    }
+}
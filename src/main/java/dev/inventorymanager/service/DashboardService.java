@@ -1,15 +1,20 @@
 package dev.inventorymanager.service;
 
+import dev.inventorymanager.catalog.ItemCatalog;
 import dev.inventorymanager.dto.DashboardResponse;
 import dev.inventorymanager.model.Item;
 import dev.inventorymanager.model.Transaction;
 import dev.inventorymanager.model.User;
 import dev.inventorymanager.repository.ItemRepository;
 import dev.inventorymanager.repository.TransactionRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,15 +35,22 @@ public class DashboardService {
 
     private final ItemRepository itemRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionHistoryService historyService;
+    private final ItemCatalog catalog;
 
     /**
      * Constructor injection for required repositories.
      * @param itemRepository Repository for item data access
      * @param transactionRepository Repository for transaction data access
+     * @param historyService Totals across live and archived transactions
+     * @param catalog In-memory item catalog, present only with inventory.catalog.enabled=true
      */
-    public DashboardService(ItemRepository itemRepository, TransactionRepository transactionRepository) {
+    public DashboardService(ItemRepository itemRepository, TransactionRepository transactionRepository,
+                            TransactionHistoryService historyService, ObjectProvider<ItemCatalog> catalog) {
         this.itemRepository = itemRepository;
         this.transactionRepository = transactionRepository;
+        this.historyService = historyService;
+        this.catalog = catalog.getIfAvailable();
     }
 
     /**
@@ -51,23 +63,33 @@ public class DashboardService {
      * @param user The user whose dashboard data should be retrieved
      * @return DashboardResponse containing all aggregated statistics
      */
+    @Transactional(readOnly = true)
     public DashboardResponse getDashboard(User user) {
         DashboardResponse dashboard = new DashboardResponse();
 
         // Inventory Statistics - Calculate aggregate metrics for all user's items
-        dashboard.setTotalItems(itemRepository.countByUser(user));
-        dashboard.setTotalInventoryValue(itemRepository.getTotalInventoryValueByUser(user));
-        dashboard.setTotalItemQuantity(itemRepository.getTotalQuantityByUser(user));
-        dashboard.setLowStockItemsCount(itemRepository.countLowStockItems(user, LOW_STOCK_THRESHOLD));
+        if (catalog != null) {
+            ItemCatalog.Totals totals = catalog.totals(user.getId(), LOW_STOCK_THRESHOLD);
+            dashboard.setTotalItems(totals.getItemCount());
+            dashboard.setTotalInventoryValueMinor(totals.getTotalValueMinor());
+            dashboard.setTotalItemQuantity(Math.toIntExact(totals.getTotalQuantity()));
+            dashboard.setLowStockItemsCount(totals.getLowStockCount());
+        } else {
+            dashboard.setTotalItems(itemRepository.countByUser(user));
+            dashboard.setTotalInventoryValueMinor(itemRepository.getTotalInventoryValueMinorByUser(user.getId()));
+            dashboard.setTotalItemQuantity(itemRepository.getTotalQuantityByUser(user));
+            dashboard.setLowStockItemsCount(itemRepository.countLowStockItems(user, LOW_STOCK_THRESHOLD));
+        }
 
         // Transaction Statistics - Calculate financial metrics from user's transactions
-        dashboard.setTotalTransactions(transactionRepository.countByUser(user));
-        BigDecimal totalSpending = transactionRepository.getTotalSpending(user);
-        BigDecimal totalSales = transactionRepository.getTotalSales(user);
-        dashboard.setTotalSpending(totalSpending);
-        dashboard.setTotalSales(totalSales);
+        // (archived months are included through their rollups)
+        dashboard.setTotalTransactions(historyService.countByUser(user));
+        long totalSpending = historyService.getTotalSpendingMinor(user);
+        long totalSales = historyService.getTotalSalesMinor(user);
+        dashboard.setTotalSpendingMinor(totalSpending);
+        dashboard.setTotalSalesMinor(totalSales);
         // Net profit = total sales - total spending
-        dashboard.setNetProfit(totalSales.subtract(totalSpending));
+        dashboard.setNetProfitMinor(totalSales - totalSpending);
 
         // Recent Activity - Get the most recent transactions for the user
         List<Transaction> recentTransactions = transactionRepository.findByUserOrderByTransactionDateDesc(user);
@@ -78,7 +100,9 @@ public class DashboardService {
         );
 
         // Top Value Items - Items with highest total value (price * quantity)
-        List<Item> topItems = itemRepository.findTopValueItems(user);
+        List<Item> topItems = catalog != null
+            ? loadInOrder(catalog.topValueItemIds(user.getId(), TOP_ITEMS_LIMIT))
+            : itemRepository.findTopValueItems(user);
         dashboard.setTopValueItems(
             topItems.stream()
                 .limit(TOP_ITEMS_LIMIT)
@@ -87,7 +111,9 @@ public class DashboardService {
         );
 
         // Low Stock Items - Items that need to be reordered soon
-        List<Item> lowStockItems = itemRepository.findLowStockItems(user, LOW_STOCK_THRESHOLD);
+        List<Item> lowStockItems = catalog != null
+            ? loadInOrder(catalog.lowStockItemIds(user.getId(), LOW_STOCK_THRESHOLD, TOP_ITEMS_LIMIT))
+            : itemRepository.findLowStockItems(user, LOW_STOCK_THRESHOLD);
         dashboard.setLowStockItems(
             lowStockItems.stream()
                 .limit(TOP_ITEMS_LIMIT)
@@ -97,4 +123,24 @@ public class DashboardService {
 
         return dashboard;
     }
+
+    /**
+     * Fetches the few items the catalog picked, in the catalog's order.
+     */
+    private List<Item> loadInOrder(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Item> byId = itemRepository.findAllById(idList).stream()
+            .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> items = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Item item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
 }
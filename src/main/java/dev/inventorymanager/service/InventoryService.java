@@ -1,20 +1,72 @@
 package dev.inventorymanager.service;
 
+import dev.inventorymanager.catalog.ItemCatalog;
+import dev.inventorymanager.catalog.SkuIdCache;
+import dev.inventorymanager.dto.ItemSearchResponse;
+import dev.inventorymanager.events.ItemSavedEvent;
+import dev.inventorymanager.journal.JournalTransactionWriter;
 import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
 import dev.inventorymanager.model.User;
 import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.search.ItemSearchIndex;
+import dev.inventorymanager.search.SearchHits;
+import dev.inventorymanager.sharding.ShardedTransactionWriter;
+import dev.inventorymanager.sync.ChangeSequence;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class InventoryService {
 
     private final ItemRepository repository;
 
-    public InventoryService(ItemRepository repository) {
+    // Present only in journal write mode, where the journal owns item quantities
+    private final JournalTransactionWriter journalWriter;
+    // Present only in sharded write mode, where each item's writes run on its shard
+    private final ShardedTransactionWriter shardedWriter;
+    // Present only with inventory.catalog.enabled=true
+    private final ItemCatalog catalog;
+    // Absent with inventory.search.enabled=false
+    private final ItemSearchIndex searchIndex;
+    private final SkuIdCache skuCache;
+    private final ApplicationEventPublisher events;
+    private final OptimisticRetry optimisticRetry;
+    private final BulkItemService bulkItemService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeSequence changeSequence;
+
+    public InventoryService(ItemRepository repository, ObjectProvider<JournalTransactionWriter> journalWriter,
+                            ObjectProvider<ShardedTransactionWriter> shardedWriter, ObjectProvider<ItemCatalog> catalog, ObjectProvider<ItemSearchIndex> searchIndex,
+                            SkuIdCache skuCache, ApplicationEventPublisher events, OptimisticRetry optimisticRetry,
+                            BulkItemService bulkItemService, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, ChangeSequence changeSequence) {
         this.repository = repository;
+        this.journalWriter = journalWriter.getIfAvailable();
+        this.shardedWriter = shardedWriter.getIfAvailable();
+        this.catalog = catalog.getIfAvailable();
+        this.searchIndex = searchIndex.getIfAvailable();
+        this.skuCache = skuCache;
+        this.events = events;
+        this.optimisticRetry = optimisticRetry;
+        this.bulkItemService = bulkItemService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeSequence = changeSequence;
     }
 
     public Item create(Item item, User user) {
@@ -25,29 +77,251 @@ public class InventoryService {
         if (item.getSku() == null || item.getSku().trim().isEmpty()) {
             throw new IllegalArgumentException("sku is required");
         }
+        if (repository.findByUserAndSku(user, item.getSku()).isPresent()) {
+            throw new IllegalStateException("sku already exists");
+        }
         item.setUser(user);
-        return repository.save(item);
+        Item saved = repository.save(item);
+        events.publishEvent(ItemSavedEvent.of(saved));
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<Item> list(User user) {
-        return repository.findByUser(user);
+        List<Item> items = repository.findByUser(user);
+        if (journalWriter != null) {
+            journalWriter.overlayQuantities(items);
+        }
+        return items;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Item> get(Long id, User user) {
-        return repository.findByIdAndUser(id, user);
+        Optional<Item> item = repository.findByIdAndUser(id, user);
+        if (journalWriter != null) {
+            item.ifPresent(found -> journalWriter.overlayQuantities(List.of(found)));
+        }
+        return item;
+    }
+
+    /**
+     * Looks up one of the user's items by exact SKU, as barcode scanners do.
+     *
+     * A cached id turns the lookup into a primary-key read; the SKU is checked
+     * against the loaded row, so an entry gone stale under a concurrent edit is
+     * dropped rather than served.
+     */
+    public Optional<Item> findBySku(String sku, User user) {
+        Long cachedId = skuCache.get(user.getId(), sku);
+        Optional<Item> item = Optional.empty();
+        if (cachedId != null) {
+            item = repository.findByIdAndUser(cachedId, user).filter(found -> sku.equals(found.getSku()));
+            if (item.isEmpty()) {
+                skuCache.evict(user.getId(), sku);
+            }
+        }
+        if (item.isEmpty()) {
+            item = repository.findByUserAndSku(user, sku);
+            item.ifPresent(found -> skuCache.put(user.getId(), sku, found.getId()));
+        }
+        if (journalWriter != null) {
+            item.ifPresent(found -> journalWriter.overlayQuantities(List.of(found)));
+        }
+        return item;
+    }
+
+    /**
+     * Ranked search over the user's item names and SKUs.
+     *
+     * @param page Zero-based page number
+     * @param size Page size, 1 to 100
+     * @throws IllegalArgumentException if page or size is out of range
+     * @throws IllegalStateException if search is disabled
+     */
+    @Transactional(readOnly = true)
+    public ItemSearchResponse search(String query, int page, int size, User user) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and 100");
+        }
+        if (searchIndex == null) {
+            throw new IllegalStateException("Search is disabled");
+        }
+        SearchHits hits = searchIndex.search(user.getId(), query, (int) Math.min((long) page * size, Integer.MAX_VALUE), size);
+        List<Long> ids = new ArrayList<>(hits.getItemIds().length);
+        for (long id : hits.getItemIds()) {
+            ids.add(id);
+        }
+        Map<Long, Item> byId = repository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Item item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        if (journalWriter != null) {
+            journalWriter.overlayQuantities(items);
+        }
+        return new ItemSearchResponse(items, hits.getTotal(), page, size);
     }
 
+    /**
+     * @return The item's current quantity, without loading the entity when the catalog is enabled
+     */
+    public Optional<Integer> stockOf(Long id, User user) {
+        if (catalog != null) {
+            return Optional.ofNullable(catalog.quantityOf(user.getId(), id));
+        }
+        return get(id, user).map(Item::getQuantity);
+    }
+
+    /**
+     * Replaces an item's name, SKU, quantity and price.
+     *
+     * If {@code updated} carries a version, the update only applies to that version
+     * of the item. Without one, an update that raced another write is retried
+     * against the re-read item.
+     *
+     * @throws IllegalArgumentException if the item does not exist
+     * @throws ConcurrentUpdateException if the item's version is not the one sent, or retries ran out
+     * @throws IllegalStateException if the new SKU is taken
+     */
     public Item update(Long id, Item updated, User user) {
+        if (journalWriter != null) {
+            return journalWriter.runExclusive(id, () -> updateWithRetry(id, updated, user));
+        }
+        if (shardedWriter != null) {
+            return shardedWriter.runExclusive(id, () -> updateWithRetry(id, updated, user));
+        }
+        return updateWithRetry(id, updated, user);
+    }
+
+    private Item updateWithRetry(Long id, Item updated, User user) {
+        return optimisticRetry.run("item-update", attempt -> doUpdate(id, updated, user),
+            () -> repository.findByIdAndUser(id, user).orElse(null));
+    }
+
+    /**
+     * Changes only the members present in a merge patch (see {@link ItemPatch}).
+     *
+     * The patch is one conditional UPDATE of just the patched columns, without
+     * reading the row first: {@code WHERE id = ? AND user_id = ?}, plus
+     * {@code AND version = ?} when the patch carries a version. Two patches of
+     * different fields therefore both apply, neither overwriting the other, and
+     * only a patch that names a stale version is refused. A row whose patched
+     * columns already hold the new values is left alone and keeps its version.
+     * The row is read once afterwards, for the response and the in-memory views.
+     *
+     * In journal and sharded write mode the item is taken from its writer for the
+     * patch, as {@link #update} does, since those writers also update the row.
+     *
+     * @return The item after the patch, or empty if the user has no such item
+     * @throws IllegalArgumentException if the patch is invalid
+     * @throws ConcurrentUpdateException if the item is not at the patch's version
+     * @throws IllegalStateException if the new SKU is taken
+     */
+    public Optional<Item> patch(Long id, ItemPatch patch, User user) {
+        patch.validate(id);
+        if (journalWriter != null) {
+            return journalWriter.runExclusive(id, () -> doPatch(id, patch, user));
+        }
+        if (shardedWriter != null) {
+            return shardedWriter.runExclusive(id, () -> doPatch(id, patch, user));
+        }
+        return doPatch(id, patch, user);
+    }
+
+    private Optional<Item> doPatch(Long id, ItemPatch patch, User user) {
+        return transactionTemplate.execute(status -> {
+            int updated = 0;
+            if (!patch.isEmpty()) {
+                StringBuilder set = new StringBuilder("UPDATE items SET version = version + 1, change_seq = ?");
+                StringBuilder changed = new StringBuilder();
+                List<Object> args = new ArrayList<>();
+                args.add(changeSequence.next());
+                List<Object> changedArgs = new ArrayList<>();
+                if (patch.hasName()) {
+                    patchColumn("name", patch.getName(), set, args, changed, changedArgs);
+                }
+                if (patch.hasSku()) {
+                    patchColumn("sku", patch.getSku(), set, args, changed, changedArgs);
+                }
+                if (patch.hasQuantity()) {
+                    patchColumn("quantity", patch.getQuantity(), set, args, changed, changedArgs);
+                }
+                if (patch.hasPrice()) {
+                    patchColumn("price", Money.toDecimalOrNull(patch.getPriceMinor()), set, args, changed, changedArgs);
+                }
+                set.append(" WHERE id = ? AND user_id = ?");
+                args.add(id);
+                args.add(user.getId());
+                if (patch.getVersion() != null) {
+                    set.append(" AND version = ?");
+                    args.add(patch.getVersion());
+                }
+                set.append(" AND (").append(changed).append(')');
+                args.addAll(changedArgs);
+                try {
+                    updated = jdbcTemplate.update(set.toString(), args.toArray());
+                } catch (DataIntegrityViolationException e) {
+                    // The (user_id, sku) unique index
+                    throw new IllegalStateException("sku already exists");
+                }
+            }
+            Optional<Item> current = repository.findByIdAndUser(id, user);
+            if (updated == 0 && current.isPresent() && patch.getVersion() != null
+                    && !patch.getVersion().equals(current.get().getVersion())) {
+                throw new ConcurrentUpdateException("Item " + id + " is at version " + current.get().getVersion()
+                    + ", not " + patch.getVersion(), current.get());
+            }
+            if (updated > 0) {
+                events.publishEvent(ItemSavedEvent.of(current.get()));
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Adds {@code column = ?} to the SET clause, and to the change test a
+     * comparison that holds when the column differs from the new value.
+     */
+    private static void patchColumn(String column, Object value, StringBuilder set, List<Object> args,
+                                    StringBuilder changed, List<Object> changedArgs) {
+        set.append(", ").append(column).append(" = ?");
+        args.add(value);
+        if (changed.length() > 0) {
+            changed.append(" OR ");
+        }
+        changed.append(column).append(" IS DISTINCT FROM ?");
+        changedArgs.add(value);
+    }
+
+    /**
+     * Deletes an item and its transactions without loading them (see {@link BulkItemService#delete}).
+     * Does nothing if the item is not the user's.
+     */
+    public void delete(Long id, User user) {
+        bulkItemService.delete(List.of(id), user);
+    }
+
+    private Item doUpdate(Long id, Item updated, User user) {
         return repository.findByIdAndUser(id, user).map(existing -> {
+            if (updated.getVersion() != null && !updated.getVersion().equals(existing.getVersion())) {
+                throw new ConcurrentUpdateException(
+                    "Item " + id + " is at version " + existing.getVersion() + ", not " + updated.getVersion(), existing);
+            }
+            if (updated.getSku() != null && !updated.getSku().equals(existing.getSku())
+                    && repository.findByUserAndSku(user, updated.getSku()).isPresent()) {
+                throw new IllegalStateException("sku already exists");
+            }
             existing.setName(updated.getName());
             existing.setSku(updated.getSku());
             existing.setQuantity(updated.getQuantity());
-            existing.setPrice(updated.getPrice());
-            return repository.save(existing);
+            existing.setPriceMinor(updated.getPriceMinor());
+            Item saved = repository.save(existing);
+            events.publishEvent(ItemSavedEvent.of(saved));
+            return saved;
         }).orElseThrow(() -> new IllegalArgumentException("item not found"));
     }
-
-    public void delete(Long id, User user) {
-        repository.findByIdAndUser(id, user).ifPresent(repository::delete);
-    }
 }
@@ -0,0 +1,147 @@
+package dev.inventorymanager.service;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import dev.inventorymanager.model.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A JSON Merge Patch (RFC 7396) of an item: only the members present in the
+ * document are changed (see {@link InventoryService#patch}).
+ *
+ * Members:
+ * - name, sku: new value; cannot be removed (null)
+ * - quantity: new stock level, 0 or more; cannot be removed
+ * - price: new price; null removes it
+ * - version: optional precondition, the patch only applies to this version of the item
+ * - id: ignored if it is the patched item's id
+ *
+ * Presence is tracked by the setters, which Jackson only calls for members in the document.
+ */
+public class ItemPatch {
+
+    private String name;
+    private boolean nameSet;
+    private String sku;
+    private boolean skuSet;
+    private Integer quantity;
+    private boolean quantitySet;
+    /** Minor units, see {@link Money} */
+    private Long priceMinor;
+    private boolean priceSet;
+    private Long version;
+    private Long id;
+    private final List<String> unknown = new ArrayList<>();
+
+    /**
+     * Checks the patch against the item it is sent for.
+     *
+     * @throws IllegalArgumentException if the patch removes a required member, has an
+     *                                  unknown or invalid member, or names another item
+     */
+    void validate(long itemId) {
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown item field: " + String.join(", ", unknown));
+        }
+        if (id != null && id != itemId) {
+            throw new IllegalArgumentException("id cannot be changed");
+        }
+        if (nameSet && (name == null || name.trim().isEmpty())) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (skuSet && (sku == null || sku.trim().isEmpty())) {
+            throw new IllegalArgumentException("sku is required");
+        }
+        if (quantitySet && (quantity == null || quantity < 0)) {
+            throw new IllegalArgumentException("quantity must be 0 or more");
+        }
+        if (priceSet && priceMinor != null && priceMinor < 0) {
+            throw new IllegalArgumentException("Price cannot be negative");
+        }
+    }
+
+    /**
+     * @return Whether the patch changes no member at all
+     */
+    public boolean isEmpty() {
+        return !nameSet && !skuSet && !quantitySet && !priceSet;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.nameSet = true;
+    }
+
+    public boolean hasName() {
+        return nameSet;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+        this.skuSet = true;
+    }
+
+    public boolean hasSku() {
+        return skuSet;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+        this.quantitySet = true;
+    }
+
+    public boolean hasQuantity() {
+        return quantitySet;
+    }
+
+    public Long getPriceMinor() {
+        return priceMinor;
+    }
+
+    @JsonProperty("price")
+    @JsonDeserialize(using = Money.Deserializer.class)
+    public void setPriceMinor(Long priceMinor) {
+        this.priceMinor = priceMinor;
+        this.priceSet = true;
+    }
+
+    public boolean hasPrice() {
+        return priceSet;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @JsonAnySetter
+    void setUnknown(String member, Object value) {
+        unknown.add(member);
+    }
+}
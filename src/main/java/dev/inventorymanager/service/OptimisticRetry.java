@@ -0,0 +1,96 @@
+package dev.inventorymanager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Retries writes that lost an optimistic-locking race.
+ *
+ * An attempt that fails with {@link OptimisticLockingFailureException} is run
+ * again after a jittered exponential backoff (a random wait up to
+ * backoff-ms * 2^retry, capped at max-backoff-ms), so writers that collided do
+ * not collide again in lockstep. Each attempt must re-read what it writes.
+ * {@link ConcurrentUpdateException}s are never retried.
+ *
+ * Metrics, tagged with the operation:
+ * - inventory.optimistic.calls: operations run
+ * - inventory.optimistic.conflicts: conflicts, tagged outcome=retried, exhausted or rejected
+ *
+ * Configuration:
+ * - inventory.optimistic.max-attempts: attempts per operation, including the first
+ * - inventory.optimistic.backoff-ms: backoff before the first retry
+ * - inventory.optimistic.max-backoff-ms: upper bound of any single backoff
+ */
+@Component
+public class OptimisticRetry {
+
+    private final MeterRegistry registry;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetry(MeterRegistry registry,
+                           @Value("${inventory.optimistic.max-attempts:5}") int maxAttempts,
+                           @Value("${inventory.optimistic.backoff-ms:5}") long backoffMillis,
+                           @Value("${inventory.optimistic.max-backoff-ms:200}") long maxBackoffMillis) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("inventory.optimistic.max-attempts must be positive");
+        }
+        this.registry = registry;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Runs an operation, retrying it on optimistic-locking conflicts.
+     *
+     * @param operation Metric tag naming the operation
+     * @param attempt Runs one attempt; gets the attempt number, starting at 1
+     * @param current Reads the current state for the 409 body once retries run out
+     * @throws ConcurrentUpdateException if the last attempt still conflicted, or an attempt rejected a stale client version
+     */
+    public <T> T run(String operation, IntFunction<T> attempt, Supplier<?> current) {
+        registry.counter("inventory.optimistic.calls", "operation", operation).increment();
+        for (int n = 1; ; n++) {
+            try {
+                return attempt.apply(n);
+            } catch (ConcurrentUpdateException e) {
+                conflicts(operation, "rejected").increment();
+                throw e;
+            } catch (OptimisticLockingFailureException e) {
+                if (n >= maxAttempts) {
+                    conflicts(operation, "exhausted").increment();
+                    throw new ConcurrentUpdateException(
+                        "Concurrent update still conflicting after " + n + " attempts", current.get());
+                }
+                conflicts(operation, "retried").increment();
+                backoff(n);
+            }
+        }
+    }
+
+    private Counter conflicts(String operation, String outcome) {
+        return registry.counter("inventory.optimistic.conflicts", "operation", operation, "outcome", outcome);
+    }
+
+    private void backoff(int retry) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(retry - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a conflicting update", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * One buy or sell of a multi-line order (see {@link TransactionService#processOrder}).
+ */
+public class OrderLine {
+
+    private final Long itemId;
+    private final TransactionType type;
+    private final Integer quantity;
+    private final Long pricePerUnitMinor;
+    private final String notes;
+
+    /**
+     * @param itemId The item bought or sold
+     * @param type BUY or SELL
+     * @param quantity Number of units (must be positive)
+     * @param pricePerUnit Price per unit (must be non-negative)
+     * @param notes Optional notes for the line's transaction (can be null)
+     */
+    public OrderLine(Long itemId, TransactionType type, Integer quantity, BigDecimal pricePerUnit, String notes) {
+        this(itemId, type, quantity, Money.toMinorOrNull(pricePerUnit), notes);
+    }
+
+    /**
+     * @param pricePerUnitMinor Price per unit in minor units (see {@link Money})
+     */
+    public OrderLine(Long itemId, TransactionType type, Integer quantity, Long pricePerUnitMinor, String notes) {
+        this.itemId = itemId;
+        this.type = type;
+        this.quantity = quantity;
+        this.pricePerUnitMinor = pricePerUnitMinor;
+        this.notes = notes;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Long getPricePerUnitMinor() {
+        return pricePerUnitMinor;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.inventorymanager.service;
+
+import java.math.BigDecimal;
+
+/**
+ * How a bulk repricing changes each matched item's price (see
+ * {@link BulkItemService#reprice}). Results are rounded to cents and never go
+ * below zero.
+ */
+public class PriceChange {
+
+    public enum Operation {
+        /** price = value */
+        SET,
+        /** price = price x value */
+        MULTIPLY,
+        /** price = price + value (value may be negative) */
+        ADD
+    }
+
+    private final Operation operation;
+    private final BigDecimal value;
+
+    /**
+     * @throws IllegalArgumentException if the value is missing, or negative for SET or MULTIPLY
+     */
+    public PriceChange(Operation operation, BigDecimal value) {
+        if (operation == null || value == null) {
+            throw new IllegalArgumentException("A price operation and value are required");
+        }
+        if (operation != Operation.ADD && value.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Price cannot be negative");
+        }
+        this.operation = operation;
+        this.value = value;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    /**
+     * @return SQL for the new price, with the value as its only parameter
+     */
+    String sqlExpression() {
+        switch (operation) {
+            case SET:
+                return "ROUND(CAST(? AS NUMERIC(19, 6)), 2)";
+            case MULTIPLY:
+                return "GREATEST(ROUND(price * CAST(? AS NUMERIC(19, 6)), 2), 0)";
+            default:
+                return "GREATEST(ROUND(price + CAST(? AS NUMERIC(19, 6)), 2), 0)";
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.journal.JournalTransactionWriter;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.reservation.Reservation;
+import dev.inventorymanager.reservation.StockReservations;
+import dev.inventorymanager.sharding.ShardedTransactionWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Holds stock for checkouts: a reservation takes units out of available-to-sell
+ * without touching the on-hand quantity, and is later confirmed into a SELL
+ * through {@link TransactionService}, released, or left to expire.
+ *
+ * Placing a hold and confirming one both need the item's write path to
+ * themselves, so no sale can take the units between the availability check and
+ * the hold, or between giving up the hold and selling it:
+ * - direct mode: the item's row lock (SELECT ... FOR UPDATE)
+ * - journal mode: the item's journal lock
+ * - sharded mode: the item's shard
+ *
+ * Thread Safety: This service is stateless and thread-safe; the holds live in
+ * {@link StockReservations}.
+ */
+@Service
+public class ReservationService {
+
+    private final StockReservations reservations;
+    private final TransactionService transactionService;
+    private final ItemRepository itemRepository;
+    private final JournalTransactionWriter journalWriter;
+    private final ShardedTransactionWriter shardedWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReservationService(StockReservations reservations, TransactionService transactionService,
+                              ItemRepository itemRepository,
+                              ObjectProvider<JournalTransactionWriter> journalWriter,
+                              ObjectProvider<ShardedTransactionWriter> shardedWriter,
+                              PlatformTransactionManager transactionManager) {
+        this.reservations = reservations;
+        this.transactionService = transactionService;
+        this.itemRepository = itemRepository;
+        this.journalWriter = journalWriter.getIfAvailable();
+        this.shardedWriter = shardedWriter.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Holds units of one of the user's items.
+     *
+     * @param ttlSeconds How long to hold them, or null for the default
+     * @return The new reservation
+     * @throws IllegalArgumentException if the item is not the user's, quantity <= 0, the TTL is out of range, or too few units are available
+     */
+    public Reservation reserve(Long itemId, Integer quantity, Long ttlSeconds, User user) {
+        if (itemId == null) {
+            throw new IllegalArgumentException("itemId is required");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        Duration ttl = reservations.ttl(ttlSeconds);
+
+        if (journalWriter != null) {
+            ownedItem(itemId, user);
+            return journalWriter.withCurrentQuantity(itemId,
+                onHand -> reservations.hold(itemId, user.getId(), quantity, ttl, onHand));
+        }
+        if (shardedWriter != null) {
+            // The shard commits its queued writes before running this, so the row is current
+            return shardedWriter.runExclusive(itemId,
+                () -> reservations.hold(itemId, user.getId(), quantity, ttl, ownedItem(itemId, user).getQuantity()));
+        }
+        Reservation[] placed = new Reservation[1];
+        try {
+            return transactionTemplate.execute(status -> {
+                Item item = itemRepository.findByIdAndUserForUpdate(itemId, user)
+                    .orElseThrow(() -> new IllegalArgumentException("Item not found or access denied"));
+                placed[0] = reservations.hold(itemId, user.getId(), quantity, ttl, item.getQuantity());
+                return placed[0];
+            });
+        } catch (RuntimeException e) {
+            if (placed[0] != null) {
+                reservations.release(placed[0]);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sells the reserved units at the given price.
+     *
+     * @return The SELL transaction
+     * @throws IllegalArgumentException if there is no such reservation for the user, or the price is invalid
+     * @throws IllegalStateException if the reservation was confirmed, released or expired meanwhile
+     */
+    public Transaction confirm(long reservationId, BigDecimal pricePerUnit, String notes, User user) {
+        Reservation reservation = lookup(reservationId, user)
+            .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+        if (pricePerUnit == null) {
+            throw new IllegalArgumentException("pricePerUnit is required");
+        }
+        long pricePerUnitMinor = Money.toMinor(pricePerUnit);
+        long itemId = reservation.getItemId();
+        boolean[] consumed = new boolean[1];
+        Supplier<Transaction> sale = () -> {
+            Item item = ownedItem(itemId, user);
+            reservations.consume(reservation);
+            consumed[0] = true;
+            return transactionService.processTransaction(item, TransactionType.SELL, reservation.getQuantity(),
+                pricePerUnitMinor, user, notes);
+        };
+        try {
+            if (journalWriter != null) {
+                // The journal lock is reentrant, so the journaled sell below runs under it
+                return journalWriter.withCurrentQuantity(itemId, onHand -> sale.get());
+            }
+            if (shardedWriter != null) {
+                return shardedWriter.runExclusive(itemId, () -> transactionTemplate.execute(status -> sale.get()));
+            }
+            return transactionTemplate.execute(status -> {
+                itemRepository.findByIdAndUserForUpdate(itemId, user);
+                return sale.get();
+            });
+        } catch (RuntimeException e) {
+            if (consumed[0]) {
+                reservations.restore(reservation);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gives the reserved units back.
+     *
+     * @throws IllegalArgumentException if there is no such reservation for the user
+     * @throws IllegalStateException if the reservation was confirmed or expired meanwhile
+     */
+    public void release(long reservationId, User user) {
+        Reservation reservation = lookup(reservationId, user)
+            .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+        if (!reservations.release(reservation)) {
+            throw new IllegalStateException("Reservation is no longer held: " + reservation.getStatus());
+        }
+    }
+
+    /**
+     * @return The user's reservation, while it is held
+     */
+    public Optional<Reservation> lookup(long reservationId, User user) {
+        return reservations.find(reservationId, user.getId());
+    }
+
+    /**
+     * @return Units of the item held by reservations
+     */
+    public int held(long itemId) {
+        return reservations.held(itemId);
+    }
+
+    private Item ownedItem(long itemId, User user) {
+        return itemRepository.findByIdAndUser(itemId, user)
+            .orElseThrow(() -> new IllegalArgumentException("Item not found or access denied"));
+    }
+}
@@ -0,0 +1,182 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.archive.TransactionArchive;
+import dev.inventorymanager.dto.TenantDeletionResponse;
+import dev.inventorymanager.events.UserDeletedEvent;
+import dev.inventorymanager.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes tenants (users) and everything they own.
+ *
+ * A soft delete disables the account (it can no longer sign in, and its
+ * signed-in sessions are expired) and stamps deleted_at, keeping its data; it can be restored until it is purged. A purge
+ * removes the data with set-based statements and never loads the User, Item or
+ * Transaction entities, whose cascades would pull the tenant's whole history
+ * onto the heap:
+ * 1. The account is soft-deleted first, so no new writes arrive during the purge
+ * 2. Items go a chunk at a time along the (user_id, id) index, each chunk with
+ *    its transactions, as {@link BulkItemService#delete} deletes them
+ * 3. Remaining transactions that name the user, rollups, sync tombstones and archived months go
+ * 4. The user row goes, and in-memory views drop the user ({@link UserDeletedEvent})
+ *
+ * Every statement touches at most {@code inventory.bulk.chunk-size} rows and
+ * commits on its own, so a purge of any size runs in constant memory. A purge
+ * that dies part-way leaves a soft-deleted account, which the next purge (or the
+ * scheduled one) finishes.
+ *
+ * Configuration:
+ * - inventory.tenants.purge-after-days: days a soft-deleted tenant is kept before the scheduled purge
+ * - inventory.tenants.purge-cron: schedule of the purge of expired soft-deleted tenants
+ * - inventory.bulk.chunk-size: items and rows per statement
+ */
+@Service
+public class TenantDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantDeletionService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkItemService bulkItemService;
+    private final TransactionArchive archive;
+    private final ApplicationEventPublisher events;
+    private final SessionRegistry sessionRegistry;
+
+    @Value("${inventory.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${inventory.tenants.purge-after-days:30}")
+    private int purgeAfterDays;
+
+    public TenantDeletionService(JdbcTemplate jdbcTemplate, BulkItemService bulkItemService,
+                                 TransactionArchive archive, ApplicationEventPublisher events,
+                                 SessionRegistry sessionRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkItemService = bulkItemService;
+        this.archive = archive;
+        this.events = events;
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    @Scheduled(cron = "${inventory.tenants.purge-cron:0 0 4 * * *}")
+    public void purgeExpired() {
+        List<Long> expired = jdbcTemplate.queryForList("SELECT id FROM users WHERE deleted_at < ? ORDER BY id",
+            Long.class, Timestamp.valueOf(LocalDateTime.now().minusDays(purgeAfterDays)));
+        for (Long userId : expired) {
+            purge(userId);
+        }
+    }
+
+    /**
+     * Disables the account and marks it for purging, keeping its data.
+     *
+     * @return The soft-deleted tenant (nothing is deleted yet)
+     */
+    public TenantDeletionResponse softDelete(User user) {
+        long started = System.nanoTime();
+        markDeleted(user.getId());
+        return new TenantDeletionResponse(user.getUsername(), true, 0, 0, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Re-enables a soft-deleted account.
+     *
+     * @throws IllegalStateException if the account is not soft-deleted
+     */
+    public void restore(User user) {
+        int restored = jdbcTemplate.update("UPDATE users SET enabled = TRUE, deleted_at = NULL, version = version + 1 "
+            + "WHERE id = ? AND deleted_at IS NOT NULL", user.getId());
+        if (restored == 0) {
+            throw new IllegalStateException("User " + user.getUsername() + " is not deleted");
+        }
+    }
+
+    /**
+     * Deletes the tenant and all of its data.
+     */
+    public TenantDeletionResponse purge(User user) {
+        long started = System.nanoTime();
+        long[] deleted = purge(user.getId());
+        return new TenantDeletionResponse(user.getUsername(), false, deleted[0], deleted[1],
+            (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * @return Items and transactions deleted
+     */
+    private long[] purge(long userId) {
+        long started = System.nanoTime();
+        markDeleted(userId);
+        long items = 0;
+        long transactions = 0;
+        // Keyset pagination: deleted chunks drop out of the index, so each page starts after the last id seen
+        long after = 0;
+        while (true) {
+            List<Long> chunk = jdbcTemplate.queryForList(
+                "SELECT id FROM items WHERE user_id = ? AND id > ? ORDER BY user_id, id LIMIT ?",
+                Long.class, userId, after, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            int[] result = bulkItemService.deleteChunk(userId, chunk, false);
+            items += result[0];
+            transactions += result[1];
+            after = chunk.get(chunk.size() - 1);
+        }
+        // Transactions the user recorded against items that are not theirs
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM transactions WHERE id IN "
+                + "(SELECT id FROM transactions WHERE user_id = ? LIMIT ?)", userId, chunkSize);
+            transactions += deleted;
+        } while (deleted == chunkSize);
+        jdbcTemplate.update("DELETE FROM transaction_rollups WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM sync_tombstones WHERE user_id = ?", userId);
+        try {
+            archive.deleteUser(userId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete archived transactions of user " + userId, e);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        events.publishEvent(new UserDeletedEvent(userId));
+        log.info("Purged user {}: {} items and {} transactions in {} ms", userId, items, transactions,
+            (System.nanoTime() - started) / 1_000_000);
+        return new long[] {items, transactions};
+    }
+
+    private void markDeleted(long userId) {
+        jdbcTemplate.update("UPDATE users SET enabled = FALSE, deleted_at = COALESCE(deleted_at, ?), "
+            + "version = version + 1 WHERE id = ?", Timestamp.valueOf(LocalDateTime.now()), userId);
+        for (String username : jdbcTemplate.queryForList("SELECT username FROM users WHERE id = ?", String.class, userId)) {
+            expireSessions(username);
+        }
+    }
+
+    /**
+     * Expires the user's signed-in sessions; their next request is refused with 401
+     * (see SecurityConfig) instead of acting for a disabled or vanished account.
+     */
+    private void expireSessions(String username) {
+        for (Object principal : sessionRegistry.getAllPrincipals()) {
+            if (principal instanceof UserDetails && ((UserDetails) principal).getUsername().equals(username)) {
+                for (SessionInformation session : sessionRegistry.getAllSessions(principal, false)) {
+                    session.expireNow();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package dev.inventorymanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import dev.inventorymanager.archive.TransactionArchive;
+import dev.inventorymanager.archive.TransactionColumns;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.TransactionRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Transaction history across the live table and the cold-storage archive.
+ *
+ * Old transactions are moved out of the transactions table by the archival
+ * job (see dev.inventorymanager.archive). Reads that cover history go through
+ * this service so callers see one continuous history:
+ * - Listings merge live rows with archived rows, newest first
+ * - Totals add the live table's aggregates to the archived months' rollups,
+ *   without opening any archive file
+ * - Exports stream month by month and only open archive files in the range
+ *
+ * Archived rows are returned as unmanaged Transaction objects. Everything
+ * here is read-only, so with read/write routing enabled it is served by the
+ * replica.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TransactionHistoryService {
+
+    private static final Comparator<Transaction> NEWEST_FIRST =
+        Comparator.comparing(Transaction::getTransactionDate).thenComparing(Transaction::getId).reversed();
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionRollupRepository rollupRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionArchive archive;
+
+    public TransactionHistoryService(TransactionRepository transactionRepository,
+                                     TransactionRollupRepository rollupRepository,
+                                     ItemRepository itemRepository,
+                                     TransactionArchive archive) {
+        this.transactionRepository = transactionRepository;
+        this.rollupRepository = rollupRepository;
+        this.itemRepository = itemRepository;
+        this.archive = archive;
+    }
+
+    /**
+     * @return All of the user's transactions, live and archived, newest first
+     */
+    public List<Transaction> findByUser(User user) {
+        List<Transaction> result = new ArrayList<>(transactionRepository.findByUserOrderByTransactionDateDesc(user));
+        List<Transaction> archived = readArchive(user, archivedPeriods(user), id -> true);
+        if (!archived.isEmpty()) {
+            result.addAll(archived);
+            result.sort(NEWEST_FIRST);
+        }
+        return result;
+    }
+
+    /**
+     * @return Transactions of one item, live and archived, newest first.
+     *         Archived rows are only searched in the given user's archive.
+     */
+    public List<Transaction> findByItem(Long itemId, User user) {
+        List<Transaction> result = new ArrayList<>(transactionRepository.findByItemIdOrderByTransactionDateDesc(itemId));
+        List<Transaction> archived = readArchive(user, archivedPeriods(user), id -> id == itemId);
+        if (!archived.isEmpty()) {
+            result.addAll(archived);
+            result.sort(NEWEST_FIRST);
+        }
+        return result;
+    }
+
+    /**
+     * @return Total of live and archived BUY transactions, in minor units (see {@link Money})
+     */
+    public long getTotalSpendingMinor(User user) {
+        return Money.plus(transactionRepository.getTotalSpendingMinor(user.getId()),
+            rollupRepository.getArchivedTotalMinor(user.getId(), TransactionType.BUY.name()));
+    }
+
+    /**
+     * @return Total of live and archived SELL transactions, in minor units
+     */
+    public long getTotalSalesMinor(User user) {
+        return Money.plus(transactionRepository.getTotalSalesMinor(user.getId()),
+            rollupRepository.getArchivedTotalMinor(user.getId(), TransactionType.SELL.name()));
+    }
+
+    public Long countByUser(User user) {
+        return transactionRepository.countByUser(user) + rollupRepository.getArchivedCount(user);
+    }
+
+    /**
+     * Writes the user's transactions dated in [from, to) as CSV, oldest first.
+     *
+     * Archive files are read one month at a time, so memory use is bounded by the
+     * largest month rather than by the whole range.
+     */
+    public void exportCsv(User user, LocalDate from, LocalDate to, Writer out) throws IOException {
+        out.write("id,date,itemId,sku,type,quantity,pricePerUnit,totalAmount,inventoryBefore,inventoryAfter,status,notes\n");
+        export(user, from, to, transaction -> writeCsvRow(out, transaction));
+        out.flush();
+    }
+
+    /**
+     * Writes the same rows as {@link #exportCsv} as an array of flat objects, one
+     * per transaction with the CSV's columns as members, for the binary wire
+     * formats: rows carry the item id and SKU instead of the whole item.
+     */
+    public void exportRows(User user, LocalDate from, LocalDate to, JsonGenerator out) throws IOException {
+        out.writeStartArray();
+        export(user, from, to, transaction -> writeRow(out, transaction));
+        out.writeEndArray();
+        out.flush();
+    }
+
+    private void export(User user, LocalDate from, LocalDate to, RowWriter out) throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(to.minusDays(1));
+        for (YearMonth month : archivedPeriods(user)) {
+            if (month.isBefore(first) || month.isAfter(last)) {
+                continue;
+            }
+            List<Transaction> rows = readArchive(user, List.of(month), id -> true);
+            rows.sort(NEWEST_FIRST.reversed());
+            for (Transaction transaction : rows) {
+                if (!transaction.getTransactionDate().isBefore(start) && transaction.getTransactionDate().isBefore(end)) {
+                    out.write(transaction);
+                }
+            }
+        }
+        for (Transaction transaction : transactionRepository.findByUserInRange(user, start, end)) {
+            out.write(transaction);
+        }
+    }
+
+    private interface RowWriter {
+        void write(Transaction transaction) throws IOException;
+    }
+
+    /**
+     * Archived months come from the rollup table rather than a directory listing: a
+     * month's rollups commit only after its file is in place, and files left over from
+     * an earlier database are never read.
+     */
+    private List<YearMonth> archivedPeriods(User user) {
+        List<YearMonth> months = new ArrayList<>();
+        for (LocalDate periodStart : rollupRepository.findArchivedPeriods(user)) {
+            months.add(YearMonth.from(periodStart));
+        }
+        return months;
+    }
+
+    private List<Transaction> readArchive(User user, List<YearMonth> months, LongPredicate itemFilter) {
+        List<TransactionColumns> blocks = new ArrayList<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (YearMonth month : months) {
+            TransactionColumns columns = archive.read(user.getId(), month);
+            blocks.add(columns);
+            for (int i = 0; i < columns.size(); i++) {
+                if (itemFilter.test(columns.itemIdAt(i))) {
+                    itemIds.add(columns.itemIdAt(i));
+                }
+            }
+        }
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            items.put(item.getId(), item);
+        }
+        List<Transaction> result = new ArrayList<>();
+        for (TransactionColumns columns : blocks) {
+            for (int i = 0; i < columns.size(); i++) {
+                // An item deleted while its archived rows were being purged
+                if (itemFilter.test(columns.itemIdAt(i)) && items.containsKey(columns.itemIdAt(i))) {
+                    result.add(columns.toTransaction(i, user, items));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void writeCsvRow(Writer out, Transaction t) throws IOException {
+        Item item = t.getItem();
+        out.write(String.valueOf(t.getId()));
+        out.write(',');
+        out.write(t.getTransactionDate().toString());
+        out.write(',');
+        out.write(item == null ? "" : String.valueOf(item.getId()));
+        out.write(',');
+        out.write(csv(item == null ? null : item.getSku()));
+        out.write(',');
+        out.write(t.getType().name());
+        out.write(',');
+        out.write(String.valueOf(t.getQuantity()));
+        out.write(',');
+        out.write(Money.format(t.getPricePerUnitMinor()));
+        out.write(',');
+        out.write(Money.format(t.getTotalAmountMinor()));
+        out.write(',');
+        out.write(t.getInventoryBefore() == null ? "" : t.getInventoryBefore().toString());
+        out.write(',');
+        out.write(t.getInventoryAfter() == null ? "" : t.getInventoryAfter().toString());
+        out.write(',');
+        out.write(t.getStatus() == null ? "" : t.getStatus().name());
+        out.write(',');
+        out.write(csv(t.getNotes()));
+        out.write('\n');
+    }
+
+    private static void writeRow(JsonGenerator out, Transaction t) throws IOException {
+        Item item = t.getItem();
+        out.writeStartObject();
+        out.writeNumberField("id", t.getId());
+        out.writeStringField("date", t.getTransactionDate().toString());
+        if (item != null) {
+            out.writeNumberField("itemId", item.getId());
+            out.writeStringField("sku", item.getSku());
+        }
+        out.writeStringField("type", t.getType().name());
+        out.writeNumberField("quantity", t.getQuantity());
+        out.writeNumberField("pricePerUnit", Money.toDecimal(t.getPricePerUnitMinor()));
+        out.writeNumberField("totalAmount", Money.toDecimal(t.getTotalAmountMinor()));
+        if (t.getInventoryBefore() != null) {
+            out.writeNumberField("inventoryBefore", t.getInventoryBefore());
+        }
+        if (t.getInventoryAfter() != null) {
+            out.writeNumberField("inventoryAfter", t.getInventoryAfter());
+        }
+        if (t.getStatus() != null) {
+            out.writeStringField("status", t.getStatus().name());
+        }
+        if (t.getNotes() != null) {
+            out.writeStringField("notes", t.getNotes());
+        }
+        out.writeEndObject();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,12 +1,30 @@
 package dev.inventorymanager.service;
 
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.journal.JournalTransactionWriter;
 import dev.inventorymanager.model.*;
 import dev.inventorymanager.repository.ItemRepository;
 import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.reservation.StockReservations;
+import dev.inventorymanager.sharding.ShardedTransactionWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 /**
  * Service class for processing inventory transactions.
@@ -17,11 +35,33 @@ import java.math.BigDecimal;
  * - Creates transaction records with full audit trail
  * - Captures inventory snapshots before and after each transaction
  *
- * All public methods are transactional (@Transactional), meaning:
+ * Every buy and sell is transactional, meaning:
  * - Changes to Item and Transaction are committed together
  * - If any operation fails, all changes are rolled back
  * - Database consistency is guaranteed
  *
+ * All buy and sell entry points go through {@link #processTransaction}: they join
+ * the caller's transaction if there is one and otherwise start their own, and
+ * never start one before handing a write to the journal or a shard.
+ *
+ * With inventory.transactions.write-mode=journal, buys and sells are appended to
+ * the transaction journal instead (see {@link JournalTransactionWriter}); the
+ * validations are the same, and the tables are updated asynchronously.
+ *
+ * With inventory.transactions.write-mode=sharded, they are handed to the item's
+ * write shard (see {@link ShardedTransactionWriter}) and the caller waits for
+ * the shard to commit them.
+ *
+ * Sells never take units held by stock reservations ({@link StockReservations}).
+ *
+ * Multi-line orders ({@link #processOrder}) lock their items in ascending id
+ * order and apply all lines in one database transaction.
+ *
+ * In direct mode the item's version column catches a buy or sell computed from
+ * a quantity that another write has changed since the item was read; such a
+ * write is retried against the item re-read under its row lock (see
+ * {@link OptimisticRetry}).
+ *
  * Thread Safety: This service is stateless and thread-safe.
  */
 @Service
@@ -29,16 +69,53 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final ItemRepository itemRepository;
+    private final JournalTransactionWriter journalWriter;
+    private final ShardedTransactionWriter shardedWriter;
+    private final WriteMode writeMode;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetry optimisticRetry;
+    private final StockReservations reservations;
 
     /**
      * Constructor for dependency injection.
      *
      * @param transactionRepository Repository for transaction persistence
      * @param itemRepository Repository for item persistence
+     * @param journalWriter Journal write path, present only in journal write mode
+     * @param shardedWriter Sharded write path, present only in sharded write mode
+     * @param events Publisher for {@link TransactionRecordedEvent}s
+     * @param transactionManager Runs direct-mode writes started from {@link #processTransaction}
+     * @param optimisticRetry Retries direct-mode writes that lost a version race
+     * @param reservations Units held by stock reservations, which sells cannot take
      */
-    public TransactionService(TransactionRepository transactionRepository, ItemRepository itemRepository) {
+    public TransactionService(TransactionRepository transactionRepository, ItemRepository itemRepository,
+                              ObjectProvider<JournalTransactionWriter> journalWriter,
+                              ObjectProvider<ShardedTransactionWriter> shardedWriter,
+                              ApplicationEventPublisher events, PlatformTransactionManager transactionManager,
+                              OptimisticRetry optimisticRetry, StockReservations reservations) {
         this.transactionRepository = transactionRepository;
         this.itemRepository = itemRepository;
+        this.journalWriter = journalWriter.getIfAvailable();
+        this.shardedWriter = shardedWriter.getIfAvailable();
+        if (this.journalWriter != null) {
+            this.writeMode = WriteMode.JOURNAL;
+        } else if (this.shardedWriter != null) {
+            this.writeMode = WriteMode.SHARDED;
+        } else {
+            this.writeMode = WriteMode.DIRECT;
+        }
+        this.events = events;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.optimisticRetry = optimisticRetry;
+        this.reservations = reservations;
+    }
+
+    /**
+     * @return How buy/sell transactions are persisted
+     */
+    public WriteMode getWriteMode() {
+        return writeMode;
     }
 
     /**
@@ -57,16 +134,31 @@ public class TransactionService {
      * @param user The user making the purchase
      * @return The created and persisted transaction record
      * @throws IllegalArgumentException if quantity <= 0 or pricePerUnit < 0
+     * @see #processTransaction(Item, TransactionType, Integer, BigDecimal, User, String)
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction processBuyTransaction(Item item, Integer quantity, BigDecimal pricePerUnit, User user) {
+        return processTransaction(item, TransactionType.BUY, quantity, Money.toMinor(pricePerUnit), user, null);
+    }
+
+    /**
+     * Process a BUY transaction priced in minor units (see {@link Money}).
+     *
+     * @see #processBuyTransaction(Item, Integer, BigDecimal, User)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Transaction processBuyTransaction(Item item, Integer quantity, long pricePerUnitMinor, User user) {
+        return processTransaction(item, TransactionType.BUY, quantity, pricePerUnitMinor, user, null);
+    }
+
+    private Transaction buy(Item item, Integer quantity, long pricePerUnitMinor, User user) {
         // Validation: Ensure quantity is positive
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than 0");
         }
 
         // Validation: Ensure price is not negative
-        if (pricePerUnit.compareTo(BigDecimal.ZERO) < 0) {
+        if (pricePerUnitMinor < 0) {
             throw new IllegalArgumentException("Price per unit cannot be negative");
         }
 
@@ -76,18 +168,20 @@ public class TransactionService {
 
         // Update the item's quantity - BUY increases inventory
         // Example: 100 + 50 = 150
-        item.setQuantity(item.getQuantity() + quantity);
+        item.setQuantity(addStock(item.getQuantity(), quantity));
         itemRepository.save(item);
 
         // Create the transaction record with all details
-        Transaction transaction = new Transaction(item, TransactionType.BUY, quantity, pricePerUnit);
+        Transaction transaction = new Transaction(item, TransactionType.BUY, quantity, pricePerUnitMinor);
         transaction.setUser(user);
         transaction.setInventoryBefore(inventoryBefore);  // What it was
         transaction.setInventoryAfter(item.getQuantity()); // What it is now
         transaction.setStatus(TransactionStatus.COMPLETED);
 
-        // Persist and return the transaction
-        return transactionRepository.save(transaction);
+        // Persist and return the transaction; listeners see the event once it commits
+        Transaction saved = transactionRepository.save(transaction);
+        events.publishEvent(TransactionRecordedEvent.of(saved));
+        return saved;
     }
 
     /**
@@ -110,25 +204,41 @@ public class TransactionService {
      * @param user The user making the sale
      * @return The created and persisted transaction record
      * @throws IllegalArgumentException if quantity <= 0, pricePerUnit < 0, or insufficient inventory
+     * @see #processTransaction(Item, TransactionType, Integer, BigDecimal, User, String)
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction processSellTransaction(Item item, Integer quantity, BigDecimal pricePerUnit, User user) {
+        return processTransaction(item, TransactionType.SELL, quantity, Money.toMinor(pricePerUnit), user, null);
+    }
+
+    /**
+     * Process a SELL transaction priced in minor units (see {@link Money}).
+     *
+     * @see #processSellTransaction(Item, Integer, BigDecimal, User)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Transaction processSellTransaction(Item item, Integer quantity, long pricePerUnitMinor, User user) {
+        return processTransaction(item, TransactionType.SELL, quantity, pricePerUnitMinor, user, null);
+    }
+
+    private Transaction sell(Item item, Integer quantity, long pricePerUnitMinor, User user) {
         // Validation: Ensure quantity is positive
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than 0");
         }
 
         // Validation: Ensure price is not negative
-        if (pricePerUnit.compareTo(BigDecimal.ZERO) < 0) {
+        if (pricePerUnitMinor < 0) {
             throw new IllegalArgumentException("Price per unit cannot be negative");
         }
 
         // CRITICAL VALIDATION: Check for sufficient inventory
-        // This prevents selling more than we have in stock
-        if (item.getQuantity() < quantity) {
+        // This prevents selling more than we have in stock, or stock held by reservations
+        int held = reservations.held(item.getId());
+        if (item.getQuantity() - held < quantity) {
             throw new IllegalArgumentException(
                 String.format("Insufficient inventory. Available: %d, Requested: %d",
-                    item.getQuantity(), quantity)
+                    item.getQuantity() - held, quantity)
             );
         }
 
@@ -138,17 +248,29 @@ public class TransactionService {
         // Update the item's quantity - SELL decreases inventory
         // Example: 100 - 30 = 70
         item.setQuantity(item.getQuantity() - quantity);
-        itemRepository.save(item);
+        itemRepository.saveAndFlush(item);
+
+        // The flush holds the row lock until commit, and reservations are only made under
+        // that lock, so a hold placed since the check above is visible now and no later
+        int heldNow = reservations.held(item.getId());
+        if (heldNow > held && item.getQuantity() < heldNow) {
+            throw new IllegalArgumentException(
+                String.format("Insufficient inventory. Available: %d, Requested: %d",
+                    inventoryBefore - heldNow, quantity)
+            );
+        }
 
         // Create the transaction record with all details
-        Transaction transaction = new Transaction(item, TransactionType.SELL, quantity, pricePerUnit);
+        Transaction transaction = new Transaction(item, TransactionType.SELL, quantity, pricePerUnitMinor);
         transaction.setUser(user);
         transaction.setInventoryBefore(inventoryBefore);  // What it was
         transaction.setInventoryAfter(item.getQuantity()); // What it is now
         transaction.setStatus(TransactionStatus.COMPLETED);
 
-        // Persist and return the transaction
-        return transactionRepository.save(transaction);
+        // Persist and return the transaction; listeners see the event once it commits
+        Transaction saved = transactionRepository.save(transaction);
+        events.publishEvent(TransactionRecordedEvent.of(saved));
+        return saved;
     }
 
     /**
@@ -166,7 +288,7 @@ public class TransactionService {
      * @see #processBuyTransaction(Item, Integer, BigDecimal, User)
      * @see #processSellTransaction(Item, Integer, BigDecimal, User)
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction processTransaction(Item item, TransactionType type, Integer quantity, BigDecimal pricePerUnit, User user) {
         return processTransaction(item, type, quantity, pricePerUnit, user, null);
     }
@@ -189,6 +311,12 @@ public class TransactionService {
      * );
      * </pre>
      *
+     * Runs in the caller's transaction if there is one and starts its own otherwise.
+     * In sharded mode no transaction is started here, so a request waiting for its
+     * shard does not hold a database connection the shard may need. In direct mode
+     * its own transaction is retried with the item re-read when the item changed
+     * concurrently; inside a caller's transaction the conflict is the caller's to handle.
+     *
      * @param item The item being transacted
      * @param type Transaction type (BUY or SELL)
      * @param quantity Number of units
@@ -197,17 +325,172 @@ public class TransactionService {
      * @param notes Optional notes/comments about the transaction (can be null)
      * @return The created and persisted transaction with notes
      * @throws IllegalArgumentException if type is invalid or validation fails
+     * @throws ConcurrentUpdateException if the item kept changing until retries ran out
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction processTransaction(Item item, TransactionType type, Integer quantity,
                                          BigDecimal pricePerUnit, User user, String notes) {
+        return processTransaction(item, type, quantity, Money.toMinor(pricePerUnit), user, notes);
+    }
+
+    /**
+     * Process a transaction priced in minor units (see {@link Money}). The request
+     * path uses this overload, so a price parsed from JSON reaches the database
+     * without becoming a BigDecimal before it is bound.
+     *
+     * @see #processTransaction(Item, TransactionType, Integer, BigDecimal, User, String)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Transaction processTransaction(Item item, TransactionType type, Integer quantity,
+                                         long pricePerUnitMinor, User user, String notes) {
+        if (writeMode == WriteMode.JOURNAL && type != null) {
+            // Notes go into the journal record itself rather than a second save
+            return journalWriter.write(item, type, quantity, pricePerUnitMinor, user, notes);
+        }
+        if (routedToShard() && type != null) {
+            return shardedWriter.write(item, type, quantity, pricePerUnitMinor, user, notes);
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return processDirect(item, type, quantity, pricePerUnitMinor, user, notes);
+        }
+        return optimisticRetry.run("transaction", attempt -> transactionTemplate.execute(status -> {
+            // A retry re-reads the row under its lock, so it cannot lose the same race again
+            Item current = attempt == 1 ? item : itemRepository.findByIdAndUserForUpdate(item.getId(), user)
+                .orElseThrow(() -> new IllegalArgumentException("Item not found or access denied"));
+            return processDirect(current, type, quantity, pricePerUnitMinor, user, notes);
+        }), () -> itemRepository.findById(item.getId()).orElse(null));
+    }
+
+    /**
+     * Process a multi-line order: every line is applied, or none is.
+     *
+     * All lines commit in one database transaction. Before any line is applied the
+     * order's item rows are locked (SELECT ... FOR UPDATE) one at a time in ascending
+     * id order, so two orders over overlapping items queue on the lowest shared id
+     * instead of deadlocking, whatever order their lines come in. Lines are then
+     * applied in request order; lines on the same item chain, so each transaction's
+     * inventoryBefore is the previous line's inventoryAfter.
+     *
+     * In journal and sharded mode the order's items are first taken from their
+     * writers with runExclusive, which uses a fixed order as well.
+     *
+     * @param lines The order's buys and sells
+     * @param user The user placing the order; every item must be theirs
+     * @return One transaction per line, in line order
+     * @throws IllegalArgumentException if there are no lines, a line is invalid, an item is not the user's, or a sell exceeds stock
+     * @throws ConcurrentUpdateException if an item row stayed locked by another writer past the lock timeout
+     */
+    public List<Transaction> processOrder(List<OrderLine> lines, User user) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one line");
+        }
+        SortedSet<Long> itemIds = new TreeSet<>();
+        for (OrderLine line : lines) {
+            if (line.getItemId() == null) {
+                throw new IllegalArgumentException("itemId is required");
+            }
+            if (line.getType() == null) {
+                throw new IllegalArgumentException("Invalid transaction type. Must be BUY or SELL");
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0");
+            }
+            if (line.getPricePerUnitMinor() == null || line.getPricePerUnitMinor() < 0) {
+                throw new IllegalArgumentException("Price per unit cannot be negative");
+            }
+            itemIds.add(line.getItemId());
+        }
+
+        Supplier<List<Transaction>> order = () -> transactionTemplate.execute(status -> applyOrder(itemIds, lines, user));
+        try {
+            if (writeMode == WriteMode.JOURNAL) {
+                return journalWriter.runExclusive(itemIds, order);
+            }
+            if (writeMode == WriteMode.SHARDED) {
+                return shardedWriter.runExclusive(itemIds, order);
+            }
+            return order.get();
+        } catch (PessimisticLockingFailureException e) {
+            throw new ConcurrentUpdateException("Items of the order stayed locked by other writers", null);
+        }
+    }
+
+    private List<Transaction> applyOrder(SortedSet<Long> itemIds, List<OrderLine> lines, User user) {
+        // Lock every row first, lowest id first; no row is written until all are held
+        Map<Long, Item> items = new HashMap<>();
+        for (Long itemId : itemIds) {
+            items.put(itemId, itemRepository.findByIdAndUserForUpdate(itemId, user)
+                .orElseThrow(() -> new IllegalArgumentException("Item not found or access denied")));
+        }
+
+        List<Transaction> transactions = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            Item item = items.get(line.getItemId());
+            int before = item.getQuantity();
+            int after;
+            if (line.getType() == TransactionType.SELL) {
+                int available = before - reservations.held(item.getId());
+                if (available < line.getQuantity()) {
+                    throw new IllegalArgumentException(
+                        String.format("Insufficient inventory. Available: %d, Requested: %d",
+                            available, line.getQuantity()));
+                }
+                after = before - line.getQuantity();
+            } else {
+                after = addStock(before, line.getQuantity());
+            }
+            item.setQuantity(after);
+
+            Transaction transaction = new Transaction(item, line.getType(), line.getQuantity(),
+                line.getPricePerUnitMinor());
+            transaction.setUser(user);
+            transaction.setInventoryBefore(before);
+            transaction.setInventoryAfter(after);
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            if (line.getNotes() != null && !line.getNotes().isEmpty()) {
+                transaction.setNotes(line.getNotes());
+            }
+            transactions.add(transaction);
+        }
+
+        // The locked items are managed, so each gets one UPDATE with its final quantity at flush
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        for (Transaction transaction : saved) {
+            events.publishEvent(TransactionRecordedEvent.of(transaction));
+        }
+        return saved;
+    }
+
+    /**
+     * Sharded-mode writes go to the item's shard, except from a shard's own thread
+     * (inside runExclusive), where the shard already owns the item.
+     */
+    /**
+     * @return before + quantity
+     * @throws IllegalArgumentException if the result does not fit an int, as in the journal and shards
+     */
+    private static int addStock(int before, int quantity) {
+        try {
+            return Math.addExact(before, quantity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                String.format("Inventory out of range. Current: %d, Requested: %d", before, quantity));
+        }
+    }
+
+    private boolean routedToShard() {
+        return writeMode == WriteMode.SHARDED && !shardedWriter.isShardThread();
+    }
+
+    private Transaction processDirect(Item item, TransactionType type, Integer quantity,
+                                      long pricePerUnitMinor, User user, String notes) {
         Transaction transaction;
 
         // Route to the appropriate specialized method based on transaction type
         if (type == TransactionType.BUY) {
-            transaction = processBuyTransaction(item, quantity, pricePerUnit, user);
+            transaction = buy(item, quantity, pricePerUnitMinor, user);
         } else if (type == TransactionType.SELL) {
-            transaction = processSellTransaction(item, quantity, pricePerUnit, user);
+            transaction = sell(item, quantity, pricePerUnitMinor, user);
         } else {
             // This should never happen if using the TransactionType enum
             throw new IllegalArgumentException("Invalid transaction type: " + type);
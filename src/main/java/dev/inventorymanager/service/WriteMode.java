@@ -0,0 +1,27 @@
+package dev.inventorymanager.service;
+
+/**
+ * How TransactionService persists buy/sell transactions.
+ * Selected with the {@code inventory.transactions.write-mode} property.
+ */
+public enum WriteMode {
+    /**
+     * Default. Item and Transaction rows are written through JPA inside the
+     * caller's database transaction.
+     */
+    DIRECT,
+
+    /**
+     * Event-sourced. Transactions are appended to the memory-mapped journal,
+     * which is the source of truth; the Item and Transaction tables are
+     * updated asynchronously by the journal projector.
+     */
+    JOURNAL,
+
+    /**
+     * Single writer per item. Transactions are queued to one of a fixed set of
+     * write shards by item id; each shard commits its queue in batches, folding
+     * writes to the same item into one row update.
+     */
+    SHARDED
+}
@@ -0,0 +1,237 @@
+package dev.inventorymanager.sharding;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Write path for {@code inventory.transactions.write-mode=sharded}.
+ *
+ * Each item belongs to one of a fixed number of {@link WriteShard}s, picked by
+ * hashing its id. A shard is a single thread that applies its items' buys and
+ * sells in arrival order, so writers of a hot item queue in memory instead of
+ * on the item's row lock, and several queued writes to one item are committed
+ * as a single row update. Callers block on a future until their write has
+ * committed, and see the same results and errors as the direct path.
+ *
+ * Item edits and deletes go through {@link #runExclusive(long, Supplier)}, and
+ * multi-line orders through {@link #runExclusive(Collection, Supplier)}, so they
+ * are ordered with the items' buys and sells.
+ */
+public class ShardedTransactionWriter {
+
+    private final WriteShard[] shards;
+    private final Thread[] threads;
+
+    /**
+     * @param shardCount Number of shards (and writer threads)
+     * @param queueCapacity Writes that may wait per shard before callers block
+     * @param maxBatch Most writes a shard commits in one database transaction
+     * @param heldStock Units of an item held by reservations, which sells cannot take
+     */
+    public ShardedTransactionWriter(int shardCount, int queueCapacity, int maxBatch,
+                                    ItemRepository itemRepository, TransactionRepository transactionRepository,
+                                    TransactionTemplate transactionTemplate, ApplicationEventPublisher events,
+                                    LongToIntFunction heldStock) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("inventory.shards.count must be positive");
+        }
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("inventory.shards.max-batch must be positive");
+        }
+        this.shards = new WriteShard[shardCount];
+        this.threads = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new WriteShard(i, queueCapacity, maxBatch, itemRepository, transactionRepository,
+                transactionTemplate, events, heldStock);
+        }
+    }
+
+    public void start() {
+        for (int i = 0; i < shards.length; i++) {
+            threads[i] = new Thread(shards[i], "write-shard-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Lets each shard finish what is already queued, then stops it.
+     */
+    public void stop() throws InterruptedException {
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].stop();
+            if (threads[i] != null) {
+                threads[i].interrupt();
+            }
+        }
+        for (Thread thread : threads) {
+            if (thread != null) {
+                thread.join(10_000);
+            }
+        }
+    }
+
+    /**
+     * Records a buy or sell on the item's shard and waits for it to commit.
+     * Validation matches TransactionService's direct path.
+     *
+     * @return The committed transaction; its item carries the new quantity
+     * @param pricePerUnitMinor Price per unit in minor units (see {@link Money})
+     * @throws IllegalArgumentException if quantity <= 0, pricePerUnit < 0, the total is out of range,
+     *         the item is gone, or insufficient inventory
+     * @throws IllegalStateException if the batch holding the write could not be committed
+     */
+    public Transaction write(Item item, TransactionType type, int quantity, long pricePerUnitMinor,
+                             User user, String notes) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        if (pricePerUnitMinor < 0) {
+            throw new IllegalArgumentException("Price per unit cannot be negative");
+        }
+        Money.times(pricePerUnitMinor, quantity);
+        if (notes != null && notes.isEmpty()) {
+            notes = null;
+        }
+        try {
+            return await(shardFor(item.getId()).submit(item, type, quantity, pricePerUnitMinor, user, notes));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for write shard", e);
+        }
+    }
+
+    /**
+     * Runs a direct write to an item row (edit, delete) on the item's shard, after
+     * the buys and sells queued before it and before any queued after it.
+     * Exceptions thrown by the action reach the caller unchanged.
+     */
+    public <T> T runExclusive(long itemId, Supplier<T> action) {
+        return exclusive(shardFor(itemId), action);
+    }
+
+    /**
+     * Runs a write spanning several items (a multi-line order) while every shard
+     * owning one of them is held. The shards are entered in ascending index order,
+     * each holding the next while it waits, so two such writes over overlapping
+     * shards cannot deadlock. The action runs on the last shard's thread.
+     */
+    public <T> T runExclusive(Collection<Long> itemIds, Supplier<T> action) {
+        int[] indices = itemIds.stream().mapToInt(this::shardIndex).distinct().sorted().toArray();
+        return runOnShards(indices, 0, action);
+    }
+
+    private <T> T runOnShards(int[] indices, int next, Supplier<T> action) {
+        if (next == indices.length) {
+            return action.get();
+        }
+        return exclusive(shards[indices[next]], () -> runOnShards(indices, next + 1, action));
+    }
+
+    private static <T> T exclusive(WriteShard shard, Supplier<T> action) {
+        try {
+            return await(shard.submit(action));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for write shard", e);
+        }
+    }
+
+    /**
+     * @return Whether the calling thread is a shard's, i.e. running inside {@link #runExclusive};
+     *         writes from there are applied directly, as waiting on a shard from a shard could deadlock
+     */
+    public boolean isShardThread() {
+        Thread current = Thread.currentThread();
+        for (Thread thread : threads) {
+            if (thread == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return Buys and sells committed so far, over all shards
+     */
+    public long getWrites() {
+        long total = 0;
+        for (WriteShard shard : shards) {
+            total += shard.getWrites();
+        }
+        return total;
+    }
+
+    /**
+     * @return Item row updates issued so far; below {@link #getWrites()} when writes were coalesced
+     */
+    public long getRowUpdates() {
+        long total = 0;
+        for (WriteShard shard : shards) {
+            total += shard.getRowUpdates();
+        }
+        return total;
+    }
+
+    /**
+     * @return Database transactions committed by the shards so far
+     */
+    public long getBatches() {
+        long total = 0;
+        for (WriteShard shard : shards) {
+            total += shard.getBatches();
+        }
+        return total;
+    }
+
+    /**
+     * @return Writes currently waiting in shard queues
+     */
+    public int getQueued() {
+        int total = 0;
+        for (WriteShard shard : shards) {
+            total += shard.getQueued();
+        }
+        return total;
+    }
+
+    int shardIndex(long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), shards.length);
+    }
+
+    private WriteShard shardFor(long itemId) {
+        return shards[shardIndex(itemId)];
+    }
+
+    private static <T> T await(CompletableFuture<T> result) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
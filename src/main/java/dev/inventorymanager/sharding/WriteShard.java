@@ -0,0 +1,305 @@
+package dev.inventorymanager.sharding;
+
+import dev.inventorymanager.events.TransactionRecordedEvent;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionStatus;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+
+/**
+ * One single-threaded writer of {@link ShardedTransactionWriter}.
+ *
+ * The shard's thread takes whatever writes are queued (up to the batch size),
+ * applies them in arrival order and commits them in one database transaction.
+ * Writes to the same item within a batch are folded into a single row update:
+ * the item is loaded once, each write is checked against the running quantity,
+ * and Hibernate flushes the final quantity. Only this thread writes the items
+ * hashed to it, so nothing waits on a row lock. Sells are checked against the
+ * running quantity minus the units held by stock reservations.
+ */
+class WriteShard implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteShard.class);
+
+    private final int index;
+    private final BlockingQueue<Task> queue;
+    private final int maxBatch;
+    private final ItemRepository itemRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final LongToIntFunction heldStock;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong rowUpdates = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    WriteShard(int index, int queueCapacity, int maxBatch, ItemRepository itemRepository,
+               TransactionRepository transactionRepository, TransactionTemplate transactionTemplate,
+               ApplicationEventPublisher events, LongToIntFunction heldStock) {
+        this.index = index;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.itemRepository = itemRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.events = events;
+        this.heldStock = heldStock;
+    }
+
+    /**
+     * Queues a buy or sell; blocks while the shard's queue is full.
+     */
+    CompletableFuture<Transaction> submit(Item item, TransactionType type, int quantity, long pricePerUnitMinor,
+                                          User user, String notes) throws InterruptedException {
+        PendingWrite write = new PendingWrite(item.getId(), type, quantity, pricePerUnitMinor, user, notes);
+        enqueue(write);
+        return write.result;
+    }
+
+    /**
+     * Queues an action to run on the shard's thread, between batches.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> action) throws InterruptedException {
+        Exclusive<T> task = new Exclusive<>(action);
+        enqueue(task);
+        return task.result;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    long getWrites() {
+        return writes.get();
+    }
+
+    long getRowUpdates() {
+        return rowUpdates.get();
+    }
+
+    long getBatches() {
+        return batches.get();
+    }
+
+    int getQueued() {
+        return queue.size();
+    }
+
+    @Override
+    public void run() {
+        List<Task> drained = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Task first = queue.take();
+                drained.add(first);
+                queue.drainTo(drained, maxBatch - 1);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    queue.drainTo(drained);
+                }
+            }
+            process(drained);
+            drained.clear();
+        }
+        // Anything that slipped in after the last drain
+        queue.drainTo(drained);
+        for (Task task : drained) {
+            task.fail(new IllegalStateException("Write shards are shutting down"));
+        }
+        log.debug("Write shard {} stopped", index);
+    }
+
+    /**
+     * Runs consecutive writes as one batch and exclusive actions on their own,
+     * keeping queue order between the two.
+     */
+    private void process(List<Task> tasks) {
+        List<PendingWrite> batch = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task instanceof PendingWrite) {
+                batch.add((PendingWrite) task);
+            } else {
+                commit(batch);
+                batch.clear();
+                ((Exclusive<?>) task).run();
+            }
+        }
+        commit(batch);
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Long, List<PendingWrite>> byItem = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            byItem.computeIfAbsent(write.itemId, id -> new ArrayList<>()).add(write);
+        }
+        List<Transaction> recorded;
+        try {
+            recorded = transactionTemplate.execute(status -> apply(byItem));
+        } catch (RuntimeException e) {
+            log.warn("Write shard {} could not commit {} transactions", index, batch.size(), e);
+            IllegalStateException failure = new IllegalStateException("Could not record transaction", e);
+            for (PendingWrite write : batch) {
+                write.fail(failure);
+            }
+            return;
+        }
+        batches.incrementAndGet();
+        writes.addAndGet(recorded.size());
+
+        // Completed only once committed, so a rejection never rests on a rolled-back write
+        for (PendingWrite write : batch) {
+            if (write.rejection != null) {
+                write.result.completeExceptionally(write.rejection);
+            } else {
+                events.publishEvent(TransactionRecordedEvent.of(write.recorded));
+                write.result.complete(write.recorded);
+            }
+        }
+    }
+
+    private List<Transaction> apply(Map<Long, List<PendingWrite>> byItem) {
+        List<Transaction> recorded = new ArrayList<>();
+        for (Map.Entry<Long, List<PendingWrite>> entry : byItem.entrySet()) {
+            Item item = itemRepository.findById(entry.getKey()).orElse(null);
+            if (item == null) {
+                for (PendingWrite write : entry.getValue()) {
+                    write.rejection = new IllegalArgumentException("Item not found or access denied");
+                }
+                continue;
+            }
+            int quantity = item.getQuantity();
+            for (PendingWrite write : entry.getValue()) {
+                int before = quantity;
+                int after;
+                if (write.type == TransactionType.SELL) {
+                    int available = before - heldStock.applyAsInt(entry.getKey());
+                    if (available < write.quantity) {
+                        write.rejection = new IllegalArgumentException(
+                            String.format("Insufficient inventory. Available: %d, Requested: %d",
+                                available, write.quantity));
+                        continue;
+                    }
+                    after = before - write.quantity;
+                } else {
+                    try {
+                        after = Math.addExact(before, write.quantity);
+                    } catch (ArithmeticException e) {
+                        write.rejection = new IllegalArgumentException(
+                            String.format("Inventory out of range. Current: %d, Requested: %d",
+                                before, write.quantity));
+                        continue;
+                    }
+                }
+                Transaction transaction;
+                try {
+                    transaction = new Transaction(item, write.type, write.quantity, write.pricePerUnitMinor);
+                } catch (IllegalArgumentException e) {
+                    // e.g. a total amount that does not fit; rejected alone rather than failing the batch
+                    write.rejection = e;
+                    continue;
+                }
+                quantity = after;
+                transaction.setUser(write.user);
+                transaction.setInventoryBefore(before);
+                transaction.setInventoryAfter(after);
+                transaction.setStatus(TransactionStatus.COMPLETED);
+                transaction.setNotes(write.notes);
+                write.recorded = transaction;
+                recorded.add(transaction);
+            }
+            if (quantity != item.getQuantity()) {
+                // Flushed as one UPDATE however many writes the batch held for this item
+                item.setQuantity(quantity);
+                rowUpdates.incrementAndGet();
+            }
+        }
+        transactionRepository.saveAll(recorded);
+        return recorded;
+    }
+
+    private void enqueue(Task task) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Write shards are shutting down");
+        }
+        queue.put(task);
+    }
+
+    private interface Task {
+        void fail(RuntimeException e);
+    }
+
+    private static final class PendingWrite implements Task {
+        final long itemId;
+        final TransactionType type;
+        final int quantity;
+        final long pricePerUnitMinor;
+        final User user;
+        final String notes;
+        final CompletableFuture<Transaction> result = new CompletableFuture<>();
+
+        // Set on the shard thread while the batch is applied
+        Transaction recorded;
+        RuntimeException rejection;
+
+        PendingWrite(long itemId, TransactionType type, int quantity, long pricePerUnitMinor, User user,
+                     String notes) {
+            this.itemId = itemId;
+            this.type = type;
+            this.quantity = quantity;
+            this.pricePerUnitMinor = pricePerUnitMinor;
+            this.user = user;
+            this.notes = notes;
+        }
+
+        @Override
+        public void fail(RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static final class Exclusive<T> implements Task {
+        final Supplier<T> action;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Exclusive(Supplier<T> action) {
+            this.action = action;
+        }
+
+        void run() {
+            try {
+                result.complete(action.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void fail(RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
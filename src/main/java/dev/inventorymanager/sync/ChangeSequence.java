@@ -0,0 +1,124 @@
+package dev.inventorymanager.sync;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The change sequence: a monotonic counter stamped on items and transactions as
+ * they are written (their change_seq column) and on sync tombstones, so delta
+ * sync can find everything written after a client's token.
+ *
+ * Values are handed out from memory in blocks of {@value #BLOCK_SIZE}; each block
+ * is one value of the database sequence change_seq, so a restart moves on to a
+ * fresh block and never reuses a value. The counter is shared by all users: per
+ * user, values are still increasing, just not contiguous.
+ *
+ * A value is taken before the write that carries it commits, so a larger value
+ * can commit first. The watermark is the largest value below every value still
+ * held by an open database transaction; rows at or under it will not be joined
+ * by a smaller value later, so delta sync only reads up to it. Values taken
+ * outside a transaction (none of this application's writes) count as committed
+ * at once.
+ *
+ * The state is guarded by a ReentrantLock rather than a monitor because taking
+ * a fresh block queries the database sequence while the lock is held.
+ *
+ * Assumes one application instance writes to the database: the watermark only
+ * knows about this instance's open transactions.
+ */
+@Component
+public class ChangeSequence {
+
+    static final int BLOCK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextBlockSql;
+
+    /** Values taken by open transactions, one (the smallest) per transaction */
+    private final TreeSet<Long> open = new TreeSet<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long last;
+    private long blockEnd;
+
+    public ChangeSequence(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextBlockSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSequenceNextValString("change_seq");
+    }
+
+    @PostConstruct
+    void start() {
+        // change_seq comes from db/schema.sql
+        lock.lock();
+        try {
+            // Every value stamped before this start is below the new block, so all of them are under the watermark
+            nextBlock();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The next value, held open until the current database transaction (if any) completes
+     */
+    public long next() {
+        lock.lock();
+        try {
+            if (last == blockEnd) {
+                nextBlock();
+            }
+            long value = ++last;
+            if (TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.hasResource(this)) {
+                // The transaction's first value is its smallest; later ones need not be tracked
+                TransactionSynchronizationManager.bindResource(this, value);
+                open.add(value);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequence.this);
+                        release(value);
+                    }
+                });
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The largest value at or under which every taken value has committed or rolled back
+     */
+    public long watermark() {
+        lock.lock();
+        try {
+            return open.isEmpty() ? last : open.first() - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long value) {
+        lock.lock();
+        try {
+            open.remove(value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void nextBlock() {
+        long block = jdbcTemplate.queryForObject(nextBlockSql, Long.class);
+        last = block * BLOCK_SIZE - 1;
+        blockEnd = last + BLOCK_SIZE;
+    }
+}
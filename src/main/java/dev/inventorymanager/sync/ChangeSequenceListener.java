@@ -0,0 +1,27 @@
+package dev.inventorymanager.sync;
+
+import dev.inventorymanager.model.ChangeTracked;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Stamps items and transactions saved through JPA with the next change sequence
+ * value. Set-based SQL updates stamp their rows themselves.
+ */
+public class ChangeSequenceListener {
+
+    // Looked up on use: the listener is created while the EntityManagerFactory that ChangeSequence needs is built
+    private final ObjectProvider<ChangeSequence> changeSequence;
+
+    public ChangeSequenceListener(ObjectProvider<ChangeSequence> changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void stamp(ChangeTracked entity) {
+        entity.setChangeSeq(changeSequence.getObject().next());
+    }
+}
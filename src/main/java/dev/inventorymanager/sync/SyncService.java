@@ -0,0 +1,219 @@
+package dev.inventorymanager.sync;
+
+import dev.inventorymanager.dto.SyncResponse;
+import dev.inventorymanager.model.ChangeTracked;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delta sync for offline-capable clients: everything about a user that changed
+ * since the client's last token, a page at a time.
+ *
+ * Every write stamps its rows with the next {@link ChangeSequence} value (items
+ * and transactions carry it in change_seq), and deleting an item leaves a
+ * tombstone in sync_tombstones stamped the same way. A sync reads the three
+ * along their (user_id, change_seq, id) indexes, merged in (value, kind, id)
+ * order, and stops at the sequence's watermark so a write still in flight with
+ * a smaller value cannot be skipped. An item is returned once, in its current
+ * state, however many times it changed.
+ *
+ * Tokens:
+ * - none: sync from the start, i.e. everything the user has
+ * - "value": everything up to the value has been seen
+ * - "value.kind.id": a page stopped inside the changes stamped with the value
+ *
+ * What a sync does not carry:
+ * - a deleted item's transactions get no tombstones of their own; the item's tombstone covers them
+ * - archived transactions leave the table without a tombstone (the archive keeps them, see TransactionArchiver)
+ * - in journal write mode, transactions the projector has not written yet, and the quantities they set
+ *
+ * Tombstones are kept until the tenant is purged.
+ *
+ * Reads the primary, not the replica: a token must never be ahead of the rows
+ * the next sync reads.
+ */
+@Service
+@Transactional
+public class SyncService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 1000;
+
+    static final String ITEM = "item";
+
+    private static final int ITEMS = 0;
+    private static final int TRANSACTIONS = 1;
+    private static final int TOMBSTONES = 2;
+    private static final int KINDS = 3;
+
+    private static final String SELECT_TOMBSTONES =
+        "SELECT entity_id, change_seq FROM sync_tombstones WHERE user_id = ? AND entity_type = ? "
+            + "AND change_seq <= ? AND (change_seq > ? OR (change_seq = ? AND entity_id > ?)) "
+            + "ORDER BY change_seq, entity_id LIMIT ?";
+
+    private final ItemRepository itemRepository;
+    private final TransactionRepository transactionRepository;
+    private final ChangeSequence changeSequence;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyncService(ItemRepository itemRepository, TransactionRepository transactionRepository,
+                       ChangeSequence changeSequence, JdbcTemplate jdbcTemplate) {
+        this.itemRepository = itemRepository;
+        this.transactionRepository = transactionRepository;
+        this.changeSequence = changeSequence;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Leaves tombstones for deleted items. Call in the database transaction that deletes them.
+     */
+    public void recordDeletedItems(long userId, Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        long seq = changeSequence.next();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(itemIds.size());
+        for (long itemId : itemIds) {
+            rows.add(new Object[] {userId, ITEM, itemId, seq, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sync_tombstones (user_id, entity_type, entity_id, change_seq, "
+            + "deleted_at) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * @param token Token from the previous sync, or null for a full sync
+     * @param limit Maximum number of changes (items, transactions and deleted items together) in the page
+     * @throws IllegalArgumentException if the token is malformed or unknown, or the limit is out of range
+     */
+    public SyncResponse changesSince(String token, int limit, User user) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        long upTo = changeSequence.watermark();
+        Position from = token == null || token.isEmpty() ? new Position(-1, KINDS, 0) : Position.parse(token);
+        if (from.seq > upTo) {
+            throw new IllegalArgumentException("Unknown sync token");
+        }
+
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Item> items = itemRepository.findChangedSince(user.getId(), from.seq, from.afterId(ITEMS), upTo, page);
+        List<Transaction> transactions = transactionRepository.findChangedSince(user.getId(), from.seq,
+            from.afterId(TRANSACTIONS), upTo, page);
+        List<long[]> tombstones = jdbcTemplate.query(SELECT_TOMBSTONES,
+            (rs, row) -> new long[] {rs.getLong(1), rs.getLong(2)}, user.getId(), ITEM, upTo, from.seq, from.seq,
+            from.afterId(TOMBSTONES), limit + 1);
+
+        // Merge the three in (value, kind, id) order, up to the limit
+        List<Item> pageItems = new ArrayList<>();
+        List<Transaction> pageTransactions = new ArrayList<>();
+        List<Long> deletedItems = new ArrayList<>();
+        int i = 0;
+        int t = 0;
+        int d = 0;
+        Position last = null;
+        while (pageItems.size() + pageTransactions.size() + deletedItems.size() < limit) {
+            Position next = null;
+            if (i < items.size()) {
+                next = Position.of(items.get(i), ITEMS, items.get(i).getId());
+            }
+            if (t < transactions.size()) {
+                next = Position.min(next, Position.of(transactions.get(t), TRANSACTIONS, transactions.get(t).getId()));
+            }
+            if (d < tombstones.size()) {
+                next = Position.min(next, new Position(tombstones.get(d)[1], TOMBSTONES, tombstones.get(d)[0]));
+            }
+            if (next == null) {
+                break;
+            }
+            if (next.kind == ITEMS) {
+                pageItems.add(items.get(i++));
+            } else if (next.kind == TRANSACTIONS) {
+                pageTransactions.add(transactions.get(t++));
+            } else {
+                deletedItems.add(tombstones.get(d++)[0]);
+            }
+            last = next;
+        }
+        boolean more = i < items.size() || t < transactions.size() || d < tombstones.size();
+        String nextToken = more ? last.toString() : Long.toString(upTo);
+        return new SyncResponse(pageItems, pageTransactions, deletedItems, nextToken, more);
+    }
+
+    /**
+     * A point in the (change sequence value, kind, id) order of changes.
+     */
+    private static final class Position {
+
+        private final long seq;
+        private final int kind;
+        private final long id;
+
+        Position(long seq, int kind, long id) {
+            this.seq = seq;
+            this.kind = kind;
+            this.id = id;
+        }
+
+        static Position of(ChangeTracked entity, int kind, long id) {
+            return new Position(entity.getChangeSeq(), kind, id);
+        }
+
+        static Position parse(String token) {
+            String[] parts = token.split("\\.", -1);
+            try {
+                if (parts.length == 1) {
+                    return new Position(Long.parseLong(parts[0]), KINDS, 0);
+                }
+                if (parts.length == 3) {
+                    int kind = Integer.parseInt(parts[1]);
+                    if (kind >= 0 && kind < KINDS) {
+                        return new Position(Long.parseLong(parts[0]), kind, Long.parseLong(parts[2]));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // Falls through to the error below
+            }
+            throw new IllegalArgumentException("Malformed sync token: " + token);
+        }
+
+        static Position min(Position a, Position b) {
+            return a == null || b.compareTo(a) < 0 ? b : a;
+        }
+
+        /**
+         * @return The id a row of the kind stamped with exactly {@link #seq} must exceed to come after this position
+         */
+        long afterId(int rowKind) {
+            if (rowKind < kind) {
+                return Long.MAX_VALUE;
+            }
+            return rowKind == kind ? id : Long.MIN_VALUE;
+        }
+
+        int compareTo(Position other) {
+            if (seq != other.seq) {
+                return Long.compare(seq, other.seq);
+            }
+            return kind != other.kind ? Integer.compare(kind, other.kind) : Long.compare(id, other.id);
+        }
+
+        @Override
+        public String toString() {
+            return seq + "." + kind + "." + id;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+-- Inventory Manager schema.
+-- Applied at startup in every profile (spring.sql.init). Every statement is idempotent so the script
+-- can run on every boot against an existing database. Profiles that manage the schema explicitly
+-- (see application-durable.properties) have Hibernate only validate the mapping against it; the
+-- others let Hibernate add to it. Tables no entity maps are created here and nowhere else.
+-- Keep in sync with the JPA entities in dev.inventorymanager.model.
+
+CREATE SEQUENCE IF NOT EXISTS users_id_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS items_id_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS transactions_id_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS transaction_rollups_id_seq START WITH 1 INCREMENT BY 1;
+-- Delta sync: blocks of change sequence values (see ChangeSequence)
+CREATE SEQUENCE IF NOT EXISTS change_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS users (
+    id          BIGINT       NOT NULL,
+    username    VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    role        VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP    NOT NULL,
+    enabled     BOOLEAN      NOT NULL,
+    deleted_at  TIMESTAMP,
+    version     BIGINT       DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS items (
+    id        BIGINT         NOT NULL,
+    name      VARCHAR(255),
+    sku       VARCHAR(255),
+    quantity  INTEGER,
+    price     NUMERIC(19, 2),
+    user_id   BIGINT         NOT NULL,
+    version   BIGINT         DEFAULT 0 NOT NULL,
+    change_seq BIGINT        DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_items PRIMARY KEY (id),
+    CONSTRAINT uk_items_user_sku UNIQUE (user_id, sku),
+    CONSTRAINT fk_items_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id                BIGINT         NOT NULL,
+    item_id           BIGINT         NOT NULL,
+    user_id           BIGINT,
+    type              VARCHAR(255)   NOT NULL,
+    status            VARCHAR(255),
+    quantity          INTEGER        NOT NULL,
+    price_per_unit    NUMERIC(19, 2) NOT NULL,
+    total_amount      NUMERIC(19, 2) NOT NULL,
+    transaction_date  TIMESTAMP      NOT NULL,
+    inventory_before  INTEGER,
+    inventory_after   INTEGER,
+    notes             VARCHAR(1000),
+    change_seq        BIGINT         DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_transactions PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_item FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Optimistic-locking versions, for databases created before the columns existed
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- One SKU per user, for databases created before the constraint existed
+ALTER TABLE items ADD CONSTRAINT IF NOT EXISTS uk_items_user_sku UNIQUE (user_id, sku);
+
+-- Soft-deleted tenants, for databases created before the column existed
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP;
+
+-- Delta sync change stamps, for databases created before the columns existed
+ALTER TABLE items ADD COLUMN IF NOT EXISTS change_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS change_seq BIGINT DEFAULT 0 NOT NULL;
+
+-- Per-month totals of transactions moved to the archive (see TransactionArchiver)
+CREATE TABLE IF NOT EXISTS transaction_rollups (
+    id                 BIGINT         NOT NULL,
+    user_id            BIGINT         NOT NULL,
+    period_start       DATE           NOT NULL,
+    type               VARCHAR(255)   NOT NULL,
+    transaction_count  BIGINT         NOT NULL,
+    total_quantity     BIGINT         NOT NULL,
+    total_amount       NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_transaction_rollups PRIMARY KEY (id),
+    CONSTRAINT uk_transaction_rollups_period UNIQUE (user_id, period_start, type),
+    CONSTRAINT fk_transaction_rollups_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Journal write mode: last journal sequence number applied to the tables above
+CREATE TABLE IF NOT EXISTS journal_checkpoint (
+    name  VARCHAR(64) NOT NULL,
+    seq   BIGINT      NOT NULL,
+    CONSTRAINT pk_journal_checkpoint PRIMARY KEY (name)
+);
+
+-- Journal records the projector gave up on after inventory.journal.projector-max-attempts (see JournalProjector)
+CREATE TABLE IF NOT EXISTS journal_dead_letters (
+    seq                   BIGINT        NOT NULL,
+    transaction_id        BIGINT        NOT NULL,
+    item_id               BIGINT        NOT NULL,
+    user_id               BIGINT        NOT NULL,
+    type                  VARCHAR(8)    NOT NULL,
+    quantity              INT           NOT NULL,
+    price_per_unit_minor  BIGINT        NOT NULL,
+    epoch_millis          BIGINT        NOT NULL,
+    inventory_before      INT           NOT NULL,
+    inventory_after       INT           NOT NULL,
+    notes                 VARCHAR(1000),
+    error                 VARCHAR(1000) NOT NULL,
+    quarantined_at        TIMESTAMP     NOT NULL,
+    CONSTRAINT pk_journal_dead_letters PRIMARY KEY (seq)
+);
+
+-- Ledger reconciliation (see LedgerReconciler): progress of the current or last run, and the breaks it found
+CREATE TABLE IF NOT EXISTS reconciliation_checkpoint (
+    name                  VARCHAR(64) NOT NULL,
+    run_id                BIGINT      NOT NULL,
+    repair                BOOLEAN     NOT NULL,
+    last_user_id          BIGINT      NOT NULL,
+    users_checked         BIGINT      NOT NULL,
+    items_checked         BIGINT      NOT NULL,
+    transactions_checked  BIGINT      NOT NULL,
+    mismatches            BIGINT      NOT NULL,
+    repaired              BIGINT      NOT NULL,
+    started_at            TIMESTAMP   NOT NULL,
+    finished_at           TIMESTAMP,
+    CONSTRAINT pk_reconciliation_checkpoint PRIMARY KEY (name)
+);
+
+CREATE TABLE IF NOT EXISTS reconciliation_mismatches (
+    run_id          BIGINT      NOT NULL,
+    user_id         BIGINT      NOT NULL,
+    item_id         BIGINT      NOT NULL,
+    transaction_id  BIGINT      NOT NULL,
+    kind            VARCHAR(32) NOT NULL,
+    expected        INTEGER,
+    actual          INTEGER,
+    repaired        BOOLEAN     NOT NULL,
+    found_at        TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_reconciliation_mismatches PRIMARY KEY (run_id, item_id, kind, transaction_id)
+);
+
+-- Delta sync (see SyncService): items deleted since a client's token
+CREATE TABLE IF NOT EXISTS sync_tombstones (
+    user_id      BIGINT      NOT NULL,
+    entity_type  VARCHAR(32) NOT NULL,
+    entity_id    BIGINT      NOT NULL,
+    change_seq   BIGINT      NOT NULL,
+    deleted_at   TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_sync_tombstones PRIMARY KEY (user_id, change_seq, entity_type, entity_id)
+);
+
+-- Read/write routing: the primary's clock, written every heartbeat and read back from the replica to measure lag
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id           INTEGER NOT NULL,
+    beat_millis  BIGINT  NOT NULL,
+    CONSTRAINT pk_replica_heartbeat PRIMARY KEY (id)
+);
+
+-- Access paths used by the per-user listings, item history and dashboard queries
+-- (user_id, id) also serves bulk updates paging through one user's items; it supersedes idx_items_user
+DROP INDEX IF EXISTS idx_items_user;
+CREATE INDEX IF NOT EXISTS idx_items_user_id ON items (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date ON transactions (user_id, transaction_date);
+CREATE INDEX IF NOT EXISTS idx_transactions_item_date ON transactions (item_id, transaction_date);
+-- Delta sync pages through one user's changes in change order
+CREATE INDEX IF NOT EXISTS idx_items_user_change ON items (user_id, change_seq, id);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_change ON transactions (user_id, change_seq, id);
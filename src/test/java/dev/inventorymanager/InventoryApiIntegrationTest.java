@@ -3,21 +3,28 @@ package dev.inventorymanager;
 import dev.inventorymanager.model.Item;
 import dev.inventorymanager.model.User;
 import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.TenantDeletionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class InventoryApiIntegrationTest {
 
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT =
+        new ParameterizedTypeReference<>() {};
+
     @org.springframework.beans.factory.annotation.Value("${local.server.port}")
     int port;
 
@@ -30,14 +37,17 @@ public class InventoryApiIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TenantDeletionService tenantDeletionService;
+
     private TestRestTemplate authenticatedRestTemplate1;
     private TestRestTemplate authenticatedRestTemplate2;
 
     @BeforeEach
     public void setup() {
-        // Clean up users if they exist
-        userRepository.findByUsername("testuser1").ifPresent(userRepository::delete);
-        userRepository.findByUsername("testuser2").ifPresent(userRepository::delete);
+        // Clean up users if they exist, with their items and transactions
+        userRepository.findByUsername("testuser1").ifPresent(tenantDeletionService::purge);
+        userRepository.findByUsername("testuser2").ifPresent(tenantDeletionService::purge);
 
         // Create test users
         User user1 = new User("testuser1", passwordEncoder.encode("password1"));
@@ -105,4 +115,52 @@ public class InventoryApiIntegrationTest {
         assertThat(user2List.getBody()).hasSize(1);
         assertThat(user2List.getBody()[0].getName()).isEqualTo("User2 Item");
     }
+
+    @Test
+    public void scanResolvesSkuWithinUser() {
+        String base = "http://localhost:" + port + "/api";
+
+        Item item = new Item("Scanner Item", "SCAN-1", 10, new BigDecimal("4.00"));
+        ResponseEntity<Item> created = authenticatedRestTemplate1.postForEntity(base + "/items", item, Item.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        // The same SKU is fine for another user, but not twice for one
+        assertThat(authenticatedRestTemplate2.postForEntity(base + "/items", item, Item.class).getStatusCode())
+            .isEqualTo(HttpStatus.CREATED);
+        assertThat(authenticatedRestTemplate1.postForEntity(base + "/items", item, Item.class).getStatusCode())
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        ResponseEntity<Item> bySku = authenticatedRestTemplate1.getForEntity(base + "/items/sku/SCAN-1", Item.class);
+        assertThat(bySku.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bySku.getBody().getId()).isEqualTo(created.getBody().getId());
+
+        Map<String, Object> scan = new HashMap<>();
+        scan.put("sku", "SCAN-1");
+        scan.put("type", "SELL");
+        scan.put("quantity", 3);
+        scan.put("pricePerUnit", new BigDecimal("6.00"));
+        ResponseEntity<Map<String, Object>> sold = authenticatedRestTemplate1.exchange(base + "/transactions/scan",
+            HttpMethod.POST, new HttpEntity<>(scan), JSON_OBJECT);
+        assertThat(sold.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(sold.getBody().get("inventoryAfter")).isEqualTo(7);
+
+        // A renamed SKU no longer resolves to the item
+        Item renamed = new Item("Scanner Item", "SCAN-2", 7, new BigDecimal("4.00"));
+        authenticatedRestTemplate1.put(base + "/items/" + created.getBody().getId(), renamed);
+        assertThat(authenticatedRestTemplate1.getForEntity(base + "/items/sku/SCAN-1", Item.class).getStatusCode())
+            .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(authenticatedRestTemplate1.postForEntity(base + "/transactions/scan", scan, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.NOT_FOUND);
+
+        // Validation failures are 400s with a reason, not server errors
+        scan.remove("sku");
+        ResponseEntity<String> noSku = authenticatedRestTemplate1.postForEntity(base + "/transactions/scan", scan,
+            String.class);
+        assertThat(noSku.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(noSku.getBody()).contains("sku is required");
+        ResponseEntity<String> emptyRange = authenticatedRestTemplate1.getForEntity(
+            base + "/transactions/export?from=2024-02-01&to=2024-01-01", String.class);
+        assertThat(emptyRange.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(emptyRange.getBody()).contains("from must be before to");
+    }
 }
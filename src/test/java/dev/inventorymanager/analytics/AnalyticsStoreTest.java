@@ -0,0 +1,136 @@
+package dev.inventorymanager.analytics;
+
+import dev.inventorymanager.archive.TransactionArchiver;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Money;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.TransactionHistoryService;
+import dev.inventorymanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:analyticstest",
+    "inventory.archive.enabled=false"
+})
+public class AnalyticsStoreTest {
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) throws IOException {
+        String dir = Files.createTempDirectory("inventory-analytics").toString();
+        registry.add("inventory.archive.dir", () -> dir);
+    }
+
+    @Autowired
+    private AnalyticsStore store;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionHistoryService historyService;
+
+    @Autowired
+    private TransactionArchiver archiver;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    public void aggregatesMatchDatabaseAcrossLoadEventsAndArchive() {
+        User user = userRepository.save(new User("analytics-user", "hash"));
+        Item widget = itemRepository.save(item("Widget", "AN-1", user));
+        Item gadget = itemRepository.save(item("Gadget", "AN-2", user));
+
+        // Rows written behind the store's back are picked up by a catch-up scan
+        LocalDateTime now = LocalDateTime.now();
+        for (int monthsAgo = 5; monthsAgo >= 1; monthsAgo--) {
+            save(widget, user, TransactionType.BUY, 10, "1.50", now.minusMonths(monthsAgo).withDayOfMonth(3));
+            save(gadget, user, TransactionType.SELL, 3, "4.10", now.minusMonths(monthsAgo).withDayOfMonth(5));
+        }
+        store.catchUp();
+
+        // Transactions through the service arrive as events
+        transactionService.processTransaction(itemRepository.findById(widget.getId()).orElseThrow(),
+            TransactionType.BUY, 7, new BigDecimal("2.00"), user);
+        transactionService.processTransaction(itemRepository.findById(widget.getId()).orElseThrow(),
+            TransactionType.SELL, 2, new BigDecimal("5.55"), user);
+
+        AnalyticsResult total = store.query(user.getId(), query(List.of(AnalyticsQuery.Dimension.TYPE), null, Set.of()));
+        assertThat(total.getGroups()).hasSize(2);
+        AnalyticsResult.Group buys = total.getGroups().get(0);
+        AnalyticsResult.Group sells = total.getGroups().get(1);
+        assertThat(buys.getType()).isEqualTo("BUY");
+        assertThat(buys.getCount()).isEqualTo(6);
+        assertThat(buys.getQuantity()).isEqualTo(57);
+        assertThat(buys.getAmount()).isEqualByComparingTo(Money.toDecimal(historyService.getTotalSpendingMinor(user)));
+        assertThat(sells.getCount()).isEqualTo(6);
+        assertThat(sells.getAmount()).isEqualByComparingTo(Money.toDecimal(historyService.getTotalSalesMinor(user)));
+
+        AnalyticsResult monthly = store.query(user.getId(), query(
+            List.of(AnalyticsQuery.Dimension.MONTH), TransactionType.SELL, Set.of(gadget.getId())));
+        assertThat(monthly.getGroups()).hasSize(5);
+        assertThat(monthly.getGroups()).extracting(AnalyticsResult.Group::getPeriod)
+            .containsExactly(YearMonth.from(now.minusMonths(5)).toString(), YearMonth.from(now.minusMonths(4)).toString(),
+                YearMonth.from(now.minusMonths(3)).toString(), YearMonth.from(now.minusMonths(2)).toString(),
+                YearMonth.from(now.minusMonths(1)).toString());
+        assertThat(monthly.getGroups()).allSatisfy(group -> {
+            assertThat(group.getCount()).isEqualTo(1);
+            assertThat(group.getAmount()).isEqualByComparingTo("12.30");
+        });
+
+        // Archived rows are already in the store; reloading must not count them twice
+        archiver.archiveBefore(YearMonth.now().minusMonths(2));
+        store.catchUp();
+        AnalyticsResult afterArchive = store.query(user.getId(), query(List.of(), null, Set.of()));
+        assertThat(afterArchive.getGroups()).hasSize(1);
+        assertThat(afterArchive.getGroups().get(0).getCount()).isEqualTo(12);
+        assertThat(afterArchive.getGroups().get(0).getCount()).isEqualTo(historyService.countByUser(user));
+
+        assertThat(store.query(-1L, query(List.of(), null, Set.of())).getGroups()).isEmpty();
+        assertThatThrownBy(() -> query(List.of(AnalyticsQuery.Dimension.DAY, AnalyticsQuery.Dimension.MONTH), null, Set.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AnalyticsQuery query(List<AnalyticsQuery.Dimension> groupBy, TransactionType type, Set<Long> itemIds) {
+        return new AnalyticsQuery(groupBy, type, itemIds, null, null);
+    }
+
+    private static Item item(String name, String sku, User user) {
+        Item item = new Item(name, sku, 100, new BigDecimal("3.00"));
+        item.setUser(user);
+        return item;
+    }
+
+    private void save(Item item, User user, TransactionType type, int quantity, String price, LocalDateTime date) {
+        Transaction transaction = new Transaction(item, type, quantity, new BigDecimal(price));
+        transaction.setUser(user);
+        transaction.setTransactionDate(date);
+        transactionRepository.save(transaction);
+    }
+}
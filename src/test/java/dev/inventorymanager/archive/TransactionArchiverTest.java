@@ -0,0 +1,140 @@
+package dev.inventorymanager.archive;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.TransactionHistoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:archivetest",
+    "inventory.archive.enabled=false"
+})
+public class TransactionArchiverTest {
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) throws IOException {
+        String dir = Files.createTempDirectory("inventory-archive").toString();
+        registry.add("inventory.archive.dir", () -> dir);
+    }
+
+    @Autowired
+    private TransactionArchiver archiver;
+
+    @Autowired
+    private TransactionHistoryService historyService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    public void movesOldMonthsToArchiveAndKeepsHistoryContinuous() throws IOException {
+        User user = userRepository.save(new User("archive-user", "hash"));
+        Item item = new Item("Archived Item", "ARC-1", 0, new BigDecimal("2.00"));
+        item.setUser(user);
+        item = itemRepository.save(item);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int monthsAgo = 6; monthsAgo >= 0; monthsAgo--) {
+            save(item, user, TransactionType.BUY, 10, "1.50", now.minusMonths(monthsAgo).withDayOfMonth(1), "m" + monthsAgo);
+            save(item, user, TransactionType.SELL, 4, "3.25", now.minusMonths(monthsAgo).withDayOfMonth(2), null);
+        }
+        long spending = historyService.getTotalSpendingMinor(user);
+        long sales = historyService.getTotalSalesMinor(user);
+        List<Transaction> before = historyService.findByUser(user);
+
+        long archived = archiver.archiveBefore(YearMonth.now().minusMonths(2));
+        assertThat(archived).isEqualTo(8);
+        assertThat(transactionRepository.countByUser(user)).isEqualTo(6);
+
+        assertThat(historyService.countByUser(user)).isEqualTo(14);
+        assertThat(historyService.getTotalSpendingMinor(user)).isEqualTo(spending).isEqualTo(7 * 1500);
+        assertThat(historyService.getTotalSalesMinor(user)).isEqualTo(sales).isEqualTo(7 * 1300);
+
+        List<Transaction> after = historyService.findByUser(user);
+        assertThat(after).extracting(Transaction::getId)
+            .containsExactlyElementsOf(before.stream().map(Transaction::getId).toList());
+        assertThat(after.get(after.size() - 1).getNotes()).isEqualTo("m6");
+        assertThat(after.get(after.size() - 1).getItem().getSku()).isEqualTo("ARC-1");
+        assertThat(historyService.findByItem(item.getId(), user)).hasSize(14);
+
+        StringWriter csv = new StringWriter();
+        historyService.exportCsv(user, LocalDate.now().minusYears(1), LocalDate.now().plusDays(1), csv);
+        assertThat(csv.toString().lines()).hasSize(15);
+
+        // Nothing left to move; a second run must not duplicate archived rows
+        assertThat(archiver.archiveBefore(YearMonth.now().minusMonths(2))).isZero();
+        assertThat(historyService.findByUser(user)).hasSize(14);
+    }
+
+    @Test
+    public void deletingAnItemRemovesItsArchivedRowsAndTotals() throws IOException {
+        User user = userRepository.save(new User("archive-delete", "hash"));
+        Item kept = new Item("Kept", "ARC-K", 0, new BigDecimal("1.00"));
+        kept.setUser(user);
+        kept = itemRepository.save(kept);
+        Item gone = new Item("Gone", "ARC-G", 0, new BigDecimal("1.00"));
+        gone.setUser(user);
+        gone = itemRepository.save(gone);
+
+        LocalDateTime now = LocalDateTime.now();
+        // The deleted item is alone in the oldest month, and shares the next one
+        save(gone, user, TransactionType.BUY, 5, "2.00", now.minusMonths(6).withDayOfMonth(1), null);
+        save(gone, user, TransactionType.SELL, 1, "4.00", now.minusMonths(5).withDayOfMonth(1), null);
+        save(kept, user, TransactionType.BUY, 3, "1.00", now.minusMonths(5).withDayOfMonth(2), null);
+        save(gone, user, TransactionType.SELL, 2, "4.00", now.withDayOfMonth(1), null);
+        assertThat(archiver.archiveBefore(YearMonth.now().minusMonths(2))).isEqualTo(3);
+
+        inventoryService.delete(gone.getId(), user);
+
+        assertThat(historyService.countByUser(user)).isEqualTo(1);
+        assertThat(historyService.findByUser(user)).extracting(t -> t.getItem().getId()).containsExactly(kept.getId());
+        assertThat(historyService.getTotalSpendingMinor(user)).isEqualTo(300);
+        assertThat(historyService.getTotalSalesMinor(user)).isZero();
+        StringWriter csv = new StringWriter();
+        historyService.exportCsv(user, LocalDate.now().minusYears(1), LocalDate.now().plusDays(1), csv);
+        assertThat(csv.toString().lines()).hasSize(2);
+
+        // The emptied month has no rollups left, so re-archiving does not resurrect it
+        assertThat(archiver.archiveBefore(YearMonth.now().minusMonths(2))).isZero();
+        assertThat(historyService.countByUser(user)).isEqualTo(1);
+    }
+
+    private void save(Item item, User user, TransactionType type, int quantity, String price,
+                      LocalDateTime date, String notes) {
+        Transaction transaction = new Transaction(item, type, quantity, new BigDecimal(price));
+        transaction.setUser(user);
+        transaction.setTransactionDate(date);
+        transaction.setNotes(notes);
+        transactionRepository.save(transaction);
+    }
+}
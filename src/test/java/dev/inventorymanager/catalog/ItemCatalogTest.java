@@ -0,0 +1,111 @@
+package dev.inventorymanager.catalog;
+
+import dev.inventorymanager.dto.DashboardResponse;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.DashboardService;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:catalogtest",
+    "inventory.catalog.enabled=true"
+})
+public class ItemCatalogTest {
+
+    @Autowired
+    private ItemCatalog catalog;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    public void dashboardFromCatalogMatchesDatabase() {
+        User user = userRepository.save(new User("catalog-user", "hash"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            items.add(inventoryService.create(new Item("Item " + i, "CAT-" + i, i * 3, new BigDecimal(i + ".25")), user));
+        }
+        inventoryService.update(items.get(11).getId(), new Item("Item 11", "CAT-11", 2, new BigDecimal("99.99")), user);
+        inventoryService.delete(items.get(0).getId(), user);
+        transactionService.processTransaction(itemRepository.findById(items.get(5).getId()).orElseThrow(),
+            TransactionType.BUY, 40, new BigDecimal("1.00"), user);
+        transactionService.processTransaction(itemRepository.findById(items.get(3).getId()).orElseThrow(),
+            TransactionType.SELL, 8, new BigDecimal("1.00"), user);
+
+        assertThat(catalog.quantityOf(user.getId(), items.get(5).getId())).isEqualTo(55);
+        assertThat(catalog.quantityOf(user.getId(), items.get(3).getId())).isEqualTo(1);
+        assertThat(catalog.quantityOf(user.getId(), items.get(0).getId())).isNull();
+        assertThat(inventoryService.stockOf(items.get(11).getId(), user)).contains(2);
+
+        DashboardResponse fromCatalog = dashboardService.getDashboard(user);
+        assertThat(fromCatalog.getTotalItems()).isEqualTo(itemRepository.countByUser(user));
+        assertThat(fromCatalog.getTotalItemQuantity()).isEqualTo(itemRepository.getTotalQuantityByUser(user));
+        assertThat(fromCatalog.getTotalInventoryValueMinor())
+            .isEqualTo(itemRepository.getTotalInventoryValueMinorByUser(user.getId()));
+        assertThat(fromCatalog.getLowStockItemsCount()).isEqualTo(itemRepository.countLowStockItems(user, 10));
+        assertThat(fromCatalog.getTopValueItems()).extracting(DashboardResponse.ItemSummary::getId)
+            .containsExactlyElementsOf(itemRepository.findTopValueItems(user).stream().limit(5).map(Item::getId).toList());
+        assertThat(fromCatalog.getLowStockItems()).extracting(DashboardResponse.ItemSummary::getQuantity)
+            .containsExactly(1, 2, 3, 6);
+
+        // A reload from the table reproduces the event-maintained state
+        catalog.reload();
+        assertThat(catalog.totals(user.getId(), 10).getTotalQuantity())
+            .isEqualTo(fromCatalog.getTotalItemQuantity().longValue());
+    }
+
+    @Test
+    public void partitionIndexSurvivesChurn() {
+        CatalogPartition partition = new CatalogPartition();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 200_000; step++) {
+            long id = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                partition.remove(id);
+                expected.remove(id);
+            } else {
+                int quantity = random.nextInt(1000);
+                partition.put(id, id * 31, quantity, quantity * 7L);
+                expected.put(id, quantity);
+            }
+        }
+        assertThat(partition.size()).isEqualTo(expected.size());
+        for (long id = 1; id <= 5_000; id++) {
+            assertThat(partition.quantityOf(id)).isEqualTo(expected.get(id));
+        }
+        if (expected.containsKey(42L)) {
+            assertThat(partition.idsWithSkuHash(31 * 42)).containsExactly(42L);
+        } else {
+            assertThat(partition.idsWithSkuHash(31 * 42)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package dev.inventorymanager.conditional;
+
+import dev.inventorymanager.config.WireFormatConfig;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.ItemPatch;
+import dev.inventorymanager.service.TransactionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:conditional",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class ConditionalGetTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void repeatReadsAreAnsweredFromVersionCounters() throws Exception {
+        User user = userRepository.save(new User("conditional", passwordEncoder.encode("password")));
+        TestRestTemplate client = restTemplate.withBasicAuth("conditional", "password");
+        Item sold = inventoryService.create(new Item("Sold", "COND-1", 10, new BigDecimal("2.00")), user);
+        Item repriced = inventoryService.create(new Item("Repriced", "COND-2", 10, new BigDecimal("3.00")), user);
+        transactionService.processSellTransaction(itemRepository.findById(sold.getId()).orElseThrow(), 1,
+            new BigDecimal("2.50"), user);
+        String items = url("/api/items");
+        String soldItem = url("/api/items/" + sold.getId());
+        String transactions = url("/api/transactions");
+
+        ResponseEntity<String> list = client.getForEntity(items, String.class);
+        String listTag = list.getHeaders().getETag();
+        assertThat(listTag).startsWith("\"items-").endsWith("-json\"");
+        assertThat(list.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        assertThat(list.getHeaders().getVary()).contains(HttpHeaders.ACCEPT, HttpHeaders.AUTHORIZATION);
+        String itemTag = client.getForEntity(soldItem, String.class).getHeaders().getETag();
+        String transactionsTag = client.getForEntity(transactions, String.class).getHeaders().getETag();
+
+        // A matching tag is answered without the endpoint's queries (basic auth still loads the user)
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(get(client, items, listTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(statistics.getPrepareStatementCount() - statements).isLessThanOrEqualTo(1);
+        statements = statistics.getPrepareStatementCount();
+        assertThat(get(client, soldItem, itemTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(statistics.getPrepareStatementCount() - statements).isLessThanOrEqualTo(1);
+        assertThat(get(client, transactions, transactionsTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // Another user never matches this user's tags, nor gets a 304 for this user's item
+        userRepository.save(new User("conditional-other", passwordEncoder.encode("password")));
+        TestRestTemplate other = restTemplate.withBasicAuth("conditional-other", "password");
+        assertThat(get(other, items, listTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get(other, transactions, transactionsTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get(other, soldItem, itemTag).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        HttpHeaders future = new HttpHeaders();
+        future.setIfModifiedSince(System.currentTimeMillis() + 60_000);
+        assertThat(other.exchange(soldItem, HttpMethod.GET, new HttpEntity<>(future), String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        // Each representation has its own tag
+        HttpHeaders cbor = new HttpHeaders();
+        cbor.setAccept(List.of(WireFormatConfig.CBOR));
+        cbor.setIfNoneMatch(listTag);
+        ResponseEntity<byte[]> binary = client.exchange(items, HttpMethod.GET, new HttpEntity<>(cbor), byte[].class);
+        assertThat(binary.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(binary.getHeaders().getETag()).isNotEqualTo(listTag).endsWith("-cbor\"");
+
+        // Another item's change moves the lists but not this item
+        ItemPatch patch = new ItemPatch();
+        patch.setPriceMinor(350L);
+        inventoryService.patch(repriced.getId(), patch, user);
+        assertThat(get(client, items, listTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get(client, transactions, transactionsTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get(client, soldItem, itemTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // A sale moves the item it sold
+        transactionService.processSellTransaction(itemRepository.findById(sold.getId()).orElseThrow(), 2,
+            new BigDecimal("2.50"), user);
+        ResponseEntity<String> changed = get(client, soldItem, itemTag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody()).contains("\"quantity\":7");
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(itemTag);
+
+        // Last-Modified is sent once its second has passed, and If-Modified-Since is honored
+        Thread.sleep(1100);
+        ResponseEntity<String> settled = client.getForEntity(transactions, String.class);
+        long lastModified = settled.getHeaders().getLastModified();
+        assertThat(lastModified).isPositive();
+        HttpHeaders since = new HttpHeaders();
+        since.setIfModifiedSince(lastModified);
+        assertThat(client.exchange(transactions, HttpMethod.GET, new HttpEntity<>(since), String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        transactionService.processSellTransaction(itemRepository.findById(sold.getId()).orElseThrow(), 1,
+            new BigDecimal("2.50"), user);
+        assertThat(client.exchange(transactions, HttpMethod.GET, new HttpEntity<>(since), String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // A deleted item is never answered from memory, even with the tag of its 404
+        inventoryService.delete(sold.getId(), user);
+        String goneTag = client.getForEntity(soldItem, String.class).getHeaders().getETag();
+        assertThat(get(client, soldItem, goneTag == null ? changed.getHeaders().getETag() : goneTag)
+            .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<String> get(TestRestTemplate client, String url, String tag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(tag);
+        return client.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+}
@@ -0,0 +1,54 @@
+package dev.inventorymanager.config;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the durable profile against a fresh file database. Startup fails if
+ * db/schema.sql and the entity mappings drift apart, because Hibernate runs
+ * with ddl-auto=validate in this profile.
+ */
+@SpringBootTest
+@ActiveProfiles("durable")
+public class DurableStorageProfileTest {
+
+    private static Path storageDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) throws IOException {
+        storageDir = Files.createTempDirectory("inventory-durable");
+        registry.add("inventory.storage.path", () -> storageDir.resolve("inventorydb").toString());
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    public void schemaScriptMatchesEntityMappings() {
+        User user = userRepository.save(new User("durable-user", "hash"));
+        Item item = new Item("Durable Item", "DUR-1", 3, new BigDecimal("4.50"));
+        item.setUser(user);
+        itemRepository.save(item);
+
+        assertThat(itemRepository.findByUser(user)).extracting(Item::getSku).containsExactly("DUR-1");
+        assertThat(storageDir.resolve("inventorydb.mv.db")).exists();
+    }
+}
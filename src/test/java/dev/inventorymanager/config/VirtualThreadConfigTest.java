@@ -0,0 +1,43 @@
+package dev.inventorymanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the reflective virtual-thread lookup behind {@code inventory.web.thread-mode=virtual}
+ * on whichever Java version runs the build.
+ */
+public class VirtualThreadConfigTest {
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    public void runsTasksOnNamedVirtualThreads() throws Exception {
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadExecutor("test-vt-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+            assertThat(thread.getName()).startsWith("test-vt-");
+            assertThat((Boolean) Thread.class.getMethod("isVirtual").invoke(thread)).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisabledIf("virtualThreadsAvailable")
+    public void failsFastBeforeJava21() {
+        assertThatThrownBy(() -> VirtualThreadConfig.newVirtualThreadExecutor("test-vt-"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining(String.valueOf(Runtime.version().feature()));
+    }
+}
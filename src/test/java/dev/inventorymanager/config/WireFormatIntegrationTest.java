@@ -0,0 +1,214 @@
+package dev.inventorymanager.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionStatus;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:wireformat"
+})
+public class WireFormatIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatIntegrationTest.class);
+
+    private static final int BENCHMARK_TRANSACTIONS = 2_000;
+    private static final int BENCHMARK_ROUNDS = 20;
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jsonConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Test
+    public void listsExportsAndBatchesNegotiateBinaryFormats() throws Exception {
+        User user = userRepository.save(new User("wire-format", passwordEncoder.encode("password")));
+        TestRestTemplate client = restTemplate.withBasicAuth("wire-format", "password");
+        String base = "http://localhost:" + port;
+        Item item = inventoryService.create(new Item("Wire", "WIRE-1", 100, new BigDecimal("2.50")), user);
+        for (int i = 0; i < 5; i++) {
+            transactionService.processSellTransaction(itemRepository.findById(item.getId()).orElseThrow(), 1,
+                new BigDecimal("3.25"), user);
+        }
+
+        // JSON stays the default
+        ResponseEntity<String> json = client.getForEntity(base + "/api/transactions", String.class);
+        assertThat(json.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        Transaction[] fromJson = jsonConverter.getObjectMapper().readValue(json.getBody(), Transaction[].class);
+
+        for (Map.Entry<MediaType, ObjectMapper> format : Map.of(
+                WireFormatConfig.CBOR, cborConverter.getObjectMapper(),
+                WireFormatConfig.SMILE, smileConverter.getObjectMapper()).entrySet()) {
+            ResponseEntity<byte[]> binary = client.exchange(base + "/api/transactions", HttpMethod.GET,
+                new HttpEntity<>(accept(format.getKey())), byte[].class);
+            assertThat(binary.getHeaders().getContentType().isCompatibleWith(format.getKey())).isTrue();
+            assertThat(binary.getBody().length).isLessThan(json.getBody().getBytes(StandardCharsets.UTF_8).length);
+            Transaction[] decoded = format.getValue().readValue(binary.getBody(), Transaction[].class);
+            assertThat(decoded).hasSize(fromJson.length);
+            for (int i = 0; i < decoded.length; i++) {
+                assertThat(decoded[i].getId()).isEqualTo(fromJson[i].getId());
+                assertThat(decoded[i].getTotalAmountMinor()).isEqualTo(325);
+                assertThat(decoded[i].getTransactionDate()).isEqualTo(fromJson[i].getTransactionDate());
+                assertThat(decoded[i].getItem().getPriceMinor()).isEqualTo(250);
+            }
+
+            ResponseEntity<byte[]> export = client.exchange(base + "/api/transactions/export", HttpMethod.GET,
+                new HttpEntity<>(accept(format.getKey())), byte[].class);
+            assertThat(export.getHeaders().getContentType().isCompatibleWith(format.getKey())).isTrue();
+            JsonNode rows = format.getValue().readTree(export.getBody());
+            assertThat(rows).hasSize(5);
+            assertThat(rows.get(0).get("sku").asText()).isEqualTo("WIRE-1");
+            assertThat(rows.get(0).get("totalAmount").decimalValue()).isEqualByComparingTo("3.25");
+        }
+
+        HttpHeaders csvFirst = new HttpHeaders();
+        csvFirst.set(HttpHeaders.ACCEPT, "text/csv, application/cbor;q=0.5");
+        assertThat(client.exchange(base + "/api/transactions/export", HttpMethod.GET, new HttpEntity<>(csvFirst),
+            String.class).getBody()).startsWith("id,date,itemId,sku");
+
+        // Batch bodies can be sent in a binary format too
+        HttpHeaders smileBody = new HttpHeaders();
+        smileBody.setContentType(WireFormatConfig.SMILE);
+        byte[] order = smileConverter.getObjectMapper().writeValueAsBytes(Map.of("lines", List.of(
+            Map.of("itemId", item.getId(), "type", "SELL", "quantity", 2, "pricePerUnit", new BigDecimal("4.10")))));
+        ResponseEntity<String> placed = client.postForEntity(base + "/api/transactions/orders",
+            new HttpEntity<>(order, smileBody), String.class);
+        assertThat(placed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(placed.getBody()).contains("\"totalAmount\":8.20");
+    }
+
+    @Test
+    public void binaryFormatsAreSmallerThanJson() throws Exception {
+        List<Transaction> page = page(100);
+        int json = jsonConverter.getObjectMapper().writeValueAsBytes(page).length;
+        int cbor = cborConverter.getObjectMapper().writeValueAsBytes(page).length;
+        int smile = smileConverter.getObjectMapper().writeValueAsBytes(page).length;
+        assertThat(cbor).isLessThan(json);
+        assertThat(smile).isLessThan(cbor);
+    }
+
+    /**
+     * Bytes and serializer CPU time per transaction for a page of transactions, in
+     * each format, through the mappers the endpoints use. Logs the figures.
+     *
+     * Run with {@code mvn test -Dtest=WireFormatIntegrationTest#serializationBenchmark -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void serializationBenchmark() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isCurrentThreadCpuTimeSupported());
+
+        List<Transaction> page = page(BENCHMARK_TRANSACTIONS);
+        Map<String, ObjectMapper> mappers = Map.of("JSON", jsonConverter.getObjectMapper(),
+            "CBOR", cborConverter.getObjectMapper(), "Smile", smileConverter.getObjectMapper());
+        for (Map.Entry<String, ObjectMapper> format : new TreeMap<>(mappers).entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+                mapper.writeValueAsBytes(page);
+            }
+            long cpu = threads.getCurrentThreadCpuTime();
+            int size = 0;
+            for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+                size = mapper.writeValueAsBytes(page).length;
+            }
+            double nanos = (double) (threads.getCurrentThreadCpuTime() - cpu) / BENCHMARK_ROUNDS / BENCHMARK_TRANSACTIONS;
+            log.info(String.format("%-5s %6.1f bytes, %6.0f ns CPU per transaction", format.getKey(),
+                (double) size / BENCHMARK_TRANSACTIONS, nanos));
+        }
+    }
+
+    /**
+     * A page of transactions over 50 items, as GET /api/transactions returns them.
+     */
+    private static List<Transaction> page(int size) {
+        User user = new User("wire-benchmark", "hash");
+        user.setId(1L);
+        List<Transaction> page = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Item item = new Item("Benchmark item " + (i % 50), "BENCH-" + (i % 50), 1000 - i % 1000,
+                BigDecimal.valueOf(1999 + i % 50, 2));
+            item.setId((long) (i % 50));
+            item.setVersion((long) i);
+            item.setUser(user);
+            Transaction transaction = new Transaction(item, i % 3 == 0 ? TransactionType.BUY : TransactionType.SELL,
+                1 + i % 9, item.getPriceMinor());
+            transaction.setId((long) i);
+            transaction.setUser(user);
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setTransactionDate(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i));
+            transaction.setInventoryBefore(1000);
+            transaction.setInventoryAfter(990);
+            page.add(transaction);
+        }
+        return page;
+    }
+
+    private static HttpHeaders accept(MediaType type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(type));
+        return headers;
+    }
+}
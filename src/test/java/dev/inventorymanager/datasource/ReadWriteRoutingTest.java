@@ -0,0 +1,105 @@
+package dev.inventorymanager.datasource;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.DashboardService;
+import dev.inventorymanager.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A second in-memory database stands in for the replica. Nothing replicates to it:
+ * the test writes its rows and heartbeat by hand, so the two databases can be told
+ * apart by their item counts.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routingprimary",
+    "inventory.datasource.routing.enabled=true",
+    "inventory.datasource.replica.url=jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1",
+    "inventory.datasource.replica.max-staleness-ms=5000",
+    "inventory.datasource.replica.heartbeat-ms=3600000"
+})
+public class ReadWriteRoutingTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private RoutingDataSource routingDataSource;
+
+    @AfterEach
+    public void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void readOnlyServiceReadsFollowReplicaFreshness() {
+        JdbcTemplate replica = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1", "sa", ""));
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(replica.getDataSource());
+
+        User user = userRepository.save(new User("routing-user", "hash"));
+        inventoryService.create(new Item("On primary", "RP-1", 5, BigDecimal.ONE), user);
+        replica.update("INSERT INTO users (id, username, password, role, created_at, enabled) VALUES (?, ?, 'hash', 'USER', CURRENT_TIMESTAMP, TRUE)",
+            user.getId(), user.getUsername());
+        for (int i = 0; i < 3; i++) {
+            replica.update("INSERT INTO items (id, name, sku, quantity, price, user_id) VALUES (?, ?, ?, 1, 1.00, ?)",
+                1000 + i, "On replica " + i, "RR-" + i, user.getId());
+        }
+
+        // No heartbeat on the replica yet: it cannot be trusted
+        lagMonitor.refresh();
+        assertThat(dashboardService.getDashboard(user).getTotalItems()).isEqualTo(1);
+
+        // Caught up and within budget: service reads move to the replica
+        setReplicaBeat(replica, System.currentTimeMillis() - 1000);
+        long replicaReads = routingDataSource.getReplicaReads();
+        assertThat(dashboardService.getDashboard(user).getTotalItems()).isEqualTo(3);
+        assertThat(inventoryService.list(user)).hasSize(3);
+        assertThat(routingDataSource.getReplicaReads()).isGreaterThan(replicaReads);
+
+        // Read-your-writes: after the user's own write, their reads stay on the primary
+        // until the replica has a beat later than the write
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user.getUsername(), null, List.of()));
+        inventoryService.create(new Item("Also on primary", "RP-2", 5, BigDecimal.ONE), user);
+        assertThat(dashboardService.getDashboard(user).getTotalItems()).isEqualTo(2);
+        setReplicaBeat(replica, System.currentTimeMillis() + 1);
+        assertThat(dashboardService.getDashboard(user).getTotalItems()).isEqualTo(3);
+
+        // Beyond the staleness budget everything reads from the primary
+        setReplicaBeat(replica, System.currentTimeMillis() - 60_000);
+        assertThat(dashboardService.getDashboard(user).getTotalItems()).isEqualTo(2);
+        assertThat(lagMonitor.lagMillis()).isGreaterThanOrEqualTo(60_000);
+    }
+
+    private void setReplicaBeat(JdbcTemplate replica, long beatMillis) {
+        if (replica.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", beatMillis) == 0) {
+            replica.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", beatMillis);
+        }
+        lagMonitor.refresh();
+    }
+}
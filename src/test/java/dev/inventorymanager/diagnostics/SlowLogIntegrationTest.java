@@ -0,0 +1,74 @@
+package dev.inventorymanager.diagnostics;
+
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:slowlogtest",
+    "inventory.slowlog.request-threshold-ms=0",
+    "inventory.slowlog.sql-threshold-ms=0"
+})
+public class SlowLogIntegrationTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void capturesRequestsAndStatementsForAdmins() {
+        User admin = new User("slowlog-admin", passwordEncoder.encode("admin"));
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+        userRepository.save(new User("slowlog-user", passwordEncoder.encode("user")));
+
+        String base = "http://localhost:" + port;
+        ResponseEntity<String> items = restTemplate.withBasicAuth("slowlog-user", "user")
+            .getForEntity(base + "/api/items", String.class);
+        assertThat(items.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> forbidden = restTemplate.withBasicAuth("slowlog-user", "user")
+            .getForEntity(base + "/api/admin/slow-log", String.class);
+        assertThat(forbidden.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        ResponseEntity<SlowLogEntry[]> log = restTemplate.withBasicAuth("slowlog-admin", "admin")
+            .getForEntity(base + "/api/admin/slow-log", SlowLogEntry[].class);
+        assertThat(log.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(Arrays.stream(log.getBody()))
+            .anySatisfy(entry -> {
+                assertThat(entry.getKind()).isEqualTo(SlowLogEntry.Kind.REQUEST);
+                assertThat(entry.getEndpoint()).isEqualTo("GET /api/items");
+                assertThat(entry.getPrincipal()).isEqualTo("slowlog-user");
+                assertThat(entry.getSqlStatements()).isGreaterThan(0);
+            })
+            .anySatisfy(entry -> {
+                assertThat(entry.getKind()).isEqualTo(SlowLogEntry.Kind.SQL);
+                assertThat(entry.getSql()).containsIgnoringCase("from items");
+            });
+    }
+
+    @Test
+    public void redactsInlineLiterals() {
+        assertThat(SlowLogRecorder.redact("select * from transactions t0_ where t0_.type='BUY' and t0_.quantity<10"))
+            .isEqualTo("select * from transactions t0_ where t0_.type='?' and t0_.quantity<?");
+    }
+}
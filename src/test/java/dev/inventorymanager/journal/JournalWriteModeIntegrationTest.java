@@ -0,0 +1,149 @@
+package dev.inventorymanager.journal;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.BulkItemService;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.OrderLine;
+import dev.inventorymanager.service.TransactionService;
+import dev.inventorymanager.service.WriteMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:journaltest",
+    "inventory.transactions.write-mode=journal",
+    "inventory.journal.projector-max-attempts=2"
+})
+public class JournalWriteModeIntegrationTest {
+
+    @DynamicPropertySource
+    static void journalDir(DynamicPropertyRegistry registry) throws IOException {
+        String dir = Files.createTempDirectory("inventory-journal").toString();
+        registry.add("inventory.journal.dir", () -> dir);
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BulkItemService bulkItemService;
+
+    @Autowired
+    private JournalProjector projector;
+
+    @Autowired
+    private TransactionJournal journal;
+
+    @Autowired
+    private JournalHealthIndicator journalHealth;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    public void journaledTransactionsAreProjectedIntoTables() {
+        assertThat(transactionService.getWriteMode()).isEqualTo(WriteMode.JOURNAL);
+        User user = userRepository.save(new User("journal-user", "hash"));
+        Item item = inventoryService.create(new Item("Journal Item", "JRN-1", 10, new BigDecimal("3.00")), user);
+
+        Transaction buy = transactionService.processTransaction(item, TransactionType.BUY, 5,
+            new BigDecimal("3.00"), user, "restock");
+        Transaction sell = transactionService.processTransaction(item, TransactionType.SELL, 12,
+            new BigDecimal("4.00"), user, null);
+        assertThat(buy.getInventoryAfter()).isEqualTo(15);
+        assertThat(sell.getInventoryBefore()).isEqualTo(15);
+        assertThat(sell.getInventoryAfter()).isEqualTo(3);
+        assertThatThrownBy(() -> transactionService.processTransaction(item, TransactionType.SELL, 4,
+            new BigDecimal("4.00"), user, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Available: 3");
+
+        projector.awaitProjected(journal.getLastSeq());
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(3);
+        assertThat(transactionRepository.findByUserOrderByTransactionDateDesc(user))
+            .extracting(Transaction::getId)
+            .containsExactlyInAnyOrder(buy.getId(), sell.getId());
+        assertThat(transactionRepository.findById(buy.getId())).get()
+            .extracting(Transaction::getNotes).isEqualTo("restock");
+
+        // A direct edit hands the quantity back to the row; later journaled writes start from it
+        Item edited = new Item("Journal Item", "JRN-1", 50, new BigDecimal("3.00"));
+        inventoryService.update(item.getId(), edited, user);
+        Transaction after = transactionService.processTransaction(item, TransactionType.SELL, 1,
+            new BigDecimal("4.00"), user, null);
+        assertThat(after.getInventoryAfter()).isEqualTo(49);
+        assertThat(inventoryService.get(item.getId(), user)).get().extracting(Item::getQuantity).isEqualTo(49);
+
+        // So does an order, which writes the row directly after the journal has caught up
+        List<Transaction> order = transactionService.processOrder(List.of(
+            new OrderLine(item.getId(), TransactionType.SELL, 9, new BigDecimal("4.00"), null),
+            new OrderLine(item.getId(), TransactionType.SELL, 10, new BigDecimal("4.00"), null)), user);
+        assertThat(order).extracting(Transaction::getInventoryBefore).containsExactly(49, 40);
+        Transaction next = transactionService.processTransaction(item, TransactionType.SELL, 1,
+            new BigDecimal("4.00"), user, null);
+        assertThat(next.getInventoryBefore()).isEqualTo(30);
+
+        // And a stock-take, which also records the difference as an adjustment
+        assertThat(bulkItemService.stockTake(Map.of("JRN-1", 25), null, user).getAdjustments()).isEqualTo(1);
+        Transaction counted = transactionService.processTransaction(item, TransactionType.SELL, 1,
+            new BigDecimal("4.00"), user, null);
+        assertThat(counted.getInventoryBefore()).isEqualTo(25);
+    }
+
+    @Test
+    public void aRecordThatKeepsFailingIsQuarantinedAndLaterRecordsAreProjected() throws IOException {
+        User user = userRepository.save(new User("journal-poison", "hash"));
+        Item item = inventoryService.create(new Item("Poison Item", "JRN-P", 10, new BigDecimal("1.00")), user);
+
+        // A sale of an item that does not exist fails the foreign key on every attempt
+        JournalRecord poison = new JournalRecord(-1, Long.MAX_VALUE, user.getId(), TransactionType.SELL, 1, 100,
+            System.currentTimeMillis(), 1, 0, null);
+        long poisonSeq = journal.append(poison, () -> { });
+        journal.awaitDurable(poisonSeq);
+        Transaction sale = transactionService.processTransaction(item, TransactionType.SELL, 2,
+            new BigDecimal("1.00"), user, null);
+
+        projector.awaitProjected(journal.getLastSeq());
+        assertThat(jdbcTemplate.queryForObject("SELECT item_id FROM journal_dead_letters WHERE seq = ?",
+            Long.class, poisonSeq)).isEqualTo(Long.MAX_VALUE);
+        assertThat(transactionRepository.findById(sale.getId())).isPresent();
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(8);
+
+        Health health = journalHealth.health();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("quarantined", 1L).containsEntry("lag", 0L);
+    }
+}
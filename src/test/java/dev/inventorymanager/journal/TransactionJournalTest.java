@@ -0,0 +1,108 @@
+package dev.inventorymanager.journal;
+
+import dev.inventorymanager.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransactionJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void recoversRecordsAcrossSegmentsAfterReopen() throws Exception {
+        TransactionJournal journal = new TransactionJournal(dir, SEGMENT_SIZE);
+        journal.open();
+        long last = 0;
+        for (int i = 1; i <= 200; i++) {
+            last = journal.append(record(i, i % 7, i), null);
+        }
+        journal.awaitDurable(last);
+        journal.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.filter(p -> p.toString().endsWith(".journal")).count()).isGreaterThan(1);
+        }
+
+        TransactionJournal reopened = new TransactionJournal(dir, SEGMENT_SIZE);
+        reopened.open();
+        assertThat(reopened.getLastSeq()).isEqualTo(200);
+        List<JournalRecord> tail = reopened.read(150, 1000);
+        assertThat(tail).extracting(JournalRecord::getSeq).first().isEqualTo(151L);
+        assertThat(tail).hasSize(50);
+        assertThat(tail.get(49).getPricePerUnitMinor()).isEqualTo(250);
+        assertThat(reopened.append(record(201, 1, 1), null)).isEqualTo(201);
+        reopened.close();
+    }
+
+    @Test
+    public void ignoresTornWriteAtEndOfSegment() throws Exception {
+        TransactionJournal journal = new TransactionJournal(dir, SEGMENT_SIZE);
+        journal.open();
+        journal.append(record(1, 1, 10), null);
+        long second = journal.append(record(2, 1, 20), null);
+        journal.awaitDurable(second);
+        journal.close();
+
+        // Corrupt one byte in the body of the second record
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(p -> p.toString().endsWith(".journal")).collect(Collectors.toList()).get(0);
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), 72 + 20);
+        }
+
+        TransactionJournal reopened = new TransactionJournal(dir, SEGMENT_SIZE);
+        reopened.open();
+        assertThat(reopened.getLastSeq()).isEqualTo(1);
+        assertThat(reopened.append(record(3, 1, 30), null)).isEqualTo(2);
+        reopened.close();
+    }
+
+    @Test
+    public void rebuildsQuantitiesFromSnapshotAndJournalTail() throws Exception {
+        TransactionJournal journal = new TransactionJournal(dir, SEGMENT_SIZE);
+        journal.open();
+        QuantityState state = new QuantityState(dir);
+        for (int i = 1; i <= 10; i++) {
+            JournalRecord record = record(i, i % 3, i * 10);
+            journal.append(record, () -> state.apply(record.getItemId(), record.getInventoryAfter()));
+        }
+        QuantityState.Snapshot[] snapshot = new QuantityState.Snapshot[1];
+        journal.withAppendsPaused(seq -> snapshot[0] = state.capture(seq));
+        state.writeSnapshot(snapshot[0]);
+
+        long last = journal.append(record(11, 0, 999), () -> state.apply(0, 999));
+        journal.awaitDurable(last);
+        journal.close();
+
+        TransactionJournal reopened = new TransactionJournal(dir, SEGMENT_SIZE);
+        reopened.open();
+        QuantityState recovered = new QuantityState(dir);
+        recovered.recover(reopened);
+        assertThat(recovered.getSnapshotSeq()).isEqualTo(10);
+        assertThat(recovered.get(0)).isEqualTo(999);
+        assertThat(recovered.get(1)).isEqualTo(100);
+        assertThat(recovered.get(2)).isEqualTo(80);
+        reopened.close();
+    }
+
+    private static JournalRecord record(long transactionId, long itemId, int after) {
+        return new JournalRecord(transactionId, itemId, 1, TransactionType.BUY, 1, 250,
+            System.currentTimeMillis(), after - 1, after, null);
+    }
+}
@@ -0,0 +1,71 @@
+package dev.inventorymanager.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test against an in-process instance of the application.
+ *
+ * Skipped by default because it takes a minute or more. Enable with
+ * {@code mvn test -Dtest=InventoryLoadTest -Dloadtest=true}; add
+ * {@code -Dloadtest.saturate=true} to search for the saturation point and
+ * {@code -Dloadtest.write-baseline=path} to record a new baseline.
+ *
+ * The slow-client run compares request execution modes: run it once as is and
+ * once with {@code -Dinventory.web.thread-mode=virtual} (Java 21), e.g.
+ * {@code mvn test -Dtest=InventoryLoadTest#holdsSlowClients -Dloadtest=true -Dloadtest.slow-clients=2000}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class InventoryLoadTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Test
+    public void staysWithinBaseline() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port);
+        generator.setUp(profile);
+
+        LoadReport report;
+        if (Boolean.getBoolean("loadtest.saturate")) {
+            SaturationSearch.Result result = new SaturationSearch(generator).search(profile);
+            System.out.println(result);
+            report = result.getLastHealthyReport();
+            assertThat(report).as("no rate step stayed within budget").isNotNull();
+        } else {
+            report = generator.run(profile);
+        }
+        System.out.println(report);
+
+        String writeBaseline = System.getProperty("loadtest.write-baseline");
+        if (writeBaseline != null) {
+            RegressionGate.writeBaseline(report, Paths.get(writeBaseline));
+        }
+
+        List<String> regressions = RegressionGate.fromClasspath("/loadtest/baseline.properties").check(report);
+        assertThat(regressions).isEmpty();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest.slow-clients", matches = "[1-9][0-9]*")
+    public void holdsSlowClients() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port);
+        generator.setUp(profile);
+
+        SlowClientReport report = generator.runSlowClients(
+            profile.getSlowClients(), profile.getSlowBodyTime(), profile.getDuration());
+        System.out.println("thread mode " + System.getProperty("inventory.web.thread-mode", "platform") + ": " + report);
+
+        assertThat(report.totalCount()).isPositive();
+        assertThat(report.errorRate()).isLessThanOrEqualTo(profile.getMaxErrorRate());
+    }
+}
@@ -0,0 +1,380 @@
+package dev.inventorymanager.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.inventorymanager.loadtest.LoadProfile.Operation;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator for a running Inventory Manager instance.
+ *
+ * The generator registers N tenants, gives each of them a small catalog, then
+ * fires requests at a fixed arrival rate regardless of how fast the server
+ * answers. Requests travel through the real stack (Tomcat, Spring Security,
+ * controllers, JPA), so the numbers include everything a client would see.
+ *
+ * It can be driven from {@link InventoryLoadTest} against an in-process app or
+ * from the command line against any base URL:
+ * <pre>
+ * java -cp target/test-classes:... dev.inventorymanager.loadtest.LoadGenerator \
+ *     http://localhost:8080 [--saturate] [--slow-clients n] [--baseline path] [--write-baseline path]
+ * </pre>
+ */
+public class LoadGenerator {
+
+    /** Requests still outstanding beyond this are counted as client-side drops. */
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private static final String TENANT_PASSWORD = "load-test-password";
+
+    /** Pieces a slow client splits its request body into. */
+    private static final int SLOW_BODY_CHUNKS = 10;
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService httpExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "loadtest-http");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Tenant> tenants = new ArrayList<>();
+
+    public LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Registers the tenants and their catalogs. Safe to call once per generator;
+     * tenant names carry a run id so repeated runs against one server do not collide.
+     * @param profile The profile describing how many tenants and items to create
+     */
+    public void setUp(LoadProfile profile) throws IOException, InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int t = 0; t < profile.getTenants(); t++) {
+            Tenant tenant = new Tenant("load-" + runId + "-" + t, httpExecutor);
+            send(tenant, "POST", "/api/auth/register",
+                "{\"username\":\"" + tenant.username + "\",\"password\":\"" + TENANT_PASSWORD + "\"}", false);
+            for (int i = 0; i < profile.getItemsPerTenant(); i++) {
+                String body = String.format(
+                    "{\"name\":\"Load item %d\",\"sku\":\"LT-%d-%d\",\"quantity\":1000000,\"price\":%d.25}",
+                    i, t, i, 5 + (i % 40));
+                HttpResponse<String> response = send(tenant, "POST", "/api/items", body, true);
+                JsonNode created = objectMapper.readTree(response.body());
+                tenant.itemIds.add(created.get("id").asLong());
+            }
+            tenants.add(tenant);
+        }
+    }
+
+    /**
+     * Runs the warmup phase followed by the measured phase of the profile.
+     * @param profile The profile to run
+     * @return Results of the measured phase
+     */
+    public LoadReport run(LoadProfile profile) {
+        if (tenants.isEmpty()) {
+            throw new IllegalStateException("setUp must be called before run");
+        }
+        if (!profile.getWarmup().isZero()) {
+            drive(profile, profile.getWarmup());
+        }
+        return drive(profile, profile.getDuration());
+    }
+
+    private LoadReport drive(LoadProfile profile, Duration duration) {
+        LoadReport report = new LoadReport(profile.getRequestsPerSecond());
+        Operation[] wheel = weightedWheel(profile.getMix());
+        SplittableRandom random = new SplittableRandom(42);
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long intervalNanos = (long) (1_000_000_000L / profile.getRequestsPerSecond());
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long n = 0; ; n++) {
+            long intended = start + n * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = wheel[random.nextInt(wheel.length)];
+            if (inFlight.get() >= MAX_IN_FLIGHT) {
+                report.record(operation, (System.nanoTime() - intended) / 1000, false);
+                continue;
+            }
+
+            Tenant tenant = tenants.get(random.nextInt(tenants.size()));
+            long itemId = tenant.itemIds.get(random.nextInt(tenant.itemIds.size()));
+            HttpRequest request = buildRequest(tenant, operation, itemId, 1 + random.nextInt(5));
+
+            inFlight.incrementAndGet();
+            tenant.client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    boolean success = error == null && response.statusCode() < 400;
+                    report.record(operation, (System.nanoTime() - intended) / 1000, success);
+                });
+        }
+
+        // Let outstanding requests finish so their (possibly long) latencies are counted.
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Runs a closed-loop slow-client phase: {@code clients} concurrent clients each
+     * send a buy whose body trickles in over {@code bodyTime}, and send the next
+     * as soon as the response arrives, until {@code duration} has passed.
+     * @param clients Concurrent clients (and connections)
+     * @param bodyTime How long each request body takes to arrive
+     * @param duration How long to keep starting new requests
+     * @return Throughput, latency and peak resource use of the run
+     */
+    public SlowClientReport runSlowClients(int clients, Duration bodyTime, Duration duration)
+            throws InterruptedException {
+        if (tenants.isEmpty()) {
+            throw new IllegalStateException("setUp must be called before runSlowClients");
+        }
+        SlowClientReport report = new SlowClientReport(clients, bodyTime);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-slow-body");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(report::sampleResources, 0, 100, TimeUnit.MILLISECONDS);
+        CountDownLatch finished = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try {
+            for (int c = 0; c < clients; c++) {
+                sendSlow(tenants.get(c % tenants.size()), report, scheduler, bodyTime, end, finished);
+            }
+            // Requests started just before the end still get to finish
+            finished.await(duration.toMillis() + bodyTime.toMillis() + TimeUnit.MINUTES.toMillis(2), TimeUnit.MILLISECONDS);
+            report.setElapsedNanos(System.nanoTime() - start);
+            report.sampleResources();
+        } finally {
+            scheduler.shutdownNow();
+        }
+        return report;
+    }
+
+    private void sendSlow(Tenant tenant, SlowClientReport report, ScheduledExecutorService scheduler,
+                          Duration bodyTime, long end, CountDownLatch finished) {
+        if (System.nanoTime() >= end) {
+            finished.countDown();
+            return;
+        }
+        long itemId = tenant.itemIds.get(ThreadLocalRandom.current().nextInt(tenant.itemIds.size()));
+        byte[] body = String.format(
+            "{\"itemId\":%d,\"type\":\"BUY\",\"quantity\":1,\"pricePerUnit\":12.50}", itemId)
+            .getBytes(StandardCharsets.UTF_8);
+        HttpRequest request = tenant.request("/api/transactions")
+            .timeout(bodyTime.plusMinutes(2))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.fromPublisher(
+                new SlowBodyPublisher(body, SLOW_BODY_CHUNKS, bodyTime, scheduler)))
+            .build();
+        long sent = System.nanoTime();
+        tenant.client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                boolean success = error == null && response.statusCode() < 400;
+                report.record((System.nanoTime() - sent) / 1000, success);
+                sendSlow(tenant, report, scheduler, bodyTime, end, finished);
+            });
+    }
+
+    private HttpRequest buildRequest(Tenant tenant, Operation operation, long itemId, int quantity) {
+        switch (operation) {
+            case ITEM_READ:
+                return tenant.request("/api/items/" + itemId).GET().build();
+            case BUY:
+            case SELL:
+                String body = String.format(
+                    "{\"itemId\":%d,\"type\":\"%s\",\"quantity\":%d,\"pricePerUnit\":12.50}",
+                    itemId, operation, quantity);
+                return tenant.request("/api/transactions")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            case DASHBOARD:
+                return tenant.request("/api/dashboard").GET().build();
+            case ORDER:
+                return tenant.request("/api/transactions/orders")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(orderBody(tenant, itemId, quantity)))
+                    .build();
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    /**
+     * Lines on the item and its two neighbours, alternately selling and buying so
+     * stock stays level. Every other order lists them backwards, so concurrent
+     * orders overlap in opposing line orders.
+     */
+    private static String orderBody(Tenant tenant, long itemId, int quantity) {
+        int first = tenant.itemIds.indexOf(itemId);
+        StringBuilder body = new StringBuilder("{\"lines\":[");
+        for (int k = 0; k < 3; k++) {
+            int offset = quantity % 2 == 0 ? 2 - k : k;
+            long lineItem = tenant.itemIds.get((first + offset) % tenant.itemIds.size());
+            if (k > 0) {
+                body.append(',');
+            }
+            body.append(String.format(
+                "{\"itemId\":%d,\"type\":\"%s\",\"quantity\":%d,\"pricePerUnit\":12.50}",
+                lineItem, offset % 2 == 0 ? "SELL" : "BUY", quantity));
+        }
+        return body.append("]}").toString();
+    }
+
+    private HttpResponse<String> send(Tenant tenant, String method, String path, String body, boolean authenticated)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder builder = authenticated
+            ? tenant.request(path)
+            : HttpRequest.newBuilder(URI.create(baseUrl + path));
+        HttpRequest request = builder
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = tenant.client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IOException(method + " " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private static Operation[] weightedWheel(Map<Operation, Integer> mix) {
+        List<Operation> wheel = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+        return wheel.toArray(new Operation[0]);
+    }
+
+    /**
+     * Simulated tenant. Each tenant keeps its own cookie jar so that after the first
+     * Basic-authenticated request it rides on its session, like a browser would,
+     * instead of paying for a BCrypt check on every call.
+     */
+    private class Tenant {
+        private final String username;
+        private final String authorization;
+        private final HttpClient client;
+        private final List<Long> itemIds = new ArrayList<>();
+
+        Tenant(String username, ExecutorService executor) {
+            this.username = username;
+            this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + TENANT_PASSWORD).getBytes(StandardCharsets.UTF_8));
+            this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        }
+
+        HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization);
+        }
+    }
+
+    /**
+     * Command-line entry point.
+     * Usage: {@code LoadGenerator <baseUrl> [--saturate] [--slow-clients n] [--baseline file] [--write-baseline file]}
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoadGenerator <baseUrl> [--saturate] [--slow-clients n] [--baseline file] [--write-baseline file]");
+            System.exit(2);
+        }
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        LoadGenerator generator = new LoadGenerator(args[0]);
+        generator.setUp(profile);
+
+        boolean saturate = false;
+        int slowClients = profile.getSlowClients();
+        Path baseline = null;
+        Path writeBaseline = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--saturate":
+                    saturate = true;
+                    break;
+                case "--slow-clients":
+                    slowClients = Integer.parseInt(args[++i]);
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(args[++i]);
+                    break;
+                case "--write-baseline":
+                    writeBaseline = Paths.get(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        if (slowClients > 0) {
+            System.out.println(generator.runSlowClients(slowClients, profile.getSlowBodyTime(), profile.getDuration()));
+            System.exit(0);
+        }
+
+        LoadReport report;
+        if (saturate) {
+            SaturationSearch.Result result = new SaturationSearch(generator).search(profile);
+            System.out.println(result);
+            report = result.getLastHealthyReport();
+        } else {
+            report = generator.run(profile);
+        }
+        System.out.println(report);
+
+        if (writeBaseline != null && report != null) {
+            RegressionGate.writeBaseline(report, writeBaseline);
+        }
+        if (baseline != null && report != null) {
+            List<String> regressions = RegressionGate.fromFile(baseline).check(report);
+            regressions.forEach(System.err::println);
+            System.exit(regressions.isEmpty() ? 0 : 1);
+        }
+        System.exit(0);
+    }
+}
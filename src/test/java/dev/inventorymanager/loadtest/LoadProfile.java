@@ -0,0 +1,205 @@
+package dev.inventorymanager.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Describes one load-test run: how many tenants to simulate, the request mix,
+ * the open-loop arrival rate and how long to run.
+ *
+ * Every setting can be overridden with a {@code loadtest.*} system property so
+ * the same profile drives both the JUnit entry point and the command line:
+ * <pre>
+ * mvn test -Dloadtest=true -Dloadtest.rate=100 -Dloadtest.tenants=50 \
+ *     -Dloadtest.mix=ITEM_READ:60,BUY:15,SELL:15,DASHBOARD:10
+ * </pre>
+ */
+public class LoadProfile {
+
+    /** The kinds of request the generator issues, one per measured endpoint. */
+    public enum Operation {
+        ITEM_READ,
+        BUY,
+        SELL,
+        DASHBOARD,
+        /** A three-line order over neighbouring items, lines in alternating directions */
+        ORDER
+    }
+
+    private int tenants = 20;
+    private int itemsPerTenant = 50;
+    private double requestsPerSecond = 50;
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration duration = Duration.ofSeconds(20);
+    private Map<Operation, Integer> mix = defaultMix();
+
+    /** Concurrent clients in the slow-client phase; 0 skips it. */
+    private int slowClients = 0;
+
+    /** How long each slow client takes to send its request body. */
+    private Duration slowBodyTime = Duration.ofSeconds(5);
+
+    /** p99 above this (ms) marks a rate step as saturated during {@link SaturationSearch}. */
+    private long p99BudgetMillis = 250;
+
+    /** Error rate above this fraction marks a rate step as saturated. */
+    private double maxErrorRate = 0.01;
+
+    private static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.ITEM_READ, 60);
+        mix.put(Operation.BUY, 15);
+        mix.put(Operation.SELL, 15);
+        mix.put(Operation.DASHBOARD, 10);
+        return mix;
+    }
+
+    /**
+     * Builds a profile from {@code loadtest.*} system properties, falling back to the defaults.
+     * @return The configured profile
+     */
+    public static LoadProfile fromSystemProperties() {
+        LoadProfile profile = new LoadProfile();
+        profile.tenants = Integer.getInteger("loadtest.tenants", profile.tenants);
+        profile.itemsPerTenant = Integer.getInteger("loadtest.items", profile.itemsPerTenant);
+        profile.requestsPerSecond = Double.parseDouble(
+            System.getProperty("loadtest.rate", String.valueOf(profile.requestsPerSecond)));
+        profile.warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", profile.warmup.getSeconds()));
+        profile.duration = Duration.ofSeconds(Long.getLong("loadtest.duration", profile.duration.getSeconds()));
+        profile.slowClients = Integer.getInteger("loadtest.slow-clients", profile.slowClients);
+        profile.slowBodyTime = Duration.ofMillis(Long.getLong("loadtest.slow-body-ms", profile.slowBodyTime.toMillis()));
+        profile.p99BudgetMillis = Long.getLong("loadtest.p99-budget-ms", profile.p99BudgetMillis);
+        profile.maxErrorRate = Double.parseDouble(
+            System.getProperty("loadtest.max-error-rate", String.valueOf(profile.maxErrorRate)));
+
+        String mix = System.getProperty("loadtest.mix");
+        if (mix != null && !mix.isBlank()) {
+            profile.mix = parseMix(mix);
+        }
+        return profile;
+    }
+
+    /**
+     * Parses a mix such as {@code ITEM_READ:60,BUY:15,SELL:15,DASHBOARD:10}.
+     * Weights are relative and do not need to add up to 100.
+     */
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights cannot be negative: " + part);
+            }
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must contain at least one positive weight");
+        }
+        return mix;
+    }
+
+    /**
+     * Returns a copy of this profile running at a different arrival rate.
+     * @param requestsPerSecond The new target rate
+     * @return A new profile
+     */
+    public LoadProfile withRate(double requestsPerSecond) {
+        LoadProfile copy = new LoadProfile();
+        copy.tenants = tenants;
+        copy.itemsPerTenant = itemsPerTenant;
+        copy.requestsPerSecond = requestsPerSecond;
+        copy.warmup = warmup;
+        copy.duration = duration;
+        copy.mix = new EnumMap<>(mix);
+        copy.slowClients = slowClients;
+        copy.slowBodyTime = slowBodyTime;
+        copy.p99BudgetMillis = p99BudgetMillis;
+        copy.maxErrorRate = maxErrorRate;
+        return copy;
+    }
+
+    public int getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(int tenants) {
+        this.tenants = tenants;
+    }
+
+    public int getItemsPerTenant() {
+        return itemsPerTenant;
+    }
+
+    public void setItemsPerTenant(int itemsPerTenant) {
+        this.itemsPerTenant = itemsPerTenant;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Duration warmup) {
+        this.warmup = warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    public void setMix(Map<Operation, Integer> mix) {
+        this.mix = mix;
+    }
+
+    public int getSlowClients() {
+        return slowClients;
+    }
+
+    public void setSlowClients(int slowClients) {
+        this.slowClients = slowClients;
+    }
+
+    public Duration getSlowBodyTime() {
+        return slowBodyTime;
+    }
+
+    public void setSlowBodyTime(Duration slowBodyTime) {
+        this.slowBodyTime = slowBodyTime;
+    }
+
+    public long getP99BudgetMillis() {
+        return p99BudgetMillis;
+    }
+
+    public void setP99BudgetMillis(long p99BudgetMillis) {
+        this.p99BudgetMillis = p99BudgetMillis;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public void setMaxErrorRate(double maxErrorRate) {
+        this.maxErrorRate = maxErrorRate;
+    }
+}
@@ -0,0 +1,132 @@
+package dev.inventorymanager.loadtest;
+
+import dev.inventorymanager.loadtest.LoadProfile.Operation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-endpoint results of one load-test run.
+ *
+ * Latencies are measured from the moment a request was <em>scheduled</em> to be
+ * sent rather than when it was actually sent, so queueing inside the client
+ * when the server falls behind shows up in the percentiles instead of being
+ * hidden (coordinated omission).
+ */
+public class LoadReport {
+
+    private final double targetRate;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private volatile long elapsedNanos;
+
+    public LoadReport(double targetRate) {
+        this.targetRate = targetRate;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    void record(Operation operation, long latencyMicros, boolean success) {
+        EndpointStats endpoint = stats.get(operation);
+        endpoint.latency.record(latencyMicros);
+        if (!success) {
+            endpoint.errors.incrementAndGet();
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * @return Completed requests per second across all endpoints
+     */
+    public double achievedRate() {
+        return elapsedNanos == 0 ? 0 : totalCount() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    public long totalCount() {
+        return stats.values().stream().mapToLong(s -> s.latency.count()).sum();
+    }
+
+    public double errorRate() {
+        long total = totalCount();
+        long errors = stats.values().stream().mapToLong(s -> s.errors.get()).sum();
+        return total == 0 ? 0 : (double) errors / total;
+    }
+
+    /**
+     * @return Worst p99 across all endpoints, in microseconds
+     */
+    public long worstP99Micros() {
+        return stats.values().stream().mapToLong(s -> s.latency.percentile(99)).max().orElse(0);
+    }
+
+    public long count(Operation operation) {
+        return stats.get(operation).latency.count();
+    }
+
+    public long p50Micros(Operation operation) {
+        return stats.get(operation).latency.percentile(50);
+    }
+
+    public long p99Micros(Operation operation) {
+        return stats.get(operation).latency.percentile(99);
+    }
+
+    public double errorRate(Operation operation) {
+        EndpointStats endpoint = stats.get(operation);
+        long count = endpoint.latency.count();
+        return count == 0 ? 0 : (double) endpoint.errors.get() / count;
+    }
+
+    /**
+     * Flattens the report into properties so it can be stored as a regression baseline.
+     * Keys look like {@code BUY.p99.micros} and {@code BUY.error.rate}.
+     * @return The report as properties
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("target.rate", String.valueOf(targetRate));
+        properties.setProperty("achieved.rate", String.format("%.1f", achievedRate()));
+        for (Operation operation : Operation.values()) {
+            if (count(operation) == 0) {
+                continue;
+            }
+            properties.setProperty(operation + ".count", String.valueOf(count(operation)));
+            properties.setProperty(operation + ".p50.micros", String.valueOf(p50Micros(operation)));
+            properties.setProperty(operation + ".p99.micros", String.valueOf(p99Micros(operation)));
+            properties.setProperty(operation + ".error.rate", String.format("%.4f", errorRate(operation)));
+        }
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("target %.0f req/s, achieved %.1f req/s, errors %.2f%%%n",
+            targetRate, achievedRate(), errorRate() * 100));
+        out.append(String.format("%-10s %10s %10s %10s %8s%n", "endpoint", "count", "p50(ms)", "p99(ms)", "err%"));
+        for (Operation operation : Operation.values()) {
+            if (count(operation) == 0) {
+                continue;
+            }
+            out.append(String.format("%-10s %10d %10.2f %10.2f %8.2f%n",
+                operation, count(operation),
+                p50Micros(operation) / 1000.0, p99Micros(operation) / 1000.0,
+                errorRate(operation) * 100));
+        }
+        return out.toString();
+    }
+
+    private static class EndpointStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
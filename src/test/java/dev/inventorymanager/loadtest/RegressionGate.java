@@ -0,0 +1,92 @@
+package dev.inventorymanager.loadtest;
+
+import dev.inventorymanager.loadtest.LoadProfile.Operation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compares a {@link LoadReport} against a stored baseline.
+ *
+ * A baseline is a properties file as produced by {@link LoadReport#toProperties()}.
+ * A run regresses when any endpoint's p99 grows by more than
+ * {@code tolerance.p99} (a fraction, default 0.25) over the baseline, or its
+ * error rate exceeds the baseline by more than {@code tolerance.error-rate}
+ * (absolute, default 0.005). Both tolerances may be set in the baseline file itself.
+ */
+public class RegressionGate {
+
+    private final Properties baseline;
+    private final double p99Tolerance;
+    private final double errorRateTolerance;
+
+    public RegressionGate(Properties baseline) {
+        this.baseline = baseline;
+        this.p99Tolerance = Double.parseDouble(baseline.getProperty("tolerance.p99", "0.25"));
+        this.errorRateTolerance = Double.parseDouble(baseline.getProperty("tolerance.error-rate", "0.005"));
+    }
+
+    public static RegressionGate fromFile(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return new RegressionGate(properties);
+    }
+
+    public static RegressionGate fromClasspath(String resource) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = RegressionGate.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Baseline not found on classpath: " + resource);
+            }
+            properties.load(in);
+        }
+        return new RegressionGate(properties);
+    }
+
+    public static void writeBaseline(LoadReport report, Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            report.toProperties().store(writer, "Load-test baseline");
+        }
+    }
+
+    /**
+     * Checks a report against the baseline.
+     * @param report The report of the run under test
+     * @return Human-readable description of every regression; empty if the run passes
+     */
+    public List<String> check(LoadReport report) {
+        List<String> regressions = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            String p99Key = operation + ".p99.micros";
+            String errorKey = operation + ".error.rate";
+            if (report.count(operation) == 0 || !baseline.containsKey(p99Key)) {
+                continue;
+            }
+
+            long baselineP99 = Long.parseLong(baseline.getProperty(p99Key));
+            long p99 = report.p99Micros(operation);
+            if (p99 > baselineP99 * (1 + p99Tolerance)) {
+                regressions.add(String.format("%s p99 regressed: %.2f ms vs baseline %.2f ms",
+                    operation, p99 / 1000.0, baselineP99 / 1000.0));
+            }
+
+            double baselineErrors = Double.parseDouble(baseline.getProperty(errorKey, "0"));
+            double errors = report.errorRate(operation);
+            if (errors > baselineErrors + errorRateTolerance) {
+                regressions.add(String.format("%s error rate regressed: %.2f%% vs baseline %.2f%%",
+                    operation, errors * 100, baselineErrors * 100));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,94 @@
+package dev.inventorymanager.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the highest arrival rate the server sustains within the profile's budgets.
+ *
+ * Starting from the profile's rate, the search doubles the rate until a step
+ * saturates (p99 over budget, error rate over budget, or the server completing
+ * fewer than 90% of the offered requests), then bisects between the last
+ * healthy and the first saturated rate.
+ */
+public class SaturationSearch {
+
+    private static final int MAX_STEPS = 12;
+    private static final double RESOLUTION = 0.05;
+
+    private final LoadGenerator generator;
+
+    public SaturationSearch(LoadGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Runs the search. The generator must already be set up.
+     * @param profile Base profile; its rate is the first step
+     * @return The saturation point and every step that was measured
+     */
+    public Result search(LoadProfile profile) {
+        Result result = new Result();
+        double healthy = 0;
+        double saturated = 0;
+        double rate = profile.getRequestsPerSecond();
+
+        for (int step = 0; step < MAX_STEPS; step++) {
+            LoadReport report = generator.run(profile.withRate(rate));
+            boolean ok = isHealthy(profile, report);
+            result.steps.add(String.format("%8.1f req/s -> %s (achieved %.1f, p99 %.1f ms, errors %.2f%%)",
+                rate, ok ? "ok" : "SATURATED", report.achievedRate(),
+                report.worstP99Micros() / 1000.0, report.errorRate() * 100));
+
+            if (ok) {
+                healthy = rate;
+                result.lastHealthyReport = report;
+            } else {
+                saturated = rate;
+            }
+
+            if (saturated == 0) {
+                rate *= 2;
+            } else if (healthy == 0) {
+                rate /= 2;
+            } else if ((saturated - healthy) / saturated <= RESOLUTION) {
+                break;
+            } else {
+                rate = (healthy + saturated) / 2;
+            }
+        }
+        result.saturationRate = healthy;
+        return result;
+    }
+
+    private static boolean isHealthy(LoadProfile profile, LoadReport report) {
+        return report.worstP99Micros() <= profile.getP99BudgetMillis() * 1000
+            && report.errorRate() <= profile.getMaxErrorRate()
+            && report.achievedRate() >= report.getTargetRate() * 0.9;
+    }
+
+    /** Outcome of a saturation search. */
+    public static class Result {
+        private final List<String> steps = new ArrayList<>();
+        private double saturationRate;
+        private LoadReport lastHealthyReport;
+
+        /**
+         * @return Highest rate (req/s) that stayed within budget, or 0 if none did
+         */
+        public double getSaturationRate() {
+            return saturationRate;
+        }
+
+        public LoadReport getLastHealthyReport() {
+            return lastHealthyReport;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(System.lineSeparator(), steps)
+                + System.lineSeparator()
+                + String.format("saturation point: %.1f req/s", saturationRate);
+        }
+    }
+}
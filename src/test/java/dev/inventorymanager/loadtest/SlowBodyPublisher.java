@@ -0,0 +1,93 @@
+package dev.inventorymanager.loadtest;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request body that arrives in pieces spread over a fixed time, like an upload
+ * from a client on a poor connection.
+ *
+ * The server reads it with blocking servlet I/O, so in platform-thread mode a
+ * Tomcat worker is held for the whole trickle. Chunks are emitted from one
+ * shared scheduler; the generator needs no thread per client.
+ */
+class SlowBodyPublisher implements Flow.Publisher<ByteBuffer> {
+
+    private final byte[] body;
+    private final int chunks;
+    private final long intervalNanos;
+    private final ScheduledExecutorService scheduler;
+
+    SlowBodyPublisher(byte[] body, int chunks, Duration over, ScheduledExecutorService scheduler) {
+        this.body = body;
+        this.chunks = Math.max(1, Math.min(chunks, body.length));
+        this.intervalNanos = Math.max(1, over.toNanos() / this.chunks);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new Trickle(subscriber));
+    }
+
+    private class Trickle implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private volatile ScheduledFuture<?> task;
+        private volatile boolean cancelled;
+        private int next;
+
+        Trickle(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("non-positive demand: " + n));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            if (task == null) {
+                synchronized (this) {
+                    if (task == null && !cancelled) {
+                        task = scheduler.scheduleAtFixedRate(this, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = task;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        /** One tick: emits the next chunk if the subscriber wants it, otherwise waits for the next tick. */
+        @Override
+        public void run() {
+            if (cancelled || demand.get() == 0) {
+                return;
+            }
+            demand.decrementAndGet();
+            int from = (int) ((long) body.length * next / chunks);
+            int to = (int) ((long) body.length * (next + 1) / chunks);
+            next++;
+            subscriber.onNext(ByteBuffer.wrap(Arrays.copyOfRange(body, from, to)));
+            if (next == chunks) {
+                cancel();
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package dev.inventorymanager.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Results of a slow-client run: throughput and latency of requests whose bodies
+ * trickle in, plus the resources the JVM needed to hold them.
+ *
+ * Resource figures are sampled from the generator's own JVM, so they describe
+ * the server only when it runs in-process ({@link InventoryLoadTest}). Live
+ * threads count platform threads; virtual threads do not show up there, their
+ * stacks live on the heap. Resident memory (Linux only) includes thread stacks
+ * and is the fairest single number for comparing execution modes.
+ */
+public class SlowClientReport {
+
+    private final int clients;
+    private final Duration bodyTime;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile long elapsedNanos;
+
+    private volatile int peakThreads;
+    private volatile long peakHeapBytes;
+    private volatile long peakRssBytes = -1;
+
+    public SlowClientReport(int clients, Duration bodyTime) {
+        this.clients = clients;
+        this.bodyTime = bodyTime;
+    }
+
+    void record(long latencyMicros, boolean success) {
+        latency.record(latencyMicros);
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Records current thread count, heap use and resident size, keeping the peaks. Called from one sampler thread.
+     */
+    void sampleResources() {
+        peakThreads = Math.max(peakThreads, ManagementFactory.getThreadMXBean().getThreadCount());
+        peakHeapBytes = Math.max(peakHeapBytes, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        long rss = residentBytes();
+        if (rss >= 0) {
+            peakRssBytes = Math.max(peakRssBytes, rss);
+        }
+    }
+
+    /**
+     * @return Completed requests per second
+     */
+    public double achievedRate() {
+        return elapsedNanos == 0 ? 0 : totalCount() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    public long totalCount() {
+        return latency.count();
+    }
+
+    public double errorRate() {
+        long total = totalCount();
+        return total == 0 ? 0 : (double) errors.get() / total;
+    }
+
+    public long p50Micros() {
+        return latency.percentile(50);
+    }
+
+    public long p99Micros() {
+        return latency.percentile(99);
+    }
+
+    public int getPeakThreads() {
+        return peakThreads;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * @return Peak resident set size in bytes, or -1 where /proc is unavailable
+     */
+    public long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+    private static long residentBytes() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    // "VmRSS:    123456 kB"
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d slow clients (body over %d ms): achieved %.1f req/s, errors %.2f%%, p50 %.0f ms, p99 %.0f ms%n"
+                + "peak live threads %d, peak heap %d MB, peak RSS %s%n",
+            clients, bodyTime.toMillis(), achievedRate(), errorRate() * 100,
+            p50Micros() / 1000.0, p99Micros() / 1000.0,
+            peakThreads, peakHeapBytes >> 20,
+            peakRssBytes < 0 ? "n/a" : (peakRssBytes >> 20) + " MB");
+    }
+}
@@ -0,0 +1,142 @@
+package dev.inventorymanager.model;
+
+import com.sun.management.ThreadMXBean;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:money",
+    "spring.jpa.show-sql=false"
+})
+public class MoneyPersistenceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyPersistenceTest.class);
+
+    private static final int TRANSACTIONS = 5_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void minorUnitsAreScaledToTheDecimalColumnsInSql() {
+        User user = userRepository.save(new User("money-columns", "hash"));
+        Item item = inventoryService.create(new Item("Mug", "MNY-1", 10, new BigDecimal("4.995")), user);
+        Transaction sale = transactionService.processTransaction(itemRepository.findById(item.getId()).orElseThrow(),
+            TransactionType.SELL, 3, 1250L, user, null);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT price FROM items WHERE id = ?", BigDecimal.class,
+            item.getId())).isEqualByComparingTo("5.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT price_per_unit FROM transactions WHERE id = ?",
+            BigDecimal.class, sale.getId())).isEqualByComparingTo("12.50");
+        assertThat(jdbcTemplate.queryForObject("SELECT total_amount FROM transactions WHERE id = ?",
+            BigDecimal.class, sale.getId())).isEqualByComparingTo("37.50");
+
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getPriceMinor).isEqualTo(500L);
+        assertThat(transactionRepository.findById(sale.getId())).get()
+            .satisfies(read -> {
+                assertThat(read.getPricePerUnitMinor()).isEqualTo(1250L);
+                assertThat(read.getTotalAmountMinor()).isEqualTo(3750L);
+            });
+        assertThat(transactionRepository.getTotalSalesMinor(user.getId())).isEqualTo(3750L);
+
+        // A negative amount and a missing price survive the scaling too
+        Item unpriced = new Item("Unpriced", "MNY-2", 1, null);
+        unpriced.setUser(user);
+        unpriced = itemRepository.saveAndFlush(unpriced);
+        assertThat(itemRepository.findById(unpriced.getId())).get().extracting(Item::getPrice).isNull();
+    }
+
+    /**
+     * Bytes allocated per buy or sell through TransactionService in direct mode,
+     * including the item load, Hibernate and the JDBC bind, for the minor-unit overload the
+     * request path uses and the BigDecimal one. Logs both figures.
+     *
+     * Each call runs in one persistence context with its item load, as the request
+     * path does under open-in-view; a detached item would be merged and the cascade
+     * would load its whole transaction history.
+     *
+     * Run with {@code mvn test -Dtest=MoneyPersistenceTest#allocationsPerTransaction -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void allocationsPerTransaction() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        User user = userRepository.save(new User("money-benchmark", "hash"));
+        Item item = inventoryService.create(new Item("Bench", "MNY-B", 1_000_000, new BigDecimal("24.99")), user);
+
+        // Warm up both paths so the measured runs are compiled code
+        minorUnitTransactions(item, user, TRANSACTIONS);
+        bigDecimalTransactions(item, user, TRANSACTIONS);
+
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        minorUnitTransactions(item, user, TRANSACTIONS);
+        long minorBytes = threads.getThreadAllocatedBytes(threadId) - start;
+
+        start = threads.getThreadAllocatedBytes(threadId);
+        bigDecimalTransactions(item, user, TRANSACTIONS);
+        long bigDecimalBytes = threads.getThreadAllocatedBytes(threadId) - start;
+
+        log.info(String.format("Allocated per transaction through TransactionService: minor units %.0f bytes, "
+            + "BigDecimal %.0f bytes", (double) minorBytes / TRANSACTIONS, (double) bigDecimalBytes / TRANSACTIONS));
+        assertThat(minorBytes).isPositive();
+    }
+
+    private void minorUnitTransactions(Item item, User user, int count) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < count; i++) {
+            TransactionType type = i % 2 == 0 ? TransactionType.SELL : TransactionType.BUY;
+            template.executeWithoutResult(status -> transactionService.processTransaction(
+                itemRepository.findById(item.getId()).orElseThrow(), type, 1, 2499L, user, null));
+        }
+    }
+
+    private void bigDecimalTransactions(Item item, User user, int count) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        BigDecimal price = new BigDecimal("24.99");
+        for (int i = 0; i < count; i++) {
+            TransactionType type = i % 2 == 0 ? TransactionType.SELL : TransactionType.BUY;
+            template.executeWithoutResult(status -> transactionService.processTransaction(
+                itemRepository.findById(item.getId()).orElseThrow(), type, 1, price, user, null));
+        }
+    }
+}
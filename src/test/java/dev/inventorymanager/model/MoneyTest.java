@@ -0,0 +1,46 @@
+package dev.inventorymanager.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MoneyTest {
+
+    @Test
+    public void parsesAndRoundsLikeBigDecimal() {
+        String[] amounts = {"0", "12", "-0.5", "3.14159", "2.675", "-2.675", "0.005", "-0.004", ".5", "+7.",
+            "1e2", "2.5E-1", "92233720368547758.07"};
+        for (String amount : amounts) {
+            assertThat(Money.parse(amount)).as(amount)
+                .isEqualTo(new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+            assertThat(Money.toMinor(new BigDecimal(amount))).as(amount).isEqualTo(Money.parse(amount));
+        }
+        assertThat(Money.format(-5)).isEqualTo("-0.05");
+        assertThat(Money.format(123456)).isEqualTo("1234.56");
+        assertThat(Money.format(Long.MIN_VALUE)).isEqualTo("-92233720368547758.08");
+        assertThat(Money.toDecimal(250)).isEqualByComparingTo("2.50");
+
+        assertThatThrownBy(() -> Money.parse("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.parse("1.2.3")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.parse("92233720368547758.08")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.times(Long.MAX_VALUE / 2, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void entitiesReadAndWriteJsonNumbersInMinorUnits() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        Item item = mapper.readValue("{\"name\":\"Mug\",\"sku\":\"M-1\",\"quantity\":3,\"price\":4.995}", Item.class);
+        assertThat(item.getPriceMinor()).isEqualTo(500);
+
+        Transaction transaction = new Transaction(item, TransactionType.SELL, 3, item.getPriceMinor());
+        String json = mapper.writeValueAsString(transaction);
+        assertThat(json).contains("\"pricePerUnit\":5.00", "\"totalAmount\":15.00", "\"price\":5.00")
+            .doesNotContain("Minor");
+        assertThat(mapper.readValue(json, Transaction.class).getTotalAmountMinor()).isEqualTo(1500);
+    }
+}
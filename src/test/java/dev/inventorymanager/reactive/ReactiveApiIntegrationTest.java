@@ -0,0 +1,126 @@
+package dev.inventorymanager.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the reactive read API next to the servlet API on one database and checks
+ * that both answer the same.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactiveapi",
+    "inventory.reactive.enabled=true",
+    "inventory.reactive.port=0",
+    "inventory.reactive.r2dbc.url=r2dbc:h2:mem:///reactiveapi"
+})
+public class ReactiveApiIntegrationTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebTestClient reactive;
+
+    @BeforeEach
+    public void setup() {
+        userRepository.findByUsername("kiosk1").ifPresent(userRepository::delete);
+        userRepository.findByUsername("kiosk2").ifPresent(userRepository::delete);
+        userRepository.save(new User("kiosk1", passwordEncoder.encode("password1")));
+        userRepository.save(new User("kiosk2", passwordEncoder.encode("password2")));
+        reactive = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveApiServer.getPort()).build();
+    }
+
+    @Test
+    public void readEndpointsMatchServletApi() throws Exception {
+        TestRestTemplate kiosk1 = restTemplate.withBasicAuth("kiosk1", "password1");
+        String base = "http://localhost:" + port;
+        ResponseEntity<Item> drill = kiosk1.postForEntity(base + "/api/items",
+            new Item("Drill", "RX-1", 4, new BigDecimal("59.90")), Item.class);
+        kiosk1.postForEntity(base + "/api/items", new Item("Saw", "RX-2", 30, new BigDecimal("12.50")), Item.class);
+        ResponseEntity<String> sale = kiosk1.postForEntity(base + "/api/transactions",
+            Map.of("itemId", drill.getBody().getId(), "type", "SELL", "quantity", 1, "pricePerUnit", 80), String.class);
+        assertThat(sale.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        for (String path : new String[] {"/api/items", "/api/transactions", "/api/dashboard"}) {
+            JsonNode servlet = objectMapper.readTree(kiosk1.getForObject(base + path, String.class));
+            byte[] body = reactive.get().uri(path)
+                .headers(headers -> headers.setBasicAuth("kiosk1", "password1"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+            assertThat(objectMapper.readTree(body)).as(path).isEqualTo(servlet);
+        }
+        assertThat(objectMapper.readTree(kiosk1.getForObject(base + "/api/dashboard", String.class))
+            .get("totalItems").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    public void streamsListingsPerUserBehindTheSameSecurityRules() {
+        TestRestTemplate kiosk1 = restTemplate.withBasicAuth("kiosk1", "password1");
+        for (int i = 0; i < 3; i++) {
+            kiosk1.postForEntity("http://localhost:" + port + "/api/items",
+                new Item("Streamed " + i, "ST-" + i, i, BigDecimal.ONE), Item.class);
+        }
+
+        reactive.get().uri("/api/items").exchange().expectStatus().isUnauthorized();
+        reactive.get().uri("/api/items")
+            .headers(headers -> headers.setBasicAuth("kiosk1", "wrong"))
+            .exchange().expectStatus().isUnauthorized();
+        reactive.get().uri("/api/admin/slow-log")
+            .headers(headers -> headers.setBasicAuth("kiosk1", "password1"))
+            .exchange().expectStatus().isForbidden();
+
+        List<String> streamed = reactive.get().uri("/api/items")
+            .headers(headers -> headers.setBasicAuth("kiosk1", "password1"))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Item.class)
+            .getResponseBody()
+            .map(Item::getSku)
+            .collectList()
+            .block();
+        assertThat(streamed).containsExactly("ST-0", "ST-1", "ST-2");
+
+        reactive.get().uri("/api/items")
+            .headers(headers -> headers.setBasicAuth("kiosk2", "password2"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(Item.class).hasSize(0);
+    }
+}
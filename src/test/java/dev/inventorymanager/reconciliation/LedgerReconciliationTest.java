@@ -0,0 +1,194 @@
+package dev.inventorymanager.reconciliation;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reconciliation",
+    "inventory.reconciliation.batch-users=1",
+    "inventory.reconciliation.page-items=2"
+})
+public class LedgerReconciliationTest {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT =
+        new ParameterizedTypeReference<>() {};
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private LedgerReconciler reconciler;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void reportsBrokenLedgersAndRepairsQuantities() {
+        User user = userRepository.save(new User("ledger-user", "hash"));
+        Item clean = inventoryService.create(new Item("Clean", "LDG-1", 10, BigDecimal.ONE), user);
+        Item edited = inventoryService.create(new Item("Edited", "LDG-2", 10, BigDecimal.ONE), user);
+        Item tampered = inventoryService.create(new Item("Tampered", "LDG-3", 10, BigDecimal.ONE), user);
+        for (Item item : List.of(clean, edited, tampered)) {
+            Item current = itemRepository.findById(item.getId()).orElseThrow();
+            transactionService.processBuyTransaction(current, 5, BigDecimal.ONE, user);
+            current = itemRepository.findById(item.getId()).orElseThrow();
+            transactionService.processSellTransaction(current, 3, BigDecimal.ONE, user);
+        }
+        // An edit changes the quantity without a transaction
+        inventoryService.update(edited.getId(), new Item("Edited", "LDG-2", 20, BigDecimal.ONE), user);
+        // A corrupted row breaks its own arithmetic and the chain into the next transaction
+        Transaction buy = transactionRepository.findByItemIdOrderByTransactionDateDesc(tampered.getId()).get(1);
+        jdbcTemplate.update("UPDATE transactions SET inventory_after = 99 WHERE id = ?", buy.getId());
+
+        ReconciliationStatus report = reconciler.run(false, true);
+
+        assertThat(report.isRunning()).isFalse();
+        assertThat(report.getFinishedAt()).isNotNull();
+        assertThat(report.getItemsChecked()).isGreaterThanOrEqualTo(3);
+        assertThat(report.getTransactionsChecked()).isGreaterThanOrEqualTo(6);
+        Map<LedgerMismatch.Kind, LedgerMismatch> found = mismatchesOf(report.getRunId(), user);
+        assertThat(found).containsOnlyKeys(LedgerMismatch.Kind.ARITHMETIC, LedgerMismatch.Kind.CHAIN_GAP,
+            LedgerMismatch.Kind.QUANTITY);
+        assertThat(found.get(LedgerMismatch.Kind.ARITHMETIC).getItemId()).isEqualTo(tampered.getId());
+        assertThat(found.get(LedgerMismatch.Kind.ARITHMETIC).getExpected()).isEqualTo(15);
+        assertThat(found.get(LedgerMismatch.Kind.ARITHMETIC).getActual()).isEqualTo(99);
+        assertThat(found.get(LedgerMismatch.Kind.CHAIN_GAP).getExpected()).isEqualTo(99);
+        assertThat(found.get(LedgerMismatch.Kind.QUANTITY).getItemId()).isEqualTo(edited.getId());
+        assertThat(found.get(LedgerMismatch.Kind.QUANTITY).getExpected()).isEqualTo(12);
+        assertThat(found.get(LedgerMismatch.Kind.QUANTITY).getActual()).isEqualTo(20);
+        assertThat(found.get(LedgerMismatch.Kind.QUANTITY).isRepaired()).isFalse();
+
+        ReconciliationStatus repaired = reconciler.run(true, true);
+        assertThat(repaired.getRunId()).isEqualTo(report.getRunId() + 1);
+        assertThat(mismatchesOf(repaired.getRunId(), user).get(LedgerMismatch.Kind.QUANTITY).isRepaired()).isTrue();
+        assertThat(transactionRepository.findByItemIdOrderByTransactionDateDesc(edited.getId()).get(0))
+            .satisfies(t -> {
+                assertThat(t.getNotes()).isEqualTo(LedgerReconciler.REPAIR_NOTES);
+                assertThat(t.getInventoryBefore()).isEqualTo(12);
+                assertThat(t.getInventoryAfter()).isEqualTo(20);
+                assertThat(t.getQuantity()).isEqualTo(8);
+            });
+        assertThat(itemRepository.findById(edited.getId())).get().extracting(Item::getQuantity).isEqualTo(20);
+
+        // Past transactions are reported, not rewritten
+        ReconciliationStatus after = reconciler.run(false, true);
+        assertThat(mismatchesOf(after.getRunId(), user)).containsOnlyKeys(LedgerMismatch.Kind.ARITHMETIC,
+            LedgerMismatch.Kind.CHAIN_GAP);
+    }
+
+    @Test
+    public void resumesAnUnfinishedRunFromItsCheckpoint() {
+        User first = userRepository.save(new User("ledger-first", "hash"));
+        User second = userRepository.save(new User("ledger-second", "hash"));
+        Item item = inventoryService.create(new Item("Resumed", "LDG-R", 4, BigDecimal.ONE), second);
+        transactionService.processBuyTransaction(itemRepository.findById(item.getId()).orElseThrow(), 1,
+            BigDecimal.ONE, second);
+        jdbcTemplate.update("UPDATE items SET quantity = 50 WHERE id = ?", item.getId());
+
+        ReconciliationStatus complete = reconciler.run(false, true);
+        // As if the run had died after checkpointing the first user
+        jdbcTemplate.update("UPDATE reconciliation_checkpoint SET last_user_id = ?, users_checked = 0, "
+            + "finished_at = NULL", first.getId());
+
+        ReconciliationStatus resumed = reconciler.run(false, false);
+
+        assertThat(resumed.getRunId()).isEqualTo(complete.getRunId());
+        assertThat(resumed.getFinishedAt()).isNotNull();
+        assertThat(resumed.getUsersChecked()).isEqualTo(userRepository.count() - countUpTo(first.getId()));
+        // Breaks after the checkpoint were cleared and found again, not duplicated
+        assertThat(reconciler.mismatches(resumed.getRunId(), 1000))
+            .filteredOn(m -> m.getItemId() == item.getId()).singleElement()
+            .extracting(LedgerMismatch::getActual).isEqualTo(50);
+    }
+
+    @Test
+    public void endpointsAreForAdmins() {
+        User admin = new User("ledger-admin", passwordEncoder.encode("admin"));
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+        userRepository.save(new User("ledger-web", passwordEncoder.encode("user")));
+        String base = "http://localhost:" + port + "/api/admin/reconciliation";
+
+        ResponseEntity<String> forbidden = restTemplate.withBasicAuth("ledger-web", "user")
+            .postForEntity(base + "/run", null, String.class);
+        assertThat(forbidden.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        TestRestTemplate client = restTemplate.withBasicAuth("ledger-admin", "admin");
+        ResponseEntity<Map<String, Object>> started = client.exchange(base + "/run?fresh=true", HttpMethod.POST, null,
+            JSON_OBJECT);
+        assertThat(started.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Number runId = (Number) started.getBody().get("runId");
+
+        Map<String, Object> status = client.exchange(base, HttpMethod.GET, null, JSON_OBJECT).getBody();
+        for (int i = 0; i < 100 && Boolean.TRUE.equals(status.get("running")); i++) {
+            sleep(50);
+            status = client.exchange(base, HttpMethod.GET, null, JSON_OBJECT).getBody();
+        }
+        assertThat(status.get("running")).isEqualTo(false);
+        assertThat(status.get("runId")).isEqualTo(runId.intValue());
+        assertThat(status.get("finishedAt")).isNotNull();
+        assertThat(client.getForEntity(base + "/mismatches", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private Map<LedgerMismatch.Kind, LedgerMismatch> mismatchesOf(long runId, User user) {
+        return reconciler.mismatches(runId, 1000).stream()
+            .filter(m -> m.getUserId() == user.getId())
+            .collect(Collectors.toMap(LedgerMismatch::getKind, m -> m));
+    }
+
+    private long countUpTo(long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id <= ?", Long.class, userId);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
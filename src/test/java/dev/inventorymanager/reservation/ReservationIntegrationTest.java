@@ -0,0 +1,149 @@
+package dev.inventorymanager.reservation;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.ReservationService;
+import dev.inventorymanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reservations",
+    "inventory.reservations.tick-ms=10"
+})
+public class ReservationIntegrationTest {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT =
+        new ParameterizedTypeReference<>() {};
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StockReservations reservations;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void heldStockCannotBeSoldUntilConfirmedOrReleased() {
+        User user = userRepository.save(new User("reserve-hold", "hash"));
+        Item item = inventoryService.create(new Item("Held", "RSV-1", 10, BigDecimal.ONE), user);
+
+        Reservation hold = reservationService.reserve(item.getId(), 7, null, user);
+        assertThat(reservations.held(item.getId())).isEqualTo(7);
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(10);
+
+        assertThatThrownBy(() -> transactionService.processTransaction(item, TransactionType.SELL, 4,
+            BigDecimal.ONE, user, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Available: 3");
+        assertThatThrownBy(() -> reservationService.reserve(item.getId(), 4, null, user))
+            .hasMessageContaining("Available: 3");
+
+        Transaction sale = reservationService.confirm(hold.getId(), new BigDecimal("2.00"), "checkout", user);
+        assertThat(sale.getQuantity()).isEqualTo(7);
+        assertThat(sale.getInventoryAfter()).isEqualTo(3);
+        assertThat(hold.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(reservations.held(item.getId())).isZero();
+        assertThatThrownBy(() -> reservationService.confirm(hold.getId(), BigDecimal.ONE, null, user))
+            .hasMessageContaining("Reservation not found");
+
+        // A hold that can no longer be sold stays held
+        Reservation second = reservationService.reserve(item.getId(), 3, null, user);
+        inventoryService.update(item.getId(), new Item("Held", "RSV-1", 1, BigDecimal.ONE), user);
+        assertThatThrownBy(() -> reservationService.confirm(second.getId(), BigDecimal.ONE, null, user))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(second.getStatus()).isEqualTo(ReservationStatus.HELD);
+        assertThat(reservations.held(item.getId())).isEqualTo(3);
+        reservationService.release(second.getId(), user);
+        assertThat(reservations.held(item.getId())).isZero();
+    }
+
+    @Test
+    public void expiredHoldsAreReclaimed() throws InterruptedException {
+        User user = userRepository.save(new User("reserve-expiry", "hash"));
+        Item item = inventoryService.create(new Item("Expiring", "RSV-2", 5, BigDecimal.ONE), user);
+
+        Reservation hold = reservations.hold(item.getId(), user.getId(), 5, Duration.ofMillis(100), 5);
+        assertThat(reservations.held(item.getId())).isEqualTo(5);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (hold.getStatus() == ReservationStatus.HELD && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(hold.getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(reservations.held(item.getId())).isZero();
+        Item current = itemRepository.findById(item.getId()).orElseThrow();
+        assertThat(transactionService.processTransaction(current, TransactionType.SELL, 5, BigDecimal.ONE, user, null)
+            .getInventoryAfter()).isZero();
+    }
+
+    @Test
+    public void reservationEndpoints() {
+        userRepository.save(new User("reserve-web", passwordEncoder.encode("password")));
+        TestRestTemplate client = restTemplate.withBasicAuth("reserve-web", "password");
+        String base = "http://localhost:" + port + "/api";
+        Item item = client.postForEntity(base + "/items", new Item("Web", "RSV-3", 4, BigDecimal.ONE), Item.class)
+            .getBody();
+
+        ResponseEntity<Map<String, Object>> held = client.exchange(base + "/reservations", HttpMethod.POST,
+            new HttpEntity<>(Map.of("itemId", item.getId(), "quantity", 3, "ttlSeconds", 60)), JSON_OBJECT);
+        assertThat(held.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(held.getBody()).containsEntry("status", "HELD").containsKey("expiresAt");
+        long id = ((Number) held.getBody().get("id")).longValue();
+
+        assertThat(client.exchange(base + "/reservations/availability/" + item.getId(), HttpMethod.GET, null,
+                JSON_OBJECT).getBody())
+            .containsEntry("onHand", 4).containsEntry("reserved", 3).containsEntry("available", 1);
+        ResponseEntity<Map<String, Object>> tooMany = client.exchange(base + "/reservations", HttpMethod.POST,
+            new HttpEntity<>(Map.of("itemId", item.getId(), "quantity", 2)), JSON_OBJECT);
+        assertThat(tooMany.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooMany.getBody().get("error").toString()).contains("Available: 1");
+
+        ResponseEntity<Transaction> sold = client.postForEntity(base + "/reservations/" + id + "/confirm",
+            Map.of("pricePerUnit", 5), Transaction.class);
+        assertThat(sold.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(sold.getBody().getInventoryAfter()).isEqualTo(1);
+        assertThat(client.exchange(base + "/reservations/" + id, HttpMethod.DELETE, null, JSON_OBJECT)
+            .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
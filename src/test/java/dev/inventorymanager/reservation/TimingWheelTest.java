@@ -0,0 +1,65 @@
+package dev.inventorymanager.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingWheelTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void expiresEachTimeoutOnTheTickItFallsDueAcrossSeveralTurns() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(8, 10, TimeUnit.MILLISECONDS, 0);
+        // Due in 5, 13 and 45 ticks: within the first turn, the second, and after five turns
+        wheel.schedule(5, 5 * TICK);
+        wheel.schedule(13, 13 * TICK);
+        wheel.schedule(45, 45 * TICK);
+        List<Integer> expired = new ArrayList<>();
+
+        wheel.advance(5 * TICK - 1, expired::add);
+        assertThat(expired).isEmpty();
+        wheel.advance(5 * TICK, expired::add);
+        assertThat(expired).containsExactly(5);
+        wheel.advance(44 * TICK, expired::add);
+        assertThat(expired).containsExactly(5, 13);
+        wheel.advance(45 * TICK, expired::add);
+        assertThat(expired).containsExactly(5, 13, 45);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void cancelledAndOverdueTimeouts() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 10, TimeUnit.MILLISECONDS, 0);
+        wheel.advance(20 * TICK, s -> { });
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 25 * TICK);
+        wheel.schedule("overdue", 3 * TICK);
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(30 * TICK, expired::add);
+        // A deadline already in the past expires on the next tick
+        assertThat(expired).containsExactly("overdue");
+    }
+
+    @Test
+    public void tickCostDependsOnTheSlotNotOnOutstandingTimeouts() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(4096, 10, TimeUnit.MILLISECONDS, 0);
+        int outstanding = 1_000_000;
+        for (int i = 0; i < outstanding; i++) {
+            // Spread over about ten minutes of ticks
+            wheel.schedule(i, (1 + i % 60_000) * TICK);
+        }
+        assertThat(wheel.size()).isEqualTo(outstanding);
+
+        int[] expired = new int[1];
+        assertThat(wheel.advance(TICK, i -> expired[0]++)).isEqualTo(17);
+        assertThat(wheel.advance(60_000 * TICK, i -> expired[0]++)).isEqualTo(outstanding - 17);
+        assertThat(wheel.size()).isZero();
+    }
+}
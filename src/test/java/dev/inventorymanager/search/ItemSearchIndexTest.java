@@ -0,0 +1,97 @@
+package dev.inventorymanager.search;
+
+import dev.inventorymanager.dto.ItemSearchResponse;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:searchtest")
+public class ItemSearchIndexTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void searchRanksMatchesAndFollowsEdits() {
+        User user = userRepository.save(new User("search-user", "hash"));
+        User other = userRepository.save(new User("search-other", "hash"));
+        Item drill = create("Cordless Drill", "DR-100", user);
+        Item hammerDrill = create("Hammer Drill Kit", "HD-200", user);
+        Item bits = create("Drill Bits", "DRB-300", user);
+        Item screws = create("Wood Screws", "WS-400", user);
+        create("Cordless Drill", "DR-100", other);
+
+        // SKU match, then name prefix, then word prefix; shorter names break ties
+        assertThat(ids(inventoryService.search("dr", 0, 10, user)))
+            .containsExactly(bits.getId(), drill.getId(), hammerDrill.getId());
+        assertThat(ids(inventoryService.search("DR-100", 0, 10, user))).containsExactly(drill.getId());
+        assertThat(ids(inventoryService.search("hammer drill", 0, 10, user))).containsExactly(hammerDrill.getId());
+        assertThat(ids(inventoryService.search("rill", 0, 10, user))).hasSize(3);
+
+        // Typos only when nothing matches exactly
+        assertThat(ids(inventoryService.search("scrws", 0, 10, user))).containsExactly(screws.getId());
+        assertThat(ids(inventoryService.search("cordlss drill", 0, 10, user))).containsExactly(drill.getId());
+
+        ItemSearchResponse page = inventoryService.search("drill", 1, 2, user);
+        assertThat(page.getTotal()).isEqualTo(3);
+        assertThat(page.getItems()).hasSize(1);
+
+        inventoryService.update(screws.getId(), new Item("Drill Stand", "WS-400", 1, BigDecimal.ONE), user);
+        inventoryService.delete(bits.getId(), user);
+        assertThat(ids(inventoryService.search("drill", 0, 10, user)))
+            .containsExactly(screws.getId(), drill.getId(), hammerDrill.getId());
+        assertThat(inventoryService.search("screws", 0, 10, user).getTotal()).isZero();
+
+        assertThatThrownBy(() -> inventoryService.search("drill", 0, 0, user))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void indexMatchesScanUnderChurn() {
+        UserSearchIndex index = new UserSearchIndex();
+        String[] words = {"red", "green", "blue", "bolt", "washer", "bracket"};
+        Map<Long, String> names = new HashMap<>();
+        Random random = new Random(11);
+        for (int step = 0; step < 20_000; step++) {
+            long id = 1 + random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                names.remove(id);
+            } else {
+                String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                index.put(id, name, "SKU-" + id);
+                names.put(id, name);
+            }
+        }
+        assertThat(index.size()).isEqualTo(names.size());
+        for (String word : words) {
+            long expected = names.values().stream().filter(name -> name.contains(word)).count();
+            assertThat(index.search(word, 0, 1000).getTotal()).isEqualTo(expected);
+        }
+        long redBolts = names.values().stream().filter(name -> name.contains("red") && name.contains("bolt")).count();
+        assertThat(index.search("Red-Bolt", 0, 1000).getTotal()).isEqualTo(redBolts);
+    }
+
+    private Item create(String name, String sku, User user) {
+        return inventoryService.create(new Item(name, sku, 5, new BigDecimal("2.50")), user);
+    }
+
+    private static long[] ids(ItemSearchResponse response) {
+        return response.getItems().stream().mapToLong(Item::getId).toArray();
+    }
+}
@@ -0,0 +1,61 @@
+package dev.inventorymanager.seed;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:seedtest",
+    "seed.users=4",
+    "seed.items-per-user=20",
+    "seed.transactions-per-user=300",
+    "seed.end-date=2024-12-31",
+    "seed.batch-size=64"
+})
+@ActiveProfiles("seed")
+public class SyntheticDataSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void seedsRequestedVolumesWithValidAuditChains() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class)).isEqualTo(80);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class)).isEqualTo(1200);
+
+        Map<Long, Integer> lastAfter = new HashMap<>();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT item_id, type, quantity, inventory_before, inventory_after FROM transactions ORDER BY item_id, id");
+        for (Map<String, Object> row : rows) {
+            long itemId = ((Number) row.get("ITEM_ID")).longValue();
+            int quantity = ((Number) row.get("QUANTITY")).intValue();
+            int before = ((Number) row.get("INVENTORY_BEFORE")).intValue();
+            int after = ((Number) row.get("INVENTORY_AFTER")).intValue();
+
+            Integer previous = lastAfter.get(itemId);
+            if (previous != null) {
+                assertThat(before).isEqualTo(previous);
+            }
+            assertThat(after).isEqualTo("SELL".equals(row.get("TYPE")) ? before - quantity : before + quantity);
+            assertThat(after).isGreaterThanOrEqualTo(0);
+            lastAfter.put(itemId, after);
+        }
+
+        lastAfter.forEach((itemId, after) ->
+            assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM items WHERE id = ?", Integer.class, itemId))
+                .isEqualTo(after));
+
+        // Sequences must hand out IDs beyond the seeded ranges
+        Long nextItemId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR items_id_seq", Long.class);
+        assertThat(nextItemId).isGreaterThan(80);
+    }
+}
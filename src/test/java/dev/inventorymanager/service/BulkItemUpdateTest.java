@@ -0,0 +1,222 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.analytics.AnalyticsStore;
+import dev.inventorymanager.catalog.ItemCatalog;
+import dev.inventorymanager.dto.BulkUpdateResponse;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulk",
+    "inventory.bulk.chunk-size=7",
+    "inventory.catalog.enabled=true"
+})
+public class BulkItemUpdateTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BulkItemService bulkService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ItemCatalog catalog;
+
+    @Autowired
+    private AnalyticsStore analyticsStore;
+
+    @Test
+    public void repricesFilteredItemsAcrossChunksAndLeavesTheRestAlone() {
+        User user = userRepository.save(new User("bulk-price", "hash"));
+        List<Item> shirts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            shirts.add(inventoryService.create(new Item("Shirt " + i, "TS-" + i, 1, new BigDecimal("10.00")), user));
+        }
+        Item mug = inventoryService.create(new Item("Mug", "MUG-1", 1, new BigDecimal("4.00")), user);
+        Item lookalike = inventoryService.create(new Item("Odd", "TSX1", 1, new BigDecimal("4.00")), user);
+
+        BulkUpdateResponse raised = bulkService.reprice(null, "TS-", null,
+            new PriceChange(PriceChange.Operation.MULTIPLY, new BigDecimal("1.05")), user);
+
+        assertThat(raised.getMatched()).isEqualTo(20);
+        assertThat(raised.getUpdated()).isEqualTo(20);
+        for (Item shirt : shirts) {
+            Item current = itemRepository.findById(shirt.getId()).orElseThrow();
+            assertThat(current.getPrice()).isEqualByComparingTo("10.50");
+            assertThat(current.getVersion()).isEqualTo(shirt.getVersion() + 1);
+        }
+        assertThat(itemRepository.findById(mug.getId())).get().extracting(Item::getVersion).isEqualTo(mug.getVersion());
+        assertThat(itemRepository.findById(lookalike.getId())).get().extracting(Item::getPrice)
+            .satisfies(price -> assertThat(price).isEqualByComparingTo("4.00"));
+        // 20 x 10.50 + 4.00 + 4.00
+        assertThat(catalog.totals(user.getId(), 10).getTotalValue()).isEqualByComparingTo("218.00");
+
+        // Items already at the target price are not rewritten
+        BulkUpdateResponse set = bulkService.reprice(List.of(shirts.get(0).getId(), shirts.get(1).getId(), mug.getId()),
+            null, null, new PriceChange(PriceChange.Operation.SET, new BigDecimal("10.50")), user);
+        assertThat(set.getMatched()).isEqualTo(3);
+        assertThat(set.getUpdated()).isEqualTo(1);
+
+        BulkUpdateResponse floored = bulkService.reprice(List.of(mug.getId()), null, null,
+            new PriceChange(PriceChange.Operation.ADD, new BigDecimal("-20")), user);
+        assertThat(floored.getUpdated()).isEqualTo(1);
+        assertThat(itemRepository.findById(mug.getId())).get().extracting(Item::getPrice)
+            .satisfies(price -> assertThat(price).isEqualByComparingTo("0"));
+
+        User other = userRepository.save(new User("bulk-price-other", "hash"));
+        assertThat(bulkService.reprice(List.of(mug.getId()), null, null,
+            new PriceChange(PriceChange.Operation.SET, BigDecimal.ONE), other).getMatched()).isZero();
+        assertThatThrownBy(() -> bulkService.reprice(List.of(mug.getId()), "TS-", null,
+            new PriceChange(PriceChange.Operation.SET, BigDecimal.ONE), user))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void stockTakeSetsCountsAndRecordsAdjustments() {
+        User user = userRepository.save(new User("bulk-count", "hash"));
+        Item over = inventoryService.create(new Item("Over", "CNT-1", 10, BigDecimal.ONE), user);
+        Item under = inventoryService.create(new Item("Under", "CNT-2", 10, BigDecimal.ONE), user);
+        Item exact = inventoryService.create(new Item("Exact", "CNT-3", 10, BigDecimal.ONE), user);
+        long analyticsBefore = analyticsStore.size();
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("CNT-1", 12);
+        counts.put("CNT-2", 7);
+        counts.put("CNT-3", 10);
+        counts.put("CNT-404", 5);
+        BulkUpdateResponse result = bulkService.stockTake(counts, null, user);
+
+        assertThat(result.getMatched()).isEqualTo(3);
+        assertThat(result.getAdjustments()).isEqualTo(2);
+        assertThat(result.getUnknownSkus()).containsExactly("CNT-404");
+        assertThat(itemRepository.findById(over.getId())).get().extracting(Item::getQuantity).isEqualTo(12);
+        assertThat(itemRepository.findById(under.getId())).get().extracting(Item::getQuantity).isEqualTo(7);
+        assertThat(catalog.quantityOf(user.getId(), under.getId())).isEqualTo(7);
+        assertThat(analyticsStore.size() - analyticsBefore).isEqualTo(2);
+
+        assertThat(transactionRepository.findByItemIdOrderByTransactionDateDesc(over.getId())).singleElement()
+            .satisfies(t -> {
+                assertThat(t.getType()).isEqualTo(TransactionType.BUY);
+                assertThat(t.getQuantity()).isEqualTo(2);
+                assertThat(t.getInventoryBefore()).isEqualTo(10);
+                assertThat(t.getInventoryAfter()).isEqualTo(12);
+                assertThat(t.getTotalAmount()).isEqualByComparingTo("0");
+                assertThat(t.getNotes()).isEqualTo(BulkItemService.STOCK_TAKE_NOTES);
+            });
+        assertThat(transactionRepository.findByItemIdOrderByTransactionDateDesc(under.getId()))
+            .extracting(Transaction::getType).containsExactly(TransactionType.SELL);
+        assertThat(transactionRepository.findByItemIdOrderByTransactionDateDesc(exact.getId())).isEmpty();
+
+        assertThatThrownBy(() -> bulkService.stockTake(Map.of("CNT-1", -1), null, user))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void deletesItemsWithTheirHistoryInChunks() {
+        User user = userRepository.save(new User("bulk-delete", "hash"));
+        User other = userRepository.save(new User("bulk-delete-other", "hash"));
+        Item busy = inventoryService.create(new Item("Busy", "DEL-1", 100, BigDecimal.ONE), user);
+        for (int i = 0; i < 16; i++) {
+            Item current = itemRepository.findById(busy.getId()).orElseThrow();
+            transactionService.processSellTransaction(current, 1, BigDecimal.ONE, user);
+        }
+        Item quiet = inventoryService.create(new Item("Quiet", "DEL-2", 1, BigDecimal.ONE), user);
+        Item theirs = inventoryService.create(new Item("Theirs", "DEL-1", 1, BigDecimal.ONE), other);
+
+        BulkUpdateResponse deleted = bulkService.delete(List.of(busy.getId(), quiet.getId(), theirs.getId()), user);
+
+        assertThat(deleted.getMatched()).isEqualTo(2);
+        assertThat(deleted.getDeletedTransactions()).isEqualTo(16);
+        assertThat(itemRepository.findById(busy.getId())).isEmpty();
+        assertThat(itemRepository.findById(quiet.getId())).isEmpty();
+        assertThat(transactionRepository.findByItemIdOrderByTransactionDateDesc(busy.getId())).isEmpty();
+        assertThat(catalog.quantityOf(user.getId(), busy.getId())).isNull();
+        assertThat(itemRepository.findById(theirs.getId())).isPresent();
+
+        // The single-item path is the same set-based delete
+        Item single = inventoryService.create(new Item("Single", "DEL-3", 5, BigDecimal.ONE), user);
+        transactionService.processSellTransaction(itemRepository.findById(single.getId()).orElseThrow(), 1,
+            BigDecimal.ONE, user);
+        inventoryService.delete(single.getId(), user);
+        assertThat(itemRepository.findById(single.getId())).isEmpty();
+        inventoryService.delete(theirs.getId(), user);
+        assertThat(itemRepository.findById(theirs.getId())).isPresent();
+    }
+
+    @Test
+    public void bulkEndpointsTakeJsonAndCountFiles() {
+        userRepository.save(new User("bulk-web", passwordEncoder.encode("password")));
+        TestRestTemplate client = restTemplate.withBasicAuth("bulk-web", "password");
+        String items = "http://localhost:" + port + "/api/items";
+        Item a = client.postForEntity(items, new Item("Web A", "WEB-A", 3, new BigDecimal("2.00")), Item.class).getBody();
+        client.postForEntity(items, new Item("Web B", "WEB-B", 3, new BigDecimal("2.00")), Item.class);
+
+        ResponseEntity<BulkUpdateResponse> repriced = client.postForEntity(items + "/bulk/price",
+            Map.of("nameContains", "web", "operation", "add", "value", 0.25), BulkUpdateResponse.class);
+        assertThat(repriced.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(repriced.getBody().getUpdated()).isEqualTo(2);
+        assertThat(client.getForObject(items + "/" + a.getId(), Item.class).getPrice()).isEqualByComparingTo("2.25");
+
+        ResponseEntity<String> badOperation = client.postForEntity(items + "/bulk/price",
+            Map.of("operation", "DIVIDE", "value", 2), String.class);
+        assertThat(badOperation.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        HttpHeaders csv = new HttpHeaders();
+        csv.setContentType(MediaType.valueOf("text/csv"));
+        ResponseEntity<BulkUpdateResponse> counted = client.postForEntity(items + "/stock-take?notes=Aisle 4",
+            new HttpEntity<>("sku,quantity\nWEB-A,5\nWEB-B,3\n", csv), BulkUpdateResponse.class);
+        assertThat(counted.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(counted.getBody().getAdjustments()).isEqualTo(1);
+        assertThat(client.getForObject(items + "/" + a.getId(), Item.class).getQuantity()).isEqualTo(5);
+
+        ResponseEntity<String> badFile = client.postForEntity(items + "/stock-take",
+            new HttpEntity<>("WEB-A,5\nWEB-B,lots\n", csv), String.class);
+        assertThat(badFile.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(badFile.getBody()).contains("Line 2");
+    }
+}
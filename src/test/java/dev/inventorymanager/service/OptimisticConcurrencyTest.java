@@ -0,0 +1,225 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:optimistic",
+    "inventory.optimistic.backoff-ms=1",
+    "inventory.optimistic.max-backoff-ms=5",
+    "inventory.optimistic.max-attempts=20"
+})
+public class OptimisticConcurrencyTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void saleFromStaleReadIsRetriedAgainstCurrentQuantity() {
+        User user = userRepository.save(new User("optimistic-stale", "hash"));
+        Item item = inventoryService.create(new Item("Stale", "OPT-1", 10, BigDecimal.ONE), user);
+        assertThat(item.getVersion()).isEqualTo(0L);
+
+        Item stale = itemRepository.findById(item.getId()).orElseThrow();
+        transactionService.processTransaction(itemRepository.findById(item.getId()).orElseThrow(),
+            TransactionType.SELL, 3, BigDecimal.ONE, user, null);
+        double retriedBefore = conflicts("transaction", "retried");
+
+        Transaction sale = transactionService.processTransaction(stale, TransactionType.SELL, 2,
+            BigDecimal.ONE, user, null);
+
+        assertThat(sale.getInventoryBefore()).isEqualTo(7);
+        assertThat(sale.getInventoryAfter()).isEqualTo(5);
+        assertThat(itemRepository.findById(item.getId())).get()
+            .satisfies(current -> {
+                assertThat(current.getQuantity()).isEqualTo(5);
+                assertThat(current.getVersion()).isEqualTo(2L);
+            });
+        assertThat(conflicts("transaction", "retried") - retriedBefore).isEqualTo(1.0);
+    }
+
+    @Test
+    public void staleReadsAreRetriedThroughEveryEntryPoint() {
+        User user = userRepository.save(new User("optimistic-entry", "hash"));
+        Item item = inventoryService.create(new Item("Entry", "OPT-4", 10, BigDecimal.ONE), user);
+        Item stale = itemRepository.findById(item.getId()).orElseThrow();
+        transactionService.processSellTransaction(itemRepository.findById(item.getId()).orElseThrow(), 1,
+            BigDecimal.ONE, user);
+        double retriedBefore = conflicts("transaction", "retried");
+
+        // Each would otherwise fail on the version column instead of being retried
+        assertThat(transactionService.processSellTransaction(stale, 2, BigDecimal.ONE, user).getInventoryAfter())
+            .isEqualTo(7);
+        assertThat(transactionService.processBuyTransaction(stale, 5, 100L, user).getInventoryAfter())
+            .isEqualTo(12);
+        assertThat(transactionService.processTransaction(stale, TransactionType.SELL, 3, BigDecimal.ONE, user)
+            .getInventoryAfter()).isEqualTo(9);
+        assertThat(conflicts("transaction", "retried") - retriedBefore).isEqualTo(3.0);
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(9);
+    }
+
+    @Test
+    public void concurrentSalesFromStaleReadsLoseNothing() throws Exception {
+        User user = userRepository.save(new User("optimistic-hot", "hash"));
+        Item item = inventoryService.create(new Item("Hot", "OPT-2", 1000, BigDecimal.ONE), user);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> sales = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sales.add(pool.submit(() -> {
+                Item read = itemRepository.findById(item.getId()).orElseThrow();
+                try {
+                    transactionService.processTransaction(read, TransactionType.SELL, 1, BigDecimal.ONE, user, null);
+                    return true;
+                } catch (ConcurrentUpdateException e) {
+                    return false;
+                }
+            }));
+        }
+        int sold = 0;
+        for (Future<Boolean> sale : sales) {
+            sold += sale.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertThat(sold).isPositive();
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getQuantity)
+            .isEqualTo(1000 - sold);
+    }
+
+    @Test
+    public void editBasedOnStaleVersionGetsConflictWithCurrentItem() {
+        userRepository.save(new User("optimistic-web", passwordEncoder.encode("password")));
+        TestRestTemplate client = restTemplate.withBasicAuth("optimistic-web", "password");
+        String items = "http://localhost:" + port + "/api/items";
+
+        Item created = client.postForEntity(items, new Item("Edited", "OPT-3", 20, new BigDecimal("5.00")),
+            Item.class).getBody();
+        Item opened = client.getForObject(items + "/" + created.getId(), Item.class);
+
+        // A sale lands while the edit form is open
+        client.postForEntity("http://localhost:" + port + "/api/transactions", java.util.Map.of(
+            "itemId", created.getId(), "type", "SELL", "quantity", 4, "pricePerUnit", 6), String.class);
+
+        opened.setPrice(new BigDecimal("5.50"));
+        double rejectedBefore = conflicts("item-update", "rejected");
+        ResponseEntity<Item> stale = client.exchange(items + "/" + created.getId(), HttpMethod.PUT,
+            new HttpEntity<>(opened), Item.class);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(stale.getBody().getQuantity()).isEqualTo(16);
+        assertThat(conflicts("item-update", "rejected") - rejectedBefore).isEqualTo(1.0);
+
+        // Re-applied on the current version, the price edit keeps the sale
+        Item current = stale.getBody();
+        current.setPrice(new BigDecimal("5.50"));
+        ResponseEntity<Item> applied = client.exchange(items + "/" + created.getId(), HttpMethod.PUT,
+            new HttpEntity<>(current), Item.class);
+        assertThat(applied.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(applied.getBody().getQuantity()).isEqualTo(16);
+        assertThat(applied.getBody().getPrice()).isEqualByComparingTo("5.50");
+        assertThat(applied.getBody().getVersion()).isEqualTo(current.getVersion() + 1);
+    }
+
+    @Test
+    public void mergePatchesOfDifferentFieldsBothApply() throws Exception {
+        userRepository.save(new User("optimistic-patch", passwordEncoder.encode("password")));
+        TestRestTemplate client = restTemplate.withBasicAuth("optimistic-patch", "password");
+        String items = "http://localhost:" + port + "/api/items";
+        Item created = client.postForEntity(items, new Item("Patched", "OPT-4", 20, new BigDecimal("5.00")),
+            Item.class).getBody();
+
+        // A sale lands between the client's read and its price patch, which sends no version
+        client.postForEntity("http://localhost:" + port + "/api/transactions", java.util.Map.of(
+            "itemId", created.getId(), "type", "SELL", "quantity", 4, "pricePerUnit", 6), String.class);
+        HttpResponse<String> repriced = patch(items + "/" + created.getId(), "{\"price\": 5.5}");
+        assertThat(repriced.statusCode()).isEqualTo(200);
+        assertThat(repriced.body()).contains("\"price\":5.50", "\"quantity\":16", "\"name\":\"Patched\"");
+        Item current = itemRepository.findById(created.getId()).orElseThrow();
+        assertThat(current.getPrice()).isEqualByComparingTo("5.50");
+        assertThat(current.getQuantity()).isEqualTo(16);
+        assertThat(current.getVersion()).isEqualTo(created.getVersion() + 2);
+
+        // Unchanged values leave the row and its version alone
+        assertThat(patch(items + "/" + created.getId(), "{\"price\": 5.50, \"name\": \"Patched\"}").statusCode())
+            .isEqualTo(200);
+        assertThat(itemRepository.findById(created.getId())).get().extracting(Item::getVersion)
+            .isEqualTo(current.getVersion());
+
+        // With a version, the patch is conditional on it
+        HttpResponse<String> stale = patch(items + "/" + created.getId(),
+            "{\"price\": 7, \"version\": " + created.getVersion() + "}");
+        assertThat(stale.statusCode()).isEqualTo(409);
+        assertThat(stale.body()).contains("\"version\":" + current.getVersion());
+        assertThat(patch(items + "/" + created.getId(),
+            "{\"price\": null, \"version\": " + current.getVersion() + "}").statusCode()).isEqualTo(200);
+        assertThat(itemRepository.findById(created.getId())).get().extracting(Item::getPrice).isNull();
+
+        assertThat(patch(items + "/" + created.getId(), "{\"name\": null}").statusCode()).isEqualTo(400);
+        assertThat(patch(items + "/" + created.getId(), "{\"colour\": \"red\"}").statusCode()).isEqualTo(400);
+        assertThat(patch(items + "/" + (created.getId() + 1000), "{\"quantity\": 1}").statusCode()).isEqualTo(404);
+    }
+
+    private HttpResponse<String> patch(String url, String mergePatch) throws Exception {
+        String credentials = Base64.getEncoder().encodeToString("optimistic-patch:password".getBytes());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .header("Authorization", "Basic " + credentials)
+            .header("Content-Type", "application/merge-patch+json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString(mergePatch))
+            .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private double conflicts(String operation, String outcome) {
+        return meterRegistry.counter("inventory.optimistic.conflicts", "operation", operation, "outcome", outcome)
+            .count();
+    }
+}
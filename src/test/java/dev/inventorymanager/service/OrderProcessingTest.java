@@ -0,0 +1,156 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:orders"
+})
+public class OrderProcessingTest {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT =
+        new ParameterizedTypeReference<>() {};
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void linesOnOneItemChainAndAFailingLineRollsBackTheOrder() {
+        User user = userRepository.save(new User("order-chain", "hash"));
+        Item a = inventoryService.create(new Item("Order A", "ORD-A", 10, BigDecimal.ONE), user);
+        Item b = inventoryService.create(new Item("Order B", "ORD-B", 5, BigDecimal.ONE), user);
+
+        List<Transaction> placed = transactionService.processOrder(List.of(
+            new OrderLine(b.getId(), TransactionType.SELL, 2, BigDecimal.TEN, "first"),
+            new OrderLine(a.getId(), TransactionType.BUY, 4, BigDecimal.ONE, null),
+            new OrderLine(b.getId(), TransactionType.SELL, 3, BigDecimal.TEN, null)), user);
+
+        assertThat(placed).extracting(Transaction::getInventoryBefore).containsExactly(5, 10, 3);
+        assertThat(placed).extracting(Transaction::getInventoryAfter).containsExactly(3, 14, 0);
+        assertThat(placed.get(0).getNotes()).isEqualTo("first");
+        assertThat(itemRepository.findById(a.getId())).get().extracting(Item::getQuantity).isEqualTo(14);
+        assertThat(itemRepository.findById(b.getId())).get().extracting(Item::getQuantity).isEqualTo(0);
+
+        long recorded = transactionRepository.count();
+        assertThatThrownBy(() -> transactionService.processOrder(List.of(
+            new OrderLine(a.getId(), TransactionType.SELL, 4, BigDecimal.ONE, null),
+            new OrderLine(b.getId(), TransactionType.SELL, 1, BigDecimal.ONE, null)), user))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Available: 0");
+        assertThat(itemRepository.findById(a.getId())).get().extracting(Item::getQuantity).isEqualTo(14);
+        assertThat(transactionRepository.count()).isEqualTo(recorded);
+
+        // A buy past Integer.MAX_VALUE is rejected, in an order or on its own, as in the other write modes
+        assertThatThrownBy(() -> transactionService.processOrder(List.of(
+            new OrderLine(a.getId(), TransactionType.BUY, Integer.MAX_VALUE, BigDecimal.ZERO, null)), user))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Inventory out of range");
+        assertThatThrownBy(() -> transactionService.processBuyTransaction(
+            itemRepository.findById(a.getId()).orElseThrow(), Integer.MAX_VALUE, BigDecimal.ZERO, user))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Inventory out of range");
+        assertThat(itemRepository.findById(a.getId())).get().extracting(Item::getQuantity).isEqualTo(14);
+    }
+
+    @Test
+    public void overlappingOrdersInOpposingLineOrdersDoNotDeadlock() throws Exception {
+        User user = userRepository.save(new User("order-hot", "hash"));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(inventoryService.create(new Item("Hot " + i, "ORD-HOT-" + i, 1000, BigDecimal.ONE), user).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<Transaction>>> orders = new ArrayList<>();
+        for (int n = 0; n < 200; n++) {
+            List<Long> lineOrder = new ArrayList<>(ids);
+            if (n % 2 == 1) {
+                Collections.reverse(lineOrder);
+            }
+            List<OrderLine> lines = new ArrayList<>();
+            for (Long id : lineOrder) {
+                lines.add(new OrderLine(id, TransactionType.SELL, 1, BigDecimal.ONE, null));
+            }
+            orders.add(pool.submit(() -> transactionService.processOrder(lines, user)));
+        }
+        for (Future<List<Transaction>> order : orders) {
+            assertThat(order.get()).hasSize(4);
+        }
+        pool.shutdown();
+
+        for (Long id : ids) {
+            assertThat(itemRepository.findById(id)).get().extracting(Item::getQuantity).isEqualTo(800);
+        }
+    }
+
+    @Test
+    public void orderEndpointAppliesAllLinesOrReportsWhyNone() {
+        userRepository.save(new User("order-web", passwordEncoder.encode("password")));
+        TestRestTemplate client = restTemplate.withBasicAuth("order-web", "password");
+        String base = "http://localhost:" + port + "/api";
+        Item a = client.postForEntity(base + "/items", new Item("Web A", "ORD-W1", 3, BigDecimal.ONE), Item.class).getBody();
+        Item b = client.postForEntity(base + "/items", new Item("Web B", "ORD-W2", 3, BigDecimal.ONE), Item.class).getBody();
+
+        ResponseEntity<Transaction[]> placed = client.postForEntity(base + "/transactions/orders", Map.of("lines", List.of(
+            Map.of("itemId", a.getId(), "type", "sell", "quantity", 2, "pricePerUnit", 5),
+            Map.of("itemId", b.getId(), "type", "BUY", "quantity", 1, "pricePerUnit", 1))), Transaction[].class);
+        assertThat(placed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(placed.getBody()).extracting(Transaction::getInventoryAfter).containsExactly(1, 4);
+
+        ResponseEntity<Map<String, Object>> rejected = client.exchange(base + "/transactions/orders", HttpMethod.POST,
+            new HttpEntity<>(Map.of("lines", List.of(
+                Map.of("itemId", b.getId(), "type", "SELL", "quantity", 1, "pricePerUnit", 5),
+                Map.of("itemId", a.getId(), "type", "SELL", "quantity", 2, "pricePerUnit", 5)))), JSON_OBJECT);
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rejected.getBody().get("error").toString()).contains("Available: 1");
+        assertThat(client.getForObject(base + "/items/" + b.getId(), Item.class).getQuantity()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,183 @@
+package dev.inventorymanager.service;
+
+import dev.inventorymanager.analytics.AnalyticsStore;
+import dev.inventorymanager.catalog.ItemCatalog;
+import dev.inventorymanager.dto.TenantDeletionResponse;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:tenantdeletion",
+    "inventory.bulk.chunk-size=3",
+    "inventory.catalog.enabled=true"
+})
+public class TenantDeletionTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TenantDeletionService deletionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemCatalog catalog;
+
+    @Autowired
+    private AnalyticsStore analyticsStore;
+
+    @Test
+    public void purgesATenantInChunksAndLeavesOthersAlone() {
+        User doomed = userRepository.save(new User("tenant-doomed", "hash"));
+        User other = userRepository.save(new User("tenant-other", "hash"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Item item = inventoryService.create(new Item("Doomed " + i, "DOOM-" + i, 10, BigDecimal.ONE), doomed);
+            for (int sale = 0; sale < 4; sale++) {
+                Item current = itemRepository.findById(item.getId()).orElseThrow();
+                transactionService.processSellTransaction(current, 1, BigDecimal.ONE, doomed);
+            }
+            items.add(item);
+        }
+        Item kept = inventoryService.create(new Item("Kept", "KEEP-1", 10, BigDecimal.ONE), other);
+        transactionService.processBuyTransaction(itemRepository.findById(kept.getId()).orElseThrow(), 2,
+            BigDecimal.ONE, other);
+        long analyticsBefore = analyticsStore.size();
+
+        TenantDeletionResponse purged = deletionService.purge(doomed);
+
+        assertThat(purged.isSoft()).isFalse();
+        assertThat(purged.getItems()).isEqualTo(7);
+        assertThat(purged.getTransactions()).isEqualTo(28);
+        assertThat(userRepository.findByUsername("tenant-doomed")).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE user_id = ?", Long.class,
+            doomed.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ?", Long.class,
+            doomed.getId())).isZero();
+        assertThat(catalog.quantityOf(doomed.getId(), items.get(0).getId())).isNull();
+        assertThat(analyticsBefore - analyticsStore.size()).isEqualTo(28);
+
+        assertThat(itemRepository.findById(kept.getId())).get().extracting(Item::getQuantity).isEqualTo(12);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE item_id = ?", Long.class,
+            kept.getId())).isEqualTo(1);
+    }
+
+    @Test
+    public void softDeletedTenantsCannotSignInUntilRestored() {
+        User admin = new User("tenant-admin", passwordEncoder.encode("admin"));
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+        userRepository.save(new User("tenant-soft", passwordEncoder.encode("password")));
+        String base = "http://localhost:" + port;
+        TestRestTemplate tenant = restTemplate.withBasicAuth("tenant-soft", "password");
+        TestRestTemplate client = restTemplate.withBasicAuth("tenant-admin", "admin");
+        Item item = tenant.postForEntity(base + "/api/items", new Item("Soft", "SOFT-1", 1, BigDecimal.ONE), Item.class)
+            .getBody();
+
+        ResponseEntity<TenantDeletionResponse> soft = client.exchange(base + "/api/admin/users/tenant-soft?soft=true",
+            HttpMethod.DELETE, null, TenantDeletionResponse.class);
+        assertThat(soft.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(soft.getBody().isSoft()).isTrue();
+        assertThat(tenant.getForEntity(base + "/api/items", String.class).getStatusCode())
+            .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(itemRepository.findById(item.getId())).isPresent();
+
+        assertThat(client.postForEntity(base + "/api/admin/users/tenant-soft/restore", null, String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(tenant.getForEntity(base + "/api/items", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(client.postForEntity(base + "/api/admin/users/tenant-soft/restore", null, String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        ResponseEntity<TenantDeletionResponse> hard = client.exchange(base + "/api/admin/users/tenant-soft",
+            HttpMethod.DELETE, null, TenantDeletionResponse.class);
+        assertThat(hard.getBody().getItems()).isEqualTo(1);
+        assertThat(itemRepository.findById(item.getId())).isEmpty();
+        assertThat(client.exchange(base + "/api/admin/users/tenant-soft", HttpMethod.DELETE, null, String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    public void deletingATenantExpiresItsSignedInSessions() {
+        User admin = new User("session-admin", passwordEncoder.encode("admin"));
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+        userRepository.save(new User("session-tenant", passwordEncoder.encode("password")));
+        String base = "http://localhost:" + port;
+        TestRestTemplate client = restTemplate.withBasicAuth("session-admin", "admin");
+
+        HttpEntity<Void> session = signIn(base, "session-tenant", "password");
+        assertThat(restTemplate.exchange(base + "/api/items", HttpMethod.GET, session, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.OK);
+        client.exchange(base + "/api/admin/users/session-tenant?soft=true", HttpMethod.DELETE, null, String.class);
+        assertThat(restTemplate.exchange(base + "/api/items", HttpMethod.GET, session, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        client.postForEntity(base + "/api/admin/users/session-tenant/restore", null, String.class);
+        session = signIn(base, "session-tenant", "password");
+        client.exchange(base + "/api/admin/users/session-tenant", HttpMethod.DELETE, null, String.class);
+        assertThat(restTemplate.exchange(base + "/api/items", HttpMethod.GET, session, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Signs in through the login form.
+     *
+     * @return A request carrying the session cookie
+     */
+    private HttpEntity<Void> signIn(String base, String username, String password) {
+        HttpHeaders form = new HttpHeaders();
+        form.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> fields = new LinkedMultiValueMap<>();
+        fields.add("username", username);
+        fields.add("password", password);
+        ResponseEntity<String> login = restTemplate.postForEntity(base + "/api/auth/login",
+            new HttpEntity<>(fields, form), String.class);
+        String cookie = login.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertThat(cookie).as("session cookie").startsWith("JSESSIONID=");
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie.split(";", 2)[0]);
+        return new HttpEntity<>(headers);
+    }
+}
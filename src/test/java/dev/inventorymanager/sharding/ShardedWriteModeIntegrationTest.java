@@ -0,0 +1,177 @@
+package dev.inventorymanager.sharding;
+
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.Transaction;
+import dev.inventorymanager.model.TransactionType;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.TransactionRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.BulkItemService;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.OrderLine;
+import dev.inventorymanager.service.PriceChange;
+import dev.inventorymanager.service.TransactionService;
+import dev.inventorymanager.service.WriteMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shardtest",
+    "inventory.transactions.write-mode=sharded",
+    "spring.jpa.open-in-view=false",
+    "inventory.shards.count=2"
+})
+public class ShardedWriteModeIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BulkItemService bulkItemService;
+
+    @Autowired
+    private ShardedTransactionWriter shardedWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    public void shardedTransactionsAreCommittedBeforeReturning() {
+        assertThat(transactionService.getWriteMode()).isEqualTo(WriteMode.SHARDED);
+        User user = userRepository.save(new User("shard-user", "hash"));
+        Item item = inventoryService.create(new Item("Shard Item", "SHD-1", 10, new BigDecimal("3.00")), user);
+
+        Transaction buy = transactionService.processTransaction(item, TransactionType.BUY, 5,
+            new BigDecimal("3.00"), user, "restock");
+        Transaction sell = transactionService.processTransaction(item, TransactionType.SELL, 12,
+            new BigDecimal("4.00"), user, null);
+        assertThat(buy.getInventoryAfter()).isEqualTo(15);
+        assertThat(sell.getInventoryBefore()).isEqualTo(15);
+        assertThat(sell.getInventoryAfter()).isEqualTo(3);
+        assertThatThrownBy(() -> transactionService.processTransaction(item, TransactionType.SELL, 4,
+            new BigDecimal("4.00"), user, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Available: 3");
+
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(3);
+        assertThat(transactionRepository.findById(buy.getId())).get()
+            .extracting(Transaction::getNotes).isEqualTo("restock");
+
+        // Edits run on the item's shard, so later writes start from the edited row
+        inventoryService.update(item.getId(), new Item("Shard Item", "SHD-1", 50, new BigDecimal("3.00")), user);
+        Transaction after = transactionService.processTransaction(item, TransactionType.SELL, 1,
+            new BigDecimal("4.00"), user, null);
+        assertThat(after.getInventoryAfter()).isEqualTo(49);
+
+        // So do bulk repricing and stock-takes
+        bulkItemService.reprice(List.of(item.getId()), null, null,
+            new PriceChange(PriceChange.Operation.MULTIPLY, new BigDecimal("2")), user);
+        bulkItemService.stockTake(Map.of("SHD-1", 20), null, user);
+        Transaction counted = transactionService.processTransaction(item, TransactionType.SELL, 1,
+            new BigDecimal("4.00"), user, null);
+        assertThat(counted.getInventoryBefore()).isEqualTo(20);
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getPrice)
+            .satisfies(price -> assertThat(price).isEqualByComparingTo("6.00"));
+
+        // A write that overflows is rejected on its own instead of failing the batch
+        assertThatThrownBy(() -> transactionService.processTransaction(item, TransactionType.BUY,
+            Integer.MAX_VALUE, new BigDecimal("4.00"), user, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("out of range");
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(19);
+
+        inventoryService.delete(item.getId(), user);
+        assertThatThrownBy(() -> transactionService.processTransaction(item, TransactionType.BUY, 1,
+            new BigDecimal("4.00"), user, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Item not found");
+    }
+
+    @Test
+    public void concurrentSellsOfOneItemAreNotLost() throws Exception {
+        User user = userRepository.save(new User("shard-hot", "hash"));
+        Item hot = inventoryService.create(new Item("Hot Item", "SHD-HOT", 1000, new BigDecimal("1.00")), user);
+        long writesBefore = shardedWriter.getWrites();
+        long updatesBefore = shardedWriter.getRowUpdates();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Transaction>> sells = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            sells.add(pool.submit(() -> transactionService.processTransaction(hot, TransactionType.SELL, 1,
+                new BigDecimal("2.00"), user, null)));
+        }
+        List<Integer> afters = new ArrayList<>();
+        for (Future<Transaction> sell : sells) {
+            afters.add(sell.get().getInventoryAfter());
+        }
+        pool.shutdown();
+
+        // Every sell saw its own quantity: 999 down to 600, each once
+        assertThat(afters).containsExactlyInAnyOrderElementsOf(
+            IntStream.rangeClosed(600, 999).boxed().collect(Collectors.toList()));
+        assertThat(itemRepository.findById(hot.getId())).get().extracting(Item::getQuantity).isEqualTo(600);
+        assertThat(shardedWriter.getWrites() - writesBefore).isEqualTo(400);
+        assertThat(shardedWriter.getRowUpdates() - updatesBefore).isBetween(1L, 400L);
+    }
+
+    @Test
+    public void ordersSpanningShardsInOpposingOrdersDoNotDeadlock() throws Exception {
+        User user = userRepository.save(new User("shard-orders", "hash"));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(inventoryService.create(new Item("Order " + i, "SHD-ORD-" + i, 500, new BigDecimal("1.00")), user)
+                .getId());
+        }
+        assertThat(ids.stream().map(shardedWriter::shardIndex).distinct().count()).isEqualTo(2);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> work = new ArrayList<>();
+        for (int n = 0; n < 100; n++) {
+            List<OrderLine> lines = new ArrayList<>();
+            for (Long id : ids) {
+                lines.add(new OrderLine(id, TransactionType.SELL, 1, new BigDecimal("2.00"), null));
+            }
+            if (n % 2 == 1) {
+                Collections.reverse(lines);
+            }
+            work.add(pool.submit(() -> transactionService.processOrder(lines, user)));
+            // Single writes keep the shards busy between the orders
+            Item single = itemRepository.findById(ids.get(n % ids.size())).orElseThrow();
+            work.add(pool.submit(() -> transactionService.processTransaction(single, TransactionType.BUY, 1,
+                new BigDecimal("1.00"), user, null)));
+        }
+        for (Future<?> future : work) {
+            future.get();
+        }
+        pool.shutdown();
+
+        for (Long id : ids) {
+            assertThat(itemRepository.findById(id)).get().extracting(Item::getQuantity).isEqualTo(500 - 100 + 25);
+        }
+    }
+}
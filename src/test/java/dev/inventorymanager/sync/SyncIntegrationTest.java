@@ -0,0 +1,129 @@
+package dev.inventorymanager.sync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.inventorymanager.model.Item;
+import dev.inventorymanager.model.User;
+import dev.inventorymanager.repository.ItemRepository;
+import dev.inventorymanager.repository.UserRepository;
+import dev.inventorymanager.service.InventoryService;
+import dev.inventorymanager.service.ItemPatch;
+import dev.inventorymanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:sync"
+})
+public class SyncIntegrationTest {
+
+    @org.springframework.beans.factory.annotation.Value("${local.server.port}")
+    int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void resyncReturnsOnlyChangesAndTombstones() {
+        User user = userRepository.save(new User("sync-client", passwordEncoder.encode("password")));
+        User other = userRepository.save(new User("sync-other", "hash"));
+        TestRestTemplate client = restTemplate.withBasicAuth("sync-client", "password");
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(inventoryService.create(new Item("Sync " + i, "SYNC-" + i, 10, new BigDecimal("1.50")), user));
+        }
+        inventoryService.create(new Item("Not mine", "SYNC-0", 10, BigDecimal.ONE), other);
+        for (int i = 0; i < 3; i++) {
+            transactionService.processSellTransaction(itemRepository.findById(items.get(i).getId()).orElseThrow(), 1,
+                new BigDecimal("2.00"), user);
+        }
+
+        // A first sync, in pages of 2, returns everything once
+        List<Long> itemIds = new ArrayList<>();
+        List<Long> transactionIds = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        JsonNode page;
+        do {
+            page = sync(client, token, 2);
+            assertThat(page.get("items").size() + page.get("transactions").size()).isLessThanOrEqualTo(2);
+            page.get("items").forEach(item -> itemIds.add(item.get("id").asLong()));
+            page.get("transactions").forEach(transaction -> transactionIds.add(transaction.get("id").asLong()));
+            token = page.get("token").asText();
+            pages++;
+        } while (page.get("more").asBoolean());
+        assertThat(itemIds).containsExactlyInAnyOrderElementsOf(items.stream().map(Item::getId).toList());
+        assertThat(transactionIds).hasSize(3).doesNotHaveDuplicates();
+        assertThat(pages).isEqualTo(4);
+
+        JsonNode unchanged = sync(client, token, 100);
+        assertThat(unchanged.get("items")).isEmpty();
+        assertThat(unchanged.get("transactions")).isEmpty();
+        assertThat(unchanged.get("deletedItems")).isEmpty();
+        assertThat(unchanged.get("more").asBoolean()).isFalse();
+
+        // One edit through JPA, one column patch, one sale and one delete
+        Item renamed = itemRepository.findById(items.get(0).getId()).orElseThrow();
+        renamed.setName("Renamed");
+        inventoryService.update(renamed.getId(), renamed, user);
+        ItemPatch patch = new ItemPatch();
+        patch.setPriceMinor(175L);
+        inventoryService.patch(items.get(1).getId(), patch, user);
+        transactionService.processSellTransaction(itemRepository.findById(items.get(3).getId()).orElseThrow(), 2,
+            new BigDecimal("2.00"), user);
+        inventoryService.delete(items.get(4).getId(), user);
+
+        JsonNode changes = sync(client, token, 100);
+        List<Long> changedIds = new ArrayList<>();
+        changes.get("items").forEach(item -> changedIds.add(item.get("id").asLong()));
+        assertThat(changedIds).containsExactly(items.get(0).getId(), items.get(1).getId(), items.get(3).getId());
+        assertThat(changes.get("items").get(0).get("name").asText()).isEqualTo("Renamed");
+        assertThat(changes.get("items").get(1).get("price").decimalValue()).isEqualByComparingTo("1.75");
+        assertThat(changes.get("items").get(2).get("quantity").asInt()).isEqualTo(8);
+        assertThat(changes.get("transactions")).hasSize(1);
+        assertThat(changes.get("transactions").get(0).get("quantity").asInt()).isEqualTo(2);
+        assertThat(changes.get("deletedItems").get(0).asLong()).isEqualTo(items.get(4).getId());
+        assertThat(changes.get("more").asBoolean()).isFalse();
+        assertThat(sync(client, changes.get("token").asText(), 100).get("items")).isEmpty();
+
+        String base = "http://localhost:" + port + "/api/sync";
+        assertThat(client.getForEntity(base + "?since=bogus", String.class).getStatusCode())
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(client.getForEntity(base + "?since=" + Long.MAX_VALUE, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(client.getForEntity(base + "?limit=0", String.class).getStatusCode())
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private JsonNode sync(TestRestTemplate client, String token, int limit) {
+        String url = "http://localhost:" + port + "/api/sync?limit=" + limit + (token == null ? "" : "&since=" + token);
+        ResponseEntity<JsonNode> response = client.getForEntity(url, JsonNode.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}